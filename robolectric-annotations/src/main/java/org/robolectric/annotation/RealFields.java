@@ -0,0 +1,26 @@
+package org.robolectric.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names fields of the shadowed class that the shadow reads or writes directly.
+ *
+ * For a shadow {@code ShadowFoo}, the annotation processor checks that the fields exist and generates a
+ * {@code ShadowFooRealFields} class next to it, with typed static getters and setters (e.g. {@code getMFoo(realObject)})
+ * backed by method handles that are resolved once when the class is loaded, instead of looking up the
+ * field by name on every access.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface RealFields {
+
+  /**
+   * @return The names of the fields, declared on the shadowed class or one of its superclasses.
+   */
+  String[] value();
+}
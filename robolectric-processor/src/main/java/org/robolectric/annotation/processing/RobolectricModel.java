@@ -20,6 +20,7 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVisitor;
@@ -74,6 +75,8 @@ public class RobolectricModel {
   private TreeMap<String, String> extraShadowTypes = newTreeMap();
   private TreeSet<String> imports = newTreeSet();
   private TreeMap<TypeElement,ExecutableElement> resetterMap = newTreeMap(comparator);
+  private TreeMap<TypeElement,TypeElement> realFieldsOwners = newTreeMap(fqComparator);
+  private TreeMap<TypeElement,List<VariableElement>> realFieldsMap = newTreeMap(fqComparator);
 
   private static class FQComparator implements Comparator<TypeElement> {
     @Override
@@ -284,6 +287,8 @@ public class RobolectricModel {
     imports.add("javax.annotation.Generated");
     imports.add("org.robolectric.internal.ShadowExtractor");
     imports.add("org.robolectric.internal.ShadowProvider");
+    imports.add("org.robolectric.internal.ShadowResets");
+    imports.add("org.robolectric.internal.SdkShadowProvider");
   }
 
   public void addShadowType(TypeElement elem, TypeElement type) {
@@ -302,6 +307,22 @@ public class RobolectricModel {
     return resetterMap;
   }
 
+  public void addRealFields(TypeElement shadowType, TypeElement realType, List<VariableElement> fields) {
+    realFieldsOwners.put(shadowType, realType);
+    realFieldsMap.put(shadowType, fields);
+  }
+
+  /**
+   * @return The fields named by {@link org.robolectric.annotation.RealFields}, by shadow type.
+   */
+  public Map<TypeElement, List<VariableElement>> getRealFields() {
+    return realFieldsMap;
+  }
+
+  public TypeElement getRealFieldsOwner(TypeElement shadowType) {
+    return realFieldsOwners.get(shadowType);
+  }
+
   public Set<String> getImports() {
     return imports;
   }
@@ -1,10 +1,12 @@
 package org.robolectric.annotation.processing;
 
 import org.robolectric.annotation.processing.generator.Generator;
+import org.robolectric.annotation.processing.generator.RealFieldsGenerator;
 import org.robolectric.annotation.processing.generator.ServiceLoaderGenerator;
 import org.robolectric.annotation.processing.generator.ShadowProviderGenerator;
 import org.robolectric.annotation.processing.validator.ImplementationValidator;
 import org.robolectric.annotation.processing.validator.ImplementsValidator;
+import org.robolectric.annotation.processing.validator.RealFieldsValidator;
 import org.robolectric.annotation.processing.validator.RealObjectValidator;
 import org.robolectric.annotation.processing.validator.ResetterValidator;
 import org.robolectric.annotation.processing.validator.Validator;
@@ -74,10 +76,12 @@ public class RobolectricProcessor extends AbstractProcessor {
     addValidator(new ImplementationValidator(model, environment));
     addValidator(new ImplementsValidator(model, environment));
     addValidator(new RealObjectValidator(model, environment));
+    addValidator(new RealFieldsValidator(model, environment));
     addValidator(new ResetterValidator(model, environment));
 
     generators.add(new ShadowProviderGenerator(model, environment, shouldInstrumentPackages));
     generators.add(new ServiceLoaderGenerator(model, environment));
+    generators.add(new RealFieldsGenerator(model, environment));
   }
 
   @Override
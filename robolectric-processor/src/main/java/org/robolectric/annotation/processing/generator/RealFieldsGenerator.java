@@ -0,0 +1,209 @@
+package org.robolectric.annotation.processing.generator;
+
+import org.robolectric.annotation.processing.RobolectricModel;
+import org.robolectric.annotation.processing.RobolectricProcessor;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generator that creates a class of typed field accessors for each shadow annotated with
+ * {@link org.robolectric.annotation.RealFields}.
+ *
+ * The accessors for {@code ShadowFoo} go in {@code ShadowFooRealFields}, in the same package. Each field gets a
+ * getter and, unless it is final, a setter, backed by method handles looked up when the class is initialized.
+ * Types that the generated class can't name are passed as Object.
+ */
+public class RealFieldsGenerator extends Generator {
+  private static final String SUFFIX = "RealFields";
+
+  private final Filer filer;
+  private final Messager messager;
+  private final Elements elements;
+  private final Types types;
+  private final RobolectricModel model;
+
+  public RealFieldsGenerator(RobolectricModel model, ProcessingEnvironment environment) {
+    this.filer = environment.getFiler();
+    this.messager = environment.getMessager();
+    this.elements = environment.getElementUtils();
+    this.types = environment.getTypeUtils();
+    this.model = model;
+  }
+
+  @Override
+  public void generate(String shadowPackage) {
+    for (Map.Entry<TypeElement, List<VariableElement>> entry : model.getRealFields().entrySet()) {
+      TypeElement shadowType = entry.getKey();
+      String packageName = elements.getPackageOf(shadowType).getQualifiedName().toString();
+      String className = generatedClassName(shadowType, packageName);
+
+      PrintWriter writer = null;
+      try {
+        JavaFileObject jfo = filer.createSourceFile(
+            packageName.isEmpty() ? className : packageName + '.' + className, shadowType);
+        writer = new PrintWriter(jfo.openWriter());
+        generate(shadowType, model.getRealFieldsOwner(shadowType), entry.getValue(), packageName, className, writer);
+      } catch (IOException e) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write real fields class file: " + e);
+        throw new RuntimeException(e);
+      } finally {
+        if (writer != null) {
+          writer.close();
+        }
+      }
+    }
+  }
+
+  void generate(TypeElement shadowType, TypeElement realType, List<VariableElement> fields,
+                String packageName, String className, PrintWriter writer) {
+    final String ownerName = sourceName(realType.asType(), packageName);
+    final String ownerType = ownerName == null ? "Object" : ownerName;
+
+    if (!packageName.isEmpty()) {
+      writer.println("package " + packageName + ';');
+      writer.println();
+    }
+    writer.println("import java.lang.invoke.MethodHandle;");
+    writer.println("import javax.annotation.Generated;");
+    writer.println("import org.robolectric.util.ReflectionHelpers;");
+    writer.println();
+    writer.println("import static java.lang.invoke.MethodType.methodType;");
+    writer.println();
+    writer.println("/**");
+    writer.println(" * Field accessors for {@link " + shadowType.getQualifiedName() + "}. Automatically generated by the Robolectric Annotation Processor.");
+    writer.println(" */");
+    writer.println("@Generated(\"" + RobolectricProcessor.class.getCanonicalName() + "\")");
+    writer.println("@SuppressWarnings({\"rawtypes\",\"unchecked\"})");
+    writer.println("public final class " + className + " {");
+    if (ownerName == null) {
+      writer.println("  private static final Class<?> REAL_CLASS = ReflectionHelpers.loadClass("
+          + className + ".class.getClassLoader(), \"" + elements.getBinaryName(realType) + "\");");
+    } else {
+      writer.println("  private static final Class<?> REAL_CLASS = " + ownerName + ".class;");
+    }
+
+    for (VariableElement field : fields) {
+      final boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+      final String name = field.getSimpleName().toString();
+      final String type = fieldType(field, packageName);
+      final String handle = constantName(name);
+      final String receiver = isStatic ? "" : ownerType + ".class";
+
+      writer.println("  private static final MethodHandle " + handle + "_GETTER = ReflectionHelpers.fieldGetter(REAL_CLASS, \""
+          + name + "\", methodType(" + type + ".class" + (isStatic ? "" : ", " + receiver) + "));");
+      if (!field.getModifiers().contains(Modifier.FINAL)) {
+        writer.println("  private static final MethodHandle " + handle + "_SETTER = ReflectionHelpers.fieldSetter(REAL_CLASS, \""
+            + name + "\", methodType(void.class, " + (isStatic ? "" : receiver + ", ") + type + ".class));");
+      }
+    }
+    writer.println();
+    writer.println("  private " + className + "() {");
+    writer.println("  }");
+
+    for (VariableElement field : fields) {
+      final boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+      final String name = field.getSimpleName().toString();
+      final String type = fieldType(field, packageName);
+      final String handle = constantName(name);
+      final String accessorName = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+      writer.println();
+      writer.println("  public static " + type + " get" + accessorName + "(" + (isStatic ? "" : ownerType + " realObject") + ") {");
+      writer.println("    try {");
+      writer.println("      return (" + type + ") " + handle + "_GETTER.invokeExact(" + (isStatic ? "" : "realObject") + ");");
+      printCatch(writer);
+      writer.println("  }");
+
+      if (!field.getModifiers().contains(Modifier.FINAL)) {
+        writer.println();
+        writer.println("  public static void set" + accessorName + "(" + (isStatic ? "" : ownerType + " realObject, ") + type + " value) {");
+        writer.println("    try {");
+        writer.println("      " + handle + "_SETTER.invokeExact(" + (isStatic ? "" : "realObject, ") + "value);");
+        printCatch(writer);
+        writer.println("  }");
+      }
+    }
+    writer.println("}");
+  }
+
+  private static void printCatch(PrintWriter writer) {
+    writer.println("    } catch (RuntimeException | Error e) {");
+    writer.println("      throw e;");
+    writer.println("    } catch (Throwable t) {");
+    writer.println("      throw new RuntimeException(t);");
+    writer.println("    }");
+  }
+
+  private String fieldType(VariableElement field, String packageName) {
+    String type = sourceName(field.asType(), packageName);
+    return type == null ? "Object" : type;
+  }
+
+  /**
+   * Returns the name of the erasure of a type in source, or null if it isn't accessible from the given package.
+   */
+  private String sourceName(TypeMirror type, String packageName) {
+    TypeMirror erased = types.erasure(type);
+    if (erased.getKind().isPrimitive()) {
+      return erased.toString();
+    }
+    if (erased.getKind() == TypeKind.ARRAY) {
+      String component = sourceName(((ArrayType) erased).getComponentType(), packageName);
+      return component == null ? null : component + "[]";
+    }
+    if (erased.getKind() == TypeKind.DECLARED) {
+      TypeElement element = (TypeElement) types.asElement(erased);
+      return isAccessible(element, packageName) ? element.getQualifiedName().toString() : null;
+    }
+    return null;
+  }
+
+  private boolean isAccessible(TypeElement type, String packageName) {
+    boolean samePackage = elements.getPackageOf(type).getQualifiedName().contentEquals(packageName);
+    for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE)
+          || !e.getModifiers().contains(Modifier.PUBLIC) && !samePackage) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String generatedClassName(TypeElement shadowType, String packageName) {
+    String name = shadowType.getQualifiedName().toString();
+    if (!packageName.isEmpty()) {
+      name = name.substring(packageName.length() + 1);
+    }
+    return name.replace('.', '_') + SUFFIX;
+  }
+
+  private static String constantName(String fieldName) {
+    StringBuilder constant = new StringBuilder();
+    for (int i = 0; i < fieldName.length(); i++) {
+      char c = fieldName.charAt(i);
+      if (Character.isUpperCase(c) && i > 0) {
+        constant.append('_');
+      }
+      constant.append(Character.toUpperCase(c));
+    }
+    return constant.toString();
+  }
+}
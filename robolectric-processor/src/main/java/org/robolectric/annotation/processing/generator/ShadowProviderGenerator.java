@@ -1,6 +1,7 @@
 package org.robolectric.annotation.processing.generator;
 
 import com.google.common.base.Joiner;
+import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.processing.RobolectricModel;
 import org.robolectric.annotation.processing.RobolectricProcessor;
@@ -12,12 +13,21 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,6 +37,7 @@ public class ShadowProviderGenerator extends Generator {
   private final Filer filer;
   private final Messager messager;
   private final Elements elements;
+  private final Types types;
   private final RobolectricModel model;
   private final boolean shouldInstrumentPackages;
 
@@ -34,6 +45,7 @@ public class ShadowProviderGenerator extends Generator {
       boolean shouldInstrumentPackages) {
     this.messager = environment.getMessager();
     this.elements = environment.getElementUtils();
+    this.types = environment.getTypeUtils();
     this.filer = environment.getFiler();
     this.model = model;
     this.shouldInstrumentPackages = shouldInstrumentPackages;
@@ -64,6 +76,85 @@ public class ShadowProviderGenerator extends Generator {
     }
   }
 
+  private static void appendSdkRange(StringBuilder sdkRanges, String actual, TypeElement shadowType) {
+    Implements annotation = shadowType == null ? null : shadowType.getAnnotation(Implements.class);
+    if (annotation != null && (annotation.minSdk() != -1 || annotation.maxSdk() != -1)) {
+      sdkRanges.append("    SDK_RANGES.put(\"").append(actual).append("\", new int[] {")
+          .append(annotation.minSdk()).append(", ").append(annotation.maxSdk()).append("});\n");
+    }
+  }
+
+  /**
+   * Lists the public methods of a shadow class in the format described by
+   * {@code SdkShadowProvider.getShadowMethods()}, walking superclasses and then interfaces like
+   * {@link Class#getMethod(String, Class[])} does.
+   *
+   * @return The methods, or null if a parameter type can't be resolved, in which case the shadow is left to be
+   * reflected over at runtime.
+   */
+  private String shadowMethods(TypeElement shadowType) {
+    List<TypeElement> declaringTypes = new ArrayList<>();
+    for (TypeElement type = shadowType; type.getSuperclass().getKind() == TypeKind.DECLARED;
+        type = (TypeElement) types.asElement(type.getSuperclass())) {
+      declaringTypes.add(type);
+    }
+    for (int i = 0; i < declaringTypes.size(); i++) {
+      for (TypeMirror superinterface : declaringTypes.get(i).getInterfaces()) {
+        declaringTypes.add((TypeElement) types.asElement(superinterface));
+      }
+    }
+
+    Map<String, String> methods = new LinkedHashMap<>();
+    for (TypeElement type : declaringTypes) {
+      for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+        if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+          continue;
+        }
+        StringBuilder key = new StringBuilder().append(method.getSimpleName()).append('(');
+        for (VariableElement parameter : method.getParameters()) {
+          String descriptor = descriptor(types.erasure(parameter.asType()));
+          if (descriptor == null) {
+            return null;
+          }
+          key.append(descriptor);
+        }
+        key.append(')');
+        if (!methods.containsKey(key.toString())) {
+          Implementation implementation = method.getAnnotation(Implementation.class);
+          StringBuilder entry = new StringBuilder(key)
+              .append(' ').append(implementation == null ? -1 : implementation.minSdk())
+              .append(' ').append(implementation == null ? -1 : implementation.maxSdk());
+          if (!type.equals(shadowType)) {
+            entry.append(' ').append(elements.getBinaryName(type));
+          }
+          methods.put(key.toString(), entry.toString());
+        }
+      }
+    }
+    return Joiner.on(',').join(methods.values());
+  }
+
+  private String descriptor(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN: return "Z";
+      case BYTE: return "B";
+      case CHAR: return "C";
+      case SHORT: return "S";
+      case INT: return "I";
+      case LONG: return "J";
+      case FLOAT: return "F";
+      case DOUBLE: return "D";
+      case ARRAY:
+        String componentDescriptor = descriptor(((ArrayType) type).getComponentType());
+        return componentDescriptor == null ? null : "[" + componentDescriptor;
+      case DECLARED:
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        return "L" + elements.getBinaryName(element).toString().replace('.', '/') + ";";
+      default:
+        return null;
+    }
+  }
+
   void generate(String shadowPackage, PrintWriter writer) {
     writer.print("package " + shadowPackage + ";\n");
     for (String name : model.getImports()) {
@@ -75,24 +166,37 @@ public class ShadowProviderGenerator extends Generator {
     writer.println(" */");
     writer.println("@Generated(\"" + RobolectricProcessor.class.getCanonicalName() + "\")");
     writer.println("@SuppressWarnings({\"unchecked\",\"deprecation\"})");
-    writer.println("public class " + GEN_CLASS + " implements ShadowProvider {");
+    writer.println("public class " + GEN_CLASS + " implements SdkShadowProvider {");
 
     final int shadowSize = model.getAllShadowTypes().size();
     writer.println("  private static final Map<String, String> SHADOW_MAP = new HashMap<>(" + shadowSize + ");");
+    writer.println("  private static final Map<String, int[]> SDK_RANGES = new HashMap<>();");
+    writer.println("  private static final Map<Integer, Map<String, String>> SHADOW_MAPS_BY_API_LEVEL = new HashMap<>();");
+    writer.println("  private static final Map<String, String> SHADOW_METHODS = new HashMap<>(" + shadowSize + ");");
     writer.println();
 
     writer.println("  static {");
+    StringBuilder sdkRanges = new StringBuilder();
+    StringBuilder shadowMethods = new StringBuilder();
     for (Map.Entry<TypeElement, TypeElement> entry : model.getAllShadowTypes().entrySet()) {
       final String shadow = elements.getBinaryName(entry.getKey()).toString();
       final String actual = entry.getValue().getQualifiedName().toString();
       writer.println("    SHADOW_MAP.put(\"" + actual + "\", \"" + shadow + "\");");
+      appendSdkRange(sdkRanges, actual, entry.getKey());
+      final String methods = shadowMethods(entry.getKey());
+      if (methods != null) {
+        shadowMethods.append("    SHADOW_METHODS.put(\"").append(shadow).append("\", \"").append(methods).append("\");\n");
+      }
     }
 
     for (Map.Entry<String, String> entry : model.getExtraShadowTypes().entrySet()) {
       final String shadow = entry.getKey();
       final String actual = entry.getValue();
       writer.println("    SHADOW_MAP.put(\"" + actual + "\", \"" + shadow + "\");");
+      appendSdkRange(sdkRanges, actual, elements.getTypeElement(shadow.replace('$', '.')));
     }
+    writer.print(sdkRanges);
+    writer.print(shadowMethods);
 
     writer.println("  }");
     writer.println();
@@ -143,22 +247,37 @@ public class ShadowProviderGenerator extends Generator {
     }
 
     writer.println("  public void reset() {");
+    if (!model.getResetters().isEmpty()) {
+      writer.println("    ShadowResets resets = ShadowResets.forClassLoader(" + GEN_CLASS + ".class.getClassLoader());");
+    }
+    for (TypeElement shadowType : model.getResetters().keySet()) {
+      Implements annotation = shadowType.getAnnotation(Implements.class);
+      if (annotation.minSdk() != -1 || annotation.maxSdk() != -1) {
+        writer.println("    int apiLevel = org.robolectric.RuntimeEnvironment.getApiLevel();");
+        break;
+      }
+    }
     for (Map.Entry<TypeElement, ExecutableElement> entry : model.getResetters().entrySet()) {
       Implements annotation = entry.getKey().getAnnotation(Implements.class);
       int minSdk = annotation.minSdk();
       int maxSdk = annotation.maxSdk();
-      String ifClause;
+      String sdkCondition;
       if (minSdk != -1 && maxSdk != -1) {
-        ifClause = "if (org.robolectric.RuntimeEnvironment.getApiLevel() >= " + minSdk +
-            " && org.robolectric.RuntimeEnvironment.getApiLevel() <= " + maxSdk + ") ";
+        sdkCondition = "apiLevel >= " + minSdk + " && apiLevel <= " + maxSdk + " && ";
       } else if (maxSdk != -1) {
-        ifClause = "if (org.robolectric.RuntimeEnvironment.getApiLevel() <= " + maxSdk + ") ";
+        sdkCondition = "apiLevel <= " + maxSdk + " && ";
       } else if (minSdk != -1) {
-        ifClause = "if (org.robolectric.RuntimeEnvironment.getApiLevel() >= " + minSdk + ") ";
+        sdkCondition = "apiLevel >= " + minSdk + " && ";
       } else {
-        ifClause = "";
+        sdkCondition = "";
       }
-      writer.println("    " + ifClause + model.getReferentFor(entry.getKey()) + "." + entry.getValue().getSimpleName() + "();");
+      // Shadows whose classes haven't been loaded in this sandbox can't have changed their static state.
+      final TypeElement shadowedType = model.getAllShadowTypes().get(entry.getKey());
+      final String shadowed = shadowedType == null ? "null" : "\"" + elements.getBinaryName(shadowedType) + "\"";
+      writer.println("    if (" + sdkCondition + "resets.begin(\"" + elements.getBinaryName(entry.getKey()) + "\", " + shadowed + ")) {");
+      writer.println("      " + model.getReferentFor(entry.getKey()) + "." + entry.getValue().getSimpleName() + "();");
+      writer.println("      resets.end();");
+      writer.println("    }");
     }
     writer.println("  }");
     writer.println();
@@ -168,6 +287,30 @@ public class ShadowProviderGenerator extends Generator {
     writer.println("    return SHADOW_MAP;");
     writer.println("  }");
     writer.println();
+    writer.println("  @Override");
+    writer.println("  public Map<String, String> getShadowMap(int apiLevel) {");
+    writer.println("    synchronized (SHADOW_MAPS_BY_API_LEVEL) {");
+    writer.println("      Map<String, String> shadowMap = SHADOW_MAPS_BY_API_LEVEL.get(apiLevel);");
+    writer.println("      if (shadowMap == null) {");
+    writer.println("        shadowMap = new HashMap<>(SHADOW_MAP);");
+    writer.println("        for (Map.Entry<String, int[]> entry : SDK_RANGES.entrySet()) {");
+    writer.println("          int[] range = entry.getValue();");
+    writer.println("          if (apiLevel < range[0] || range[1] != -1 && apiLevel > range[1]) {");
+    writer.println("            shadowMap.remove(entry.getKey());");
+    writer.println("          }");
+    writer.println("        }");
+    writer.println("        SHADOW_MAPS_BY_API_LEVEL.put(apiLevel, shadowMap);");
+    writer.println("      }");
+    writer.println("      return shadowMap;");
+    writer.println("    }");
+    writer.println("  }");
+    writer.println();
+
+    writer.println("  @Override");
+    writer.println("  public Map<String, String> getShadowMethods() {");
+    writer.println("    return SHADOW_METHODS;");
+    writer.println("  }");
+    writer.println();
 
     writer.println("  @Override");
     writer.println("  public String[] getProvidedPackageNames() {");
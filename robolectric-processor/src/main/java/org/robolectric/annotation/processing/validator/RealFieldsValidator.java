@@ -0,0 +1,73 @@
+package org.robolectric.annotation.processing.validator;
+
+import org.robolectric.annotation.processing.RobolectricModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+/**
+ * Validator that checks usages of {@link org.robolectric.annotation.RealFields}.
+ */
+public class RealFieldsValidator extends Validator {
+
+  public RealFieldsValidator(RobolectricModel model, ProcessingEnvironment env) {
+    super(model, env, "org.robolectric.annotation.RealFields");
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Void visitType(TypeElement elem, Element parent) {
+    AnnotationMirror imp = model.getImplementsMirror(elem);
+    if (imp == null) {
+      error("@RealFields without @Implements");
+      return null;
+    }
+    TypeMirror implementedClass = model.getImplementedClass(imp);
+    if (implementedClass == null) {
+      error("@RealFields requires @Implements to name a class that can be resolved");
+      return null;
+    }
+    TypeElement realType = (TypeElement) types.asElement(implementedClass);
+
+    AnnotationValue av = RobolectricModel.getAnnotationValue(getCurrentAnnotation(), "value");
+    List<VariableElement> fields = new ArrayList<>();
+    boolean error = false;
+    for (AnnotationValue nameValue : (List<? extends AnnotationValue>) av.getValue()) {
+      String name = (String) nameValue.getValue();
+      VariableElement field = findField(realType, name);
+      if (field == null) {
+        error("@RealFields: no field '" + name + "' in " + realType.getQualifiedName(), nameValue);
+        error = true;
+      } else {
+        fields.add(field);
+      }
+    }
+    if (!error) {
+      model.addRealFields(elem, realType, fields);
+    }
+    return null;
+  }
+
+  private VariableElement findField(TypeElement type, String name) {
+    while (type != null) {
+      for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+        if (field.getSimpleName().contentEquals(name)) {
+          return field;
+        }
+      }
+      TypeMirror superclass = type.getSuperclass();
+      type = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,8 @@
+package com.example.objects;
+
+public class FieldsDummy extends Dummy {
+  private static long sTotal;
+  private final String mName = "";
+  private int mCount;
+  private Private mPrivate;
+}
@@ -6,8 +6,11 @@ import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
 import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
 import static org.robolectric.annotation.processing.RobolectricProcessor.PACKAGE_OPT;
 import static org.robolectric.annotation.processing.RobolectricProcessor.SHOULD_INSTRUMENT_PKG_OPT;
+import static org.robolectric.annotation.processing.validator.Utils.REFLECTION_HELPERS_SOURCE;
 import static org.robolectric.annotation.processing.validator.Utils.ROBO_SOURCE;
+import static org.robolectric.annotation.processing.validator.Utils.SDK_SHADOW_PROVIDER_SOURCE;
 import static org.robolectric.annotation.processing.validator.Utils.SHADOW_PROVIDER_SOURCE;
+import static org.robolectric.annotation.processing.validator.Utils.SHADOW_RESETS_SOURCE;
 import static org.robolectric.annotation.processing.validator.Utils.SHADOW_EXTRACTOR_SOURCE;
 
 import java.io.BufferedReader;
@@ -44,6 +47,8 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forSourceString("HelloWorld", "final class HelloWorld {}")))
       .processedWith(new RobolectricProcessor())
@@ -60,6 +65,8 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowOuterDummy.java"),
@@ -76,6 +83,8 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowPrivate.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowOuterDummy2.java"),
@@ -92,6 +101,8 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowAnything.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -106,6 +117,8 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -120,6 +133,8 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
         .that(ImmutableList.of(
             SHADOW_PROVIDER_SOURCE,
+            SHADOW_RESETS_SOURCE,
+            SDK_SHADOW_PROVIDER_SOURCE,
             SHADOW_EXTRACTOR_SOURCE,
             forResource("org/robolectric/annotation/processing/shadows/ShadowExcludedFromAndroidSdk.java")))
         .processedWith(new RobolectricProcessor(DEFAULT_OPTS))
@@ -146,6 +161,8 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -160,6 +177,8 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
         .that(ImmutableList.of(
             SHADOW_PROVIDER_SOURCE,
+            SHADOW_RESETS_SOURCE,
+            SDK_SHADOW_PROVIDER_SOURCE,
             SHADOW_EXTRACTOR_SOURCE,
             forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
             forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -175,6 +194,8 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/TestWithUnrecognizedAnnotation.java")))
       .processedWith(new RobolectricProcessor())
@@ -194,6 +215,8 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowRealObjectWithCorrectAnything.java")))
       .processedWith(new RobolectricProcessor())
@@ -206,6 +229,8 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowParameterizedDummy.java")))
@@ -215,6 +240,22 @@ public class RobolectricProcessorTest {
       .generatesSources(forResource("org/robolectric/Robolectric_Parameterized.java"));
   }
   
+  @Test
+  public void shouldGenerateRealFieldsAccessors() {
+    ASSERT.about(javaSources())
+      .that(ImmutableList.of(
+          SHADOW_PROVIDER_SOURCE,
+          SHADOW_RESETS_SOURCE,
+          SDK_SHADOW_PROVIDER_SOURCE,
+          SHADOW_EXTRACTOR_SOURCE,
+          REFLECTION_HELPERS_SOURCE,
+          forResource("org/robolectric/annotation/processing/shadows/ShadowFieldsDummy.java")))
+      .processedWith(new RobolectricProcessor(DEFAULT_OPTS))
+      .compilesWithoutError()
+      .and()
+      .generatesSources(forResource("org/robolectric/RealFields_FieldsDummy.java"));
+  }
+
   @Test
   public void generatedShadowProvider_canConfigureInstrumentingPackages() {
     Map<String, String> options = new HashMap<>();
@@ -225,6 +266,8 @@ public class RobolectricProcessorTest {
     .that(ImmutableList.of(
         ROBO_SOURCE,
         SHADOW_PROVIDER_SOURCE,
+        SHADOW_RESETS_SOURCE,
+        SDK_SHADOW_PROVIDER_SOURCE,
         SHADOW_EXTRACTOR_SOURCE,
         forResource("org/robolectric/annotation/processing/shadows/ShadowAnything.java"),
         forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -10,6 +10,10 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.HashMap;
@@ -21,13 +25,20 @@ import static org.mockito.Mockito.when;
 public class ShadowProviderGeneratorTest {
 
   private RobolectricModel model;
+  private Elements elements;
+  private Types types;
   private ShadowProviderGenerator generator;
   private StringWriter writer;
 
   @Before
   public void setUp() throws Exception {
     model = mock(RobolectricModel.class);
-    generator = new ShadowProviderGenerator(model, mock(ProcessingEnvironment.class), true);
+    elements = mock(Elements.class);
+    ProcessingEnvironment environment = mock(ProcessingEnvironment.class);
+    when(environment.getElementUtils()).thenReturn(elements);
+    types = mock(Types.class);
+    when(environment.getTypeUtils()).thenReturn(types);
+    generator = new ShadowProviderGenerator(model, environment, true);
     writer = new StringWriter();
   }
 
@@ -42,9 +53,25 @@ public class ShadowProviderGeneratorTest {
 
     generator.generate("the.package", new PrintWriter(writer));
 
-    assertThat(writer.toString()).contains("if (org.robolectric.RuntimeEnvironment.getApiLevel() >= 19 && org.robolectric.RuntimeEnvironment.getApiLevel() <= 20) ShadowThing.reset19To20();");
-    assertThat(writer.toString()).contains("if (org.robolectric.RuntimeEnvironment.getApiLevel() >= 21) ShadowThing.resetMin21();");
-    assertThat(writer.toString()).contains("if (org.robolectric.RuntimeEnvironment.getApiLevel() <= 18) ShadowThing.resetMax18();");
+    assertThat(writer.toString()).containsMatch("(?s)int apiLevel = org.robolectric.RuntimeEnvironment.getApiLevel\\(\\);.*resets.begin");
+    assertThat(writer.toString()).containsMatch("if \\(apiLevel >= 19 && apiLevel <= 20 && resets.begin\\(\"ShadowThing\", null\\)\\) \\{\\s+ShadowThing.reset19To20\\(\\);");
+    assertThat(writer.toString()).containsMatch("if \\(apiLevel >= 21 && resets.begin\\(\"ShadowThing\", null\\)\\) \\{\\s+ShadowThing.resetMin21\\(\\);");
+    assertThat(writer.toString()).containsMatch("if \\(apiLevel <= 18 && resets.begin\\(\"ShadowThing\", null\\)\\) \\{\\s+ShadowThing.resetMax18\\(\\);");
+  }
+
+  @Test
+  public void sdkRangesAreRecordedForBoundedShadows() throws Exception {
+    HashMap<TypeElement, TypeElement> shadowTypes = new HashMap<>();
+    shadowTypes.put(type("ShadowThing", 19, 20), actual("com.example.Thing"));
+    shadowTypes.put(type("ShadowOtherThing", -1, -1), actual("com.example.OtherThing"));
+    when(model.getAllShadowTypes()).thenReturn(shadowTypes);
+
+    generator.generate("the.package", new PrintWriter(writer));
+
+    assertThat(writer.toString()).contains("SHADOW_MAP.put(\"com.example.Thing\", \"ShadowThing\");");
+    assertThat(writer.toString()).contains("SHADOW_MAP.put(\"com.example.OtherThing\", \"ShadowOtherThing\");");
+    assertThat(writer.toString()).contains("SDK_RANGES.put(\"com.example.Thing\", new int[] {19, 20});");
+    assertThat(writer.toString()).doesNotContain("SDK_RANGES.put(\"com.example.OtherThing\"");
   }
 
   private TypeElement type(String shadowClassName, int minSdk, int maxSdk) {
@@ -54,9 +81,32 @@ public class ShadowProviderGeneratorTest {
     when(implAnnotation.minSdk()).thenReturn(minSdk);
     when(implAnnotation.maxSdk()).thenReturn(maxSdk);
     when(shadowType.getAnnotation(Implements.class)).thenReturn(implAnnotation);
+    Name binaryName = name(shadowClassName);
+    when(elements.getBinaryName(shadowType)).thenReturn(binaryName);
+    TypeMirror superclass = typeMirror(TypeKind.NONE);
+    when(shadowType.getSuperclass()).thenReturn(superclass);
     return shadowType;
   }
 
+  private TypeElement actual(String className) {
+    TypeElement actualType = mock(TypeElement.class);
+    Name qualifiedName = name(className);
+    when(actualType.getQualifiedName()).thenReturn(qualifiedName);
+    return actualType;
+  }
+
+  private TypeMirror typeMirror(TypeKind kind) {
+    TypeMirror typeMirror = mock(TypeMirror.class);
+    when(typeMirror.getKind()).thenReturn(kind);
+    return typeMirror;
+  }
+
+  private Name name(String name) {
+    Name mock = mock(Name.class);
+    when(mock.toString()).thenReturn(name);
+    return mock;
+  }
+
   @NotNull
   private ExecutableElement element(String reset) {
     ExecutableElement resetterExecutable = mock(ExecutableElement.class);
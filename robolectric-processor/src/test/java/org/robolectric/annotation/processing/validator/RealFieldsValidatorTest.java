@@ -0,0 +1,36 @@
+package org.robolectric.annotation.processing.validator;
+
+import static org.truth0.Truth.ASSERT;
+import static org.robolectric.annotation.processing.validator.SingleClassSubject.singleClass;
+
+import org.junit.Test;
+
+public class RealFieldsValidatorTest {
+  @Test
+  public void realFieldsWithoutImplements_shouldNotCompile() {
+    final String testClass = "org.robolectric.annotation.processing.shadows.ShadowRealFieldsWithoutImplements";
+    ASSERT.about(singleClass())
+      .that(testClass)
+      .failsToCompile()
+      .withErrorContaining("@RealFields without @Implements")
+      .onLine(5);
+  }
+
+  @Test
+  public void realFieldsWithMissingField_shouldNotCompile() {
+    final String testClass = "org.robolectric.annotation.processing.shadows.ShadowRealFieldsWithMissingField";
+    ASSERT.about(singleClass())
+      .that(testClass)
+      .failsToCompile()
+      .withErrorContaining("@RealFields: no field 'mCuont' in com.example.objects.FieldsDummy")
+      .onLine(8);
+  }
+
+  @Test
+  public void realFieldsWithDeclaredFields_shouldCompile() {
+    final String testClass = "org.robolectric.annotation.processing.shadows.ShadowFieldsDummy";
+    ASSERT.about(singleClass())
+      .that(testClass)
+      .compilesWithoutError();
+  }
+}
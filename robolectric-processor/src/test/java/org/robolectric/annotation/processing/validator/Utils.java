@@ -14,6 +14,9 @@ public class Utils {
   public static final JavaFileObject ROBO_SOURCE = forResource("mock-source/Robolectric.java");
   public static final JavaFileObject SHADOW_PROVIDER_SOURCE = forResource("mock-source/org/robolectric/internal/ShadowProvider.java");
   public static final JavaFileObject SHADOW_EXTRACTOR_SOURCE = forResource("mock-source/org/robolectric/internal/ShadowExtractor.java");
+  public static final JavaFileObject SHADOW_RESETS_SOURCE = forResource("mock-source/org/robolectric/internal/ShadowResets.java");
+  public static final JavaFileObject SDK_SHADOW_PROVIDER_SOURCE = forResource("mock-source/org/robolectric/internal/SdkShadowProvider.java");
+  public static final JavaFileObject REFLECTION_HELPERS_SOURCE = forResource("mock-source/org/robolectric/util/ReflectionHelpers.java");
 
   public static String toResourcePath(String clazzName) {
     return clazzName.replace('.', '/') + ".java";
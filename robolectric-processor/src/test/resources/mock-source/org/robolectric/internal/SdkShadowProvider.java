@@ -0,0 +1,10 @@
+package org.robolectric.internal;
+
+import java.util.Map;
+
+public interface SdkShadowProvider extends ShadowProvider {
+
+  Map<String, String> getShadowMap(int apiLevel);
+
+  Map<String, String> getShadowMethods();
+}
@@ -0,0 +1,19 @@
+package org.robolectric.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+public class ReflectionHelpers {
+
+  public static MethodHandle fieldGetter(Class<?> type, String fieldName, MethodType handleType) {
+    return null;
+  }
+
+  public static MethodHandle fieldSetter(Class<?> type, String fieldName, MethodType handleType) {
+    return null;
+  }
+
+  public static Class<?> loadClass(ClassLoader classLoader, String fullyQualifiedClassName) {
+    return null;
+  }
+}
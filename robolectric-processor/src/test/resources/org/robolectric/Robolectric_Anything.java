@@ -7,17 +7,24 @@ import java.util.Map;
 import javax.annotation.Generated;
 import org.robolectric.annotation.processing.shadows.ShadowAnything;
 import org.robolectric.annotation.processing.shadows.ShadowDummy;
+import org.robolectric.internal.SdkShadowProvider;
 import org.robolectric.internal.ShadowExtractor;
 import org.robolectric.internal.ShadowProvider;
+import org.robolectric.internal.ShadowResets;
 
 @Generated("org.robolectric.annotation.processing.RobolectricProcessor")
 @SuppressWarnings({"unchecked","deprecation"})
-public class Shadows implements ShadowProvider {
+public class Shadows implements SdkShadowProvider {
   private static final Map<String, String> SHADOW_MAP = new HashMap<>(2);
+  private static final Map<String, int[]> SDK_RANGES = new HashMap<>();
+  private static final Map<Integer, Map<String, String>> SHADOW_MAPS_BY_API_LEVEL = new HashMap<>();
+  private static final Map<String, String> SHADOW_METHODS = new HashMap<>(2);
 
   static {
     SHADOW_MAP.put("com.example.objects.AnyObject", "org.robolectric.annotation.processing.shadows.ShadowAnything");
     SHADOW_MAP.put("com.example.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowAnything", "anotherResetter() -1 -1");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowDummy", "resetter_method() -1 -1");
   }
 
   public static ShadowAnything shadowOf(AnyObject actual) {
@@ -29,8 +36,15 @@ public class Shadows implements ShadowProvider {
   }
   
   public void reset() {
-    ShadowAnything.anotherResetter();
-    ShadowDummy.resetter_method();
+    ShadowResets resets = ShadowResets.forClassLoader(Shadows.class.getClassLoader());
+    if (resets.begin("org.robolectric.annotation.processing.shadows.ShadowAnything", "com.example.objects.AnyObject")) {
+      ShadowAnything.anotherResetter();
+      resets.end();
+    }
+    if (resets.begin("org.robolectric.annotation.processing.shadows.ShadowDummy", "com.example.objects.Dummy")) {
+      ShadowDummy.resetter_method();
+      resets.end();
+    }
   }
 
   @Override
@@ -38,6 +52,29 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, String> getShadowMap(int apiLevel) {
+    synchronized (SHADOW_MAPS_BY_API_LEVEL) {
+      Map<String, String> shadowMap = SHADOW_MAPS_BY_API_LEVEL.get(apiLevel);
+      if (shadowMap == null) {
+        shadowMap = new HashMap<>(SHADOW_MAP);
+        for (Map.Entry<String, int[]> entry : SDK_RANGES.entrySet()) {
+          int[] range = entry.getValue();
+          if (apiLevel < range[0] || range[1] != -1 && apiLevel > range[1]) {
+            shadowMap.remove(entry.getKey());
+          }
+        }
+        SHADOW_MAPS_BY_API_LEVEL.put(apiLevel, shadowMap);
+      }
+      return shadowMap;
+    }
+  }
+
+  @Override
+  public Map<String, String> getShadowMethods() {
+    return SHADOW_METHODS;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {"com.example.objects"};
@@ -11,13 +11,18 @@ import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInn
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInnerPrivate;
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInnerProtected;
 import org.robolectric.annotation.processing.shadows.ShadowPrivate;
+import org.robolectric.internal.SdkShadowProvider;
 import org.robolectric.internal.ShadowExtractor;
 import org.robolectric.internal.ShadowProvider;
+import org.robolectric.internal.ShadowResets;
 
 @Generated("org.robolectric.annotation.processing.RobolectricProcessor")
 @SuppressWarnings({"unchecked","deprecation"})
-public class Shadows implements ShadowProvider {
+public class Shadows implements SdkShadowProvider {
   private static final Map<String, String> SHADOW_MAP = new HashMap<>(6);
+  private static final Map<String, int[]> SDK_RANGES = new HashMap<>();
+  private static final Map<Integer, Map<String, String>> SHADOW_MAPS_BY_API_LEVEL = new HashMap<>();
+  private static final Map<String, String> SHADOW_METHODS = new HashMap<>(6);
 
   static {
     SHADOW_MAP.put("com.example.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy");
@@ -26,6 +31,12 @@ public class Shadows implements ShadowProvider {
     SHADOW_MAP.put("com.example.objects.OuterDummy2.InnerPrivate", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerPrivate");
     SHADOW_MAP.put("com.example.objects.OuterDummy2.InnerProtected", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerProtected");
     SHADOW_MAP.put("com.example.objects.Private", "org.robolectric.annotation.processing.shadows.ShadowPrivate");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowDummy", "resetter_method() -1 -1");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2", "");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerPackage", "");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerPrivate", "");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerProtected", "");
+    SHADOW_METHODS.put("org.robolectric.annotation.processing.shadows.ShadowPrivate", "resetMethod() -1 -1");
   }
 
   public static ShadowDummy shadowOf(Dummy actual) {
@@ -37,8 +48,15 @@ public class Shadows implements ShadowProvider {
   }
   
   public void reset() {
-    ShadowDummy.resetter_method();
-    ShadowPrivate.resetMethod();
+    ShadowResets resets = ShadowResets.forClassLoader(Shadows.class.getClassLoader());
+    if (resets.begin("org.robolectric.annotation.processing.shadows.ShadowDummy", "com.example.objects.Dummy")) {
+      ShadowDummy.resetter_method();
+      resets.end();
+    }
+    if (resets.begin("org.robolectric.annotation.processing.shadows.ShadowPrivate", "com.example.objects.Private")) {
+      ShadowPrivate.resetMethod();
+      resets.end();
+    }
   }
 
   @Override
@@ -46,6 +64,29 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, String> getShadowMap(int apiLevel) {
+    synchronized (SHADOW_MAPS_BY_API_LEVEL) {
+      Map<String, String> shadowMap = SHADOW_MAPS_BY_API_LEVEL.get(apiLevel);
+      if (shadowMap == null) {
+        shadowMap = new HashMap<>(SHADOW_MAP);
+        for (Map.Entry<String, int[]> entry : SDK_RANGES.entrySet()) {
+          int[] range = entry.getValue();
+          if (apiLevel < range[0] || range[1] != -1 && apiLevel > range[1]) {
+            shadowMap.remove(entry.getKey());
+          }
+        }
+        SHADOW_MAPS_BY_API_LEVEL.put(apiLevel, shadowMap);
+      }
+      return shadowMap;
+    }
+  }
+
+  @Override
+  public Map<String, String> getShadowMethods() {
+    return SHADOW_METHODS;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {"com.example.objects"};
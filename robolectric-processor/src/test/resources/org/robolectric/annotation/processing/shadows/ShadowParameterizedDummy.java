@@ -1,5 +1,6 @@
 package org.robolectric.annotation.processing.shadows;
 
+import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
 import com.example.objects.ParameterizedDummy;
@@ -8,4 +9,16 @@ import com.example.objects.ParameterizedDummy;
 public class ShadowParameterizedDummy<T, S extends Number> {
   @RealObject
   ParameterizedDummy<T,S> real;
+
+  @Implementation(minSdk = 19)
+  public void set(T value, S[] numbers, int count) {
+  }
+
+  @Implementation(maxSdk = 18)
+  public static String describe(String prefix, long[] values, boolean verbose) {
+    return prefix;
+  }
+
+  protected void notIndexed(T value) {
+  }
 }
@@ -0,0 +1,10 @@
+package org.robolectric.annotation.processing.shadows;
+
+import com.example.objects.FieldsDummy;
+import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealFields;
+
+@Implements(FieldsDummy.class)
+@RealFields({"mCount", "mCuont"})
+public class ShadowRealFieldsWithMissingField {
+}
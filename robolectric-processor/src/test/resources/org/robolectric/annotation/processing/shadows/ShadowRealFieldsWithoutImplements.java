@@ -0,0 +1,7 @@
+package org.robolectric.annotation.processing.shadows;
+
+import org.robolectric.annotation.RealFields;
+
+@RealFields("mCount")
+public class ShadowRealFieldsWithoutImplements {
+}
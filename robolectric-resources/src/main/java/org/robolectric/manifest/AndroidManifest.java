@@ -1,17 +1,9 @@
 package org.robolectric.manifest;
 
 import com.google.common.base.Preconditions;
-import org.jetbrains.annotations.Nullable;
 import org.robolectric.res.FsFile;
 import org.robolectric.res.ResourcePath;
 import org.robolectric.res.ResourceTable;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,6 +23,7 @@ public class AndroidManifest {
   private final FsFile resDirectory;
   private final FsFile assetsDirectory;
   private final String overridePackageName;
+  private FsFile rTxtFile;
 
   private boolean manifestIsParsed;
 
@@ -114,11 +107,8 @@ public class AndroidManifest {
 
     if (androidManifestFile != null && androidManifestFile.exists()) {
       try {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-
-        DocumentBuilder db = dbf.newDocumentBuilder();
         InputStream inputStream = androidManifestFile.getInputStream();
-        Document manifestDocument = db.parse(inputStream);
+        ManifestElement manifestDocument = ManifestElement.parse(inputStream);
         inputStream.close();
 
         if (!packageNameIsOverridden()) {
@@ -129,14 +119,9 @@ public class AndroidManifest {
         versionName = getTagAttributeText(manifestDocument, "manifest", "android:versionName");
         rClassName = packageName + ".R";
 
-        Node applicationNode = findApplicationNode(manifestDocument);
+        ManifestElement applicationNode = findApplicationNode(manifestDocument);
         if (applicationNode != null) {
-          NamedNodeMap attributes = applicationNode.getAttributes();
-          int attrCount = attributes.getLength();
-          for (int i = 0; i < attrCount; i++) {
-            Node attr = attributes.item(i);
-            applicationAttributes.put(attr.getNodeName(), attr.getTextContent());
-          }
+          applicationAttributes.putAll(applicationNode.getAttributes());
 
           applicationName = applicationAttributes.get("android:name");
           applicationLabel = applicationAttributes.get("android:label");
@@ -178,151 +163,129 @@ public class AndroidManifest {
     return overridePackageName != null && !overridePackageName.isEmpty();
   }
 
-  private void parseUsedPermissions(Document manifestDocument) {
-    NodeList elementsByTagName = manifestDocument.getElementsByTagName("uses-permission");
-    int length = elementsByTagName.getLength();
-    for (int i = 0; i < length; i++) {
-      Node node = elementsByTagName.item(i).getAttributes().getNamedItem("android:name");
-      usedPermissions.add(node.getNodeValue());
+  private void parseUsedPermissions(ManifestElement manifestDocument) {
+    for (ManifestElement usesPermissionNode : manifestDocument.getElementsByTagName("uses-permission")) {
+      usedPermissions.add(usesPermissionNode.getAttribute("android:name"));
     }
   }
 
-  private void parsePermissions(final Document manifestDocument) {
-    NodeList elementsByTagName = manifestDocument.getElementsByTagName("permission");
-
-    for (int i = 0; i < elementsByTagName.getLength(); i++) {
-      Node permissionNode = elementsByTagName.item(i);
-      final MetaData metaData = new MetaData(getChildrenTags(permissionNode, "meta-data"));
-      String name = getAttributeValue(permissionNode, "android:name");
+  private void parsePermissions(final ManifestElement manifestDocument) {
+    for (ManifestElement permissionNode : manifestDocument.getElementsByTagName("permission")) {
+      final MetaData metaData = MetaData.fromElements(permissionNode.getChildren("meta-data"));
+      String name = permissionNode.getAttribute("android:name");
       permissions.put(name,
           new PermissionItemData(
               name,
-              getAttributeValue(permissionNode, "android:label"),
-              getAttributeValue(permissionNode, "android:description"),
-              getAttributeValue(permissionNode, "android:permissionGroup"),
-              getAttributeValue(permissionNode, "android:protectionLevel"),
+              permissionNode.getAttribute("android:label"),
+              permissionNode.getAttribute("android:description"),
+              permissionNode.getAttribute("android:permissionGroup"),
+              permissionNode.getAttribute("android:protectionLevel"),
               metaData
           ));
     }
   }
 
-  private void parseContentProviders(Node applicationNode) {
-    for (Node contentProviderNode : getChildrenTags(applicationNode, "provider")) {
-      String name = getAttributeValue(contentProviderNode, "android:name");
-      String authorities = getAttributeValue(contentProviderNode, "android:authorities");
-      MetaData metaData = new MetaData(getChildrenTags(contentProviderNode, "meta-data"));
+  private void parseContentProviders(ManifestElement applicationNode) {
+    for (ManifestElement contentProviderNode : applicationNode.getChildren("provider")) {
+      String name = contentProviderNode.getAttribute("android:name");
+      String authorities = contentProviderNode.getAttribute("android:authorities");
+      MetaData metaData = MetaData.fromElements(contentProviderNode.getChildren("meta-data"));
 
       List<PathPermissionData> pathPermissionDatas = new ArrayList<>();
-      for (Node node : getChildrenTags(contentProviderNode, "path-permission")) {
+      for (ManifestElement node : contentProviderNode.getChildren("path-permission")) {
         pathPermissionDatas.add(new PathPermissionData(
-                getAttributeValue(node, "android:path"),
-                getAttributeValue(node, "android:pathPrefix"),
-                getAttributeValue(node, "android:pathPattern"),
-                getAttributeValue(node, "android:readPermission"),
-                getAttributeValue(node, "android:writePermission")
+                node.getAttribute("android:path"),
+                node.getAttribute("android:pathPrefix"),
+                node.getAttribute("android:pathPattern"),
+                node.getAttribute("android:readPermission"),
+                node.getAttribute("android:writePermission")
         ));
       }
 
       providers.add(new ContentProviderData(resolveClassRef(name),
               metaData,
               authorities,
-              getAttributeValue(contentProviderNode, "android:readPermission"),
-              getAttributeValue(contentProviderNode, "android:writePermission"),
+              contentProviderNode.getAttribute("android:readPermission"),
+              contentProviderNode.getAttribute("android:writePermission"),
               pathPermissionDatas));
     }
   }
 
-  private @Nullable String getAttributeValue(Node parentNode, String attributeName) {
-    Node attributeNode = parentNode.getAttributes().getNamedItem(attributeName);
-    return attributeNode == null ? null : attributeNode.getTextContent();
-  }
-
-  private void parseReceivers(Node applicationNode) {
-    for (Node receiverNode : getChildrenTags(applicationNode, "receiver")) {
-      Node namedItem = receiverNode.getAttributes().getNamedItem("android:name");
-      if (namedItem == null) continue;
+  private void parseReceivers(ManifestElement applicationNode) {
+    for (ManifestElement receiverNode : applicationNode.getChildren("receiver")) {
+      String name = receiverNode.getAttribute("android:name");
+      if (name == null) continue;
 
-      String receiverName = resolveClassRef(namedItem.getTextContent());
-      MetaData metaData = new MetaData(getChildrenTags(receiverNode, "meta-data"));
+      String receiverName = resolveClassRef(name);
+      MetaData metaData = MetaData.fromElements(receiverNode.getChildren("meta-data"));
 
       BroadcastReceiverData receiver = new BroadcastReceiverData(receiverName, metaData);
-      List<Node> intentFilters = getChildrenTags(receiverNode, "intent-filter");
-      for (Node intentFilterNode : intentFilters) {
-        for (Node actionNode : getChildrenTags(intentFilterNode, "action")) {
-          Node nameNode = actionNode.getAttributes().getNamedItem("android:name");
-          if (nameNode != null) {
-            receiver.addAction(nameNode.getTextContent());
+      for (ManifestElement intentFilterNode : receiverNode.getChildren("intent-filter")) {
+        for (ManifestElement actionNode : intentFilterNode.getChildren("action")) {
+          String actionName = actionNode.getAttribute("android:name");
+          if (actionName != null) {
+            receiver.addAction(actionName);
           }
         }
       }
-      
-      Node permissionItem = receiverNode.getAttributes().getNamedItem("android:permission");
-      if (permissionItem != null) {
-        receiver.setPermission(permissionItem.getTextContent());
+
+      String permission = receiverNode.getAttribute("android:permission");
+      if (permission != null) {
+        receiver.setPermission(permission);
       }
-      
+
       receivers.add(receiver);
     }
   }
 
-  private void parseServices(Node applicationNode) {
-    for (Node serviceNode : getChildrenTags(applicationNode, "service")) {
-      Node namedItem = serviceNode.getAttributes().getNamedItem("android:name");
-      if (namedItem == null) continue;
+  private void parseServices(ManifestElement applicationNode) {
+    for (ManifestElement serviceNode : applicationNode.getChildren("service")) {
+      String name = serviceNode.getAttribute("android:name");
+      if (name == null) continue;
 
-      String serviceName = resolveClassRef(namedItem.getTextContent());
-      MetaData metaData = new MetaData(getChildrenTags(serviceNode, "meta-data"));
+      String serviceName = resolveClassRef(name);
+      MetaData metaData = MetaData.fromElements(serviceNode.getChildren("meta-data"));
 
       ServiceData service = new ServiceData(serviceName, metaData);
-      List<Node> intentFilters = getChildrenTags(serviceNode, "intent-filter");
-      for (Node intentFilterNode : intentFilters) {
-        for (Node actionNode : getChildrenTags(intentFilterNode, "action")) {
-          Node nameNode = actionNode.getAttributes().getNamedItem("android:name");
-          if (nameNode != null) {
-            service.addAction(nameNode.getTextContent());
+      for (ManifestElement intentFilterNode : serviceNode.getChildren("intent-filter")) {
+        for (ManifestElement actionNode : intentFilterNode.getChildren("action")) {
+          String actionName = actionNode.getAttribute("android:name");
+          if (actionName != null) {
+            service.addAction(actionName);
           }
         }
       }
-      
-      Node permissionItem = serviceNode.getAttributes().getNamedItem("android:permission");
-      if (permissionItem != null) {
-        service.setPermission(permissionItem.getTextContent());
+
+      String permission = serviceNode.getAttribute("android:permission");
+      if (permission != null) {
+        service.setPermission(permission);
       }
       serviceDatas.put(serviceName, service);
     }
   }
 
-  private void parseActivities(Node applicationNode) {
-    for (Node activityNode : getChildrenTags(applicationNode, "activity")) {
+  private void parseActivities(ManifestElement applicationNode) {
+    for (ManifestElement activityNode : applicationNode.getChildren("activity")) {
       parseActivity(activityNode, false);
     }
 
-    for (Node activityNode : getChildrenTags(applicationNode, "activity-alias")) {
+    for (ManifestElement activityNode : applicationNode.getChildren("activity-alias")) {
       parseActivity(activityNode, true);
     }
   }
 
-  private Node findApplicationNode(Document manifestDocument) {
-    NodeList applicationNodes = manifestDocument.getElementsByTagName("application");
-    if (applicationNodes.getLength() > 1) {
-      throw new RuntimeException("found " + applicationNodes.getLength() + " application elements");
+  private ManifestElement findApplicationNode(ManifestElement manifestDocument) {
+    List<ManifestElement> applicationNodes = manifestDocument.getElementsByTagName("application");
+    if (applicationNodes.size() > 1) {
+      throw new RuntimeException("found " + applicationNodes.size() + " application elements");
     }
-    return applicationNodes.item(0);
+    return applicationNodes.isEmpty() ? null : applicationNodes.get(0);
   }
 
-  private void parseActivity(Node activityNode, boolean isAlias) {
-    final NamedNodeMap attributes = activityNode.getAttributes();
-    final int attrCount = attributes.getLength();
+  private void parseActivity(ManifestElement activityNode, boolean isAlias) {
     final List<IntentFilterData> intentFilterData = parseIntentFilters(activityNode);
-    final MetaData metaData = new MetaData(getChildrenTags(activityNode, "meta-data"));
-    final HashMap<String, String> activityAttrs = new HashMap<>(attrCount);
-    for(int i = 0; i < attrCount; i++) {
-      Node attr = attributes.item(i);
-      String v = attr.getNodeValue();
-      if( v != null) {
-        activityAttrs.put(attr.getNodeName(), v);
-      }
-    }
+    final MetaData metaData = MetaData.fromElements(activityNode.getChildren("meta-data"));
+    final HashMap<String, String> activityAttrs = new HashMap<>(activityNode.getAttributes());
 
     String activityName = resolveClassRef(activityAttrs.get(ActivityData.getNameAttr("android")));
     if (activityName == null) {
@@ -343,24 +306,22 @@ public class AndroidManifest {
     activityDatas.put(activityName, new ActivityData("android", activityAttrs, intentFilterData, targetActivity, metaData));
   }
 
-  private List<IntentFilterData> parseIntentFilters(final Node activityNode) {
+  private List<IntentFilterData> parseIntentFilters(final ManifestElement activityNode) {
     ArrayList<IntentFilterData> intentFilterDatas = new ArrayList<>();
-    for (Node n : getChildrenTags(activityNode, "intent-filter")) {
+    for (ManifestElement n : activityNode.getChildren("intent-filter")) {
       ArrayList<String> actionNames = new ArrayList<>();
       ArrayList<String> categories = new ArrayList<>();
       //should only be one action.
-      for (Node action : getChildrenTags(n, "action")) {
-        NamedNodeMap attributes = action.getAttributes();
-        Node actionNameNode = attributes.getNamedItem("android:name");
-        if (actionNameNode != null) {
-          actionNames.add(actionNameNode.getNodeValue());
+      for (ManifestElement action : n.getChildren("action")) {
+        String actionName = action.getAttribute("android:name");
+        if (actionName != null) {
+          actionNames.add(actionName);
         }
       }
-      for (Node category : getChildrenTags(n, "category")) {
-        NamedNodeMap attributes = category.getAttributes();
-        Node categoryNameNode = attributes.getNamedItem("android:name");
-        if (categoryNameNode != null) {
-          categories.add(categoryNameNode.getNodeValue());
+      for (ManifestElement category : n.getChildren("category")) {
+        String categoryName = category.getAttribute("android:name");
+        if (categoryName != null) {
+          categories.add(categoryName);
         }
       }
       IntentFilterData intentFilterData = new IntentFilterData(actionNames, categories);
@@ -371,46 +332,33 @@ public class AndroidManifest {
     return intentFilterDatas;
   }
 
-  private IntentFilterData parseIntentFilterData(final Node intentFilterNode, IntentFilterData intentFilterData) {
-    for (Node n : getChildrenTags(intentFilterNode, "data")) {
-      NamedNodeMap attributes = n.getAttributes();
-      String host = null;
-      String port = null;
-
-      Node schemeNode = attributes.getNamedItem("android:scheme");
-      if (schemeNode != null) {
-        intentFilterData.addScheme(schemeNode.getNodeValue());
+  private IntentFilterData parseIntentFilterData(final ManifestElement intentFilterNode, IntentFilterData intentFilterData) {
+    for (ManifestElement n : intentFilterNode.getChildren("data")) {
+      String scheme = n.getAttribute("android:scheme");
+      if (scheme != null) {
+        intentFilterData.addScheme(scheme);
       }
 
-      Node hostNode = attributes.getNamedItem("android:host");
-      if (hostNode != null) {
-        host = hostNode.getNodeValue();
-      }
+      intentFilterData.addAuthority(n.getAttribute("android:host"), n.getAttribute("android:port"));
 
-      Node portNode = attributes.getNamedItem("android:port");
-      if (portNode != null) {
-        port = portNode.getNodeValue();
+      String path = n.getAttribute("android:path");
+      if (path != null) {
+        intentFilterData.addPath(path);
       }
-      intentFilterData.addAuthority(host, port);
 
-      Node pathNode = attributes.getNamedItem("android:path");
-      if (pathNode != null) {
-        intentFilterData.addPath(pathNode.getNodeValue());
+      String pathPattern = n.getAttribute("android:pathPattern");
+      if (pathPattern != null) {
+        intentFilterData.addPathPattern(pathPattern);
       }
 
-      Node pathPatternNode = attributes.getNamedItem("android:pathPattern");
-      if (pathPatternNode != null) {
-        intentFilterData.addPathPattern(pathPatternNode.getNodeValue());
+      String pathPrefix = n.getAttribute("android:pathPrefix");
+      if (pathPrefix != null) {
+        intentFilterData.addPathPrefix(pathPrefix);
       }
 
-      Node pathPrefixNode = attributes.getNamedItem("android:pathPrefix");
-      if (pathPrefixNode != null) {
-        intentFilterData.addPathPrefix(pathPrefixNode.getNodeValue());
-      }
-
-      Node mimeTypeNode = attributes.getNamedItem("android:mimeType");
-      if (mimeTypeNode != null) {
-        intentFilterData.addMimeType(mimeTypeNode.getNodeValue());
+      String mimeType = n.getAttribute("android:mimeType");
+      if (mimeType != null) {
+        intentFilterData.addMimeType(mimeType);
       }
     }
     return intentFilterData;
@@ -438,30 +386,19 @@ public class AndroidManifest {
     }
   }
 
-  private void parseApplicationMetaData(Node applicationNode) {
-    applicationMetaData = new MetaData(getChildrenTags(applicationNode, "meta-data"));
+  private void parseApplicationMetaData(ManifestElement applicationNode) {
+    applicationMetaData = MetaData.fromElements(applicationNode.getChildren("meta-data"));
   }
 
   private String resolveClassRef(String maybePartialClassName) {
     return (maybePartialClassName.startsWith(".")) ? packageName + maybePartialClassName : maybePartialClassName;
   }
 
-  private List<Node> getChildrenTags(final Node node, final String tagName) {
-    List<Node> children = new ArrayList<>();
-    for (int i = 0; i < node.getChildNodes().getLength(); i++) {
-      Node childNode = node.getChildNodes().item(i);
-      if (childNode.getNodeName().equalsIgnoreCase(tagName)) {
-        children.add(childNode);
-      }
-    }
-    return children;
-  }
-
-  private Integer getTagAttributeIntValue(final Document doc, final String tag, final String attribute) {
+  private Integer getTagAttributeIntValue(final ManifestElement doc, final String tag, final String attribute) {
     return getTagAttributeIntValue(doc, tag, attribute, null);
   }
 
-  private Integer getTagAttributeIntValue(final Document doc, final String tag, final String attribute, final Integer defaultValue) {
+  private Integer getTagAttributeIntValue(final ManifestElement doc, final String tag, final String attribute, final Integer defaultValue) {
     String valueString = getTagAttributeText(doc, tag, attribute);
     if (valueString != null) {
       return Integer.parseInt(valueString);
@@ -530,13 +467,13 @@ public class AndroidManifest {
   public Map<String, Object> getApplicationMetaData() {
     parseAndroidManifest();
     if (applicationMetaData == null) {
-      applicationMetaData = new MetaData(Collections.<Node>emptyList());
+      applicationMetaData = MetaData.fromElements(Collections.<ManifestElement>emptyList());
     }
     return applicationMetaData.getValueMap();
   }
 
   public ResourcePath getResourcePath() {
-    return new ResourcePath(getRClass(), resDirectory, assetsDirectory);
+    return new ResourcePath(getRClass(), resDirectory, assetsDirectory, null, rTxtFile);
   }
 
   public List<ResourcePath> getIncludedResourcePaths() {
@@ -553,6 +490,18 @@ public class AndroidManifest {
     return providers;
   }
 
+  /**
+   * @param rTxtFile An aapt generated R.txt file holding this manifest's final resource ids. Ids are read from it
+   *                 rather than from the R class. Don't set it for libraries: their R.txt files hold pre-merge ids.
+   */
+  public void setRTxtFile(FsFile rTxtFile) {
+    this.rTxtFile = rTxtFile;
+  }
+
+  public FsFile getRTxtFile() {
+    return rTxtFile;
+  }
+
   public void setLibraryManifests(List<AndroidManifest> libraryManifests) {
     Preconditions.checkNotNull(libraryManifests);
     this.libraryManifests = libraryManifests;
@@ -589,13 +538,11 @@ public class AndroidManifest {
     return serviceDatas.get(serviceClassName);
   }
 
-  private static String getTagAttributeText(final Document doc, final String tag, final String attribute) {
-    NodeList elementsByTagName = doc.getElementsByTagName(tag);
-    for (int i = 0; i < elementsByTagName.getLength(); ++i) {
-      Node item = elementsByTagName.item(i);
-      Node namedItem = item.getAttributes().getNamedItem(attribute);
-      if (namedItem != null) {
-        return namedItem.getTextContent();
+  private static String getTagAttributeText(final ManifestElement doc, final String tag, final String attribute) {
+    for (ManifestElement item : doc.getElementsByTagName(tag)) {
+      String value = item.getAttribute(attribute);
+      if (value != null) {
+        return value;
       }
     }
     return null;
@@ -614,6 +561,7 @@ public class AndroidManifest {
       return false;
     if (resDirectory != null ? !resDirectory.equals(that.resDirectory) : that.resDirectory != null) return false;
     if (overridePackageName != null ? !overridePackageName.equals(that.overridePackageName) : that.overridePackageName != null) return false;
+    if (rTxtFile != null ? !rTxtFile.equals(that.rTxtFile) : that.rTxtFile != null) return false;
     return true;
   }
 
@@ -623,6 +571,7 @@ public class AndroidManifest {
     result = 31 * result + (resDirectory != null ? resDirectory.hashCode() : 0);
     result = 31 * result + (assetsDirectory != null ? assetsDirectory.hashCode() : 0);
     result = 31 * result + (overridePackageName != null ? overridePackageName.hashCode() : 0);
+    result = 31 * result + (rTxtFile != null ? rTxtFile.hashCode() : 0);
     return result;
   }
 
@@ -0,0 +1,129 @@
+package org.robolectric.manifest;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lightweight, read-only element tree for AndroidManifest.xml, built with a single StAX pass.
+ *
+ * Only element names, attributes and child elements are kept; text, comments and processing instructions are
+ * skipped, which makes this much cheaper to build than a DOM for manifests with many components.
+ */
+class ManifestElement {
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+  private final String name;
+  private final Map<String, String> attributes;
+  private final List<ManifestElement> children = new ArrayList<>();
+
+  private ManifestElement(String name, Map<String, String> attributes) {
+    this.name = name;
+    this.attributes = attributes;
+  }
+
+  static ManifestElement parse(InputStream inputStream) throws XMLStreamException {
+    XMLStreamReader reader;
+    synchronized (XML_INPUT_FACTORY) {
+      reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+    }
+
+    try {
+      ManifestElement root = null;
+      Deque<ManifestElement> stack = new ArrayDeque<>();
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            Map<String, String> attributes = new LinkedHashMap<>();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+              attributes.put(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                  reader.getAttributeValue(i));
+            }
+
+            ManifestElement element = new ManifestElement(qualifiedName(reader.getPrefix(), reader.getLocalName()), attributes);
+            if (stack.isEmpty()) {
+              root = element;
+            } else {
+              stack.peek().children.add(element);
+            }
+            stack.push(element);
+            break;
+
+          case XMLStreamConstants.END_ELEMENT:
+            stack.pop();
+            break;
+
+          default:
+            break;
+        }
+      }
+      return root;
+    } finally {
+      reader.close();
+    }
+  }
+
+  String getName() {
+    return name;
+  }
+
+  String getAttribute(String attributeName) {
+    return attributes.get(attributeName);
+  }
+
+  Map<String, String> getAttributes() {
+    return Collections.unmodifiableMap(attributes);
+  }
+
+  List<ManifestElement> getChildren(String tagName) {
+    List<ManifestElement> result = new ArrayList<>();
+    for (ManifestElement child : children) {
+      if (child.name.equalsIgnoreCase(tagName)) {
+        result.add(child);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Finds all elements with the given name in this subtree, in document order, like
+   * {@link org.w3c.dom.Document#getElementsByTagName(String)}.
+   */
+  List<ManifestElement> getElementsByTagName(String tagName) {
+    List<ManifestElement> result = new ArrayList<>();
+    collectElementsByTagName(tagName, result);
+    return result;
+  }
+
+  private void collectElementsByTagName(String tagName, List<ManifestElement> result) {
+    if (name.equals(tagName)) {
+      result.add(this);
+    }
+    for (ManifestElement child : children) {
+      child.collectElementsByTagName(tagName, result);
+    }
+  }
+
+  private static String qualifiedName(String prefix, String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    // Like the DOM parser this replaced, match on qualified names and don't insist that prefixes are declared;
+    // namespace declarations are then reported as ordinary xmlns attributes.
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    return factory;
+  }
+}
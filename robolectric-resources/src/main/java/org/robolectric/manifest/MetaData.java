@@ -22,13 +22,32 @@ public final class MetaData {
       Node valueAttr = attributes.getNamedItem("android:value");
       Node resourceAttr = attributes.getNamedItem("android:resource");
 
-      if (valueAttr != null) {
-        valueMap.put(nameAttr.getNodeValue(), valueAttr.getNodeValue());
-        typeMap.put(nameAttr.getNodeValue(), VALUE_TYPE.VALUE);
-      } else if (resourceAttr != null) {
-        valueMap.put(nameAttr.getNodeValue(), resourceAttr.getNodeValue());
-        typeMap.put(nameAttr.getNodeValue(), VALUE_TYPE.RESOURCE);
-      }
+      addEntry(nameAttr == null ? null : nameAttr.getNodeValue(),
+          valueAttr == null ? null : valueAttr.getNodeValue(),
+          resourceAttr == null ? null : resourceAttr.getNodeValue());
+    }
+  }
+
+  private MetaData() {
+  }
+
+  static MetaData fromElements(List<ManifestElement> elements) {
+    MetaData metaData = new MetaData();
+    for (ManifestElement metaElement : elements) {
+      metaData.addEntry(metaElement.getAttribute("android:name"),
+          metaElement.getAttribute("android:value"),
+          metaElement.getAttribute("android:resource"));
+    }
+    return metaData;
+  }
+
+  private void addEntry(String name, String value, String resource) {
+    if (value != null) {
+      valueMap.put(name, value);
+      typeMap.put(name, VALUE_TYPE.VALUE);
+    } else if (resource != null) {
+      valueMap.put(name, resource);
+      typeMap.put(name, VALUE_TYPE.RESOURCE);
     }
   }
 
@@ -7,6 +7,8 @@ import org.robolectric.res.builder.XmlBlock;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link ResourceTable} for a single package, e.g: "android" / ox01
@@ -20,6 +22,9 @@ public class PackageResourceTable implements ResourceTable {
   private final String packageName;
   private int packageIdentifier;
 
+  private static final Object NO_VALUE = new Object();
+  private volatile PickedValues pickedValues;
+
 
   PackageResourceTable(String packageName) {
     this.packageName = packageName;
@@ -46,16 +51,16 @@ public class PackageResourceTable implements ResourceTable {
 
   @Override
   public TypedResource getValue(@NotNull ResName resName, String qualifiers) {
-    return resources.get(resName, qualifiers);
+    return pick(resName, qualifiers);
   }
 
   @Override
   public TypedResource getValue(int resId, String qualifiers) {
-    return resources.get(getResName(resId), qualifiers);
+    return pick(getResName(resId), qualifiers);
   }
 
   public XmlBlock getXml(ResName resName, String qualifiers) {
-    FileTypedResource typedResource = (FileTypedResource) resources.get(resName, qualifiers);
+    FileTypedResource typedResource = (FileTypedResource) pick(resName, qualifiers);
     if (typedResource == null || !typedResource.isXml()) {
       return null;
     } else {
@@ -64,7 +69,7 @@ public class PackageResourceTable implements ResourceTable {
   }
 
   public InputStream getRawValue(ResName resName, String qualifiers) {
-    FileTypedResource typedResource = (FileTypedResource) resources.get(resName, qualifiers);
+    FileTypedResource typedResource = (FileTypedResource) pick(resName, qualifiers);
     FsFile file = typedResource == null ? null : typedResource.getFsFile();
     try {
       return file == null ? null : file.getInputStream();
@@ -83,7 +88,38 @@ public class PackageResourceTable implements ResourceTable {
     resources.receive(visitor);
   }
 
+  private TypedResource pick(ResName resName, String qualifiers) {
+    if (!ResourceStats.isEnabled()) {
+      return pickCached(resName, qualifiers);
+    }
+
+    long startTime = System.nanoTime();
+    TypedResource value = pickCached(resName, qualifiers);
+    ResourceStats.recordLookup(resName, System.nanoTime() - startTime);
+    return value;
+  }
+
+  private TypedResource pickCached(ResName resName, String qualifiers) {
+    if (resName == null || qualifiers == null) {
+      return resources.get(resName, qualifiers);
+    }
+
+    PickedValues pickedValues = this.pickedValues;
+    if (pickedValues == null || !pickedValues.qualifiers.equals(qualifiers)) {
+      this.pickedValues = pickedValues = new PickedValues(qualifiers);
+    }
+
+    Object value = pickedValues.values.get(resName);
+    if (value == null) {
+      TypedResource picked = resources.get(resName, qualifiers);
+      pickedValues.values.put(resName, picked == null ? NO_VALUE : picked);
+      return picked;
+    }
+    return value == NO_VALUE ? null : (TypedResource) value;
+  }
+
   void addResource(int resId, String type, String name) {
+      pickedValues = null;
       if (ResourceIds.isFrameworkResource(resId)) {
         androidResourceIdGenerator.record(resId, type, name);
       }
@@ -102,6 +138,7 @@ public class PackageResourceTable implements ResourceTable {
   }
 
   void addResource(String type, String name, TypedResource value) {
+    pickedValues = null;
     ResName resName = new ResName(packageName, type, name);
     Integer id = resourceTable.inverse().get(resName);
     if (id == null && isAndroidPackage(resName)) {
@@ -117,4 +154,17 @@ public class PackageResourceTable implements ResourceTable {
   private boolean isAndroidPackage(ResName resName) {
     return "android".equals(resName.packageName);
   }
+
+  /**
+   * The values picked for a single qualifiers string; replaced as soon as values are requested for different
+   * qualifiers, e.g. after <code>RuntimeEnvironment.setQualifiers()</code>.
+   */
+  private static class PickedValues {
+    private final String qualifiers;
+    private final Map<ResName, Object> values = new ConcurrentHashMap<>();
+
+    PickedValues(String qualifiers) {
+      this.qualifiers = qualifiers;
+    }
+  }
 }
@@ -1,6 +1,8 @@
 package org.robolectric.res;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,17 +23,30 @@ public class Qualifiers {
   private static final List<String> INT_QUALIFIERS = Arrays.asList("v", "h", "w", "sh", "sw");
   private static final int TOTAL_ORDER_COUNT = INT_QUALIFIERS.size();
 
-  private static final Map<String, Qualifiers> sQualifiersCache = new HashMap<>();
+  private static final ConcurrentMap<String, Qualifiers> sQualifiersCache = new ConcurrentHashMap<>();
+
+  // Every distinct non-numeric qualifier (e.g. "en", "land") is assigned a bit, so sets of them can be compared as bitsets.
+  private static final ConcurrentMap<String, Integer> sDefaultIndexes = new ConcurrentHashMap<>();
 
   private final int[] mWeights = new int[TOTAL_ORDER_COUNT];
-  // Set of all the qualifiers which need exact matching.
-  private final List<String> mDefaults = new ArrayList<>();
+  // Bits of all the qualifiers which need exact matching.
+  private long[] mDefaults = new long[1];
+  // Bit indexes of the qualifiers which need exact matching, in the order they were declared.
+  private int[] mDefaultsInOrder = new int[0];
 
   public boolean matches(Qualifiers other) {
     if (!passesRequirements(other)) {
       return false;
     }
-    return other.mDefaults.containsAll(mDefaults);
+
+    long[] otherDefaults = other.mDefaults;
+    for (int i = 0; i < mDefaults.length; i++) {
+      long otherBits = i < otherDefaults.length ? otherDefaults[i] : 0;
+      if ((mDefaults[i] & ~otherBits) != 0) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public boolean passesRequirements(Qualifiers other) {
@@ -45,9 +60,10 @@ public class Qualifiers {
 
   public boolean isBetterThan(Qualifiers other, Qualifiers context) {
     // Compare the defaults in the order they appear in the context.
-    for (String qualifier : context.mDefaults) {
-      if (other.mDefaults.contains(qualifier) ^ mDefaults.contains(qualifier)) {
-        return mDefaults.contains(qualifier);
+    for (int qualifier : context.mDefaultsInOrder) {
+      boolean hasQualifier = hasDefault(qualifier);
+      if (other.hasDefault(qualifier) ^ hasQualifier) {
+        return hasQualifier;
       }
     }
 
@@ -67,46 +83,77 @@ public class Qualifiers {
     return false;
   }
 
+  private boolean hasDefault(int index) {
+    int word = index >>> 6;
+    return word < mDefaults.length && (mDefaults[word] & (1L << index)) != 0;
+  }
+
+  private void addDefault(String qualifier) {
+    int index = defaultIndex(qualifier);
+    int word = index >>> 6;
+    if (word >= mDefaults.length) {
+      mDefaults = Arrays.copyOf(mDefaults, word + 1);
+    }
+    mDefaults[word] |= 1L << index;
+
+    mDefaultsInOrder = Arrays.copyOf(mDefaultsInOrder, mDefaultsInOrder.length + 1);
+    mDefaultsInOrder[mDefaultsInOrder.length - 1] = index;
+  }
+
+  private static int defaultIndex(String qualifier) {
+    Integer index = sDefaultIndexes.get(qualifier);
+    if (index == null) {
+      synchronized (sDefaultIndexes) {
+        index = sDefaultIndexes.get(qualifier);
+        if (index == null) {
+          index = sDefaultIndexes.size();
+          sDefaultIndexes.put(qualifier, index);
+        }
+      }
+    }
+    return index;
+  }
+
   public static Qualifiers parse(String qualifiersStr) {
-    synchronized (sQualifiersCache) {
-      Qualifiers result = sQualifiersCache.get(qualifiersStr);
-      if (result != null) {
-        return result;
+    Qualifiers result = sQualifiersCache.get(qualifiersStr);
+    if (result != null) {
+      return result;
+    }
+
+    StringTokenizer st = new StringTokenizer(qualifiersStr, "-");
+    result = new Qualifiers();
+    // Version qualifiers are also allowed to match when only one of the qualifiers
+    // defines a version restriction.
+    result.mWeights[ORDER_VERSION] = -1;
+
+    while (st.hasMoreTokens()) {
+      String qualifier = st.nextToken();
+      if (qualifier.isEmpty()) {
+        continue;
       }
-      StringTokenizer st = new StringTokenizer(qualifiersStr, "-");
-      result = new Qualifiers();
-      // Version qualifiers are also allowed to match when only one of the qualifiers
-      // defines a version restriction.
-      result.mWeights[ORDER_VERSION] = -1;
-
-      while (st.hasMoreTokens()) {
-        String qualifier = st.nextToken();
-        if (qualifier.isEmpty()) {
-          continue;
-        }
 
-        Matcher m = VERSION_QUALIFIER_PATTERN.matcher(qualifier);
+      Matcher m = VERSION_QUALIFIER_PATTERN.matcher(qualifier);
+      if (!m.find()) {
+        m = SIZE_QUALIFIER_PATTERN.matcher(qualifier);
         if (!m.find()) {
-          m = SIZE_QUALIFIER_PATTERN.matcher(qualifier);
-          if (!m.find()) {
-            m = null;
-          }
+          m = null;
         }
-        if (m != null) {
-          int order = INT_QUALIFIERS.indexOf(m.group(1));
-          if (order == ORDER_VERSION && result.mWeights[ORDER_VERSION] != -1) {
-            throw new IllegalStateException(
-                "A resource file was found that had two API level qualifiers: " + qualifiersStr);
-          }
-          result.mWeights[order] = Integer.parseInt(m.group(2));
-        } else {
-          result.mDefaults.add(qualifier);
+      }
+      if (m != null) {
+        int order = INT_QUALIFIERS.indexOf(m.group(1));
+        if (order == ORDER_VERSION && result.mWeights[ORDER_VERSION] != -1) {
+          throw new IllegalStateException(
+              "A resource file was found that had two API level qualifiers: " + qualifiersStr);
         }
+        result.mWeights[order] = Integer.parseInt(m.group(2));
+      } else {
+        result.addDefault(qualifier);
       }
-
-      sQualifiersCache.put(qualifiersStr, result);
-      return result;
     }
+
+    // Parsing is idempotent, so if another thread got here first just use its instance.
+    Qualifiers existing = sQualifiersCache.putIfAbsent(qualifiersStr, result);
+    return existing != null ? existing : result;
   }
 
   public static int getPlatformVersion(String qualifiers) {
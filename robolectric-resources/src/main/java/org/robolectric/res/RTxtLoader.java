@@ -0,0 +1,130 @@
+package org.robolectric.res;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads resource ids from an aapt generated <code>R.txt</code> symbol file, e.g:
+ *
+ * <pre>
+ * int attr actionBarSize 0x7f010000
+ * int[] styleable ActionBar { 0x7f010000, 0x7f010001 }
+ * int styleable ActionBar_actionBarSize 0
+ * </pre>
+ *
+ * This gives the same ids as reflecting over the fields of a compiled R class, without having to load the class or
+ * read each of its fields reflectively.
+ */
+public class RTxtLoader {
+  private final FsFile rTxtFile;
+
+  public RTxtLoader(FsFile rTxtFile) {
+    this.rTxtFile = rTxtFile;
+  }
+
+  public void loadTo(PackageResourceTable resourceTable) {
+    loadTo(resourceTable, false);
+  }
+
+  /**
+   * @param addMissingStyleableAttributes - If true, attributes which are only referenced from a styleable array (as is
+   *                                      the case for some framework attributes) are also added to the table.
+   */
+  public void loadTo(PackageResourceTable resourceTable, boolean addMissingStyleableAttributes) {
+    Map<String, Integer> resourceIds = new LinkedHashMap<>();
+    Map<String, int[]> styleableArrays = new HashMap<>();
+    List<String[]> styleableIndexes = new ArrayList<>();
+    read(resourceIds, styleableArrays, styleableIndexes);
+
+    for (Map.Entry<String, Integer> resourceId : resourceIds.entrySet()) {
+      String resourceName = resourceId.getKey();
+      int separator = resourceName.indexOf('/');
+      resourceTable.addResource(resourceId.getValue(), resourceName.substring(0, separator), resourceName.substring(separator + 1));
+    }
+
+    if (addMissingStyleableAttributes) {
+      for (String[] styleableIndex : styleableIndexes) {
+        String fieldName = styleableIndex[0];
+        int separator = fieldName.length();
+        int[] styleableArray = null;
+        while (styleableArray == null && (separator = fieldName.lastIndexOf('_', separator - 1)) > 0) {
+          styleableArray = styleableArrays.get(fieldName.substring(0, separator));
+        }
+        if (styleableArray != null) {
+          String attributeName = fieldName.substring(separator + 1);
+          resourceTable.addResource(styleableArray[parseInt(styleableIndex[1])], "attr", attributeName);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the ids of the resources in the file, keyed by <code>type/name</code>. Styleables aren't included.
+   */
+  public Map<String, Integer> loadIds() {
+    Map<String, Integer> resourceIds = new LinkedHashMap<>();
+    read(resourceIds, new HashMap<String, int[]>(), new ArrayList<String[]>());
+    return resourceIds;
+  }
+
+  private void read(Map<String, Integer> resourceIds, Map<String, int[]> styleableArrays, List<String[]> styleableIndexes) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(rTxtFile.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+
+        String[] parts = line.split(" ", 4);
+        if (parts.length < 4) {
+          throw new IllegalArgumentException(rTxtFile + ":" + lineNumber + ": malformed entry '" + line + "'");
+        }
+
+        String javaType = parts[0];
+        String resourceType = parts[1];
+        String resourceName = parts[2];
+        String value = parts[3];
+
+        if (resourceType.equals("styleable")) {
+          if (javaType.equals("int[]")) {
+            styleableArrays.put(resourceName, parseIntArray(value));
+          } else {
+            styleableIndexes.add(new String[] {resourceName, value});
+          }
+        } else {
+          resourceIds.put(resourceType + "/" + resourceName, parseInt(value));
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read " + rTxtFile, e);
+    }
+  }
+
+  private static int[] parseIntArray(String value) {
+    String contents = value.substring(value.indexOf('{') + 1, value.lastIndexOf('}')).trim();
+    if (contents.isEmpty()) {
+      return new int[0];
+    }
+
+    String[] values = contents.split(",");
+    int[] result = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = parseInt(values[i].trim());
+    }
+    return result;
+  }
+
+  private static int parseInt(String value) {
+    return value.startsWith("0x") ? (int) Long.parseLong(value.substring(2), 16) : Integer.parseInt(value);
+  }
+}
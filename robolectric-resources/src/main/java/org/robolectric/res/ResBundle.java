@@ -26,8 +26,8 @@ public class ResBundle {
       Map<String, TypedResource> values = map.get(resName);
       if (values == null || values.size() == 0) return null;
 
-      TreeSet<TypedResource> typedResources = new TreeSet<>(new QualifierSort());
-      typedResources.addAll(values.values());
+      // values are kept sorted by their qualifiers
+      Collection<TypedResource> typedResources = values.values();
 
       // This should really follow the android algorithm specified at:
       // http://developer.android.com/guide/topics/resources/providing-resources.html#BestMatch
@@ -73,7 +73,7 @@ public class ResBundle {
 
     public void put(ResName resName, TypedResource value) {
       Map<String, TypedResource> values = map.get(resName);
-      if (values == null) map.put(resName, values = new HashMap<>());
+      if (values == null) map.put(resName, values = new TreeMap<>());
       if (!values.containsKey(value.getQualifiers())) {
         values.put(value.getQualifiers(), value);
       }
@@ -82,12 +82,5 @@ public class ResBundle {
     public int size() {
       return map.size();
     }
-
-    public static class QualifierSort implements Comparator<TypedResource> {
-      @Override
-      public int compare(TypedResource o1, TypedResource o2) {
-        return o1.getQualifiers().compareTo(o2.getQualifiers());
-      }
-    }
   }
 }
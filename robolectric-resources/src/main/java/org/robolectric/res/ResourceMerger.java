@@ -9,13 +9,21 @@ import java.util.List;
 public class  ResourceMerger {
   @NotNull
   public static PackageResourceTable buildResourceTable(AndroidManifest appManifest) {
-    ResourceRemapper resourceRemapper = new ResourceRemapper(appManifest.getRClass());
-
     ResourcePath appResourcePath = appManifest.getResourcePath();
     List<ResourcePath> allResourcePaths = appManifest.getIncludedResourcePaths();
+    List<Class<?>> libraryRClasses = new ArrayList<>();
     for (ResourcePath resourcePath : allResourcePaths) {
       if (!resourcePath.equals(appResourcePath) && resourcePath.getRClass() != null) {
-        resourceRemapper.remapRClass(resourcePath.getRClass());
+        libraryRClasses.add(resourcePath.getRClass());
+      }
+    }
+
+    if (!libraryRClasses.isEmpty()) {
+      ResourceRemapper resourceRemapper = appManifest.getRTxtFile() != null
+          ? ResourceRemapper.fromResIds(new RTxtLoader(appManifest.getRTxtFile()).loadIds())
+          : new ResourceRemapper(appManifest.getRClass());
+      for (Class<?> libraryRClass : libraryRClasses) {
+        resourceRemapper.remapRClass(libraryRClass);
       }
     }
 
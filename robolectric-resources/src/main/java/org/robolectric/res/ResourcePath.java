@@ -5,16 +5,26 @@ public class ResourcePath {
   private final FsFile resourceBase;
   private final FsFile assetsDir;
   private final Class<?> internalRClass;
+  private final FsFile rTxtFile;
 
   public ResourcePath(Class<?> rClass, FsFile resourceBase, FsFile assetsDir) {
     this(rClass, resourceBase, assetsDir, null);
   }
 
   public ResourcePath(Class<?> rClass, FsFile resourceBase, FsFile assetsDir, Class<?> internalRClass) {
+    this(rClass, resourceBase, assetsDir, internalRClass, null);
+  }
+
+  /**
+   * @param rTxtFile - An aapt generated R.txt file holding the final resource ids for this path. If provided, ids are
+   *                 read from this file rather than by reflecting over the R class.
+   */
+  public ResourcePath(Class<?> rClass, FsFile resourceBase, FsFile assetsDir, Class<?> internalRClass, FsFile rTxtFile) {
     this.rClass = rClass;
     this.resourceBase = resourceBase;
     this.assetsDir = assetsDir;
     this.internalRClass = internalRClass;
+    this.rTxtFile = rTxtFile;
   }
 
   public Class<?> getRClass() {
@@ -37,6 +47,10 @@ public class ResourcePath {
     return internalRClass;
   }
 
+  public FsFile getRTxtFile() {
+    return rTxtFile;
+  }
+
   @Override
   public String toString() {
     return "ResourcePath { path=" + resourceBase + "}";
@@ -52,7 +66,8 @@ public class ResourcePath {
     if (rClass != null ? !rClass.equals(that.rClass) : that.rClass != null) return false;
     if (resourceBase != null ? !resourceBase.equals(that.resourceBase) : that.resourceBase != null) return false;
     if (assetsDir != null ? !assetsDir.equals(that.assetsDir) : that.assetsDir != null) return false;
-    return internalRClass != null ? internalRClass.equals(that.internalRClass) : that.internalRClass == null;
+    if (internalRClass != null ? !internalRClass.equals(that.internalRClass) : that.internalRClass != null) return false;
+    return rTxtFile != null ? rTxtFile.equals(that.rTxtFile) : that.rTxtFile == null;
 
   }
 
@@ -62,6 +77,7 @@ public class ResourcePath {
     result = 31 * result + (resourceBase != null ? resourceBase.hashCode() : 0);
     result = 31 * result + (assetsDir != null ? assetsDir.hashCode() : 0);
     result = 31 * result + (internalRClass != null ? internalRClass.hashCode() : 0);
+    result = 31 * result + (rTxtFile != null ? rTxtFile.hashCode() : 0);
     return result;
   }
 }
@@ -40,6 +40,23 @@ class ResourceRemapper {
     }
   }
 
+  /**
+   * @param primaryResIds - The complete set of IDs of the application, keyed by <code>type/name</code>, as read from
+   *                      its R.txt file. These are used in place of the values of the application's R class, which
+   *                      then doesn't need to be read.
+   */
+  static ResourceRemapper fromResIds(Map<String, Integer> primaryResIds) {
+    ResourceRemapper resourceRemapper = new ResourceRemapper(null);
+    for (Map.Entry<String, Integer> primaryResId : primaryResIds.entrySet()) {
+      String resourceName = primaryResId.getKey();
+      int separator = resourceName.indexOf('/');
+      resourceRemapper.resIds.put(resourceName, primaryResId.getValue());
+      resourceRemapper.resourceIdGenerator.record(primaryResId.getValue(),
+          resourceName.substring(0, separator), resourceName.substring(separator + 1));
+    }
+    return resourceRemapper;
+  }
+
   void remapRClass(Class<?> rClass) {
     remapRClass(false, rClass);
   }
@@ -53,10 +70,12 @@ class ResourceRemapper {
    *                  with the final R values we need to rewrite them ourselves.
    */
   private void remapRClass(boolean isPrimary, Class<?> rClass) {
+    Class<?>[] innerClasses = rClass.getClasses();
+
     // Collect all the local attribute id -> name mappings. These are used when processing the stylables to look up
     // the reassigned values.
     Map<Integer, String> localAttributeIds = new HashMap<>();
-    for (Class<?> aClass : rClass.getClasses()) {
+    for (Class<?> aClass : innerClasses) {
       if (aClass.getSimpleName().equals("attr")) {
         for (Field field : aClass.getFields()) {
           try {
@@ -68,7 +87,7 @@ class ResourceRemapper {
       }
     }
 
-    for (Class<?> innerClass : rClass.getClasses()) {
+    for (Class<?> innerClass : innerClasses) {
       String resourceType = innerClass.getSimpleName();
       if (!resourceType.startsWith("styleable")) {
         for (Field field : innerClass.getFields()) {
@@ -78,19 +97,22 @@ class ResourceRemapper {
             }
 
             String resourceName = resourceType + "/" + field.getName();
+            int currentValue = field.getInt(null);
             Integer value = resIds.get(resourceName);
             if (value != null) {
-              field.setAccessible(true);
-              field.setInt(null, value);
-              resourceIdGenerator.record(field.getInt(null), resourceType, field.getName());
-            } else if (resIds.containsValue(field.getInt(null))) {
+              if (value != currentValue) {
+                field.setAccessible(true);
+                field.setInt(null, value);
+              }
+              resourceIdGenerator.record(value, resourceType, field.getName());
+            } else if (resIds.containsValue(currentValue)) {
               int remappedValue = resourceIdGenerator.generate(resourceType, field.getName());
               field.setInt(null, remappedValue);
               resIds.put(resourceName, remappedValue);
             } else {
               if (isPrimary) {
-                resourceIdGenerator.record(field.getInt(null), resourceType, field.getName());
-                resIds.put(resourceName, field.getInt(null));
+                resourceIdGenerator.record(currentValue, resourceType, field.getName());
+                resIds.put(resourceName, currentValue);
               } else {
                 int remappedValue = resourceIdGenerator.generate(resourceType, field.getName());
                 field.setInt(null, remappedValue);
@@ -105,7 +127,7 @@ class ResourceRemapper {
     }
 
     // Reassign the ids in the style arrays accordingly.
-    for (Class<?> innerClass : rClass.getClasses()) {
+    for (Class<?> innerClass : innerClasses) {
       String resourceType = innerClass.getSimpleName();
       if (resourceType.startsWith("styleable")) {
         for (Field field : innerClass.getFields()) {
@@ -0,0 +1,174 @@
+package org.robolectric.res;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in statistics about resource resolution: how often each resource is looked up and how long picking the best
+ * qualified value takes, how deep style hierarchies have to be walked, and how long XML resource files take to parse.
+ *
+ * Collection is enabled by setting the <code>robolectric.resourceStats.dir</code> system property to a directory;
+ * <code>RobolectricTestRunner</code> then writes a JSON report for each test class into that directory.
+ */
+public class ResourceStats {
+  public static final String OUTPUT_DIR_PROPERTY = "robolectric.resourceStats.dir";
+
+  private static volatile File outputDir;
+
+  private static final Map<ResName, Counter> lookups = new HashMap<>();
+  private static final Map<ResName, Counter> styleResolutions = new HashMap<>();
+  private static final Map<String, Counter> xmlParses = new HashMap<>();
+
+  static {
+    String dir = System.getProperty(OUTPUT_DIR_PROPERTY);
+    outputDir = dir == null || dir.isEmpty() ? null : new File(dir);
+  }
+
+  public static boolean isEnabled() {
+    return outputDir != null;
+  }
+
+  public static File getOutputDir() {
+    return outputDir;
+  }
+
+  public static void setOutputDir(File outputDir) {
+    ResourceStats.outputDir = outputDir;
+  }
+
+  /**
+   * Records a lookup of a resource value, and the time spent picking the best match for the current qualifiers.
+   */
+  public static synchronized void recordLookup(ResName resName, long nanos) {
+    counterFor(lookups, resName).add(nanos);
+  }
+
+  /**
+   * Records an attribute lookup in a style, and how many levels of the style's parent hierarchy were walked.
+   */
+  public static synchronized void recordStyleResolution(ResName styleName, int depth) {
+    counterFor(styleResolutions, styleName).add(depth);
+  }
+
+  /**
+   * Records the time taken to parse an XML resource file.
+   */
+  public static synchronized void recordXmlParse(String path, long nanos) {
+    counterFor(xmlParses, path).add(nanos);
+  }
+
+  public static synchronized void reset() {
+    lookups.clear();
+    styleResolutions.clear();
+    xmlParses.clear();
+  }
+
+  /**
+   * Writes the statistics collected so far to <code>&lt;outputDir&gt;/&lt;name&gt;.json</code> and resets them.
+   */
+  public static synchronized void dump(String name) throws IOException {
+    File dir = outputDir;
+    if (dir == null) {
+      return;
+    }
+
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Couldn't create " + dir);
+    }
+
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dir, name + ".json")), StandardCharsets.UTF_8)) {
+      writeJson(writer);
+    }
+    reset();
+  }
+
+  public static synchronized void writeJson(Writer writer) throws IOException {
+    writer.write("{\n");
+    writeSection(writer, "lookups", "name", lookups, "totalNanos");
+    writer.write(",\n");
+    writeSection(writer, "styleResolutions", "name", styleResolutions, "totalDepth");
+    writer.write(",\n");
+    writeSection(writer, "xmlParses", "file", xmlParses, "totalNanos");
+    writer.write("\n}\n");
+  }
+
+  private static <K> void writeSection(Writer writer, String section, String keyName, Map<K, Counter> counters, String totalName) throws IOException {
+    List<Map.Entry<K, Counter>> entries = new ArrayList<>(counters.entrySet());
+    Collections.sort(entries, new Comparator<Map.Entry<K, Counter>>() {
+      @Override
+      public int compare(Map.Entry<K, Counter> o1, Map.Entry<K, Counter> o2) {
+        return Long.compare(o2.getValue().total, o1.getValue().total);
+      }
+    });
+
+    writer.write("  \"" + section + "\": [");
+    boolean first = true;
+    for (Map.Entry<K, Counter> entry : entries) {
+      Counter counter = entry.getValue();
+      writer.write(first ? "\n" : ",\n");
+      writer.write("    {\"" + keyName + "\": \"" + escape(keyString(entry.getKey())) + "\", "
+          + "\"count\": " + counter.count + ", "
+          + "\"" + totalName + "\": " + counter.total + ", "
+          + "\"max\": " + counter.max + "}");
+      first = false;
+    }
+    writer.write(first ? "]" : "\n  ]");
+  }
+
+  private static String keyString(Object key) {
+    return key instanceof ResName ? ((ResName) key).getFullyQualifiedName() : String.valueOf(key);
+  }
+
+  private static String escape(String s) {
+    StringBuilder buf = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"': buf.append("\\\""); break;
+        case '\\': buf.append("\\\\"); break;
+        case '\n': buf.append("\\n"); break;
+        case '\r': buf.append("\\r"); break;
+        case '\t': buf.append("\\t"); break;
+        default:
+          if (c < 0x20) {
+            buf.append(String.format("\\u%04x", (int) c));
+          } else {
+            buf.append(c);
+          }
+      }
+    }
+    return buf.toString();
+  }
+
+  private static <K> Counter counterFor(Map<K, Counter> counters, K key) {
+    Counter counter = counters.get(key);
+    if (counter == null) {
+      counters.put(key, counter = new Counter());
+    }
+    return counter;
+  }
+
+  private static class Counter {
+    long count;
+    long total;
+    long max;
+
+    void add(long value) {
+      count++;
+      total += value;
+      if (value > max) {
+        max = value;
+      }
+    }
+  }
+}
@@ -13,13 +13,13 @@ public class ResourceTableFactory {
   public static PackageResourceTable newFrameworkResourceTable(ResourcePath resourcePath) {
     PackageResourceTable resourceTable = new PackageResourceTable("android");
 
-      if (resourcePath.getRClass() != null) {
-        addRClassValues(resourceTable, resourcePath.getRClass());
-        addMissingStyleableAttributes(resourceTable, resourcePath.getRClass());
+      if (resourcePath.getRTxtFile() != null) {
+        new RTxtLoader(resourcePath.getRTxtFile()).loadTo(resourceTable, true);
+      } else if (resourcePath.getRClass() != null) {
+        addRClassValues(resourceTable, resourcePath.getRClass(), true);
       }
       if (resourcePath.getInternalRClass() != null) {
-        addRClassValues(resourceTable, resourcePath.getInternalRClass());
-        addMissingStyleableAttributes(resourceTable, resourcePath.getInternalRClass());
+        addRClassValues(resourceTable, resourcePath.getInternalRClass(), true);
       }
 
       parseResourceFiles(resourcePath, resourceTable);
@@ -35,8 +35,10 @@ public class ResourceTableFactory {
     PackageResourceTable resourceTable = new PackageResourceTable(packageName);
 
     for (ResourcePath resourcePath : resourcePaths) {
-      if (resourcePath.getRClass() != null) {
-        addRClassValues(resourceTable, resourcePath.getRClass());
+      if (resourcePath.getRTxtFile() != null) {
+        new RTxtLoader(resourcePath.getRTxtFile()).loadTo(resourceTable);
+      } else if (resourcePath.getRClass() != null) {
+        addRClassValues(resourceTable, resourcePath.getRClass(), false);
       }
     }
 
@@ -47,7 +49,7 @@ public class ResourceTableFactory {
     return resourceTable;
   }
 
-  private static void addRClassValues(PackageResourceTable resourceTable, Class<?> rClass) {
+  private static void addRClassValues(PackageResourceTable resourceTable, Class<?> rClass, boolean addMissingStyleableAttributes) {
     for (Class innerClass : rClass.getClasses()) {
       String resourceType = innerClass.getSimpleName();
       if (!resourceType.equals("styleable")) {
@@ -64,6 +66,8 @@ public class ResourceTableFactory {
             resourceTable.addResource(id, resourceType, resourceName);
           }
         }
+      } else if (addMissingStyleableAttributes) {
+        addMissingStyleableAttributes(resourceTable, innerClass);
       }
     }
   }
@@ -72,29 +76,25 @@ public class ResourceTableFactory {
    * Check the stylable elements. Not for aapt generated R files but for framework R files it is possible to
    * have attributes in the styleable array for which there is no corresponding R.attr field.
    */
-  private static void addMissingStyleableAttributes(PackageResourceTable resourceTable, Class<?> rClass) {
-    for (Class innerClass : rClass.getClasses()) {
-      if (innerClass.getSimpleName().equals("styleable")) {
-        String styleableName = null; // Current styleable name
-        int[] styleableArray = null; // Current styleable value array or references
-        for (Field field : innerClass.getDeclaredFields()) {
-          if (field.getType().equals(int[].class) && Modifier.isStatic(field.getModifiers())) {
-            styleableName = field.getName();
-            try {
-              styleableArray = (int[]) (field.get(null));
-            } catch (IllegalAccessException e) {
-              throw new RuntimeException(e);
-            }
-          } else if (field.getType().equals(Integer.TYPE) && Modifier.isStatic(field.getModifiers())) {
-            String attributeName = field.getName().substring(styleableName.length() + 1);
-            try {
-              int styleableIndex = field.getInt(null);
-              int attributeResId = styleableArray[styleableIndex];
-              resourceTable.addResource(attributeResId, "attr", attributeName);
-            } catch (IllegalAccessException e) {
-              throw new RuntimeException(e);
-            }
-          }
+  private static void addMissingStyleableAttributes(PackageResourceTable resourceTable, Class<?> styleableClass) {
+    String styleableName = null; // Current styleable name
+    int[] styleableArray = null; // Current styleable value array or references
+    for (Field field : styleableClass.getDeclaredFields()) {
+      if (field.getType().equals(int[].class) && Modifier.isStatic(field.getModifiers())) {
+        styleableName = field.getName();
+        try {
+          styleableArray = (int[]) (field.get(null));
+        } catch (IllegalAccessException e) {
+          throw new RuntimeException(e);
+        }
+      } else if (field.getType().equals(Integer.TYPE) && Modifier.isStatic(field.getModifiers())) {
+        String attributeName = field.getName().substring(styleableName.length() + 1);
+        try {
+          int styleableIndex = field.getInt(null);
+          int attributeResId = styleableArray[styleableIndex];
+          resourceTable.addResource(attributeResId, "attr", attributeName);
+        } catch (IllegalAccessException e) {
+          throw new RuntimeException(e);
         }
       }
     }
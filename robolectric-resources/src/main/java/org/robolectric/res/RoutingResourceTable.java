@@ -10,12 +10,17 @@ import java.util.Map;
 public class RoutingResourceTable implements ResourceTable {
   private static final PackageResourceTable EMPTY_RESOURCE_TABLE = ResourceTableFactory.newResourceTable("");
   private final Map<String, PackageResourceTable> resourceTables;
+  private final PackageResourceTable[] resourceTablesByPackageIdentifier = new PackageResourceTable[256];
 
   public RoutingResourceTable(PackageResourceTable... resourceTables) {
     this.resourceTables = new HashMap<>();
 
     for (PackageResourceTable resourceTable : resourceTables) {
       this.resourceTables.put(resourceTable.getPackageName(), resourceTable);
+      int packageIdentifier = resourceTable.getPackageIdentifier();
+      if (resourceTablesByPackageIdentifier[packageIdentifier] == null) {
+        resourceTablesByPackageIdentifier[packageIdentifier] = resourceTable;
+      }
     }
   }
 
@@ -58,12 +63,8 @@ public class RoutingResourceTable implements ResourceTable {
   }
 
   private PackageResourceTable pickFor(int resId) {
-    for (PackageResourceTable resourceTable : resourceTables.values()) {
-      if (resourceTable.getPackageIdentifier() == ResourceIds.getPackageIdentifier(resId)) {
-        return resourceTable;
-      }
-    }
-    return EMPTY_RESOURCE_TABLE;
+    PackageResourceTable resourceTable = resourceTablesByPackageIdentifier[ResourceIds.getPackageIdentifier(resId)];
+    return resourceTable != null ? resourceTable : EMPTY_RESOURCE_TABLE;
   }
 
   private PackageResourceTable pickFor(ResName resName) {
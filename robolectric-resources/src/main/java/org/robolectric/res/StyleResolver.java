@@ -24,9 +24,17 @@ public class StyleResolver implements Style {
   }
 
   @Override public AttributeResource getAttrValue(ResName resName) {
-    for (StyleData style : styles) {
-      AttributeResource value = style.getAttrValue(resName);
-      if (value != null) return value;
+    return findAttrValue(resName);
+  }
+
+  /**
+   * Finds the attribute in this style or its parents, and records with {@link ResourceStats} how many styles had to be
+   * searched: one if the value is in this style, the length of the parent chain plus one if the theme was consulted.
+   */
+  private AttributeResource findAttrValue(ResName resName) {
+    for (int i = 0; i < styles.size(); i++) {
+      AttributeResource value = styles.get(i).getAttrValue(resName);
+      if (value != null) return found(value, i + 1);
     }
     int initialSize = styles.size();
     while (hasParent(styles.get(styles.size() - 1))) {
@@ -40,16 +48,22 @@ public class StyleResolver implements Style {
     for (int i = initialSize; i < styles.size(); i++) {
       StyleData style = styles.get(i);
       AttributeResource value = style.getAttrValue(resName);
-      if (value != null) return value;
+      if (value != null) return found(value, i + 1);
     }
 
     // todo: is this tested?
     if (theme != null) {
-      AttributeResource value = theme.getAttrValue(resName);
-      if (value != null) return value;
+      return found(theme.getAttrValue(resName), styles.size() + 1);
     }
 
-    return null;
+    return found(null, styles.size());
+  }
+
+  private AttributeResource found(AttributeResource value, int depth) {
+    if (ResourceStats.isEnabled()) {
+      ResourceStats.recordStyleResolution(myResName, depth);
+    }
+    return value;
   }
 
   private static String getParentStyleName(StyleData style) {
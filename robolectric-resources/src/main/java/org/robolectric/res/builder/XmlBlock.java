@@ -2,6 +2,7 @@ package org.robolectric.res.builder;
 
 import org.jetbrains.annotations.Nullable;
 import org.robolectric.res.FsFile;
+import org.robolectric.res.ResourceStats;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
@@ -48,7 +49,11 @@ public class XmlBlock {
 
   @Nullable
   public static XmlBlock create(FsFile fsFile, String packageName) {
+    long startTime = ResourceStats.isEnabled() ? System.nanoTime() : 0;
     Document document = parse(fsFile);
+    if (ResourceStats.isEnabled()) {
+      ResourceStats.recordXmlParse(fsFile.getPath(), System.nanoTime() - startTime);
+    }
 
     return document == null
         ? null
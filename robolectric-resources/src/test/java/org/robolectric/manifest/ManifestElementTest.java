@@ -0,0 +1,79 @@
+package org.robolectric.manifest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ManifestElement}
+ */
+@RunWith(JUnit4.class)
+public class ManifestElementTest {
+  private static final String MANIFEST = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+      + "<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\" package=\"org.robolectric\">\n"
+      + "  <!-- a comment -->\n"
+      + "  <uses-permission android:name=\"android.permission.INTERNET\"/>\n"
+      + "  <application android:name=\".App\" android:label=\"Fish &amp; Chips\">\n"
+      + "    <activity android:name=\".MainActivity\">\n"
+      + "      <intent-filter><action android:name=\"android.intent.action.MAIN\"/></intent-filter>\n"
+      + "    </activity>\n"
+      + "    <Activity android:name=\".OtherActivity\"/>\n"
+      + "  </application>\n"
+      + "</manifest>\n";
+
+  @Test
+  public void shouldKeepQualifiedAttributeNames() throws Exception {
+    ManifestElement manifest = parse(MANIFEST);
+
+    assertThat(manifest.getName()).isEqualTo("manifest");
+    assertThat(manifest.getAttribute("package")).isEqualTo("org.robolectric");
+    assertThat(manifest.getAttribute("xmlns:android")).isEqualTo("http://schemas.android.com/apk/res/android");
+    assertThat(manifest.getChildren("application").get(0).getAttributes())
+        .containsEntry("android:name", ".App")
+        .containsEntry("android:label", "Fish & Chips");
+  }
+
+  @Test
+  public void getChildren_shouldMatchDirectChildrenIgnoringCase() throws Exception {
+    ManifestElement application = parse(MANIFEST).getChildren("application").get(0);
+
+    assertThat(application.getChildren("activity")).hasSize(2);
+    assertThat(application.getChildren("intent-filter")).isEmpty();
+  }
+
+  @Test
+  public void getElementsByTagName_shouldSearchWholeTree() throws Exception {
+    ManifestElement manifest = parse(MANIFEST);
+
+    assertThat(manifest.getElementsByTagName("action")).hasSize(1);
+    assertThat(manifest.getElementsByTagName("action").get(0).getAttribute("android:name"))
+        .isEqualTo("android.intent.action.MAIN");
+    assertThat(manifest.getElementsByTagName("manifest")).containsExactly(manifest);
+  }
+
+  @Test
+  public void shouldAcceptUndeclaredPrefixes() throws Exception {
+    ManifestElement manifest = parse("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+        + "<manifest package=\"org.robolectric\">\n"
+        + "  <application android:name=\".App\">\n"
+        + "    <tools:activity android:name=\".MainActivity\" tools:node=\"remove\"/>\n"
+        + "  </application>\n"
+        + "</manifest>\n");
+
+    ManifestElement application = manifest.getChildren("application").get(0);
+    assertThat(application.getAttribute("android:name")).isEqualTo(".App");
+    assertThat(application.getChildren("tools:activity")).hasSize(1);
+    assertThat(manifest.getElementsByTagName("tools:activity").get(0).getAttributes())
+        .containsEntry("android:name", ".MainActivity")
+        .containsEntry("tools:node", "remove");
+  }
+
+  private static ManifestElement parse(String xml) throws Exception {
+    return ManifestElement.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -60,4 +60,30 @@ public class QualifiersTest {
     assertThat(Qualifiers.addScreenWidth("v7", 320)).isEqualTo("v7-w320dp");
     assertThat(Qualifiers.addScreenWidth("w320dp-v7", 480)).isEqualTo("w320dp-v7");
   }
+
+  @Test public void matches() {
+    assertThat(Qualifiers.parse("en").matches(Qualifiers.parse("en-land-v23"))).isTrue();
+    assertThat(Qualifiers.parse("en-land").matches(Qualifiers.parse("land-en"))).isTrue();
+    assertThat(Qualifiers.parse("fr").matches(Qualifiers.parse("en-land-v23"))).isFalse();
+    assertThat(Qualifiers.parse("v21").matches(Qualifiers.parse("en-v19"))).isFalse();
+    assertThat(Qualifiers.parse("").matches(Qualifiers.parse("en"))).isTrue();
+  }
+
+  @Test public void matches_withManyDistinctQualifiers() {
+    StringBuilder context = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      Qualifiers.parse("q" + i);
+      context.append("-q").append(i);
+    }
+    assertThat(Qualifiers.parse("q99").matches(Qualifiers.parse(context.toString()))).isTrue();
+    assertThat(Qualifiers.parse("q99-q100").matches(Qualifiers.parse(context.toString()))).isFalse();
+  }
+
+  @Test public void isBetterThan_shouldPreferQualifiersInContextOrder() {
+    Qualifiers context = Qualifiers.parse("en-land-v23");
+    assertThat(Qualifiers.parse("en").isBetterThan(Qualifiers.parse("land"), context)).isTrue();
+    assertThat(Qualifiers.parse("land").isBetterThan(Qualifiers.parse("en"), context)).isFalse();
+    assertThat(Qualifiers.parse("en-v21").isBetterThan(Qualifiers.parse("en-v19"), context)).isTrue();
+    assertThat(Qualifiers.parse("en").isBetterThan(Qualifiers.parse("en"), context)).isFalse();
+  }
 }
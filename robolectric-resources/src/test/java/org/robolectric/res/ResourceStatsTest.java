@@ -0,0 +1,76 @@
+package org.robolectric.res;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnit4.class)
+public class ResourceStatsTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File originalOutputDir;
+
+  @Before
+  public void setUp() throws Exception {
+    originalOutputDir = ResourceStats.getOutputDir();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    ResourceStats.reset();
+    ResourceStats.setOutputDir(originalOutputDir);
+  }
+
+  @Test
+  public void shouldAggregateLookupsByResName() throws Exception {
+    ResourceStats.recordLookup(new ResName("pkg:color/primary"), 100);
+    ResourceStats.recordLookup(new ResName("pkg:color/primary"), 300);
+    ResourceStats.recordLookup(new ResName("pkg:string/hello"), 50);
+
+    String json = toJson();
+    assertThat(json).contains("{\"name\": \"pkg:color/primary\", \"count\": 2, \"totalNanos\": 400, \"max\": 300}");
+    assertThat(json).contains("{\"name\": \"pkg:string/hello\", \"count\": 1, \"totalNanos\": 50, \"max\": 50}");
+    assertThat(json.indexOf("pkg:color/primary")).isLessThan(json.indexOf("pkg:string/hello"));
+  }
+
+  @Test
+  public void shouldRecordStyleDepthsAndXmlParses() throws Exception {
+    ResourceStats.recordStyleResolution(new ResName("pkg:style/Theme_App"), 3);
+    ResourceStats.recordXmlParse("res/layout/\"quoted\".xml", 1000);
+
+    String json = toJson();
+    assertThat(json).contains("{\"name\": \"pkg:style/Theme_App\", \"count\": 1, \"totalDepth\": 3, \"max\": 3}");
+    assertThat(json).contains("{\"file\": \"res/layout/\\\"quoted\\\".xml\", \"count\": 1, \"totalNanos\": 1000, \"max\": 1000}");
+  }
+
+  @Test
+  public void dump_shouldWriteFileAndReset() throws Exception {
+    File dir = temporaryFolder.newFolder("resource-stats");
+    ResourceStats.setOutputDir(dir);
+    assertThat(ResourceStats.isEnabled()).isTrue();
+
+    ResourceStats.recordLookup(new ResName("pkg:color/primary"), 100);
+    ResourceStats.dump("com.example.FooTest");
+
+    String json = new String(Files.readAllBytes(new File(dir, "com.example.FooTest.json").toPath()), "UTF-8");
+    assertThat(json).contains("pkg:color/primary");
+    assertThat(toJson()).doesNotContain("pkg:color/primary");
+  }
+
+  private static String toJson() throws Exception {
+    StringWriter writer = new StringWriter();
+    ResourceStats.writeJson(writer);
+    return writer.toString();
+  }
+}
@@ -0,0 +1,58 @@
+package org.robolectric.res;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnit4.class)
+public class StyleResolverTest {
+  private final ResName direct = new ResName("my.app", "attr", "direct");
+  private final ResName inherited = new ResName("my.app", "attr", "inherited");
+
+  @After
+  public void tearDown() throws Exception {
+    ResourceStats.reset();
+    ResourceStats.setOutputDir(null);
+  }
+
+  @Test
+  public void getAttrValue_shouldRecordHowManyStylesWereSearched() throws Exception {
+    PackageResourceTable resourceTable = new PackageResourceTable("my.app");
+    StyleData grandparent = addStyle(resourceTable, "Grandparent", null);
+    grandparent.add(inherited, new AttributeResource(inherited, "from_grandparent", "my.app"));
+    addStyle(resourceTable, "Parent", "Grandparent");
+    StyleData child = addStyle(resourceTable, "Child", "Parent");
+    child.add(direct, new AttributeResource(direct, "from_child", "my.app"));
+
+    ResourceStats.setOutputDir(new File("unused"));
+    ResName directStyle = new ResName("my.app:style/Direct");
+    ResName inheritingStyle = new ResName("my.app:style/Inheriting");
+    assertThat(new StyleResolver(resourceTable, resourceTable, child, null, directStyle, "")
+        .getAttrValue(direct).value).isEqualTo("from_child");
+    assertThat(new StyleResolver(resourceTable, resourceTable, child, null, inheritingStyle, "")
+        .getAttrValue(inherited).value).isEqualTo("from_grandparent");
+
+    String json = toJson();
+    assertThat(json).contains("{\"name\": \"my.app:style/Direct\", \"count\": 1, \"totalDepth\": 1, \"max\": 1}");
+    assertThat(json).contains("{\"name\": \"my.app:style/Inheriting\", \"count\": 1, \"totalDepth\": 3, \"max\": 3}");
+  }
+
+  private static StyleData addStyle(PackageResourceTable resourceTable, String name, String parent) {
+    StyleData style = new StyleData("my.app", name, parent);
+    resourceTable.addResource("style", name, new TypedResource<>(style, ResType.STYLE,
+        new XmlContext("my.app", Fs.fileFromPath("res/values/styles.xml"))));
+    return style;
+  }
+
+  private static String toJson() throws Exception {
+    StringWriter writer = new StringWriter();
+    ResourceStats.writeJson(writer);
+    return writer.toString();
+  }
+}
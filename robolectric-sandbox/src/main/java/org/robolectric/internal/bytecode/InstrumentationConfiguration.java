@@ -35,7 +35,9 @@ public class InstrumentationConfiguration {
       "org.robolectric.internal.Shadow",
       "org.robolectric.res.builder.DefaultPackageManager",
       "org.robolectric.res.builder.DefaultPackageManager$1",
+      "org.robolectric.res.builder.DefaultPackageManager$ImplicitActivity",
       "org.robolectric.res.builder.DefaultPackageManager$IntentComparator",
+      "org.robolectric.res.builder.DefaultPackageManager$IntentKey",
       "org.robolectric.res.builder.DefaultPackageManager$RoboPackageInstaller",
       "org.robolectric.res.builder.DefaultPackageManager$RoboPackageInstaller$1",
       "org.robolectric.res.builder.RobolectricPackageManager",
@@ -24,6 +24,7 @@ import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.TypeInsnNode;
 import org.objectweb.asm.tree.VarInsnNode;
+import org.robolectric.internal.ShadowResets;
 import org.robolectric.util.Logger;
 import org.robolectric.util.ReflectionHelpers;
 import org.robolectric.util.Util;
@@ -54,7 +55,7 @@ import static org.robolectric.util.ReflectionHelpers.ClassParameter.from;
 /**
  * Class loader that modifies the bytecode of Android classes to insert calls to Robolectric's shadow classes.
  */
-public class SandboxClassLoader extends URLClassLoader implements Opcodes {
+public class SandboxClassLoader extends URLClassLoader implements Opcodes, ShadowResets.LoadedClasses {
   private final URLClassLoader systemClassLoader;
   private final URLClassLoader urls;
   private final InstrumentationConfiguration config;
@@ -104,6 +105,14 @@ public class SandboxClassLoader extends URLClassLoader implements Opcodes {
     }
   }
 
+  /**
+   * Classes that aren't acquired are loaded by the system class loader, which we can't ask, so they count as loaded.
+   */
+  @Override
+  public boolean isLoaded(String className) {
+    return findLoadedClass(className) != null || !config.shouldAcquire(className);
+  }
+
   protected Class<?> maybeInstrumentClass(String className) throws ClassNotFoundException {
     final byte[] origClassBytes = getByteCode(className);
 
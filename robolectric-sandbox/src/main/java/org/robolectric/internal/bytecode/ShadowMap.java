@@ -2,22 +2,35 @@ package org.robolectric.internal.bytecode;
 
 import java.util.Set;
 import org.robolectric.annotation.Implements;
+import org.robolectric.internal.SdkShadowProvider;
 import org.robolectric.internal.ShadowProvider;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ShadowMap {
   public static final ShadowMap EMPTY = new ShadowMap(Collections.<String, ShadowConfig>emptyMap());
   private final Map<String, ShadowConfig> map;
+  private static final List<ShadowProvider> PROVIDERS = new ArrayList<>();
   private static final Map<String, String> SHADOWS = new HashMap<>();
+  private static final ConcurrentMap<Integer, Map<String, String>> SHADOWS_BY_API_LEVEL = new ConcurrentHashMap<>();
+  private static final Map<String, String> SHADOW_METHODS = new HashMap<>();
+  private static final ConcurrentMap<String, ShadowMethodIndex> SHADOW_METHOD_INDEXES = new ConcurrentHashMap<>();
 
   static {
     for (ShadowProvider provider : ServiceLoader.load(ShadowProvider.class)) {
+      PROVIDERS.add(provider);
       SHADOWS.putAll(provider.getShadowMap());
+      if (provider instanceof SdkShadowProvider) {
+        SHADOW_METHODS.putAll(((SdkShadowProvider) provider).getShadowMethods());
+      }
     }
   }
 
@@ -26,10 +39,22 @@ public class ShadowMap {
   }
 
   public ShadowConfig get(Class<?> clazz) {
+    return get(clazz, SHADOWS);
+  }
+
+  /**
+   * Like {@link #get(Class)}, but only considers the provided shadows that apply to the given API level, so shadows
+   * for other API levels are never loaded.
+   */
+  public ShadowConfig get(Class<?> clazz, int apiLevel) {
+    return get(clazz, shadowsFor(apiLevel));
+  }
+
+  private ShadowConfig get(Class<?> clazz, Map<String, String> shadows) {
     ShadowConfig shadowConfig = map.get(clazz.getName());
 
     if (shadowConfig == null && clazz.getClassLoader() != null) {
-      Class<?> shadowClass = getShadowClass(clazz);
+      Class<?> shadowClass = getShadowClass(clazz, shadows);
       if (shadowClass == null) {
         return null;
       }
@@ -42,11 +67,41 @@ public class ShadowMap {
     return shadowConfig;
   }
 
-  private static Class<?> getShadowClass(Class<?> clazz) {
+  private static Map<String, String> shadowsFor(int apiLevel) {
+    Map<String, String> shadows = SHADOWS_BY_API_LEVEL.get(apiLevel);
+    if (shadows == null) {
+      shadows = new HashMap<>();
+      for (ShadowProvider provider : PROVIDERS) {
+        shadows.putAll(provider instanceof SdkShadowProvider
+            ? ((SdkShadowProvider) provider).getShadowMap(apiLevel)
+            : provider.getShadowMap());
+      }
+      SHADOWS_BY_API_LEVEL.putIfAbsent(apiLevel, shadows);
+    }
+    return shadows;
+  }
+
+  /**
+   * Returns the compile-time index of a shadow class's public methods, or null if its provider didn't index it.
+   */
+  static ShadowMethodIndex getShadowMethodIndex(String shadowClassName) {
+    ShadowMethodIndex index = SHADOW_METHOD_INDEXES.get(shadowClassName);
+    if (index == null) {
+      String methods = SHADOW_METHODS.get(shadowClassName);
+      if (methods == null) {
+        return null;
+      }
+      index = new ShadowMethodIndex(shadowClassName, methods);
+      SHADOW_METHOD_INDEXES.putIfAbsent(shadowClassName, index);
+    }
+    return index;
+  }
+
+  private static Class<?> getShadowClass(Class<?> clazz, Map<String, String> shadows) {
     try {
       final String className = clazz.getCanonicalName();
       if (className != null) {
-        final String shadowName = SHADOWS.get(className);
+        final String shadowName = shadows.get(className);
         if (shadowName != null) {
           return clazz.getClassLoader().loadClass(shadowName);
         }
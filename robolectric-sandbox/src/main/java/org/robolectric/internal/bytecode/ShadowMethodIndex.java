@@ -0,0 +1,69 @@
+package org.robolectric.internal.bytecode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The public methods of a shadow class, as listed at compile time by the generated
+ * {@link org.robolectric.internal.SdkShadowProvider}, so that shadow methods can be found without reflecting over
+ * the shadow class.
+ */
+class ShadowMethodIndex {
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  ShadowMethodIndex(String shadowClassName, String methods) {
+    if (methods.isEmpty()) {
+      return;
+    }
+    for (String method : methods.split(",")) {
+      String[] parts = method.split(" ");
+      String declaringClassName = parts.length > 3 ? parts[3] : shadowClassName;
+      entries.put(parts[0], new Entry(declaringClassName, Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+    }
+  }
+
+  /**
+   * Returns the entry for the public method with the given name and parameter types, or null if the shadow class
+   * has no such method.
+   */
+  Entry get(String methodName, Class<?>[] paramTypes) {
+    StringBuilder key = new StringBuilder(methodName).append('(');
+    for (Class<?> paramType : paramTypes) {
+      appendDescriptor(key, paramType);
+    }
+    return entries.get(key.append(')').toString());
+  }
+
+  private static void appendDescriptor(StringBuilder key, Class<?> type) {
+    if (type.isArray()) {
+      key.append(type.getName().replace('.', '/'));
+    } else if (type.isPrimitive()) {
+      key.append(type == boolean.class ? 'Z'
+          : type == byte.class ? 'B'
+          : type == char.class ? 'C'
+          : type == short.class ? 'S'
+          : type == int.class ? 'I'
+          : type == long.class ? 'J'
+          : type == float.class ? 'F'
+          : 'D');
+    } else {
+      key.append('L').append(type.getName().replace('.', '/')).append(';');
+    }
+  }
+
+  static class Entry {
+    final String declaringClassName;
+    private final int minSdk;
+    private final int maxSdk;
+
+    Entry(String declaringClassName, int minSdk, int maxSdk) {
+      this.declaringClassName = declaringClassName;
+      this.minSdk = minSdk;
+      this.maxSdk = maxSdk;
+    }
+
+    boolean supportsSdk(int sdkInt) {
+      return minSdk <= sdkInt && (maxSdk == -1 || maxSdk >= sdkInt);
+    }
+  }
+}
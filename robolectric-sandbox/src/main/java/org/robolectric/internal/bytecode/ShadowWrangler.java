@@ -60,7 +60,7 @@ public class ShadowWrangler implements ClassHandler {
   private final Map<Class, ShadowConfig> shadowConfigCache = new ConcurrentHashMap<>();
   private final ClassValue<ShadowConfig> shadowConfigs = new ClassValue<ShadowConfig>() {
     @Override protected ShadowConfig computeValue(Class<?> type) {
-      return shadowMap.get(type);
+      return shadowMap.get(type, apiLevel);
     }
   };
 
@@ -203,6 +203,17 @@ public class ShadowWrangler implements ClassHandler {
   }
 
   private Method findShadowMethod(ClassLoader classLoader, ShadowConfig config, String name, Class<?>[] types) {
+    ShadowMethodIndex index = ShadowMap.getShadowMethodIndex(config.shadowClassName);
+    if (index != null) {
+      Method method = findIndexedShadowMethod(classLoader, index, name, types);
+      if (method == null && config.looseSignatures) {
+        Class<?>[] genericTypes = MethodType.genericMethodType(types.length).parameterArray();
+        method = findIndexedShadowMethod(classLoader, index, name, genericTypes);
+      }
+
+      return method;
+    }
+
     try {
       Class<?> shadowClass = Class.forName(config.shadowClassName, false, classLoader);
       Method method = findShadowMethodInternal(shadowClass, name, types);
@@ -217,10 +228,23 @@ public class ShadowWrangler implements ClassHandler {
     }
   }
 
+  private Method findIndexedShadowMethod(ClassLoader classLoader, ShadowMethodIndex index, String name, Class<?>[] types) {
+    ShadowMethodIndex.Entry entry = index.get(name, types);
+    if (entry == null || !entry.supportsSdk(apiLevel)) {
+      return null;
+    }
+
+    try {
+      return Class.forName(entry.declaringClassName, false, classLoader).getDeclaredMethod(name, types);
+    } catch (ClassNotFoundException | NoSuchMethodException e) {
+      throw new IllegalStateException("shadow method index is out of date for " + entry.declaringClassName, e);
+    }
+  }
+
   private ShadowConfig getShadowConfig(Class clazz) {
     ShadowConfig shadowConfig = shadowConfigCache.get(clazz);
     if (shadowConfig == null) {
-      shadowConfig = shadowMap.get(clazz);
+      shadowConfig = shadowMap.get(clazz, apiLevel);
       shadowConfigCache.put(clazz, shadowConfig == null ? NO_SHADOW_CONFIG : shadowConfig);
       return shadowConfig;
     } else {
@@ -134,6 +134,14 @@ public class SandboxClassLoaderTest {
     assertSame(getClass().getClassLoader(), exampleClass.getClassLoader());
   }
 
+  @Test
+  public void isLoaded_shouldReportAcquiredClassesOnceTheyAreLoaded() throws Exception {
+    SandboxClassLoader classLoader = new SandboxClassLoader(configureBuilder().build());
+    assertThat(classLoader.isLoaded(AnUninstrumentedClass.class.getName())).isFalse();
+    classLoader.loadClass(AnUninstrumentedClass.class.getName());
+    assertThat(classLoader.isLoaded(AnUninstrumentedClass.class.getName())).isTrue();
+  }
+
   @Test
   public void shouldPerformClassLoadForAcquiredClasses() throws Exception {
     ClassLoader classLoader = new SandboxClassLoader(configureBuilder().build());
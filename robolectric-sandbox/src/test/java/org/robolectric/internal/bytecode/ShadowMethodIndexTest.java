@@ -0,0 +1,40 @@
+package org.robolectric.internal.bytecode;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShadowMethodIndexTest {
+  private final ShadowMethodIndex index = new ShadowMethodIndex("com.example.ShadowThing",
+      "set(Ljava/lang/Object;[Ljava/lang/Number;I) 19 -1,"
+          + "describe(Ljava/lang/String;[JZ) -1 18 com.example.ShadowBase,"
+          + "reset() -1 -1");
+
+  @Test
+  public void get_shouldFindMethodsByParameterTypes() {
+    assertThat(index.get("set", new Class<?>[] {Object.class, Number[].class, int.class}).declaringClassName)
+        .isEqualTo("com.example.ShadowThing");
+    assertThat(index.get("describe", new Class<?>[] {String.class, long[].class, boolean.class}).declaringClassName)
+        .isEqualTo("com.example.ShadowBase");
+    assertThat(index.get("reset", new Class<?>[0])).isNotNull();
+  }
+
+  @Test
+  public void get_shouldReturnNullForUnknownMethods() {
+    assertThat(index.get("set", new Class<?>[] {Object.class})).isNull();
+    assertThat(index.get("toString", new Class<?>[0])).isNull();
+    assertThat(new ShadowMethodIndex("com.example.ShadowEmpty", "").get("reset", new Class<?>[0])).isNull();
+  }
+
+  @Test
+  public void entry_shouldKnowItsSdkRange() {
+    ShadowMethodIndex.Entry set = index.get("set", new Class<?>[] {Object.class, Number[].class, int.class});
+    assertThat(set.supportsSdk(18)).isFalse();
+    assertThat(set.supportsSdk(19)).isTrue();
+    assertThat(set.supportsSdk(23)).isTrue();
+
+    ShadowMethodIndex.Entry describe = index.get("describe", new Class<?>[] {String.class, long[].class, boolean.class});
+    assertThat(describe.supportsSdk(18)).isTrue();
+    assertThat(describe.supportsSdk(19)).isFalse();
+  }
+}
@@ -0,0 +1,366 @@
+package org.robolectric.fakes;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash map whose modified copies share structure with it, so that {@link #plus} and {@link #minus}
+ * copy O(log n) entries rather than the whole map. Entries live in a hash array mapped trie: each level of the trie
+ * is indexed by five bits of the key's hash, and keys whose hashes are equal are kept together in a collision node.
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+  private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<>(0, null, false, null);
+  private static final Object NOT_FOUND = new Object();
+
+  private final int size;
+  private final Node root;
+  private final boolean hasNullKey;
+  private final V nullValue;
+
+  private PersistentHashMap(int size, Node root, boolean hasNullKey, V nullValue) {
+    this.size = size;
+    this.root = root;
+    this.hasNullKey = hasNullKey;
+    this.nullValue = nullValue;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> PersistentHashMap<K, V> empty() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Returns a persistent map with the same entries as {@code map}, or {@code map} itself if it's already one.
+   */
+  @SuppressWarnings("unchecked")
+  static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PersistentHashMap) {
+      return (PersistentHashMap<K, V>) map;
+    }
+    PersistentHashMap<K, V> copy = empty();
+    for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      copy = copy.plus(entry.getKey(), entry.getValue());
+    }
+    return copy;
+  }
+
+  /**
+   * Returns a map with {@code key} mapped to {@code value}, or this map if it already holds that mapping.
+   */
+  PersistentHashMap<K, V> plus(K key, V value) {
+    if (key == null) {
+      if (hasNullKey && nullValue == value) {
+        return this;
+      }
+      return new PersistentHashMap<>(hasNullKey ? size : size + 1, root, true, value);
+    }
+    boolean[] addedLeaf = new boolean[1];
+    Node newRoot = (root == null ? BitmapIndexedNode.EMPTY : root).plus(0, hash(key), key, value, addedLeaf);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(addedLeaf[0] ? size + 1 : size, newRoot, hasNullKey, nullValue);
+  }
+
+  /**
+   * Returns a map without a mapping for {@code key}, or this map if it doesn't hold one.
+   */
+  PersistentHashMap<K, V> minus(Object key) {
+    if (key == null) {
+      return hasNullKey ? new PersistentHashMap<K, V>(size - 1, root, false, null) : this;
+    }
+    if (root == null) {
+      return this;
+    }
+    Node newRoot = root.minus(0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(size - 1, newRoot, hasNullKey, nullValue);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (key == null) {
+      return hasNullKey;
+    }
+    return root != null && root.find(0, hash(key), key) != NOT_FOUND;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (key == null) {
+      return nullValue;
+    }
+    Object value = root == null ? NOT_FOUND : root.find(0, hash(key), key);
+    return value == NOT_FOUND ? null : (V) value;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private static int hash(Object key) {
+    return key.hashCode();
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & 0x1f);
+  }
+
+  private static Object[] cloneAndSet(Object[] array, int index, Object value) {
+    Object[] clone = array.clone();
+    clone[index] = value;
+    return clone;
+  }
+
+  private static Object[] removePair(Object[] array, int pair) {
+    Object[] newArray = new Object[array.length - 2];
+    System.arraycopy(array, 0, newArray, 0, 2 * pair);
+    System.arraycopy(array, 2 * (pair + 1), newArray, 2 * pair, newArray.length - 2 * pair);
+    return newArray;
+  }
+
+  /**
+   * A node of the trie. Its array holds key/value pairs; a pair with a null key holds a child node as its value.
+   */
+  private abstract static class Node {
+    final Object[] array;
+
+    Node(Object[] array) {
+      this.array = array;
+    }
+
+    abstract Object find(int shift, int hash, Object key);
+
+    abstract Node plus(int shift, int hash, Object key, Object value, boolean[] addedLeaf);
+
+    /** Returns this node if it has no mapping for {@code key}, or null if removing it leaves the node empty. */
+    abstract Node minus(int shift, int hash, Object key);
+  }
+
+  private static final class BitmapIndexedNode extends Node {
+    static final BitmapIndexedNode EMPTY = new BitmapIndexedNode(0, new Object[0]);
+
+    private final int bitmap;
+
+    BitmapIndexedNode(int bitmap, Object[] array) {
+      super(array);
+      this.bitmap = bitmap;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return NOT_FOUND;
+      }
+      int index = index(bit);
+      Object keyOrNull = array[2 * index];
+      Object valueOrNode = array[2 * index + 1];
+      if (keyOrNull == null) {
+        return ((Node) valueOrNode).find(shift + 5, hash, key);
+      }
+      return key.equals(keyOrNull) ? valueOrNode : NOT_FOUND;
+    }
+
+    @Override
+    Node plus(int shift, int hash, Object key, Object value, boolean[] addedLeaf) {
+      int bit = bit(hash, shift);
+      int index = index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, 2 * index);
+        newArray[2 * index] = key;
+        newArray[2 * index + 1] = value;
+        System.arraycopy(array, 2 * index, newArray, 2 * (index + 1), array.length - 2 * index);
+        addedLeaf[0] = true;
+        return new BitmapIndexedNode(bitmap | bit, newArray);
+      }
+
+      Object keyOrNull = array[2 * index];
+      Object valueOrNode = array[2 * index + 1];
+      if (keyOrNull == null) {
+        Node child = ((Node) valueOrNode).plus(shift + 5, hash, key, value, addedLeaf);
+        return child == valueOrNode ? this : new BitmapIndexedNode(bitmap, cloneAndSet(array, 2 * index + 1, child));
+      }
+      if (key.equals(keyOrNull)) {
+        return value == valueOrNode ? this : new BitmapIndexedNode(bitmap, cloneAndSet(array, 2 * index + 1, value));
+      }
+
+      addedLeaf[0] = true;
+      Object[] newArray = cloneAndSet(array, 2 * index, null);
+      newArray[2 * index + 1] = createNode(shift + 5, keyOrNull, valueOrNode, hash, key, value);
+      return new BitmapIndexedNode(bitmap, newArray);
+    }
+
+    @Override
+    Node minus(int shift, int hash, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int index = index(bit);
+      Object keyOrNull = array[2 * index];
+      Object valueOrNode = array[2 * index + 1];
+      if (keyOrNull == null) {
+        Node child = ((Node) valueOrNode).minus(shift + 5, hash, key);
+        if (child == valueOrNode) {
+          return this;
+        }
+        if (child != null) {
+          return new BitmapIndexedNode(bitmap, cloneAndSet(array, 2 * index + 1, child));
+        }
+      } else if (!key.equals(keyOrNull)) {
+        return this;
+      }
+      return bitmap == bit ? null : new BitmapIndexedNode(bitmap ^ bit, removePair(array, index));
+    }
+
+    private static Node createNode(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+      int hash1 = hash(key1);
+      if (hash1 == hash2) {
+        return new HashCollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+      }
+      boolean[] addedLeaf = new boolean[1];
+      return EMPTY.plus(shift, hash1, key1, value1, addedLeaf).plus(shift, hash2, key2, value2, addedLeaf);
+    }
+  }
+
+  private static final class HashCollisionNode extends Node {
+    private final int hash;
+
+    HashCollisionNode(int hash, Object[] array) {
+      super(array);
+      this.hash = hash;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key) {
+      int index = indexOf(key);
+      return index == -1 ? NOT_FOUND : array[index + 1];
+    }
+
+    @Override
+    Node plus(int shift, int hash, Object key, Object value, boolean[] addedLeaf) {
+      if (hash != this.hash) {
+        // Push this node down a level so that it can sit next to the new key.
+        return new BitmapIndexedNode(bit(this.hash, shift), new Object[] {null, this})
+            .plus(shift, hash, key, value, addedLeaf);
+      }
+      int index = indexOf(key);
+      if (index != -1) {
+        return array[index + 1] == value ? this : new HashCollisionNode(hash, cloneAndSet(array, index + 1, value));
+      }
+      Object[] newArray = Arrays.copyOf(array, array.length + 2);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      addedLeaf[0] = true;
+      return new HashCollisionNode(hash, newArray);
+    }
+
+    @Override
+    Node minus(int shift, int hash, Object key) {
+      int index = indexOf(key);
+      if (index == -1) {
+        return this;
+      }
+      return array.length == 2 ? null : new HashCollisionNode(hash, removePair(array, index / 2));
+    }
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+    // The trie is at most seven levels of bitmap nodes deep, plus a collision node.
+    private final Object[][] arrays = new Object[8][];
+    private final int[] positions = new int[8];
+    private int depth = -1;
+    private Map.Entry<K, V> next;
+
+    EntryIterator() {
+      if (root != null) {
+        push(root);
+      }
+      next = hasNullKey ? new SimpleImmutableEntry<K, V>(null, nullValue) : advance();
+    }
+
+    private void push(Node node) {
+      depth++;
+      arrays[depth] = node.array;
+      positions[depth] = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map.Entry<K, V> advance() {
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int position = positions[depth];
+        if (position == array.length) {
+          arrays[depth--] = null;
+          continue;
+        }
+        positions[depth] = position + 2;
+        if (array[position] == null) {
+          push((Node) array[position + 1]);
+        } else {
+          return new SimpleImmutableEntry<>((K) array[position], (V) array[position + 1]);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<K, V> entry = next;
+      next = advance();
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
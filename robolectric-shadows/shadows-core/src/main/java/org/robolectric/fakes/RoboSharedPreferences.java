@@ -2,38 +2,73 @@ package org.robolectric.fakes;
 
 import android.content.SharedPreferences;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Robolectric implementation of {@link android.content.SharedPreferences}.
+ *
+ * The file's map in {@link #content} holds an immutable snapshot of its preferences. Each commit replaces the
+ * snapshot with one that shares structure with the previous one, so commits cost O(changed keys) and
+ * {@link #getAll()} doesn't copy anything until its result is modified. The map can still be modified directly, e.g.
+ * to seed preferences in a test; that replaces its snapshot in the same way.
+ *
+ * Preferences created with a file are loaded from it if it exists, and every commit writes them back to it.
  */
 public class RoboSharedPreferences implements SharedPreferences {
   public Map<String, Map<String, Object>> content;
   protected String filename;
   public int mode;
+  private final File file;
 
   private ArrayList<OnSharedPreferenceChangeListener> listeners;
 
   public RoboSharedPreferences(Map<String, Map<String, Object>> content,
                                String name, int mode) {
+    this(content, name, mode, null);
+  }
+
+  /**
+   * @param file The file to persist preferences in, or null to keep them in memory only
+   */
+  public RoboSharedPreferences(Map<String, Map<String, Object>> content,
+                               String name, int mode, File file) {
     this.content = content;
     this.filename = name;
     this.mode = mode;
+    this.file = file;
     if (!content.containsKey(name)) {
-      content.put(name, new HashMap<String, Object>());
+      content.put(name, new PreferencesMap(file != null && file.exists() ? load(file) : PersistentHashMap.<String, Object>empty()));
     }
 
     listeners = new ArrayList<>();
   }
 
+  private static PersistentHashMap<String, Object> load(File file) {
+    try {
+      return SharedPreferencesFile.read(file);
+    } catch (IOException e) {
+      throw new RuntimeException("couldn't load shared preferences from " + file, e);
+    }
+  }
+
   @Override
   public Map<String, ?> getAll() {
-    return new HashMap<>(content.get(filename));
+    return new CopyOnWriteMap<>(snapshot());
+  }
+
+  private PersistentHashMap<String, Object> snapshot() {
+    Map<String, Object> fileHash = content.get(filename);
+    return fileHash instanceof PreferencesMap ? ((PreferencesMap) fileHash).snapshot : PersistentHashMap.copyOf(fileHash);
   }
 
   @Override
@@ -169,26 +204,32 @@ public class RoboSharedPreferences implements SharedPreferences {
 
     @Override
     public boolean commit() {
-      Map<String, Object> previousContent = content.get(filename);
+      PersistentHashMap<String, Object> newContent = snapshot();
       List<String> keysToPassToListeners = new ArrayList<>();
 
       if (shouldClearOnCommit) {
-        previousContent.clear();
+        newContent = PersistentHashMap.empty();
       } else {
         for (String key : editsThatNeedRemove) {
-          previousContent.remove(key);
+          newContent = newContent.minus(key);
           keysToPassToListeners.add(key);
         }
         editsThatNeedRemove.clear();
       }
 
-      for (String key : editsThatNeedCommit.keySet()) {
-        if (!editsThatNeedCommit.get(key).equals(previousContent.get(key))) {
-          previousContent.put(key, editsThatNeedCommit.get(key));
-          keysToPassToListeners.add(key);
+      for (Map.Entry<String, Object> edit : editsThatNeedCommit.entrySet()) {
+        if (!edit.getValue().equals(newContent.get(edit.getKey()))) {
+          newContent = newContent.plus(edit.getKey(), edit.getValue());
+          keysToPassToListeners.add(edit.getKey());
         }
       }
       editsThatNeedCommit.clear();
+      Map<String, Object> fileHash = content.get(filename);
+      if (fileHash instanceof PreferencesMap) {
+        ((PreferencesMap) fileHash).snapshot = newContent;
+      } else {
+        content.put(filename, new PreferencesMap(newContent));
+      }
 
       for (OnSharedPreferenceChangeListener listener : listeners) {
         for (String key : keysToPassToListeners) {
@@ -196,6 +237,13 @@ public class RoboSharedPreferences implements SharedPreferences {
         }
       }
 
+      if (file != null) {
+        try {
+          SharedPreferencesFile.write(file, newContent);
+        } catch (IOException e) {
+          return false;
+        }
+      }
       return true;
     }
 
@@ -210,4 +258,178 @@ public class RoboSharedPreferences implements SharedPreferences {
     Set< String > v = ( Set< String > ) getValue( key, defValues );
     return v != null ? v : defValues;
   }
-}
\ No newline at end of file
+
+  /**
+   * The preferences of a file, as kept in {@link #content}. Modifying the map replaces its snapshot rather than
+   * copying it.
+   */
+  static class PreferencesMap extends AbstractMap<String, Object> {
+    PersistentHashMap<String, Object> snapshot;
+
+    PreferencesMap(PersistentHashMap<String, Object> snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    @Override
+    public int size() {
+      return snapshot.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return snapshot.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+      return snapshot.get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      Object previous = snapshot.get(key);
+      snapshot = snapshot.plus(key, value);
+      return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+      Object previous = snapshot.get(key);
+      snapshot = snapshot.minus(key);
+      return previous;
+    }
+
+    @Override
+    public void clear() {
+      snapshot = PersistentHashMap.empty();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          final Iterator<Entry<String, Object>> snapshotIterator = snapshot.entrySet().iterator();
+          return new Iterator<Entry<String, Object>>() {
+            private Entry<String, Object> last;
+
+            @Override
+            public boolean hasNext() {
+              return snapshotIterator.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              return last = snapshotIterator.next();
+            }
+
+            @Override
+            public void remove() {
+              if (last == null) {
+                throw new IllegalStateException();
+              }
+              snapshot = snapshot.minus(last.getKey());
+              last = null;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return snapshot.size();
+        }
+      };
+    }
+  }
+
+  /**
+   * The result of {@link #getAll()}: reads go to the committed snapshot, which is copied the first time the map is
+   * modified so that callers may change it without affecting the preferences.
+   */
+  private static class CopyOnWriteMap<K, V> extends AbstractMap<K, V> {
+    private Map<K, V> map;
+    private boolean copied;
+
+    CopyOnWriteMap(Map<K, V> snapshot) {
+      this.map = snapshot;
+    }
+
+    private Map<K, V> writableMap() {
+      if (!copied) {
+        map = new HashMap<>(map);
+        copied = true;
+      }
+      return map;
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return map.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+      return map.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+      return writableMap().put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+      return writableMap().remove(key);
+    }
+
+    @Override
+    public void clear() {
+      writableMap().clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new AbstractSet<Entry<K, V>>() {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+          if (copied) {
+            return map.entrySet().iterator();
+          }
+          final Iterator<Entry<K, V>> snapshotIterator = map.entrySet().iterator();
+          return new Iterator<Entry<K, V>>() {
+            private Entry<K, V> last;
+
+            @Override
+            public boolean hasNext() {
+              return snapshotIterator.hasNext();
+            }
+
+            @Override
+            public Entry<K, V> next() {
+              return last = snapshotIterator.next();
+            }
+
+            @Override
+            public void remove() {
+              if (last == null) {
+                throw new IllegalStateException();
+              }
+              writableMap().remove(last.getKey());
+              last = null;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return map.size();
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package org.robolectric.fakes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes the file that backs a persisted {@link RoboSharedPreferences}.
+ *
+ * The file is a header followed by one record per preference: a type tag, the key, then the value. Strings are
+ * length-prefixed UTF-8. Files are read onto the heap in full rather than mapped, so they can be moved or deleted
+ * right after they're read. Decoded preferences are cached by the digest of the file's bytes, so a fixture that many
+ * tests copy into their data directories is only decoded once.
+ * The cached maps are immutable and safe to share.
+ */
+final class SharedPreferencesFile {
+  private static final int MAGIC = 0x52505246; // "RPRF"
+  private static final int VERSION = 1;
+  private static final int MAX_CACHED_FILES = 32;
+
+  private static final byte TYPE_STRING = 0;
+  private static final byte TYPE_INT = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_FLOAT = 3;
+  private static final byte TYPE_BOOLEAN = 4;
+  private static final byte TYPE_STRING_SET = 5;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final Map<ByteBuffer, PersistentHashMap<String, Object>> cache =
+      new LinkedHashMap<ByteBuffer, PersistentHashMap<String, Object>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, PersistentHashMap<String, Object>> eldest) {
+          return size() > MAX_CACHED_FILES;
+        }
+      };
+
+  private SharedPreferencesFile() {
+  }
+
+  static PersistentHashMap<String, Object> read(File file) throws IOException {
+    ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    ByteBuffer digest = digest(bytes.duplicate());
+    synchronized (cache) {
+      PersistentHashMap<String, Object> cached = cache.get(digest);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    PersistentHashMap<String, Object> content = decode(bytes, file);
+    synchronized (cache) {
+      cache.put(digest, content);
+    }
+    return content;
+  }
+
+  static void write(File file, Map<String, ?> content) throws IOException {
+    File directory = file.getAbsoluteFile().getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("couldn't create " + directory);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(content.size());
+    for (Map.Entry<String, ?> entry : content.entrySet()) {
+      encode(out, entry.getKey(), entry.getValue());
+    }
+
+    File tempFile = new File(directory, file.getName() + ".tmp");
+    try (FileOutputStream tempOut = new FileOutputStream(tempFile)) {
+      bytes.writeTo(tempOut);
+    }
+    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static ByteBuffer digest(ByteBuffer bytes) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(bytes);
+      return ByteBuffer.wrap(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void encode(DataOutputStream out, String key, Object value) throws IOException {
+    if (value instanceof String) {
+      out.writeByte(TYPE_STRING);
+      writeString(out, key);
+      writeString(out, (String) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(TYPE_INT);
+      writeString(out, key);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(TYPE_LONG);
+      writeString(out, key);
+      out.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte(TYPE_FLOAT);
+      writeString(out, key);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(TYPE_BOOLEAN);
+      writeString(out, key);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Set) {
+      out.writeByte(TYPE_STRING_SET);
+      writeString(out, key);
+      Set<?> set = (Set<?>) value;
+      out.writeInt(set.size());
+      for (Object item : set) {
+        writeString(out, (String) item);
+      }
+    } else {
+      throw new IllegalArgumentException("can't persist preference " + key + " = " + value);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    byte[] bytes = string.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static PersistentHashMap<String, Object> decode(ByteBuffer buffer, File file) throws IOException {
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException(file + " isn't a shared preferences file");
+      }
+      PersistentHashMap<String, Object> content = PersistentHashMap.empty();
+      for (int count = buffer.getInt(); count > 0; count--) {
+        byte type = buffer.get();
+        String key = readString(buffer);
+        content = content.plus(key, readValue(buffer, type, file));
+      }
+      return content;
+    } catch (BufferUnderflowException e) {
+      throw new IOException(file + " is truncated", e);
+    }
+  }
+
+  private static Object readValue(ByteBuffer buffer, byte type, File file) throws IOException {
+    switch (type) {
+      case TYPE_STRING:
+        return readString(buffer);
+      case TYPE_INT:
+        return buffer.getInt();
+      case TYPE_LONG:
+        return buffer.getLong();
+      case TYPE_FLOAT:
+        return buffer.getFloat();
+      case TYPE_BOOLEAN:
+        return buffer.get() != 0;
+      case TYPE_STRING_SET:
+        int size = buffer.getInt();
+        Set<String> set = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+          set.add(readString(buffer));
+        }
+        return Collections.unmodifiableSet(set);
+      default:
+        throw new IOException(file + " has a preference of unknown type " + type);
+    }
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
@@ -5,14 +5,147 @@ import android.graphics.Point;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Finds the dimensions of encoded images.
+ *
+ * PNG, JPEG, GIF and WebP dimensions are read straight from the image headers, which are looked for in the first
+ * {@value #SNIFF_LENGTH} bytes of the stream. Other images are read in full and go through ImageIO; their sizes are
+ * cached by image content for the lifetime of the JVM, so decoding the same image again, e.g. in another test,
+ * doesn't parse it again.
+ */
 public class ImageUtil {
+  static final int SNIFF_LENGTH = 64 * 1024;
+  private static final int MAX_CACHED_SIZES = 1024;
+  private static final int[] NO_SIZE = new int[0];
+
+  private static final Map<String, int[]> sizesByContent = Collections.synchronizedMap(
+      new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+          return size() > MAX_CACHED_SIZES;
+        }
+      });
+
   private static boolean initialized;
 
+  /**
+   * Returns the dimensions of the image a stream holds. The stream is only read past its header if the image isn't a
+   * PNG, JPEG, GIF or WebP image whose dimensions are within its first {@value #SNIFF_LENGTH} bytes.
+   *
+   * @param is The stream
+   * @return The image's width and height, or null if the stream doesn't hold a known image format
+   */
   public static Point getImageSizeFromStream(InputStream is) {
+    try {
+      byte[] prefix = new byte[SNIFF_LENGTH];
+      int prefixLength = readUpTo(is, prefix);
+      int[] size = sniffImageSize(prefix, 0, prefixLength);
+      if (size == null) {
+        byte[] data = prefixLength < SNIFF_LENGTH ? prefix : readRest(is, prefix);
+        size = cachedImageSize(data, prefixLength < SNIFF_LENGTH ? prefixLength : data.length);
+      }
+      return size == NO_SIZE ? null : new Point(size[0], size[1]);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Reads the dimensions with ImageIO, unless an image with the same content has been read before.
+   */
+  private static int[] cachedImageSize(byte[] data, int length) {
+    String key = contentKey(data, 0, length);
+    int[] size = sizesByContent.get(key);
+    if (size == null) {
+      size = readImageSize(data, 0, length);
+      sizesByContent.put(key, size);
+    }
+    return size;
+  }
+
+  /**
+   * Reads the dimensions from the header of a PNG, JPEG, GIF or WebP image.
+   *
+   * @return The width and height, or null if the data isn't in one of those formats or its header is truncated
+   */
+  static int[] sniffImageSize(byte[] data, int offset, int length) {
+    int end = offset + length;
+    if (startsWith(data, offset, end, 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n')) {
+      // The IHDR chunk comes first: length, type, width, height.
+      return offset + 24 <= end ? size(readInt(data, offset + 16), readInt(data, offset + 20)) : null;
+    }
+    if (startsWith(data, offset, end, 'G', 'I', 'F', '8')) {
+      return offset + 10 <= end ? size(readLittleEndianShort(data, offset + 6), readLittleEndianShort(data, offset + 8)) : null;
+    }
+    if (startsWith(data, offset, end, 0xff, 0xd8)) {
+      return sniffJpegSize(data, offset + 2, end);
+    }
+    if (startsWith(data, offset, end, 'R', 'I', 'F', 'F') && startsWith(data, offset + 8, end, 'W', 'E', 'B', 'P')) {
+      return sniffWebPSize(data, offset + 12, end);
+    }
+    return null;
+  }
+
+  private static int[] sniffJpegSize(byte[] data, int position, int end) {
+    while (position + 4 <= end) {
+      if ((data[position] & 0xff) != 0xff) {
+        return null;
+      }
+      int marker = data[position + 1] & 0xff;
+      if (marker == 0xff) {
+        // Fill byte.
+        position++;
+        continue;
+      }
+      if (marker == 0x01 || marker >= 0xd0 && marker <= 0xd9) {
+        // Markers without a segment.
+        position += 2;
+        continue;
+      }
+
+      // Start of frame markers, except DHT (c4), JPG (c8) and DAC (cc), hold: precision, height, width.
+      if (marker >= 0xc0 && marker <= 0xcf && marker != 0xc4 && marker != 0xc8 && marker != 0xcc) {
+        return position + 9 <= end ? size(readShort(data, position + 7), readShort(data, position + 5)) : null;
+      }
+      position += 2 + readShort(data, position + 2);
+    }
+    return null;
+  }
+
+  private static int[] sniffWebPSize(byte[] data, int chunk, int end) {
+    if (startsWith(data, chunk, end, 'V', 'P', '8', ' ')) {
+      // Lossy: frame tag, start code, then 14 bit width and height.
+      return chunk + 18 <= end
+          ? size(readLittleEndianShort(data, chunk + 14) & 0x3fff, readLittleEndianShort(data, chunk + 16) & 0x3fff)
+          : null;
+    }
+    if (startsWith(data, chunk, end, 'V', 'P', '8', 'L')) {
+      // Lossless: signature, then 14 bit width - 1 and height - 1.
+      if (chunk + 13 > end) {
+        return null;
+      }
+      int bits = readLittleEndianShort(data, chunk + 9) | readLittleEndianShort(data, chunk + 11) << 16;
+      return size((bits & 0x3fff) + 1, (bits >>> 14 & 0x3fff) + 1);
+    }
+    if (startsWith(data, chunk, end, 'V', 'P', '8', 'X')) {
+      // Extended: flags, then 24 bit canvas width - 1 and height - 1.
+      return chunk + 18 <= end ? size(readLittleEndianInt24(data, chunk + 12) + 1, readLittleEndianInt24(data, chunk + 15) + 1) : null;
+    }
+    return null;
+  }
+
+  private static int[] readImageSize(byte[] data, int offset, int length) {
     if (!initialized) {
       // Stops ImageIO from creating temp files when reading images
       // from input stream.
@@ -21,14 +154,14 @@ public class ImageUtil {
     }
 
     try {
-      ImageInputStream imageStream = ImageIO.createImageInputStream(is);
+      ImageInputStream imageStream = ImageIO.createImageInputStream(new ByteArrayInputStream(data, offset, length));
       Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
-      if (!readers.hasNext()) return null;
+      if (!readers.hasNext()) return NO_SIZE;
 
       ImageReader reader = readers.next();
       try {
         reader.setInput(imageStream);
-        return new Point(reader.getWidth(0), reader.getHeight(0));
+        return size(reader.getWidth(0), reader.getHeight(0));
       } finally {
         reader.dispose();
       }
@@ -36,4 +169,70 @@ public class ImageUtil {
       throw new RuntimeException(e);
     }
   }
+
+  private static String contentKey(byte[] data, int offset, int length) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      digest.update(data, offset, length);
+      StringBuilder key = new StringBuilder();
+      for (byte b : digest.digest()) {
+        key.append(Character.forDigit(b >> 4 & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return key.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static int readUpTo(InputStream is, byte[] buffer) throws IOException {
+    int length = 0;
+    int count;
+    while (length < buffer.length && (count = is.read(buffer, length, buffer.length - length)) != -1) {
+      length += count;
+    }
+    return length;
+  }
+
+  private static byte[] readRest(InputStream is, byte[] prefix) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + Math.max(is.available(), 8192));
+    out.write(prefix);
+    byte[] buffer = new byte[8192];
+    int count;
+    while ((count = is.read(buffer)) != -1) {
+      out.write(buffer, 0, count);
+    }
+    return out.toByteArray();
+  }
+
+  private static int[] size(int width, int height) {
+    return new int[] {width, height};
+  }
+
+  private static boolean startsWith(byte[] data, int offset, int end, int... prefix) {
+    if (offset + prefix.length > end) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if ((data[offset + i] & 0xff) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int readShort(byte[] data, int offset) {
+    return (data[offset] & 0xff) << 8 | data[offset + 1] & 0xff;
+  }
+
+  private static int readInt(byte[] data, int offset) {
+    return readShort(data, offset) << 16 | readShort(data, offset + 2);
+  }
+
+  private static int readLittleEndianShort(byte[] data, int offset) {
+    return data[offset] & 0xff | (data[offset + 1] & 0xff) << 8;
+  }
+
+  private static int readLittleEndianInt24(byte[] data, int offset) {
+    return readLittleEndianShort(data, offset) | (data[offset + 2] & 0xff) << 16;
+  }
 }
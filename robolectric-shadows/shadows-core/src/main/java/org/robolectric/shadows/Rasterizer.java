@@ -0,0 +1,325 @@
+package org.robolectric.shadows;
+
+import android.graphics.ColorFilter;
+import android.graphics.ColorMatrixColorFilter;
+import android.graphics.LightingColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.Typeface;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Draws into bitmap pixels with Java2D, for {@link ShadowCanvas} and {@link ShadowBitmap} when rendering is enabled
+ * with {@link ShadowBitmap#setRenderingEnabled(boolean)}.
+ *
+ * Images wrap the bitmap's non-premultiplied ARGB pixel array directly, so drawing into them changes the bitmap's
+ * pixels without copying.
+ */
+class Rasterizer {
+  private static final DirectColorModel ARGB = (DirectColorModel) ColorModel.getRGBdefault();
+  private static final float DEFAULT_TEXT_SIZE = 12;
+
+  /**
+   * Returns an image backed by the given pixels.
+   */
+  static BufferedImage imageOf(int[] pixels, int width, int height) {
+    DataBufferInt buffer = new DataBufferInt(pixels, width * height);
+    WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width, ARGB.getMasks(), null);
+    return new BufferedImage(ARGB, raster, false, null);
+  }
+
+  static Graphics2D createGraphics(BufferedImage image) {
+    Graphics2D graphics = image.createGraphics();
+    graphics.setComposite(AlphaComposite.SrcOver);
+    graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+    return graphics;
+  }
+
+  /**
+   * Fills the whole image, within the clip, with a color.
+   */
+  static void fill(Graphics2D graphics, BufferedImage image, int color) {
+    AffineTransform transform = graphics.getTransform();
+    graphics.setTransform(new AffineTransform());
+    graphics.setColor(new Color(color, true));
+    graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+    graphics.setTransform(transform);
+  }
+
+  /**
+   * Draws a shape the way the paint would on a device: filled, stroked or both.
+   */
+  static void draw(Graphics2D graphics, Shape shape, Paint paint) {
+    applyPaint(graphics, paint);
+    Paint.Style style = paint.getStyle();
+    if (style == null || style == Paint.Style.FILL || style == Paint.Style.FILL_AND_STROKE) {
+      graphics.fill(shape);
+    }
+    if (style == Paint.Style.STROKE || style == Paint.Style.FILL_AND_STROKE) {
+      graphics.draw(shape);
+    }
+  }
+
+  /**
+   * Strokes a shape regardless of the paint's style, like {@link android.graphics.Canvas#drawLine}.
+   */
+  static void stroke(Graphics2D graphics, Shape shape, Paint paint) {
+    applyPaint(graphics, paint);
+    graphics.draw(shape);
+  }
+
+  static void drawText(Graphics2D graphics, String text, float x, float y, Paint paint) {
+    applyPaint(graphics, paint);
+
+    int fontStyle = Font.PLAIN;
+    Typeface typeface = paint.getTypeface();
+    if (typeface != null) {
+      int style = typeface.getStyle();
+      fontStyle = ((style & Typeface.BOLD) != 0 ? Font.BOLD : 0) | ((style & Typeface.ITALIC) != 0 ? Font.ITALIC : 0);
+    }
+    float textSize = paint.getTextSize() > 0 ? paint.getTextSize() : DEFAULT_TEXT_SIZE;
+    graphics.setFont(new Font(Font.SANS_SERIF, fontStyle, 1).deriveFont(textSize));
+
+    Paint.Align align = paint.getTextAlign();
+    if (align == Paint.Align.CENTER || align == Paint.Align.RIGHT) {
+      float textWidth = (float) graphics.getFontMetrics().getStringBounds(text, graphics).getWidth();
+      x -= align == Paint.Align.CENTER ? textWidth / 2 : textWidth;
+    }
+    graphics.drawString(text, x, y);
+  }
+
+  static AffineTransform transformOf(Matrix matrix) {
+    float[] values = new float[9];
+    matrix.getValues(values);
+    return new AffineTransform(values[Matrix.MSCALE_X], values[Matrix.MSKEW_Y], values[Matrix.MSKEW_X],
+        values[Matrix.MSCALE_Y], values[Matrix.MTRANS_X], values[Matrix.MTRANS_Y]);
+  }
+
+  static Shape shapeOf(Path path) {
+    return shadowOf(path).getShape();
+  }
+
+  /**
+   * Returns the image with the color filter applied to each pixel, or the image itself if there is no filter.
+   */
+  static BufferedImage filter(BufferedImage image, ColorFilter colorFilter) {
+    if (colorFilter == null) {
+      return image;
+    }
+
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = filter(pixels[i], colorFilter);
+    }
+    return imageOf(pixels, width, height);
+  }
+
+  /**
+   * Applies a color filter to a non-premultiplied ARGB color. Filters other than {@link PorterDuffColorFilter},
+   * {@link LightingColorFilter} and {@link ColorMatrixColorFilter} are ignored.
+   */
+  static int filter(int color, ColorFilter colorFilter) {
+    if (colorFilter instanceof PorterDuffColorFilter) {
+      ShadowPorterDuffColorFilter shadowFilter = shadowOf((PorterDuffColorFilter) colorFilter);
+      return blend(shadowFilter.getColor(), color, shadowFilter.getMode());
+    } else if (colorFilter instanceof LightingColorFilter) {
+      return lighting(color, colorFilter);
+    } else if (colorFilter instanceof ColorMatrixColorFilter) {
+      float[] matrix = shadowOf((ColorMatrixColorFilter) colorFilter).getColorMatrix().getArray();
+      return colorMatrix(color, matrix);
+    }
+    return color;
+  }
+
+  private static void applyPaint(Graphics2D graphics, Paint paint) {
+    graphics.setColor(new Color(filter(paint.getColor(), paint.getColorFilter()), true));
+    graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+        paint.isAntiAlias() ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+    graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+        paint.isAntiAlias() ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+
+    // A stroke width of 0 draws a hairline, one pixel wide regardless of the transformation.
+    float strokeWidth = paint.getStrokeWidth() > 0 ? paint.getStrokeWidth() : 1;
+    graphics.setStroke(new BasicStroke(strokeWidth, capOf(paint.getStrokeCap()), joinOf(paint.getStrokeJoin())));
+  }
+
+  private static int capOf(Paint.Cap cap) {
+    if (cap == Paint.Cap.ROUND) {
+      return BasicStroke.CAP_ROUND;
+    } else if (cap == Paint.Cap.SQUARE) {
+      return BasicStroke.CAP_SQUARE;
+    }
+    return BasicStroke.CAP_BUTT;
+  }
+
+  private static int joinOf(Paint.Join join) {
+    if (join == Paint.Join.ROUND) {
+      return BasicStroke.JOIN_ROUND;
+    } else if (join == Paint.Join.BEVEL) {
+      return BasicStroke.JOIN_BEVEL;
+    }
+    return BasicStroke.JOIN_MITER;
+  }
+
+  /**
+   * Composites a source color onto a destination color with a Porter-Duff mode, as described for
+   * {@link PorterDuff.Mode}. Both colors are non-premultiplied ARGB.
+   */
+  static int blend(int src, int dst, PorterDuff.Mode mode) {
+    float sa = (src >>> 24) / 255f;
+    float da = (dst >>> 24) / 255f;
+    float[] s = premultiplied(src, sa);
+    float[] d = premultiplied(dst, da);
+
+    float ra;
+    float[] r = new float[3];
+    switch (mode) {
+      case CLEAR:
+        return 0;
+      case SRC:
+        return src;
+      case DST:
+        return dst;
+      case SRC_OVER:
+        ra = sa + (1 - sa) * da;
+        for (int i = 0; i < 3; i++) r[i] = s[i] + (1 - sa) * d[i];
+        break;
+      case DST_OVER:
+        ra = sa + (1 - sa) * da;
+        for (int i = 0; i < 3; i++) r[i] = d[i] + (1 - da) * s[i];
+        break;
+      case SRC_IN:
+        ra = sa * da;
+        for (int i = 0; i < 3; i++) r[i] = s[i] * da;
+        break;
+      case DST_IN:
+        ra = sa * da;
+        for (int i = 0; i < 3; i++) r[i] = d[i] * sa;
+        break;
+      case SRC_OUT:
+        ra = sa * (1 - da);
+        for (int i = 0; i < 3; i++) r[i] = s[i] * (1 - da);
+        break;
+      case DST_OUT:
+        ra = da * (1 - sa);
+        for (int i = 0; i < 3; i++) r[i] = d[i] * (1 - sa);
+        break;
+      case SRC_ATOP:
+        ra = da;
+        for (int i = 0; i < 3; i++) r[i] = da * s[i] + (1 - sa) * d[i];
+        break;
+      case DST_ATOP:
+        ra = sa;
+        for (int i = 0; i < 3; i++) r[i] = sa * d[i] + (1 - da) * s[i];
+        break;
+      case XOR:
+        ra = sa + da - 2 * sa * da;
+        for (int i = 0; i < 3; i++) r[i] = (1 - da) * s[i] + (1 - sa) * d[i];
+        break;
+      case DARKEN:
+        ra = sa + da - sa * da;
+        for (int i = 0; i < 3; i++) r[i] = (1 - da) * s[i] + (1 - sa) * d[i] + Math.min(s[i], d[i]);
+        break;
+      case LIGHTEN:
+        ra = sa + da - sa * da;
+        for (int i = 0; i < 3; i++) r[i] = (1 - da) * s[i] + (1 - sa) * d[i] + Math.max(s[i], d[i]);
+        break;
+      case MULTIPLY:
+        ra = sa * da;
+        for (int i = 0; i < 3; i++) r[i] = s[i] * d[i];
+        break;
+      case SCREEN:
+        ra = sa + da - sa * da;
+        for (int i = 0; i < 3; i++) r[i] = s[i] + d[i] - s[i] * d[i];
+        break;
+      case ADD:
+        ra = Math.min(sa + da, 1);
+        for (int i = 0; i < 3; i++) r[i] = Math.min(s[i] + d[i], 1);
+        break;
+      case OVERLAY:
+        ra = sa + da - sa * da;
+        for (int i = 0; i < 3; i++) {
+          r[i] = 2 * d[i] <= da
+              ? 2 * s[i] * d[i]
+              : sa * da - 2 * (da - d[i]) * (sa - s[i]);
+          r[i] += s[i] * (1 - da) + d[i] * (1 - sa);
+        }
+        break;
+      default:
+        return dst;
+    }
+    return unpremultiplied(ra, r);
+  }
+
+  private static int lighting(int color, ColorFilter colorFilter) {
+    int mul;
+    int add;
+    try {
+      mul = ReflectionHelpers.getField(colorFilter, "mMul");
+      add = ReflectionHelpers.getField(colorFilter, "mAdd");
+    } catch (RuntimeException e) {
+      return color;
+    }
+
+    int result = color & 0xff000000;
+    for (int shift = 0; shift <= 16; shift += 8) {
+      int channel = ((color >> shift) & 0xff) * ((mul >> shift) & 0xff) / 255 + ((add >> shift) & 0xff);
+      result |= Math.min(channel, 255) << shift;
+    }
+    return result;
+  }
+
+  private static int colorMatrix(int color, float[] m) {
+    float[] in = {(color >> 16) & 0xff, (color >> 8) & 0xff, color & 0xff, color >>> 24};
+    int[] out = new int[4];
+    for (int row = 0; row < 4; row++) {
+      float value = m[row * 5 + 4];
+      for (int column = 0; column < 4; column++) {
+        value += m[row * 5 + column] * in[column];
+      }
+      out[row] = Math.max(0, Math.min(255, Math.round(value)));
+    }
+    return out[3] << 24 | out[0] << 16 | out[1] << 8 | out[2];
+  }
+
+  private static float[] premultiplied(int color, float alpha) {
+    return new float[] {
+        ((color >> 16) & 0xff) / 255f * alpha,
+        ((color >> 8) & 0xff) / 255f * alpha,
+        (color & 0xff) / 255f * alpha
+    };
+  }
+
+  private static int unpremultiplied(float alpha, float[] premultiplied) {
+    if (alpha <= 0) {
+      return 0;
+    }
+    int result = Math.round(Math.min(alpha, 1) * 255) << 24;
+    for (int i = 0; i < 3; i++) {
+      result |= Math.max(0, Math.min(255, Math.round(premultiplied[i] / alpha * 255))) << (16 - 8 * i);
+    }
+    return result;
+  }
+}
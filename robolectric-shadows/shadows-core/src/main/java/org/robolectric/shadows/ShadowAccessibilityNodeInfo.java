@@ -19,13 +19,14 @@ import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
+import org.robolectric.annotation.Resetter;
 import org.robolectric.internal.ShadowExtractor;
 import org.robolectric.util.ReflectionHelpers;
 import org.robolectric.util.ReflectionHelpers.ClassParameter;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -44,11 +45,18 @@ import static org.robolectric.Shadows.shadowOf;
  */
 @Implements(AccessibilityNodeInfo.class)
 public class ShadowAccessibilityNodeInfo {
-  // Map of obtained instances of the class along with stack traces of how they were obtained
-  private static final Map<StrictEqualityNodeWrapper, StackTraceElement[]> obtainedInstances =
-      new HashMap<>();
+  /** System property that enables capturing stack traces when set to {@code true}; see {@link #setObtainStackTracesEnabled(boolean)}. */
+  public static final String OBTAIN_STACK_TRACES_PROPERTY = "robolectric.accessibilityNodeInfoStackTraces";
 
-  private static final SparseArray<StrictEqualityNodeWrapper> orderedInstances = new SparseArray<>();
+  private static volatile boolean obtainStackTracesEnabled = Boolean.getBoolean(OBTAIN_STACK_TRACES_PROPERTY);
+
+  // Obtained instances of the class, by identity, along with the order in which they were obtained
+  private static final Map<AccessibilityNodeInfo, Integer> obtainedInstances = new IdentityHashMap<>();
+
+  // Stack traces of how instances were obtained, only captured when enabled
+  private static final Map<AccessibilityNodeInfo, StackTraceElement[]> obtainStackTraces = new IdentityHashMap<>();
+
+  private static final SparseArray<AccessibilityNodeInfo> orderedInstances = new SparseArray<>();
 
   // Bitmasks for actions
   public static final int UNDEFINED_SELECTION_INDEX = -1;
@@ -58,7 +66,7 @@ public class ShadowAccessibilityNodeInfo {
 
     @Override
     public AccessibilityNodeInfo createFromParcel(Parcel source) {
-      return obtain(orderedInstances.get(source.readInt()).mInfo);
+      return obtain(orderedInstances.get(source.readInt()));
     }
 
     @Override
@@ -185,10 +193,7 @@ public class ShadowAccessibilityNodeInfo {
         ((ShadowAccessibilityNodeInfo) ShadowExtractor.extract(info));
     final AccessibilityNodeInfo obtainedInstance = shadowInfo.getClone();
 
-    sAllocationCount++;
-    StrictEqualityNodeWrapper wrapper = new StrictEqualityNodeWrapper(obtainedInstance);
-    obtainedInstances.put(wrapper, Thread.currentThread().getStackTrace());
-    orderedInstances.put(sAllocationCount, wrapper);
+    trackObtainedInstance(obtainedInstance);
     return obtainedInstance;
   }
 
@@ -214,13 +219,19 @@ public class ShadowAccessibilityNodeInfo {
     shadowObtained.performedActionAndArgsList = new LinkedList<>();
 
     shadowObtained.view = view;
-    sAllocationCount++;
-    StrictEqualityNodeWrapper wrapper = new StrictEqualityNodeWrapper(obtainedInstance);
-    obtainedInstances.put(wrapper, Thread.currentThread().getStackTrace());
-    orderedInstances.put(sAllocationCount, wrapper);
+    trackObtainedInstance(obtainedInstance);
     return obtainedInstance;
   }
 
+  private static void trackObtainedInstance(AccessibilityNodeInfo obtainedInstance) {
+    sAllocationCount++;
+    obtainedInstances.put(obtainedInstance, sAllocationCount);
+    orderedInstances.put(sAllocationCount, obtainedInstance);
+    if (obtainStackTracesEnabled) {
+      obtainStackTraces.put(obtainedInstance, Thread.currentThread().getStackTrace());
+    }
+  }
+
   @Implementation
   public static AccessibilityNodeInfo obtain() {
     return obtain(new View(RuntimeEnvironment.application.getApplicationContext()));
@@ -232,24 +243,50 @@ public class ShadowAccessibilityNodeInfo {
     return node;
   }
 
+  /**
+   * Enables or disables capturing the stack trace of each {@code obtain()} call, which
+   * {@link #areThereUnrecycledNodes(boolean)} prints for leaked nodes. Capturing stack traces
+   * is slow when many nodes are obtained, so it's disabled by default; it can also be enabled by
+   * setting the {@value #OBTAIN_STACK_TRACES_PROPERTY} system property to {@code true}.
+   *
+   * @param obtainStackTracesEnabled Whether to capture stack traces of calls to {@code obtain()}
+   */
+  public static void setObtainStackTracesEnabled(boolean obtainStackTracesEnabled) {
+    ShadowAccessibilityNodeInfo.obtainStackTracesEnabled = obtainStackTracesEnabled;
+  }
+
+  @Resetter
+  public static void reset() {
+    obtainStackTracesEnabled = Boolean.getBoolean(OBTAIN_STACK_TRACES_PROPERTY);
+  }
+
   /**
    * Check for leaked objects that were {@code obtain}ed but never
    * {@code recycle}d.
    *
-   * @param printUnrecycledNodesToSystemErr - if true, stack traces of calls
-   *        to {@code obtain} that lack matching calls to {@code recycle} are
-   *        dumped to System.err.
+   * @param printUnrecycledNodesToSystemErr - if true, calls to {@code obtain}
+   *        that lack matching calls to {@code recycle} are dumped to System.err,
+   *        with their stack traces if {@link #setObtainStackTracesEnabled(boolean)
+   *        capturing them} was enabled.
    * @return {@code true} if there are unrecycled nodes
    */
   public static boolean areThereUnrecycledNodes(boolean printUnrecycledNodesToSystemErr) {
     if (printUnrecycledNodesToSystemErr) {
-      for (final StrictEqualityNodeWrapper wrapper : obtainedInstances.keySet()) {
+      for (final AccessibilityNodeInfo info : obtainedInstances.keySet()) {
         final ShadowAccessibilityNodeInfo shadow =
-            ((ShadowAccessibilityNodeInfo) ShadowExtractor.extract(wrapper.mInfo));
+            ((ShadowAccessibilityNodeInfo) ShadowExtractor.extract(info));
+
+        final StackTraceElement[] stackTrace = obtainStackTraces.get(info);
+        if (stackTrace == null) {
+          System.err.println(String.format(
+              "Leaked contentDescription = %s. Set %s to true for stack traces.",
+              shadow.getContentDescription(), OBTAIN_STACK_TRACES_PROPERTY));
+          continue;
+        }
 
         System.err.println(String.format(
             "Leaked contentDescription = %s. Stack trace:", shadow.getContentDescription()));
-        for (final StackTraceElement stackTraceElement : obtainedInstances.get(wrapper)) {
+        for (final StackTraceElement stackTraceElement : stackTrace) {
           System.err.println(stackTraceElement.toString());
         }
       }
@@ -264,14 +301,14 @@ public class ShadowAccessibilityNodeInfo {
    */
   public static void resetObtainedInstances() {
     obtainedInstances.clear();
+    obtainStackTraces.clear();
     orderedInstances.clear();
   }
 
   @Implementation
   public void recycle() {
-    final StrictEqualityNodeWrapper wrapper =
-        new StrictEqualityNodeWrapper(realAccessibilityNodeInfo);
-    if (!obtainedInstances.containsKey(wrapper)) {
+    final Integer key = obtainedInstances.get(realAccessibilityNodeInfo);
+    if (key == null) {
       throw new IllegalStateException();
     }
 
@@ -292,16 +329,9 @@ public class ShadowAccessibilityNodeInfo {
       }
     }
 
-    obtainedInstances.remove(wrapper);
-    int keyOfWrapper = -1;
-    for (int i = 0; i < orderedInstances.size(); i++) {
-      int key = orderedInstances.keyAt(i);
-      if (orderedInstances.get(key).equals(wrapper)) {
-        keyOfWrapper = key;
-        break;
-      }
-    }
-    orderedInstances.remove(keyOfWrapper);
+    obtainedInstances.remove(realAccessibilityNodeInfo);
+    obtainStackTraces.remove(realAccessibilityNodeInfo);
+    orderedInstances.remove(key);
   }
 
   @Implementation
@@ -1080,10 +1110,9 @@ public class ShadowAccessibilityNodeInfo {
   @Implementation
   @Override
   public int hashCode() {
-    // This is 0 for a reason. If you change it, you will break the obtained
-    // instances map in a manner that is remarkably difficult to debug.
-    // Having a dynamic hash code keeps this object from being located
-    // in the map if it was mutated after being obtained.
+    // This is 0 for a reason. Nodes are mutable and equal to other nodes with
+    // the same properties, so a dynamic hash code would keep a node from being
+    // located in a hashed collection if it was mutated after being added.
     return 0;
   }
 
@@ -1209,33 +1238,6 @@ public class ShadowAccessibilityNodeInfo {
     return newInfo;
   }
 
-  /**
-   * Private class to keep different nodes referring to the same view straight
-   * in the mObtainedInstances map.
-   */
-  private static class StrictEqualityNodeWrapper {
-    public final AccessibilityNodeInfo mInfo;
-
-    public StrictEqualityNodeWrapper(AccessibilityNodeInfo info) {
-      mInfo = info;
-    }
-
-    @Override
-    public boolean equals(Object object) {
-      if (object == null) {
-        return false;
-      }
-
-      final StrictEqualityNodeWrapper wrapper = (StrictEqualityNodeWrapper) object;
-      return mInfo == wrapper.mInfo;
-    }
-
-    @Override
-    public int hashCode() {
-      return mInfo.hashCode();
-    }
-  }
-
   /**
    * Shadow of AccessibilityAction.
    */
@@ -1295,15 +1297,8 @@ public class ShadowAccessibilityNodeInfo {
 
   @Implementation
   public void writeToParcel(Parcel dest, int flags) {
-    StrictEqualityNodeWrapper wrapper = new StrictEqualityNodeWrapper(realAccessibilityNodeInfo);
-    int keyOfWrapper = -1;
-    for (int i = 0; i < orderedInstances.size(); i++) {
-      if (orderedInstances.valueAt(i).equals(wrapper)) {
-        keyOfWrapper = orderedInstances.keyAt(i);
-        break;
-      }
-    }
-    dest.writeInt(keyOfWrapper);
+    final Integer key = obtainedInstances.get(realAccessibilityNodeInfo);
+    dest.writeInt(key == null ? -1 : key);
   }
 
   private static int getActionTypeMaskFromFramework() {
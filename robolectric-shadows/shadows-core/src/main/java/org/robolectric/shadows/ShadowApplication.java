@@ -37,7 +37,9 @@ import org.robolectric.manifest.AndroidManifest;
 import org.robolectric.manifest.BroadcastReceiverData;
 import org.robolectric.util.Scheduler;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -46,7 +48,10 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -62,16 +67,20 @@ import static org.robolectric.shadow.api.Shadow.newInstanceOf;
  */
 @Implements(Application.class)
 public class ShadowApplication extends ShadowContextWrapper {
+  private static final Wrapper[] NO_RECEIVERS = new Wrapper[0];
+
   @RealObject private Application realApplication;
 
   private AndroidManifest appManifest;
   private List<Intent> startedActivities = new ArrayList<>();
   private List<Intent.FilterComparison> startedServices = new ArrayList<>();
   private List<Intent.FilterComparison> stoppedServices = new ArrayList<>();
-  private List<Intent> broadcastIntents = new ArrayList<>();
+  private final BroadcastIntentHistory broadcastIntents = new BroadcastIntentHistory();
   private List<ServiceConnection> boundServiceConnections = new ArrayList<>();
   private List<ServiceConnection> unboundServiceConnections = new ArrayList<>();
-  private List<Wrapper> registeredReceivers = new ArrayList<>();
+  private final List<Wrapper> registeredReceivers = new CopyOnWriteArrayList<>();
+  private final Map<String, Wrapper[]> receiversByAction = new ConcurrentHashMap<>();
+  private final List<Wrapper> registeredReceiversView = new RegisteredReceivers();
   private Map<String, Intent> stickyIntents = new LinkedHashMap<>();
   private Handler mainHandler;
   private Scheduler backgroundScheduler = RoboSettings.isUseGlobalScheduler() ? getForegroundThreadScheduler() : new Scheduler();
@@ -379,15 +388,12 @@ public class ShadowApplication extends ShadowContextWrapper {
     Returns the BroadcaseReceivers wrappers, matching intent's action and permissions.
    */
   private List<Wrapper> getAppropriateWrappers(Intent intent, String receiverPermission) {
-    broadcastIntents.add(intent);
+    recordBroadcastIntent(intent);
 
     List<Wrapper> result = new ArrayList<>();
 
-    List<Wrapper> copy = new ArrayList<>();
-    copy.addAll(registeredReceivers);
-    for (Wrapper wrapper : copy) {
-      if (hasMatchingPermission(wrapper.broadcastPermission, receiverPermission)
-          && wrapper.intentFilter.matchAction(intent.getAction())) {
+    for (Wrapper wrapper : getReceiversForAction(intent.getAction())) {
+      if (hasMatchingPermission(wrapper.broadcastPermission, receiverPermission)) {
         final int match = wrapper.intentFilter.matchData(intent.getType(), intent.getScheme(), intent.getData());
         if (match != IntentFilter.NO_MATCH_DATA && match != IntentFilter.NO_MATCH_TYPE) {
           result.add(wrapper);
@@ -528,6 +534,23 @@ public class ShadowApplication extends ShadowContextWrapper {
     return broadcastIntents;
   }
 
+  /**
+   * Non-Android accessor. Limits {@link #getBroadcastIntents()} to the most recently sent broadcasts, for tests that
+   * send many broadcasts and don't need to inspect all of them. By default every broadcast is kept.
+   *
+   * @param limit the maximum number of broadcast intents to keep
+   */
+  public void setBroadcastIntentHistoryLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must not be negative: " + limit);
+    }
+    broadcastIntents.setLimit(limit);
+  }
+
+  private void recordBroadcastIntent(Intent intent) {
+    broadcastIntents.add(intent);
+  }
+
   @Implementation
   public void sendStickyBroadcast(Intent intent) {
     stickyIntents.put(intent.getAction(), intent);
@@ -551,11 +574,66 @@ public class ShadowApplication extends ShadowContextWrapper {
 
   Intent registerReceiverWithContext(BroadcastReceiver receiver, IntentFilter filter, String broadcastPermission, Handler scheduler, Context context) {
     if (receiver != null) {
-      registeredReceivers.add(new Wrapper(receiver, filter, context, broadcastPermission, scheduler));
+      addReceiver(new Wrapper(receiver, filter, context, broadcastPermission, scheduler));
     }
     return processStickyIntents(filter, receiver, context);
   }
 
+  /*
+    Receivers are indexed by the actions their filter has when registered, as the platform does. An intent filter only
+    matches intents with one of its actions, so receivers without actions are never indexed.
+   */
+  private void addReceiver(Wrapper wrapper) {
+    synchronized (receiversByAction) {
+      registeredReceivers.add(wrapper);
+      wrapper.registeredActions = new String[wrapper.intentFilter.countActions()];
+      for (int i = 0; i < wrapper.registeredActions.length; i++) {
+        String action = wrapper.intentFilter.getAction(i);
+        wrapper.registeredActions[i] = action;
+
+        Wrapper[] receivers = getReceiversForAction(action);
+        Wrapper[] newReceivers = Arrays.copyOf(receivers, receivers.length + 1);
+        newReceivers[receivers.length] = wrapper;
+        receiversByAction.put(action, newReceivers);
+      }
+    }
+  }
+
+  private boolean removeReceiver(BroadcastReceiver broadcastReceiver) {
+    synchronized (receiversByAction) {
+      List<Wrapper> removed = new ArrayList<>();
+      for (Wrapper wrapper : registeredReceivers) {
+        if (wrapper.broadcastReceiver == broadcastReceiver) {
+          removed.add(wrapper);
+        }
+      }
+      registeredReceivers.removeAll(removed);
+
+      for (Wrapper wrapper : removed) {
+        unindexReceiver(wrapper);
+      }
+      return !removed.isEmpty();
+    }
+  }
+
+  private void unindexReceiver(Wrapper wrapper) {
+    for (String action : wrapper.registeredActions) {
+      List<Wrapper> receivers = new ArrayList<>(Arrays.asList(getReceiversForAction(action)));
+      receivers.remove(wrapper);
+      if (receivers.isEmpty()) {
+        receiversByAction.remove(action);
+      } else {
+        receiversByAction.put(action, receivers.toArray(new Wrapper[receivers.size()]));
+      }
+    }
+  }
+
+  /** Returns a snapshot of the receivers registered for an action, in registration order. */
+  private Wrapper[] getReceiversForAction(String action) {
+    Wrapper[] receivers = action == null ? null : receiversByAction.get(action);
+    return receivers == null ? NO_RECEIVERS : receivers;
+  }
+
   private void verifyActivityInManifest(Intent intent) {
     if (checkActivities && realApplication.getPackageManager().resolveActivity(intent, -1) == null) {
       throw new ActivityNotFoundException(intent.getAction());
@@ -581,16 +659,7 @@ public class ShadowApplication extends ShadowContextWrapper {
 
   @Implementation
   public void unregisterReceiver(BroadcastReceiver broadcastReceiver) {
-    boolean found = false;
-    Iterator<Wrapper> iterator = registeredReceivers.iterator();
-    while (iterator.hasNext()) {
-      Wrapper wrapper = iterator.next();
-      if (wrapper.broadcastReceiver == broadcastReceiver) {
-        iterator.remove();
-        found = true;
-      }
-    }
-    if (!found) {
+    if (!removeReceiver(broadcastReceiver)) {
       throw new IllegalArgumentException("Receiver not registered: " + broadcastReceiver);
     }
   }
@@ -613,20 +682,13 @@ public class ShadowApplication extends ShadowContextWrapper {
   }
 
   public boolean hasReceiverForIntent(Intent intent) {
-    for (Wrapper wrapper : registeredReceivers) {
-      if (wrapper.intentFilter.matchAction(intent.getAction())) {
-        return true;
-      }
-    }
-    return false;
+    return getReceiversForAction(intent.getAction()).length > 0;
   }
 
   public List<BroadcastReceiver> getReceiversForIntent(Intent intent) {
     ArrayList<BroadcastReceiver> broadcastReceivers = new ArrayList<>();
-    for (Wrapper wrapper : registeredReceivers) {
-      if (wrapper.intentFilter.matchAction(intent.getAction())) {
-        broadcastReceivers.add(wrapper.getBroadcastReceiver());
-      }
+    for (Wrapper wrapper : getReceiversForAction(intent.getAction())) {
+      broadcastReceivers.add(wrapper.getBroadcastReceiver());
     }
     return broadcastReceivers;
   }
@@ -634,10 +696,10 @@ public class ShadowApplication extends ShadowContextWrapper {
   /**
    * Non-Android accessor.
    *
-   * @return list of {@link Wrapper}s for registered receivers
+   * @return live list of {@link Wrapper}s for registered receivers; receivers removed from it are unregistered
    */
   public List<Wrapper> getRegisteredReceivers() {
-    return registeredReceivers;
+    return registeredReceiversView;
   }
 
   /**
@@ -749,6 +811,142 @@ public class ShadowApplication extends ShadowContextWrapper {
     this.latestListPopupWindow = latestListPopupWindow;
   }
 
+  /**
+   * The list returned by {@link #getRegisteredReceivers()}. Callers may remove receivers from it, or add them, and the
+   * index of receivers by action is kept up to date.
+   */
+  private class RegisteredReceivers extends AbstractList<Wrapper> implements RandomAccess {
+    @Override
+    public Wrapper get(int index) {
+      return registeredReceivers.get(index);
+    }
+
+    @Override
+    public int size() {
+      return registeredReceivers.size();
+    }
+
+    @Override
+    public void add(int index, Wrapper wrapper) {
+      if (index != registeredReceivers.size()) {
+        throw new UnsupportedOperationException("receivers can only be added at the end");
+      }
+      addReceiver(wrapper);
+    }
+
+    @Override
+    public Wrapper remove(int index) {
+      synchronized (receiversByAction) {
+        Wrapper wrapper = registeredReceivers.remove(index);
+        unindexReceiver(wrapper);
+        return wrapper;
+      }
+    }
+  }
+
+  /**
+   * Broadcast intents in the order they were sent, keeping only the most recent {@code limit} of them. Intents are
+   * kept in a circular array, so that once the limit is reached each new intent replaces the oldest in constant time.
+   */
+  private static class BroadcastIntentHistory extends AbstractList<Intent> implements RandomAccess {
+    private Intent[] elements = new Intent[16];
+    private int head;
+    private int size;
+    private int limit = Integer.MAX_VALUE;
+
+    void setLimit(int limit) {
+      this.limit = limit;
+      while (size > limit) {
+        removeFirst();
+      }
+    }
+
+    @Override
+    public Intent get(int index) {
+      checkIndex(index, size);
+      return elements[slot(index)];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Intent set(int index, Intent intent) {
+      checkIndex(index, size);
+      int slot = slot(index);
+      Intent previous = elements[slot];
+      elements[slot] = intent;
+      return previous;
+    }
+
+    @Override
+    public void add(int index, Intent intent) {
+      checkIndex(index, size + 1);
+      modCount++;
+      if (size == limit) {
+        if (index == 0) {
+          return;
+        }
+        removeFirst();
+        index--;
+      }
+      if (size == elements.length) {
+        elements = toArray(new Intent[size * 2]);
+        head = 0;
+      }
+      for (int i = size; i > index; i--) {
+        elements[slot(i)] = elements[slot(i - 1)];
+      }
+      elements[slot(index)] = intent;
+      size++;
+    }
+
+    @Override
+    public Intent remove(int index) {
+      checkIndex(index, size);
+      if (index == 0) {
+        return removeFirst();
+      }
+      modCount++;
+      Intent removed = elements[slot(index)];
+      for (int i = index; i < size - 1; i++) {
+        elements[slot(i)] = elements[slot(i + 1)];
+      }
+      elements[slot(size - 1)] = null;
+      size--;
+      return removed;
+    }
+
+    @Override
+    public void clear() {
+      modCount++;
+      Arrays.fill(elements, null);
+      head = 0;
+      size = 0;
+    }
+
+    private Intent removeFirst() {
+      modCount++;
+      Intent removed = elements[head];
+      elements[head] = null;
+      head = (head + 1) % elements.length;
+      size--;
+      return removed;
+    }
+
+    private int slot(int index) {
+      return (head + index) % elements.length;
+    }
+
+    private static void checkIndex(int index, int size) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+    }
+  }
+
   public class Wrapper {
     public BroadcastReceiver broadcastReceiver;
     public IntentFilter intentFilter;
@@ -756,6 +954,7 @@ public class ShadowApplication extends ShadowContextWrapper {
     public Throwable exception;
     public String broadcastPermission;
     public Handler scheduler;
+    private String[] registeredActions = new String[0];
 
     public Wrapper(BroadcastReceiver broadcastReceiver, IntentFilter intentFilter, Context context, String broadcastPermission, Handler scheduler) {
       this.broadcastReceiver = broadcastReceiver;
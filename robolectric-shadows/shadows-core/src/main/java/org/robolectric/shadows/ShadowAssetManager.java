@@ -42,6 +42,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import static android.os.Build.VERSION_CODES.KITKAT_WATCH;
 import static android.os.Build.VERSION_CODES.LOLLIPOP;
@@ -67,6 +68,10 @@ public final class ShadowAssetManager {
   private static final Map<Long, NativeTheme> nativeThemes = new HashMap<>();
   private ResourceTable resourceTable;
 
+  /** Fully dereferenced values by resource id, valid for {@link #resolvedValuesQualifiers} only. */
+  private final Map<Integer, TypedResource> resolvedValues = new HashMap<>();
+  private String resolvedValuesQualifiers;
+
   class NativeTheme {
     private ThemeStyleSet themeStyleSet;
 
@@ -622,9 +627,28 @@ public final class ShadowAssetManager {
   }
 
   private TypedResource getAndResolve(int resId, String qualifiers, boolean resolveRefs) {
-    TypedResource value = resourceTable.getValue(resId, qualifiers);
-    if (resolveRefs) {
-      value = resolve(value, qualifiers, resId);
+    if (!resolveRefs) {
+      return resourceTable.getValue(resId, qualifiers);
+    }
+
+    synchronized (resolvedValues) {
+      if (!Objects.equals(resolvedValuesQualifiers, qualifiers)) {
+        resolvedValues.clear();
+        resolvedValuesQualifiers = qualifiers;
+      }
+      TypedResource value = resolvedValues.get(resId);
+      if (value != null) {
+        return value;
+      }
+    }
+
+    TypedResource value = resolve(resourceTable.getValue(resId, qualifiers), qualifiers, resId);
+    if (value != null) {
+      synchronized (resolvedValues) {
+        if (Objects.equals(resolvedValuesQualifiers, qualifiers)) {
+          resolvedValues.put(resId, value);
+        }
+      }
     }
     return value;
   }
@@ -8,14 +8,24 @@ import android.util.DisplayMetrics;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
+import org.robolectric.annotation.Resetter;
 import org.robolectric.util.ReflectionHelpers;
 
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.Buffer;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.robolectric.Shadows.shadowOf;
 
@@ -28,6 +38,11 @@ public class ShadowBitmap {
   /** Number of bytes used internally to represent each pixel (in the {@link #colors} array) */
   private static final int INTERNAL_BYTES_PER_PIXEL = 4;
 
+  /** System property that enables rendering when set to {@code true}; see {@link #setRenderingEnabled(boolean)}. */
+  public static final String RENDERING_PROPERTY = "robolectric.bitmapRendering";
+
+  private static volatile boolean renderingEnabled = Boolean.getBoolean(RENDERING_PROPERTY);
+
   @RealObject
   private Bitmap realBitmap;
 
@@ -50,9 +65,14 @@ public class ShadowBitmap {
   private int height;
   private int density;
   private int[] colors;
+  /** Number of bitmaps sharing {@link #colors}, or null if no other bitmap does; see {@link #mutablePixels()}. */
+  private AtomicInteger colorsShareCount;
   private Bitmap.Config config;
   private boolean mutable;
-  private String description = "";
+  private final StringBuilder description = new StringBuilder();
+  private BufferedImage image;
+  private int[] imagePixels;
+  private ShadowCanvas pendingDescriptionCanvas;
   private boolean recycled = false;
   private boolean hasMipMap;
 
@@ -66,6 +86,29 @@ public class ShadowBitmap {
     return shadowOf(bitmap).getDescription();
   }
 
+  /**
+   * Enables or disables rendering. When rendering is enabled, canvases draw shapes, text and bitmaps into the pixels
+   * of their target bitmap, bitmaps created from other bitmaps get their pixels, and {@link Bitmap#compress} encodes
+   * the pixels as a PNG image, or as a JPEG image for {@link Bitmap.CompressFormat#JPEG}. Otherwise drawing is only described, see {@link #visualize(Bitmap)}.
+   *
+   * Rendering is disabled by default; it can also be enabled by setting the {@value #RENDERING_PROPERTY} system
+   * property to {@code true}. The default is restored after each test.
+   *
+   * @param renderingEnabled Whether to render into bitmap pixels
+   */
+  public static void setRenderingEnabled(boolean renderingEnabled) {
+    ShadowBitmap.renderingEnabled = renderingEnabled;
+  }
+
+  public static boolean isRenderingEnabled() {
+    return renderingEnabled;
+  }
+
+  @Resetter
+  public static void reset() {
+    renderingEnabled = Boolean.getBoolean(RENDERING_PROPERTY);
+  }
+
   /**
    * Reference to original Bitmap from which this Bitmap was created. {@code null} if this Bitmap
    * was not copied from another instance.
@@ -182,8 +225,13 @@ public class ShadowBitmap {
 
   @Implementation
   public boolean compress(Bitmap.CompressFormat format, int quality, OutputStream stream) {
+    BufferedImage image = renderingEnabled ? getImage() : null;
+    if (image != null) {
+      return compressImage(image, format, stream);
+    }
+
     try {
-      stream.write((description + " compressed as " + format + " with quality " + quality).getBytes());
+      stream.write((getDescription() + " compressed as " + format + " with quality " + quality).getBytes());
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -217,7 +265,6 @@ public class ShadowBitmap {
     if (displayMetrics != null) {
       shadowBitmap.density = displayMetrics.densityDpi;
     }
-    shadowBitmap.setPixels(new int[shadowBitmap.getHeight() * shadowBitmap.getWidth()], 0, shadowBitmap.getWidth(), 0, 0, shadowBitmap.getWidth(), shadowBitmap.getHeight());
     return scaledBitmap;
   }
 
@@ -247,7 +294,12 @@ public class ShadowBitmap {
     shadowBitmap.createdFromFilter = filter;
     shadowBitmap.width = dstWidth;
     shadowBitmap.height = dstHeight;
-    shadowBitmap.setPixels(new int[shadowBitmap.getHeight() * shadowBitmap.getWidth()], 0, 0, 0, 0, shadowBitmap.getWidth(), shadowBitmap.getHeight());
+    if (dstWidth == src.getWidth() && dstHeight == src.getHeight()) {
+      shadowBitmap.sharePixels(shadowOf(src));
+    } else if (renderingEnabled) {
+      shadowBitmap.drawBitmap(src, 0, 0, src.getWidth(), src.getHeight(),
+          AffineTransform.getScaleInstance((double) dstWidth / src.getWidth(), (double) dstHeight / src.getHeight()), filter);
+    }
     return scaledBitmap;
   }
 
@@ -271,12 +323,17 @@ public class ShadowBitmap {
     shadowBitmap.createdFromHeight = height;
     shadowBitmap.width = width;
     shadowBitmap.height = height;
+    ShadowBitmap shadowSrc = shadowOf(src);
+    if (renderingEnabled && shadowSrc.colors != null) {
+      shadowSrc.getPixels(shadowBitmap.mutablePixels(), 0, width, x, y, width, height);
+    }
     return newBitmap;
   }
 
   @Implementation
   public void setPixels(int[] pixels, int offset, int stride,
                         int x, int y, int width, int height) {
+    releasePixels();
     this.colors = pixels;
   }
 
@@ -299,6 +356,9 @@ public class ShadowBitmap {
     shadowBitmap.appendDescription(shadowOf(src).getDescription());
     shadowBitmap.appendDescription(" at (" + x + "," + y + ")");
     shadowBitmap.appendDescription(" with width " + width + " and height " + height);
+    int srcWidth = width;
+    int srcHeight = height;
+    AffineTransform transform = new AffineTransform();
     if (matrix != null) {
       shadowBitmap.appendDescription(" using matrix " + shadowOf(matrix).getDescription());
 
@@ -307,6 +367,9 @@ public class ShadowBitmap {
       matrix.mapRect(mappedRect, new RectF(0, 0, width, height));
       width = Math.round(mappedRect.width());
       height = Math.round(mappedRect.height());
+
+      transform.translate(-mappedRect.left, -mappedRect.top);
+      transform.concatenate(Rasterizer.transformOf(matrix));
     }
     if (filter) {
       shadowBitmap.appendDescription(" with filter");
@@ -321,6 +384,9 @@ public class ShadowBitmap {
     shadowBitmap.createdFromFilter = filter;
     shadowBitmap.width = width;
     shadowBitmap.height = height;
+    if (renderingEnabled) {
+      shadowBitmap.drawBitmap(src, x, y, srcWidth, srcHeight, transform, filter);
+    }
     return newBitmap;
   }
 
@@ -335,8 +401,7 @@ public class ShadowBitmap {
 
     shadowBitmap.setMutable(false);
     shadowBitmap.createdFromColors = colors;
-    shadowBitmap.colors = new int[colors.length];
-    System.arraycopy(colors, 0, shadowBitmap.colors, 0, colors.length);
+    shadowBitmap.colors = colors.clone();
     return newBitmap;
   }
 
@@ -362,29 +427,41 @@ public class ShadowBitmap {
       throw new IllegalStateException("Bitmap is immutable");
     }
     internalCheckPixelAccess(x, y);
-    if (colors == null) {
-      colors = new int[getWidth() * getHeight()];
-    }
-    colors[y * getWidth() + x] = color;
+    mutablePixels()[y * getWidth() + x] = color;
   }
 
   /**
-   * Note that this method will return a RuntimeException unless:
-   * - {@code pixels} has the same length as the number of pixels of the bitmap.
-   * - {@code x = 0}
-   * - {@code y = 0}
-   * - {@code width} and {@code height} height match the current bitmap's dimensions.
+   * Copies a region of the pixels into {@code pixels}, one row every {@code stride} elements starting at
+   * {@code offset}. Pixels that were never written read as 0.
+   *
+   * For compatibility, a request for all the pixels into an array of exactly that size is served without checking
+   * {@code offset} and {@code stride}.
    */
   @Implementation
   public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
-    if (x != 0 ||
-        y != 0 ||
-        width != getWidth() ||
-        height != getHeight() ||
-        pixels.length != colors.length) {
-      throw new RuntimeException("Not implemented.");
+    if (x == 0 && y == 0 && width == getWidth() && height == getHeight() && pixels.length == width * height) {
+      if (colors == null) {
+        Arrays.fill(pixels, 0);
+      } else {
+        System.arraycopy(colors, 0, pixels, 0, pixels.length);
+      }
+      return;
+    }
+
+    if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > getWidth() || y + height > getHeight()) {
+      throw new IllegalArgumentException("region (" + x + "," + y + " " + width + "x" + height + ") must be within the bitmap");
+    }
+    if (Math.abs(stride) < width) {
+      throw new IllegalArgumentException("abs(stride) must be >= width");
+    }
+    for (int row = 0; row < height; row++) {
+      int rowOffset = offset + row * stride;
+      if (colors == null) {
+        Arrays.fill(pixels, rowOffset, rowOffset + width, 0);
+      } else {
+        System.arraycopy(colors, (y + row) * getWidth() + x, pixels, rowOffset, width);
+      }
     }
-    System.arraycopy(colors, 0, pixels, 0, colors.length);
   }
 
   @Implementation
@@ -400,6 +477,10 @@ public class ShadowBitmap {
   @Implementation
   public void recycle() {
     recycled = true;
+    releasePixels();
+    colors = null;
+    image = null;
+    imagePixels = null;
   }
 
   @Implementation
@@ -414,6 +495,10 @@ public class ShadowBitmap {
     shadowBitmap.createdFromBitmap = realBitmap;
     shadowBitmap.config = config;
     shadowBitmap.mutable = isMutable;
+    shadowBitmap.width = width;
+    shadowBitmap.height = height;
+    shadowBitmap.density = density;
+    shadowBitmap.sharePixels(this);
     return newBitmap;
   }
 
@@ -437,15 +522,38 @@ public class ShadowBitmap {
   }
 
   public void appendDescription(String s) {
-    description += s;
+    renderPendingDescription();
+    description.append(s);
   }
 
   public void setDescription(String s) {
-    description = s;
+    renderPendingDescription();
+    description.setLength(0);
+    description.append(s);
   }
 
   public String getDescription() {
-    return description;
+    renderPendingDescription();
+    return description.toString();
+  }
+
+  /**
+   * Notes that a canvas drawing into this bitmap has recorded operations whose description hasn't been rendered yet.
+   * They are rendered the next time the description is read or changed.
+   */
+  void setPendingDescription(ShadowCanvas canvas) {
+    if (pendingDescriptionCanvas != canvas) {
+      renderPendingDescription();
+      pendingDescriptionCanvas = canvas;
+    }
+  }
+
+  void renderPendingDescription() {
+    ShadowCanvas canvas = pendingDescriptionCanvas;
+    if (canvas != null) {
+      pendingDescriptionCanvas = null;
+      canvas.describePendingOps(description);
+    }
   }
 
   @Implementation
@@ -510,7 +618,9 @@ public class ShadowBitmap {
 
   @Implementation
   public void eraseColor(int c) {
-
+    if (renderingEnabled && width > 0 && height > 0) {
+      Arrays.fill(mutablePixels(), c);
+    }
   }
 
   @Implementation
@@ -518,7 +628,7 @@ public class ShadowBitmap {
     p.writeInt(width);
     p.writeInt(height);
     p.writeSerializable(config);
-    p.writeIntArray(colors);
+    p.writeString(encodePixels(colors));
   }
 
   @Implementation
@@ -527,10 +637,37 @@ public class ShadowBitmap {
     int parceledHeight = p.readInt();
     Bitmap.Config parceledConfig = (Bitmap.Config) p.readSerializable();
 
-    int[] parceledColors = new int[parceledHeight * parceledWidth];
-    p.readIntArray(parceledColors);
+    Bitmap newBitmap = createBitmap(parceledWidth, parceledHeight, parceledConfig);
+    ShadowBitmap shadowBitmap = shadowOf(newBitmap);
+    shadowBitmap.setMutable(false);
+    shadowBitmap.colors = decodePixels(p.readString());
+    return newBitmap;
+  }
+
+  /**
+   * Parcels store each int as a separate value, so pixels are parceled as a single string of two chars per pixel.
+   */
+  private static String encodePixels(int[] pixels) {
+    if (pixels == null) {
+      return null;
+    }
+    char[] chars = new char[pixels.length * 2];
+    for (int i = 0; i < pixels.length; i++) {
+      chars[2 * i] = (char) (pixels[i] >>> 16);
+      chars[2 * i + 1] = (char) pixels[i];
+    }
+    return new String(chars);
+  }
 
-    return createBitmap(parceledColors, parceledWidth, parceledHeight, parceledConfig);
+  private static int[] decodePixels(String encoded) {
+    if (encoded == null) {
+      return null;
+    }
+    int[] pixels = new int[encoded.length() / 2];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = encoded.charAt(2 * i) << 16 | encoded.charAt(2 * i + 1);
+    }
+    return pixels;
   }
 
   @Implementation
@@ -549,13 +686,13 @@ public class ShadowBitmap {
     }
 
     ByteBuffer byteBuffer = (ByteBuffer) dst;
-    if (byteBuffer.remaining() < colors.length * INTERNAL_BYTES_PER_PIXEL) {
+    int[] pixels = mutablePixels();
+    if (byteBuffer.remaining() < pixels.length * INTERNAL_BYTES_PER_PIXEL) {
       throw new RuntimeException("Buffer not large enough for pixels");
     }
 
-    for (int i = 0; i < colors.length; i++) {
-      colors[i] = byteBuffer.getInt();
-    }
+    byteBuffer.asIntBuffer().get(pixels);
+    byteBuffer.position(byteBuffer.position() + pixels.length * INTERNAL_BYTES_PER_PIXEL);
   }
 
   @Implementation
@@ -574,14 +711,24 @@ public class ShadowBitmap {
     }
 
     ByteBuffer byteBuffer = (ByteBuffer) dst;
-    for (int color : colors) {
-      byteBuffer.putInt(color);
+    int pixelCount = getWidth() * getHeight();
+    if (colors == null) {
+      if (byteBuffer.remaining() < pixelCount * INTERNAL_BYTES_PER_PIXEL) {
+        throw new BufferOverflowException();
+      }
+      for (int i = 0; i < pixelCount; i++) {
+        byteBuffer.putInt(0);
+      }
+      return;
     }
+
+    byteBuffer.asIntBuffer().put(colors);
+    byteBuffer.position(byteBuffer.position() + colors.length * INTERNAL_BYTES_PER_PIXEL);
   }
 
   @Override
   public String toString() {
-    return "Bitmap{description='" + description + '\'' + ", width=" + width + ", height=" + height + '}';
+    return "Bitmap{description='" + getDescription() + '\'' + ", width=" + width + ", height=" + height + '}';
   }
 
   public Bitmap getRealBitmap() {
@@ -605,6 +752,126 @@ public class ShadowBitmap {
     }
   }
 
+  /**
+   * Makes this bitmap share another bitmap's pixels until either of them writes to them.
+   */
+  private void sharePixels(ShadowBitmap other) {
+    releasePixels();
+    if (other.colors == null) {
+      return;
+    }
+    if (other.colorsShareCount == null) {
+      other.colorsShareCount = new AtomicInteger(1);
+    }
+    other.colorsShareCount.incrementAndGet();
+    colors = other.colors;
+    colorsShareCount = other.colorsShareCount;
+  }
+
+  /**
+   * Stops sharing this bitmap's pixels; other bitmaps sharing them keep the array.
+   */
+  private void releasePixels() {
+    if (colorsShareCount != null) {
+      colorsShareCount.decrementAndGet();
+      colorsShareCount = null;
+    }
+  }
+
+  /**
+   * Returns this bitmap's pixels for writing: allocated if there were none yet, and copied first if they are shared
+   * with other bitmaps.
+   */
+  private int[] mutablePixels() {
+    int size = width * height;
+    if (colors == null || colors.length != size) {
+      releasePixels();
+      colors = new int[size];
+    } else if (colorsShareCount != null) {
+      if (colorsShareCount.get() > 1) {
+        colors = colors.clone();
+      }
+      releasePixels();
+    }
+    return colors;
+  }
+
+  /**
+   * Returns an image backed by this bitmap's pixels, allocating them if needed, or null if the bitmap is empty. The
+   * image may share pixels with other bitmaps, so it must only be read; use {@link #getMutableImage()} for drawing.
+   */
+  BufferedImage getImage() {
+    if (width <= 0 || height <= 0) {
+      return null;
+    }
+    if (colors == null || colors.length != width * height) {
+      mutablePixels();
+    }
+    return imageOfPixels();
+  }
+
+  /**
+   * Returns an image backed by pixels this bitmap doesn't share, for drawing, or null if the bitmap is empty.
+   */
+  BufferedImage getMutableImage() {
+    if (width <= 0 || height <= 0) {
+      return null;
+    }
+    mutablePixels();
+    return imageOfPixels();
+  }
+
+  private BufferedImage imageOfPixels() {
+    if (image == null || image.getWidth() != width || image.getHeight() != height || imagePixels != colors) {
+      image = Rasterizer.imageOf(colors, width, height);
+      imagePixels = colors;
+    }
+    return image;
+  }
+
+  /**
+   * Draws a region of another bitmap into this one's pixels, replacing them.
+   */
+  private void drawBitmap(Bitmap src, int srcX, int srcY, int srcWidth, int srcHeight, AffineTransform transform, boolean filter) {
+    BufferedImage dstImage = getMutableImage();
+    BufferedImage srcImage = shadowOf(src).getImage();
+    if (dstImage == null || srcImage == null) {
+      return;
+    }
+
+    Graphics2D graphics = dstImage.createGraphics();
+    try {
+      graphics.setComposite(AlphaComposite.Src);
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, filter
+          ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+      graphics.drawImage(srcImage.getSubimage(srcX, srcY, srcWidth, srcHeight), transform, null);
+    } finally {
+      graphics.dispose();
+    }
+  }
+
+  private static boolean compressImage(BufferedImage image, Bitmap.CompressFormat format, OutputStream stream) {
+    String formatName = "png";
+    BufferedImage encodedImage = image;
+    if (format == Bitmap.CompressFormat.JPEG) {
+      // JPEG has no alpha channel.
+      formatName = "jpeg";
+      encodedImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+      Graphics2D graphics = encodedImage.createGraphics();
+      try {
+        graphics.drawImage(image, 0, 0, null);
+      } finally {
+        graphics.dispose();
+      }
+    }
+
+    try {
+      return ImageIO.write(encodedImage, formatName, stream);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   public void setCreatedFromResId(int resId, String description) {
     this.createdFromResId = resId;
     appendDescription(" for resource:" + description);
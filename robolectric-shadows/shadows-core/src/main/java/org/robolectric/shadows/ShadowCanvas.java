@@ -12,10 +12,25 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.Resetter;
 import org.robolectric.util.ReflectionHelpers;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import static org.robolectric.Shadows.shadowOf;
 
@@ -25,17 +40,25 @@ import static org.robolectric.Shadows.shadowOf;
  * <p> Broken. This implementation is very specific to the application for which it was developed.
  * Todo: Reimplement. Consider using the same strategy of collecting a history of draw events
  * and providing methods for writing queries based on type, number, and order of events.</p>
+ *
+ * <p>Drawing operations are recorded in a single compact log of opcodes, coordinates and references, and the history
+ * events returned by the query methods are created on demand. Paints are copied when they are drawn with, but a copy
+ * is reused for as long as the paint it was taken from doesn't change. Descriptions of drawn bitmaps and paths are
+ * only rendered when the description of the target bitmap is read.</p>
+ *
+ * <p>When rendering is enabled with {@link ShadowBitmap#setRenderingEnabled(boolean)}, drawing operations are also
+ * drawn into the pixels of the target bitmap, honoring the canvas transformation, clip and save stack.</p>
  */
 @SuppressWarnings({"UnusedDeclaration"})
 @Implements(Canvas.class)
 public class ShadowCanvas {
-  private List<PathPaintHistoryEvent> pathPaintEvents = new ArrayList<>();
-  private List<CirclePaintHistoryEvent> circlePaintEvents = new ArrayList<>();
-  private List<ArcPaintHistoryEvent> arcPaintEvents = new ArrayList<>();
-  private List<RectPaintHistoryEvent> rectPaintEvents = new ArrayList<>();
-  private List<LinePaintHistoryEvent> linePaintEvents = new ArrayList<>();
-  private List<OvalPaintHistoryEvent> ovalPaintEvents = new ArrayList<>();
-  private List<TextHistoryEvent> drawnTextEventHistory = new ArrayList<>();
+  private static final int UNLIMITED = Integer.MAX_VALUE;
+  private static final int MAX_PAINT_SNAPSHOTS = 64;
+  private static int maxRecordedOps = UNLIMITED;
+
+  private final OpLog ops = new OpLog();
+  private final Map<Paint, Paint> paintSnapshots = new IdentityHashMap<>();
+  private int describedOps;
   private Paint drawnPaint;
   private Bitmap targetBitmap = ReflectionHelpers.callConstructor(Bitmap.class);
   private float translateX;
@@ -44,6 +67,10 @@ public class ShadowCanvas {
   private float scaleY = 1;
   private int height;
   private int width;
+  private int saveCount = 1;
+  private final Deque<SavedState> savedStates = new ArrayDeque<>();
+  private Graphics2D graphics;
+  private BufferedImage graphicsImage;
 
   /**
    * Returns a textual representation of the appearance of the object.
@@ -55,6 +82,24 @@ public class ShadowCanvas {
     return shadowOf(canvas).getDescription();
   }
 
+  /**
+   * Limits the number of drawing operations recorded by each canvas. When the limit is reached the oldest quarter of
+   * the recorded operations is discarded, after their description has been rendered.
+   *
+   * @param maxRecordedOps The maximum number of operations to keep, or {@link Integer#MAX_VALUE} for no limit
+   */
+  public static void setMaxRecordedOps(int maxRecordedOps) {
+    if (maxRecordedOps < 1) {
+      throw new IllegalArgumentException("maxRecordedOps must be positive, was " + maxRecordedOps);
+    }
+    ShadowCanvas.maxRecordedOps = maxRecordedOps;
+  }
+
+  @Resetter
+  public static void reset() {
+    maxRecordedOps = UNLIMITED;
+  }
+
   public void __constructor__(Bitmap bitmap) {
     this.targetBitmap = bitmap;
   }
@@ -69,158 +114,510 @@ public class ShadowCanvas {
 
   @Implementation
   public void setBitmap(Bitmap bitmap) {
+    shadowOf(targetBitmap).renderPendingDescription();
     targetBitmap = bitmap;
+
+    if (graphics != null) {
+      graphics.dispose();
+      graphics = null;
+      graphicsImage = null;
+    }
+    savedStates.clear();
+    saveCount = 1;
   }
 
   @Implementation
   public void drawText(String text, float x, float y, Paint paint) {
-    drawnTextEventHistory.add(new TextHistoryEvent(x, y, paint, text));
+    beginOp(OpLog.TEXT);
+    ops.putFloat(x);
+    ops.putFloat(y);
+    ops.putRef(paint);
+    ops.putRef(text);
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.drawText(graphics, text, x, y, paint);
+    }
   }
 
   @Implementation
   public void translate(float x, float y) {
     this.translateX = x;
     this.translateY = y;
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      graphics.translate(x, y);
+    }
   }
 
   @Implementation
   public void scale(float sx, float sy) {
     this.scaleX = sx;
     this.scaleY = sy;
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      graphics.scale(sx, sy);
+    }
   }
 
   @Implementation
   public void scale(float sx, float sy, float px, float py) {
     this.scaleX = sx;
     this.scaleY = sy;
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      graphics.translate(px, py);
+      graphics.scale(sx, sy);
+      graphics.translate(-px, -py);
+    }
+  }
+
+  @Implementation
+  public void rotate(float degrees) {
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      graphics.rotate(Math.toRadians(degrees));
+    }
+  }
+
+  @Implementation
+  public void concat(Matrix matrix) {
+    Graphics2D graphics = graphics();
+    if (graphics != null && matrix != null) {
+      graphics.transform(Rasterizer.transformOf(matrix));
+    }
+  }
+
+  @Implementation
+  public int save() {
+    Graphics2D graphics = graphics();
+    savedStates.push(new SavedState(graphics));
+    return saveCount++;
+  }
+
+  @Implementation
+  public int save(int saveFlags) {
+    return save();
+  }
+
+  @Implementation
+  public void restore() {
+    if (savedStates.isEmpty()) {
+      return;
+    }
+    saveCount--;
+    savedStates.pop().restore(graphics());
+  }
+
+  @Implementation
+  public void restoreToCount(int saveCount) {
+    while (this.saveCount > Math.max(saveCount, 1)) {
+      restore();
+    }
+  }
+
+  @Implementation
+  public int getSaveCount() {
+    return saveCount;
+  }
+
+  @Implementation
+  public boolean clipRect(float left, float top, float right, float bottom) {
+    Graphics2D graphics = graphics();
+    if (graphics == null) {
+      return false;
+    }
+    graphics.clip(new Rectangle2D.Float(left, top, right - left, bottom - top));
+    return !graphics.getClipBounds().isEmpty();
+  }
+
+  @Implementation
+  public boolean clipRect(int left, int top, int right, int bottom) {
+    return clipRect((float) left, (float) top, (float) right, (float) bottom);
+  }
+
+  @Implementation
+  public boolean clipRect(Rect rect) {
+    return clipRect(rect.left, rect.top, rect.right, rect.bottom);
+  }
+
+  @Implementation
+  public boolean clipRect(RectF rect) {
+    return clipRect(rect.left, rect.top, rect.right, rect.bottom);
   }
 
   @Implementation
   public void drawPaint(Paint paint) {
     drawnPaint = paint;
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.fill(graphics, graphicsImage, Rasterizer.filter(paint.getColor(), paint.getColorFilter()));
+    }
   }
 
   @Implementation
   public void drawColor(int color) {
-    appendDescription("draw color " + color);
+    beginDescribedOp(OpLog.COLOR);
+    ops.putRef(color);
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.fill(graphics, graphicsImage, color);
+    }
   }
 
   @Implementation
   public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
-    describeBitmap(bitmap, paint);
-
-    int x = (int) (left + translateX);
-    int y = (int) (top + translateY);
-    if (x != 0 || y != 0) {
-      appendDescription(" at (" + x + "," + y + ")");
-  }
+    beginBitmapOp(OpLog.BITMAP, bitmap, paint);
+    ops.putFloat(left + translateX);
+    ops.putFloat(top + translateY);
+    ops.putFloat(scaleX);
+    ops.putFloat(scaleY);
 
-    if (scaleX != 1 && scaleY != 1) {
-      appendDescription(" scaled by (" + scaleX + "," + scaleY + ")");
-    }
+    renderBitmap(bitmap, null, AffineTransform.getTranslateInstance(left, top), paint);
   }
 
   @Implementation
   public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
-    describeBitmap(bitmap, paint);
-
-    StringBuilder descriptionBuilder = new StringBuilder();
+    beginBitmapOp(OpLog.BITMAP_RECT, bitmap, paint);
     if (dst != null) {
-      descriptionBuilder.append(" at (").append(dst.left).append(",").append(dst.top)
-          .append(") with height=").append(dst.height()).append(" and width=").append(dst.width());
+      putRect(dst.left, dst.top, dst.right, dst.bottom);
+    } else {
+      ops.putFloat(0);
     }
+    putSrcRect(src);
 
-    if (src != null) {
-      descriptionBuilder.append( " taken from ").append(src.toString());
+    if (dst != null) {
+      renderBitmap(bitmap, src, dst.left, dst.top, dst.right, dst.bottom, paint);
     }
-    appendDescription(descriptionBuilder.toString());
   }
 
   @Implementation
   public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
-    describeBitmap(bitmap, paint);
-
-    StringBuilder descriptionBuilder = new StringBuilder();
+    beginBitmapOp(OpLog.BITMAP_RECTF, bitmap, paint);
     if (dst != null) {
-      descriptionBuilder.append(" at (").append(dst.left).append(",").append(dst.top)
-          .append(") with height=").append(dst.height()).append(" and width=").append(dst.width());
+      putRect(dst.left, dst.top, dst.right, dst.bottom);
+    } else {
+      ops.putFloat(0);
     }
+    putSrcRect(src);
 
-    if (src != null) {
-      descriptionBuilder.append( " taken from ").append(src.toString());
+    if (dst != null) {
+      renderBitmap(bitmap, src, dst.left, dst.top, dst.right, dst.bottom, paint);
     }
-    appendDescription(descriptionBuilder.toString());
   }
 
   @Implementation
   public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
-    describeBitmap(bitmap, paint);
+    beginBitmapOp(OpLog.BITMAP_MATRIX, bitmap, paint);
+    ops.putRef(shadowOf(matrix).getDescription());
 
-    appendDescription(" transformed by " + shadowOf(matrix).getDescription());
+    renderBitmap(bitmap, null, Rasterizer.transformOf(matrix), paint);
   }
 
   @Implementation
   public void drawPath(Path path, Paint paint) {
-    pathPaintEvents.add(new PathPaintHistoryEvent(new Path(path), new Paint(paint)));
+    beginDescribedOp(OpLog.PATH);
+    ops.putRef(new Path(path));
+    ops.putRef(snapshotOf(paint));
 
-    separateLines();
-    appendDescription("Path " + shadowOf(path).getPoints().toString());
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.draw(graphics, Rasterizer.shapeOf(path), paint);
+    }
   }
 
   @Implementation
   public void drawCircle(float cx, float cy, float radius, Paint paint) {
-    circlePaintEvents.add(new CirclePaintHistoryEvent(cx, cy, radius, paint));
+    beginOp(OpLog.CIRCLE);
+    ops.putFloat(cx);
+    ops.putFloat(cy);
+    ops.putFloat(radius);
+    ops.putRef(paint);
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.draw(graphics, new Ellipse2D.Float(cx - radius, cy - radius, 2 * radius, 2 * radius), paint);
+    }
   }
 
   @Implementation
   public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
-    arcPaintEvents.add(new ArcPaintHistoryEvent(oval, startAngle, sweepAngle, useCenter, paint));
+    beginOp(OpLog.ARC);
+    ops.putFloat(startAngle);
+    ops.putFloat(sweepAngle);
+    ops.putFloat(useCenter ? 1 : 0);
+    ops.putRef(oval);
+    ops.putRef(paint);
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      // Android measures angles clockwise, Java2D counter-clockwise. Without the center, a filled arc is a chord.
+      int type = useCenter ? Arc2D.PIE : paint.getStyle() == Paint.Style.STROKE ? Arc2D.OPEN : Arc2D.CHORD;
+      Shape arc = new Arc2D.Float(oval.left, oval.top, oval.width(), oval.height(), -startAngle, -sweepAngle, type);
+      Rasterizer.draw(graphics, arc, paint);
+    }
   }
 
   @Implementation
   public void drawRect(float left, float top, float right, float bottom, Paint paint) {
-    rectPaintEvents.add(new RectPaintHistoryEvent(left, top, right, bottom, paint));
+    beginOp(OpLog.RECT);
+    putCoordinates(left, top, right, bottom);
+    ops.putRef(snapshotOf(paint));
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.draw(graphics, new Rectangle2D.Float(left, top, right - left, bottom - top), paint);
+    }
   }
 
   @Implementation
   public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
-    linePaintEvents.add(new LinePaintHistoryEvent(startX, startY, stopX, stopY, paint));
+    beginOp(OpLog.LINE);
+    putCoordinates(startX, startY, stopX, stopY);
+    ops.putRef(snapshotOf(paint));
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.stroke(graphics, new Line2D.Float(startX, startY, stopX, stopY), paint);
+    }
   }
 
   @Implementation
   public void drawOval(RectF oval, Paint paint) {
-    ovalPaintEvents.add(new OvalPaintHistoryEvent(oval, paint));
+    beginOp(OpLog.OVAL);
+    putCoordinates(oval.left, oval.top, oval.right, oval.bottom);
+    ops.putRef(snapshotOf(paint));
+
+    Graphics2D graphics = graphics();
+    if (graphics != null) {
+      Rasterizer.draw(graphics, new Ellipse2D.Float(oval.left, oval.top, oval.width(), oval.height()), paint);
+    }
+  }
+
+  /**
+   * Returns the graphics drawing into the target bitmap's pixels, or null if rendering is disabled or the bitmap is
+   * empty. If the bitmap's pixels were replaced, new graphics with the same transformation and clip are created.
+   */
+  private Graphics2D graphics() {
+    if (!ShadowBitmap.isRenderingEnabled()) {
+      return null;
+    }
+    BufferedImage image = shadowOf(targetBitmap).getMutableImage();
+    if (image == null) {
+      return null;
+    }
+
+    if (image != graphicsImage) {
+      Graphics2D newGraphics = Rasterizer.createGraphics(image);
+      if (graphics != null) {
+        newGraphics.setTransform(graphics.getTransform());
+        newGraphics.setClip(graphics.getClip());
+        graphics.dispose();
+      }
+      graphics = newGraphics;
+      graphicsImage = image;
+    }
+    return graphics;
+  }
+
+  private void renderBitmap(Bitmap bitmap, Rect src, float left, float top, float right, float bottom, Paint paint) {
+    float srcWidth = src != null ? src.width() : bitmap.getWidth();
+    float srcHeight = src != null ? src.height() : bitmap.getHeight();
+    if (srcWidth <= 0 || srcHeight <= 0) {
+      return;
+    }
+
+    AffineTransform transform = AffineTransform.getTranslateInstance(left, top);
+    transform.scale((right - left) / srcWidth, (bottom - top) / srcHeight);
+    renderBitmap(bitmap, src, transform, paint);
+  }
+
+  private void renderBitmap(Bitmap bitmap, Rect src, AffineTransform transform, Paint paint) {
+    Graphics2D graphics = graphics();
+    BufferedImage image = graphics == null ? null : shadowOf(bitmap).getImage();
+    if (image == null) {
+      return;
+    }
+
+    if (src != null) {
+      Rect bounds = new Rect(0, 0, image.getWidth(), image.getHeight());
+      if (!bounds.intersect(src)) {
+        return;
+      }
+      image = image.getSubimage(bounds.left, bounds.top, bounds.width(), bounds.height());
+    }
+
+    boolean filterBitmap = paint != null && paint.isFilterBitmap();
+    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, filterBitmap
+        ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    Composite composite = graphics.getComposite();
+    if (paint != null && paint.getAlpha() < 255) {
+      // Bitmaps are drawn with the paint's alpha, and otherwise ignore its color.
+      graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, paint.getAlpha() / 255f));
+    }
+    graphics.drawImage(Rasterizer.filter(image, paint == null ? null : paint.getColorFilter()), transform, null);
+    graphics.setComposite(composite);
+  }
+
+  private void beginOp(byte opcode) {
+    if (ops.size() >= maxRecordedOps) {
+      discardOldestOps(Math.max(maxRecordedOps / 4, 1));
+    }
+    ops.begin(opcode);
+  }
+
+  private void beginDescribedOp(byte opcode) {
+    beginOp(opcode);
+    shadowOf(targetBitmap).setPendingDescription(this);
+  }
+
+  private void beginBitmapOp(byte opcode, Bitmap bitmap, Paint paint) {
+    String bitmapDescription = shadowOf(bitmap).getDescription();
+    beginDescribedOp(opcode);
+    ops.putRef(bitmapDescription);
+    ops.putRef(paint == null ? null : paint.getColorFilter());
+  }
+
+  private void putCoordinates(float a, float b, float c, float d) {
+    ops.putFloat(a);
+    ops.putFloat(b);
+    ops.putFloat(c);
+    ops.putFloat(d);
+  }
+
+  private void putRect(float left, float top, float right, float bottom) {
+    ops.putFloat(1);
+    putCoordinates(left, top, right, bottom);
+  }
+
+  private void putSrcRect(Rect src) {
+    if (src != null) {
+      putRect(src.left, src.top, src.right, src.bottom);
+    } else {
+      ops.putFloat(0);
+    }
+  }
+
+  private void discardOldestOps(int count) {
+    shadowOf(targetBitmap).renderPendingDescription();
+    ops.discardOldest(count);
+    describedOps = Math.max(describedOps - count, 0);
   }
 
-  private void describeBitmap(Bitmap bitmap, Paint paint) {
-    separateLines();
+  /**
+   * Returns a copy of the paint, reusing the previous copy if the paint hasn't changed since it was taken.
+   */
+  private Paint snapshotOf(Paint paint) {
+    Paint snapshot = paintSnapshots.get(paint);
+    if (snapshot == null || !shadowOf(paint).hasSameState(snapshot)) {
+      snapshot = new Paint(paint);
+      snapshot.setTextSize(paint.getTextSize());
+      if (paintSnapshots.size() >= MAX_PAINT_SNAPSHOTS) {
+        paintSnapshots.clear();
+      }
+      paintSnapshots.put(paint, snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Appends the description of the operations recorded since the last call, called by {@link ShadowBitmap} when
+   * the target bitmap's description is needed.
+   */
+  void describePendingOps(StringBuilder description) {
+    for (int op = describedOps; op < ops.size(); op++) {
+      switch (ops.opcode(op)) {
+        case OpLog.COLOR:
+          description.append("draw color ").append(ops.ref(op, 0));
+          break;
+        case OpLog.PATH:
+          separateLines(description);
+          description.append("Path ").append(shadowOf((Path) ops.ref(op, 0)).getPoints().toString());
+          break;
+        case OpLog.BITMAP:
+          describeBitmap(description, op);
+          int x = (int) ops.getFloat(op, 0);
+          int y = (int) ops.getFloat(op, 1);
+          if (x != 0 || y != 0) {
+            description.append(" at (").append(x).append(",").append(y).append(")");
+          }
+          float opScaleX = ops.getFloat(op, 2);
+          float opScaleY = ops.getFloat(op, 3);
+          if (opScaleX != 1 && opScaleY != 1) {
+            description.append(" scaled by (").append(opScaleX).append(",").append(opScaleY).append(")");
+          }
+          break;
+        case OpLog.BITMAP_RECT:
+        case OpLog.BITMAP_RECTF:
+          describeBitmap(description, op);
+          describeBitmapRects(description, op, ops.opcode(op) == OpLog.BITMAP_RECT);
+          break;
+        case OpLog.BITMAP_MATRIX:
+          describeBitmap(description, op);
+          description.append(" transformed by ").append(ops.ref(op, 2));
+          break;
+        default:
+          break;
+      }
+    }
+    describedOps = ops.size();
+  }
+
+  private void describeBitmap(StringBuilder description, int op) {
+    separateLines(description);
+    description.append(ops.ref(op, 0));
 
-    appendDescription(shadowOf(bitmap).getDescription());
+    Object colorFilter = ops.ref(op, 1);
+    if (colorFilter != null) {
+      description.append(" with ").append(colorFilter);
+    }
+  }
 
-    if (paint != null) {
-      ColorFilter colorFilter = paint.getColorFilter();
-      if (colorFilter != null) {
-        appendDescription(" with " + colorFilter);
+  private void describeBitmapRects(StringBuilder description, int op, boolean integerDst) {
+    int i = 0;
+    if (ops.getFloat(op, i++) != 0) {
+      float left = ops.getFloat(op, i++);
+      float top = ops.getFloat(op, i++);
+      float right = ops.getFloat(op, i++);
+      float bottom = ops.getFloat(op, i++);
+      description.append(" at (");
+      if (integerDst) {
+        description.append((int) left).append(",").append((int) top)
+            .append(") with height=").append((int) bottom - (int) top).append(" and width=").append((int) right - (int) left);
+      } else {
+        description.append(left).append(",").append(top)
+            .append(") with height=").append(bottom - top).append(" and width=").append(right - left);
       }
     }
+
+    if (ops.getFloat(op, i++) != 0) {
+      Rect src = new Rect((int) ops.getFloat(op, i++), (int) ops.getFloat(op, i++),
+          (int) ops.getFloat(op, i++), (int) ops.getFloat(op, i));
+      description.append(" taken from ").append(src.toString());
+    }
   }
 
-  private void separateLines() {
-    if (getDescription().length() != 0) {
-      appendDescription("\n");
+  private static void separateLines(StringBuilder description) {
+    if (description.length() != 0) {
+      description.append("\n");
     }
   }
 
   public int getPathPaintHistoryCount() {
-    return pathPaintEvents.size();
+    return ops.count(OpLog.PATH);
   }
 
   public int getCirclePaintHistoryCount() {
-    return circlePaintEvents.size();
+    return ops.count(OpLog.CIRCLE);
   }
 
   public int getArcPaintHistoryCount() {
-    return arcPaintEvents.size();
+    return ops.count(OpLog.ARC);
   }
 
   public boolean hasDrawnPath() {
@@ -228,32 +625,32 @@ public class ShadowCanvas {
   }
 
   public boolean hasDrawnCircle() {
-    return circlePaintEvents.size() > 0;
+    return getCirclePaintHistoryCount() > 0;
   }
 
   public Paint getDrawnPathPaint(int i) {
-    return pathPaintEvents.get(i).pathPaint;
+    return (Paint) ops.ref(ops.indexOf(OpLog.PATH, i), 1);
   }
 
   public Path getDrawnPath(int i) {
-    return pathPaintEvents.get(i).drawnPath;
+    return (Path) ops.ref(ops.indexOf(OpLog.PATH, i), 0);
   }
 
   public CirclePaintHistoryEvent getDrawnCircle(int i) {
-    return circlePaintEvents.get(i);
+    int op = ops.indexOf(OpLog.CIRCLE, i);
+    return new CirclePaintHistoryEvent(ops.getFloat(op, 0), ops.getFloat(op, 1), ops.getFloat(op, 2), (Paint) ops.ref(op, 0));
   }
 
   public ArcPaintHistoryEvent getDrawnArc(int i) {
-    return arcPaintEvents.get(i);
+    int op = ops.indexOf(OpLog.ARC, i);
+    return new ArcPaintHistoryEvent((RectF) ops.ref(op, 0), ops.getFloat(op, 0), ops.getFloat(op, 1),
+        ops.getFloat(op, 2) != 0, (Paint) ops.ref(op, 1));
   }
 
   public void resetCanvasHistory() {
-    drawnTextEventHistory.clear();
-    pathPaintEvents.clear();
-    circlePaintEvents.clear();
-    rectPaintEvents.clear();
-    linePaintEvents.clear();
-    ovalPaintEvents.clear();
+    ops.clear();
+    paintSnapshots.clear();
+    describedOps = 0;
     shadowOf(targetBitmap).setDescription("");
   }
 
@@ -280,39 +677,207 @@ public class ShadowCanvas {
   }
 
   public TextHistoryEvent getDrawnTextEvent(int i) {
-    return drawnTextEventHistory.get(i);
+    int op = ops.indexOf(OpLog.TEXT, i);
+    return new TextHistoryEvent(ops.getFloat(op, 0), ops.getFloat(op, 1), (Paint) ops.ref(op, 0), (String) ops.ref(op, 1));
   }
 
   public int getTextHistoryCount() {
-    return drawnTextEventHistory.size();
+    return ops.count(OpLog.TEXT);
   }
 
   public RectPaintHistoryEvent getDrawnRect(int i) {
-    return rectPaintEvents.get(i);
+    int op = ops.indexOf(OpLog.RECT, i);
+    return new RectPaintHistoryEvent(ops.getFloat(op, 0), ops.getFloat(op, 1), ops.getFloat(op, 2), ops.getFloat(op, 3),
+        (Paint) ops.ref(op, 0));
   }
 
   public RectPaintHistoryEvent getLastDrawnRect() {
-    return rectPaintEvents.get(rectPaintEvents.size() - 1);
+    return getDrawnRect(getRectPaintHistoryCount() - 1);
   }
 
   public int getRectPaintHistoryCount() {
-    return rectPaintEvents.size();
+    return ops.count(OpLog.RECT);
   }
 
   public LinePaintHistoryEvent getDrawnLine(int i) {
-    return linePaintEvents.get(i);
+    int op = ops.indexOf(OpLog.LINE, i);
+    return new LinePaintHistoryEvent(ops.getFloat(op, 0), ops.getFloat(op, 1), ops.getFloat(op, 2), ops.getFloat(op, 3),
+        (Paint) ops.ref(op, 0));
   }
 
   public int getLinePaintHistoryCount() {
-    return linePaintEvents.size();
+    return ops.count(OpLog.LINE);
   }
 
   public int getOvalPaintHistoryCount() {
-    return ovalPaintEvents.size();
+    return ops.count(OpLog.OVAL);
   }
 
   public OvalPaintHistoryEvent getDrawnOval(int i) {
-    return ovalPaintEvents.get(i);
+    int op = ops.indexOf(OpLog.OVAL, i);
+    return new OvalPaintHistoryEvent(new RectF(ops.getFloat(op, 0), ops.getFloat(op, 1), ops.getFloat(op, 2), ops.getFloat(op, 3)),
+        (Paint) ops.ref(op, 0));
+  }
+
+  /**
+   * The transformation and clip of the graphics when {@link Canvas#save()} was called, if rendering.
+   */
+  private static class SavedState {
+    private final AffineTransform transform;
+    private final Shape clip;
+
+    SavedState(Graphics2D graphics) {
+      this.transform = graphics == null ? null : graphics.getTransform();
+      this.clip = graphics == null ? null : graphics.getClip();
+    }
+
+    void restore(Graphics2D graphics) {
+      if (graphics != null && transform != null) {
+        graphics.setTransform(transform);
+        graphics.setClip(clip);
+      }
+    }
+  }
+
+  /**
+   * Drawing operations in the order they were recorded. Each operation has an opcode and a variable number of float
+   * and object operands; operations that have history events are also indexed by opcode.
+   */
+  private static class OpLog {
+    static final byte TEXT = 0;
+    static final byte PATH = 1;
+    static final byte CIRCLE = 2;
+    static final byte ARC = 3;
+    static final byte RECT = 4;
+    static final byte LINE = 5;
+    static final byte OVAL = 6;
+    static final byte COLOR = 7;
+    static final byte BITMAP = 8;
+    static final byte BITMAP_RECT = 9;
+    static final byte BITMAP_RECTF = 10;
+    static final byte BITMAP_MATRIX = 11;
+
+    private static final int INDEXED_OPCODES = OVAL + 1;
+
+    private byte[] opcodes = new byte[16];
+    private int[] floatStarts = new int[16];
+    private int[] refStarts = new int[16];
+    private int size;
+
+    private float[] floats = new float[64];
+    private int floatCount;
+    private Object[] refs = new Object[32];
+    private int refCount;
+
+    private final int[][] opsByOpcode = new int[INDEXED_OPCODES][];
+    private final int[] opCountByOpcode = new int[INDEXED_OPCODES];
+
+    OpLog() {
+      for (int i = 0; i < INDEXED_OPCODES; i++) {
+        opsByOpcode[i] = new int[8];
+      }
+    }
+
+    int size() {
+      return size;
+    }
+
+    void begin(byte opcode) {
+      if (size == opcodes.length) {
+        opcodes = Arrays.copyOf(opcodes, size * 2);
+        floatStarts = Arrays.copyOf(floatStarts, size * 2);
+        refStarts = Arrays.copyOf(refStarts, size * 2);
+      }
+      opcodes[size] = opcode;
+      floatStarts[size] = floatCount;
+      refStarts[size] = refCount;
+      index(opcode, size);
+      size++;
+    }
+
+    void putFloat(float value) {
+      if (floatCount == floats.length) {
+        floats = Arrays.copyOf(floats, floatCount * 2);
+      }
+      floats[floatCount++] = value;
+    }
+
+    void putRef(Object value) {
+      if (refCount == refs.length) {
+        refs = Arrays.copyOf(refs, refCount * 2);
+      }
+      refs[refCount++] = value;
+    }
+
+    byte opcode(int op) {
+      return opcodes[op];
+    }
+
+    float getFloat(int op, int i) {
+      return floats[floatStarts[op] + i];
+    }
+
+    Object ref(int op, int i) {
+      return refs[refStarts[op] + i];
+    }
+
+    int count(byte opcode) {
+      return opCountByOpcode[opcode];
+    }
+
+    /**
+     * Returns the position of the i'th operation with the given opcode.
+     */
+    int indexOf(byte opcode, int i) {
+      if (i < 0 || i >= opCountByOpcode[opcode]) {
+        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + opCountByOpcode[opcode]);
+      }
+      return opsByOpcode[opcode][i];
+    }
+
+    void discardOldest(int count) {
+      count = Math.min(count, size);
+      int firstFloat = count < size ? floatStarts[count] : floatCount;
+      int firstRef = count < size ? refStarts[count] : refCount;
+
+      int remaining = size - count;
+      System.arraycopy(opcodes, count, opcodes, 0, remaining);
+      for (int op = 0; op < remaining; op++) {
+        floatStarts[op] = floatStarts[op + count] - firstFloat;
+        refStarts[op] = refStarts[op + count] - firstRef;
+      }
+      System.arraycopy(floats, firstFloat, floats, 0, floatCount - firstFloat);
+      System.arraycopy(refs, firstRef, refs, 0, refCount - firstRef);
+      Arrays.fill(refs, refCount - firstRef, refCount, null);
+      size = remaining;
+      floatCount -= firstFloat;
+      refCount -= firstRef;
+
+      Arrays.fill(opCountByOpcode, 0);
+      for (int op = 0; op < size; op++) {
+        index(opcodes[op], op);
+      }
+    }
+
+    void clear() {
+      Arrays.fill(refs, 0, refCount, null);
+      Arrays.fill(opCountByOpcode, 0);
+      size = 0;
+      floatCount = 0;
+      refCount = 0;
+    }
+
+    private void index(byte opcode, int op) {
+      if (opcode < INDEXED_OPCODES) {
+        int[] opsForOpcode = opsByOpcode[opcode];
+        int count = opCountByOpcode[opcode];
+        if (count == opsForOpcode.length) {
+          opsByOpcode[opcode] = opsForOpcode = Arrays.copyOf(opsForOpcode, count * 2);
+        }
+        opsForOpcode[count] = op;
+        opCountByOpcode[opcode] = count + 1;
+      }
+    }
   }
 
   public static class LinePaintHistoryEvent {
@@ -324,9 +889,7 @@ public class ShadowCanvas {
 
     private LinePaintHistoryEvent(
         float startX, float startY, float stopX, float stopY, Paint paint) {
-      this.paint = new Paint(paint);
-      this.paint.setColor(paint.getColor());
-      this.paint.setStrokeWidth(paint.getStrokeWidth());
+      this.paint = paint;
       this.startX = startX;
       this.startY = startY;
       this.stopX = stopX;
@@ -339,10 +902,8 @@ public class ShadowCanvas {
     public final Paint paint;
 
     private OvalPaintHistoryEvent(RectF oval, Paint paint) {
-      this.oval = new RectF(oval);
-      this.paint = new Paint(paint);
-      this.paint.setColor(paint.getColor());
-      this.paint.setStrokeWidth(paint.getStrokeWidth());
+      this.oval = oval;
+      this.paint = paint;
     }
   }
 
@@ -357,11 +918,7 @@ public class ShadowCanvas {
     private RectPaintHistoryEvent(
         float left, float top, float right, float bottom, Paint paint){
       this.rect = new RectF(left, top, right, bottom);
-      this.paint = new Paint(paint);
-      this.paint.setColor(paint.getColor());
-      this.paint.setStrokeWidth(paint.getStrokeWidth());
-      this.paint.setTextSize(paint.getTextSize());
-      this.paint.setStyle(paint.getStyle());
+      this.paint = paint;
       this.left = left;
       this.top = top;
       this.right = right;
@@ -369,16 +926,6 @@ public class ShadowCanvas {
     }
   }
 
-  private static class PathPaintHistoryEvent {
-    private final Path drawnPath;
-    private final Paint pathPaint;
-
-    PathPaintHistoryEvent(Path drawnPath, Paint pathPaint) {
-      this.drawnPath = drawnPath;
-      this.pathPaint = pathPaint;
-    }
-  }
-
   public static class CirclePaintHistoryEvent {
     public final float centerX;
     public final float centerY;
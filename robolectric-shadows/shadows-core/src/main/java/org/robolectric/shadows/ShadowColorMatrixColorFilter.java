@@ -23,6 +23,15 @@ public class ShadowColorMatrixColorFilter {
     this.matrix = new ColorMatrix(array);
   }
 
+  /**
+   * Non-Android accessor.
+   *
+   * @return Returns the color matrix applied to the source pixels when this filter is applied.
+   */
+  public ColorMatrix getColorMatrix() {
+    return matrix;
+  }
+
   @Override @Implementation
   public String toString() {
     return "ColorMatrixColorFilter<" + matrix + ">";
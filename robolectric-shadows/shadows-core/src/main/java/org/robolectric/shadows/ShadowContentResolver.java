@@ -32,12 +32,15 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import static org.robolectric.Shadows.shadowOf;
@@ -53,27 +56,43 @@ public class ShadowContentResolver {
   @RealObject ContentResolver realContentResolver;
 
   private BaseCursor cursor;
-  private final List<InsertStatement> insertStatements = new ArrayList<>();
-  private final List<UpdateStatement> updateStatements = new ArrayList<>();
-  private final List<DeleteStatement> deleteStatements = new ArrayList<>();
-  private List<NotifiedUri> notifiedUris = new ArrayList<>();
+  private final List<InsertStatement> insertStatements = new History<>();
+  private final List<UpdateStatement> updateStatements = new History<>();
+  private final List<DeleteStatement> deleteStatements = new History<>();
+  private List<NotifiedUri> notifiedUris = new History<>();
   private Map<Uri, BaseCursor> uriCursorMap = new HashMap<>();
   private Map<Uri, InputStream> inputStreamMap = new HashMap<>();
   private final Map<String, List<android.content.ContentProviderOperation>> contentProviderOperations = new HashMap<>();
   private ContentProviderResult[] contentProviderResults;
 
-  private final Map<Uri, CopyOnWriteArraySet<ContentObserver>> contentObservers = new HashMap<>();
+  private ObserverNode contentObservers = new ObserverNode();
+  private final Map<ContentObserver, List<ObserverNode>> contentObserverNodes = new IdentityHashMap<>();
 
   private static final Map<String, Map<Account, Status>>  syncableAccounts =
       new HashMap<>();
   private static final Map<String, ContentProvider> providers = new HashMap<>();
   private static boolean masterSyncAutomatically;
+  private static volatile int historyCapacity = Integer.MAX_VALUE;
 
   @Resetter
   synchronized public static void reset() {
     syncableAccounts.clear();
     providers.clear();
     masterSyncAutomatically = false;
+    historyCapacity = Integer.MAX_VALUE;
+  }
+
+  /**
+   * Non-Android accessor. Keeps only the most recent {@code capacity} insert, update and delete statements and
+   * notified URIs of each content resolver. By default they are all kept until the next test.
+   *
+   * @param capacity The maximum number of statements and notified URIs of each kind to keep
+   */
+  public static void setHistoryCapacity(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    historyCapacity = capacity;
   }
 
   public static class NotifiedUri {
@@ -294,15 +313,13 @@ public class ShadowContentResolver {
   public void notifyChange(Uri uri, ContentObserver observer, boolean syncToNetwork) {
     notifiedUris.add(new NotifiedUri(uri, observer, syncToNetwork));
 
-    CopyOnWriteArraySet<ContentObserver> observers;
+    List<ContentObserver> observers = new ArrayList<>();
     synchronized (this) {
-      observers = contentObservers.get(uri);
+      contentObservers.collectObservers(segmentsOf(uri), 0, observers);
     }
-    if (observers != null) {
-      for (ContentObserver obs : observers) {
-        if ( obs != null && obs != observer  ) {
-          obs.dispatchChange( false, uri );
-        }
+    for (ContentObserver obs : observers) {
+      if ( obs != null && obs != observer  ) {
+        obs.dispatchChange( false, uri );
       }
     }
     if ( observer != null && observer.deliverSelfNotifications() ) {
@@ -536,14 +553,24 @@ public class ShadowContentResolver {
     this.contentProviderResults = contentProviderResults;
   }
 
+  /**
+   * Like on Android, a change to a URI is delivered to the observers registered for it or for any of its descendants,
+   * and to the observers registered for any of its ancestors with {@code notifyForDescendents}.
+   */
   @Implementation
   synchronized public void registerContentObserver( Uri uri, boolean notifyForDescendents, ContentObserver observer) {
-    CopyOnWriteArraySet<ContentObserver> observers = contentObservers.get(uri);
-    if (observers == null) {
-      observers = new CopyOnWriteArraySet<>();
-      contentObservers.put(uri, observers);
+    ObserverNode node = contentObservers.getOrCreate(segmentsOf(uri));
+    node.observers.add(observer);
+    if (notifyForDescendents) {
+      node.descendantObservers.add(observer);
+    }
+
+    List<ObserverNode> nodes = contentObserverNodes.get(observer);
+    if (nodes == null) {
+      nodes = new ArrayList<>();
+      contentObserverNodes.put(observer, nodes);
     }
-    observers.add(observer);
+    nodes.add(node);
   }
 
   @Implementation
@@ -552,14 +579,14 @@ public class ShadowContentResolver {
   }
 
   @Implementation
-  public void unregisterContentObserver( ContentObserver observer ) {
+  synchronized public void unregisterContentObserver( ContentObserver observer ) {
     if ( observer != null ) {
-      Collection<CopyOnWriteArraySet<ContentObserver>> observerSets;
-      synchronized (this) {
-        observerSets = contentObservers.values();
-      }
-      for (CopyOnWriteArraySet<ContentObserver> observers : observerSets) {
-        observers.remove(observer);
+      List<ObserverNode> nodes = contentObserverNodes.remove(observer);
+      if (nodes != null) {
+        for (ObserverNode node : nodes) {
+          node.observers.remove(observer);
+          node.descendantObservers.remove(observer);
+        }
       }
     }
   }
@@ -569,7 +596,8 @@ public class ShadowContentResolver {
    * Commonly used in test case setup.
    */
   synchronized public void clearContentObservers() {
-    contentObservers.clear();
+    contentObservers = new ObserverNode();
+    contentObserverNodes.clear();
   }
 
   /**
@@ -579,8 +607,8 @@ public class ShadowContentResolver {
    * @return The content observers
    */
   synchronized public Collection<ContentObserver> getContentObservers( Uri uri ) {
-    CopyOnWriteArraySet<ContentObserver> observers = contentObservers.get(uri);
-    return (observers == null) ? Collections.<ContentObserver>emptyList() : observers;
+    ObserverNode node = contentObservers.get(segmentsOf(uri));
+    return (node == null) ? Collections.<ContentObserver>emptyList() : node.observers;
   }
 
   @Implementation
@@ -611,13 +639,22 @@ public class ShadowContentResolver {
   }
 
   private BaseCursor getCursor(Uri uri) {
-    if (uriCursorMap.get(uri) != null) {
-      return uriCursorMap.get(uri);
-    } else if (cursor != null) {
-      return cursor;
-    } else {
-      return null;
+    BaseCursor cursorForUri = uriCursorMap.get(uri);
+    return cursorForUri != null ? cursorForUri : cursor;
+  }
+
+  /**
+   * Splits a URI into the keys of the observer tree: its authority, followed by its path segments.
+   */
+  private static List<String> segmentsOf(Uri uri) {
+    if (uri.isOpaque()) {
+      return Collections.singletonList(uri.toString());
     }
+    List<String> pathSegments = uri.getPathSegments();
+    List<String> segments = new ArrayList<>(pathSegments.size() + 1);
+    segments.add(String.valueOf(uri.getAuthority()));
+    segments.addAll(pathSegments);
+    return segments;
   }
 
   private static boolean isBundleEqual(Bundle bundle1, Bundle bundle2) {
@@ -707,6 +744,111 @@ public class ShadowContentResolver {
     }
   }
 
+  /**
+   * A node of the tree of URIs content observers are registered for.
+   */
+  private static class ObserverNode {
+    private final Map<String, ObserverNode> children = new HashMap<>();
+    private final CopyOnWriteArraySet<ContentObserver> observers = new CopyOnWriteArraySet<>();
+    private final Set<ContentObserver> descendantObservers = new CopyOnWriteArraySet<>();
+
+    ObserverNode get(List<String> segments) {
+      ObserverNode node = this;
+      for (String segment : segments) {
+        node = node.children.get(segment);
+        if (node == null) {
+          return null;
+        }
+      }
+      return node;
+    }
+
+    ObserverNode getOrCreate(List<String> segments) {
+      ObserverNode node = this;
+      for (String segment : segments) {
+        ObserverNode child = node.children.get(segment);
+        if (child == null) {
+          child = new ObserverNode();
+          node.children.put(segment, child);
+        }
+        node = child;
+      }
+      return node;
+    }
+
+    void collectObservers(List<String> segments, int index, List<ContentObserver> result) {
+      if (index < segments.size()) {
+        result.addAll(descendantObservers);
+        ObserverNode child = children.get(segments.get(index));
+        if (child != null) {
+          child.collectObservers(segments, index + 1, result);
+        }
+      } else {
+        collectAllObservers(result);
+      }
+    }
+
+    private void collectAllObservers(List<ContentObserver> result) {
+      result.addAll(observers);
+      for (ObserverNode child : children.values()) {
+        child.collectAllObservers(result);
+      }
+    }
+  }
+
+  /**
+   * A list that only keeps the most recent {@link #historyCapacity} elements.
+   */
+  private static class History<T> extends AbstractList<T> {
+    private final List<T> elements = new ArrayList<>();
+    private int start;
+
+    @Override
+    public T get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      return elements.get(start + index);
+    }
+
+    @Override
+    public int size() {
+      return elements.size() - start;
+    }
+
+    @Override
+    public boolean add(T element) {
+      elements.add(element);
+      int capacity = historyCapacity;
+      if (size() > capacity) {
+        start = elements.size() - capacity;
+        // Compact once the dropped elements outnumber the kept ones, which keeps adding amortized O(1).
+        if (start >= capacity) {
+          elements.subList(0, start).clear();
+          start = 0;
+        }
+      }
+      modCount++;
+      return true;
+    }
+
+    @Override
+    public T remove(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      modCount++;
+      return elements.remove(start + index);
+    }
+
+    @Override
+    public void clear() {
+      elements.clear();
+      start = 0;
+      modCount++;
+    }
+  }
+
   private static class UnregisteredInputStream extends InputStream implements NamedStream {
     private final Uri uri;
 
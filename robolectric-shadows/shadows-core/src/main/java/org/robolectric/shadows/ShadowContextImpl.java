@@ -25,6 +25,7 @@ import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
+import org.robolectric.annotation.Resetter;
 import org.robolectric.fakes.RoboSharedPreferences;
 import org.robolectric.util.ReflectionHelpers;
 import org.robolectric.util.ReflectionHelpers.ClassParameter;
@@ -44,6 +45,8 @@ import static org.robolectric.shadow.api.Shadow.newInstanceOf;
 public class ShadowContextImpl {
 
   public static final String CLASS_NAME = "android.app.ContextImpl";
+  public static final String PERSIST_SHARED_PREFERENCES_PROPERTY = "robolectric.persistSharedPreferences";
+  private static volatile boolean persistSharedPreferences = Boolean.getBoolean(PERSIST_SHARED_PREFERENCES_PROPERTY);
   private static final Map<String, String> SYSTEM_SERVICE_MAP = new HashMap<>();
   private final Map<String, RoboSharedPreferences> roboSharedPreferencesMap = new HashMap<>();
   private Map<String, Map<String, Object>> sharedPreferenceMap = new HashMap<>();
@@ -338,12 +341,38 @@ public class ShadowContextImpl {
   @Implementation
   public SharedPreferences getSharedPreferences(String name, int mode) {
     if (!roboSharedPreferencesMap.containsKey(name)) {
-      roboSharedPreferencesMap.put(name, new RoboSharedPreferences(sharedPreferenceMap, name, mode));
+      File file = persistSharedPreferences ? getSharedPreferencesFile(name) : null;
+      roboSharedPreferencesMap.put(name, new RoboSharedPreferences(sharedPreferenceMap, name, mode, file));
     }
 
     return roboSharedPreferencesMap.get(name);
   }
 
+  private File getSharedPreferencesFile(String name) {
+    return new File(new File(realObject.getApplicationInfo().dataDir, "shared_prefs"), name + ".prefs");
+  }
+
+  /**
+   * Enables or disables persisting shared preferences. When persistence is enabled, preferences are kept in a file
+   * under {@code shared_prefs} in the application's data directory: they are loaded from that file when a context
+   * first asks for them and written back on every commit, so other contexts see them the way another process
+   * would. Files are decoded once and shared until they change, so a large fixture copied into place can be loaded
+   * by many tests cheaply.
+   *
+   * Persistence is disabled by default; it can also be enabled by setting the
+   * {@value #PERSIST_SHARED_PREFERENCES_PROPERTY} system property to {@code true}.
+   *
+   * @param persistSharedPreferences Whether to persist shared preferences
+   */
+  public static void setSharedPreferencesPersistenceEnabled(boolean persistSharedPreferences) {
+    ShadowContextImpl.persistSharedPreferences = persistSharedPreferences;
+  }
+
+  @Resetter
+  public static void reset() {
+    persistSharedPreferences = Boolean.getBoolean(PERSIST_SHARED_PREFERENCES_PROPERTY);
+  }
+
   @Implementation
   public int getUserId() {
     return 0;
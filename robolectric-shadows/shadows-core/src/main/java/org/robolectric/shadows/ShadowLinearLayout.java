@@ -2,17 +2,18 @@ package org.robolectric.shadows;
 
 import android.widget.LinearLayout;
 import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealFields;
 import org.robolectric.annotation.RealObject;
-import org.robolectric.util.ReflectionHelpers;
 
 /**
  * Shadow for {@link android.widget.LinearLayout}.
  */
 @Implements(LinearLayout.class)
+@RealFields("mGravity")
 public class ShadowLinearLayout extends ShadowViewGroup {
   @RealObject LinearLayout realObject;
 
   public int getGravity() {
-    return ReflectionHelpers.getField(realObject, "mGravity");
+    return ShadowLinearLayoutRealFields.getMGravity(realObject);
   }
 }
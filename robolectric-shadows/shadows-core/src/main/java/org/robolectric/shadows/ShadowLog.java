@@ -8,21 +8,43 @@ import org.robolectric.annotation.Resetter;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Shadow for {@link android.util.Log}.
+ *
+ * Log items are kept in lock-free buffers which by default keep up to 2<sup>30</sup> items; use
+ * {@link #setLogCapacity(int)} to keep fewer, and {@link #setRecordedLevel(String, int)} to drop verbose logs before
+ * they are recorded.
  */
 @Implements(Log.class)
 public class ShadowLog {
   private static final int extraLogLength = "l/: \n".length();
-  private static Map<String,List<LogItem>> logsByTag = new HashMap<>();
-  private static List<LogItem> logs = new ArrayList<>();
+  /** The most log items kept, overall and per tag; once reached, each new item replaces the oldest. */
+  private static final int MAX_CAPACITY = 1 << 30;
+  private static volatile LogStore logStore = new LogStore(MAX_CAPACITY);
   public static PrintStream stream;
   private static final Map<String, Integer> tagToLevel = new HashMap<>();
+  private static final Map<String, Integer> tagToRecordedLevel = new ConcurrentHashMap<>();
+  private static volatile int defaultRecordedLevel = Log.VERBOSE;
+  private static volatile ExecutorService streamExecutor;
 
   @Implementation
   public static void e(String tag, String msg) {
@@ -115,23 +137,113 @@ public class ShadowLog {
     tagToLevel.put(tag, level);
   }
 
-  private static synchronized void addLog(int level, String tag, String msg, Throwable throwable) {
-    if (stream != null) {
-      logToStream(stream, level, tag, msg, throwable);
+  /**
+   * Non-Android accessor. Logs for the given tag below the given level are dropped before being recorded or written to
+   * {@link #stream}. Unlike {@link #setLoggable(String, int)}, this doesn't change what {@link Log#isLoggable} returns.
+   *
+   * @param tag A log tag
+   * @param level A log level, from {@link android.util.Log}
+   */
+  public static void setRecordedLevel(String tag, int level) {
+    if (tag == null) {
+      throw new NullPointerException("tag");
+    }
+    tagToRecordedLevel.put(tag, level);
+  }
+
+  /**
+   * Non-Android accessor. Sets the level below which logs are dropped for tags without a level set by
+   * {@link #setRecordedLevel(String, int)}. Defaults to {@link Log#VERBOSE}, recording everything.
+   *
+   * @param level A log level, from {@link android.util.Log}
+   */
+  public static void setDefaultRecordedLevel(int level) {
+    defaultRecordedLevel = level;
+  }
+
+  /**
+   * Non-Android accessor. Keeps only the most recent {@code capacity} log items, both in {@link #getLogs()} and for
+   * each tag in {@link #getLogsForTag(String)}. By default up to 2<sup>30</sup> log items are kept until the next test.
+   *
+   * @param capacity The maximum number of log items to keep
+   */
+  public static synchronized void setLogCapacity(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+
+    LogStore newLogStore = new LogStore(Math.min(capacity, MAX_CAPACITY));
+    for (LogItem item : logStore.all.view()) {
+      newLogStore.add(item);
     }
+    logStore = newLogStore;
+  }
 
-    LogItem item = new LogItem(level, tag, msg, throwable);
-    List<LogItem> itemList;
+  /**
+   * Non-Android accessor. When enabled, log items are written to {@link #stream} from a background thread instead of
+   * by the logging thread, in the order they were logged. Pending output is flushed when disabling this. Robolectric
+   * disables it, and stops the background thread, when it resets state after each test.
+   *
+   * @param async Whether to write to the stream asynchronously
+   */
+  public static synchronized void setAsyncStreamOutput(boolean async) {
+    if (async && streamExecutor == null) {
+      streamExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "ShadowLog stream");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    } else if (!async && streamExecutor != null) {
+      flushStream();
+      streamExecutor.shutdown();
+      streamExecutor = null;
+    }
+  }
 
-    if (!logsByTag.containsKey(tag)) {
-      itemList = new ArrayList<>();
-      logsByTag.put(tag, itemList);
-    } else {
-      itemList = logsByTag.get(tag);
+  private static void flushStream() {
+    ExecutorService executor = streamExecutor;
+    if (executor == null) {
+      return;
     }
 
-    itemList.add(item);
-    logs.add(item);
+    try {
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+        }
+      }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void addLog(final int level, final String tag, final String msg, final Throwable throwable) {
+    Integer recordedLevel = tag == null ? null : tagToRecordedLevel.get(tag);
+    if (level < (recordedLevel == null ? defaultRecordedLevel : recordedLevel)) {
+      return;
+    }
+
+    final PrintStream stream = ShadowLog.stream;
+    if (stream != null) {
+      ExecutorService executor = streamExecutor;
+      if (executor == null) {
+        logToStream(stream, level, tag, msg, throwable);
+      } else {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            logToStream(stream, level, tag, msg, throwable);
+          }
+        });
+      }
+    }
+
+    logStore.add(new LogItem(level, tag, msg, throwable, System.currentTimeMillis()));
   }
 
   private static void logToStream(PrintStream ps, int level, String tag, String msg, Throwable throwable) {
@@ -153,26 +265,70 @@ public class ShadowLog {
 
   /**
    * Non-Android accessor.  Returns ordered list of all log entries.
-   * @return List of log items
+   * @return A read-only view of the log items logged so far. Nothing is copied; items logged later aren't included.
    */
-  public static synchronized List<LogItem> getLogs() {
-    return logs;
+  public static List<LogItem> getLogs() {
+    return logStore.all.view();
   }
 
   /**
    * Non-Android accessor.  Returns ordered list of all log items for a specific tag.
    *
    * @param tag The tag to get logs for
-   * @return The list of log items for the tag
+   * @return A read-only view of the log items logged so far for the tag, or {@code null} if nothing was logged with
+   * the tag. Nothing is copied; items logged later aren't included.
+   */
+  public static List<LogItem> getLogsForTag( String tag ) {
+    LogBuffer logsForTag = logStore.getLogsForTag(tag, false);
+    return logsForTag == null ? null : logsForTag.view();
+  }
+
+  /**
+   * Non-Android accessor.  Returns log items of at least the given level, logged within the given time range.
+   *
+   * @param minLevel The minimum log level, from {@link android.util.Log}
+   * @param fromTimeMillis The earliest time, inclusive
+   * @param toTimeMillis The latest time, inclusive
+   * @return The matching log items, in the order they were logged
    */
-  public static synchronized List<LogItem> getLogsForTag( String tag ) {
-    return logsByTag.get(tag);
+  public static List<LogItem> getLogs(int minLevel, long fromTimeMillis, long toTimeMillis) {
+    return filter(logStore.all.view(), minLevel, fromTimeMillis, toTimeMillis);
+  }
+
+  /**
+   * Non-Android accessor.  Returns log items for a specific tag of at least the given level, logged within the given
+   * time range. Only the log items of that tag are examined.
+   *
+   * @param tag The tag to get logs for
+   * @param minLevel The minimum log level, from {@link android.util.Log}
+   * @param fromTimeMillis The earliest time, inclusive
+   * @param toTimeMillis The latest time, inclusive
+   * @return The matching log items, in the order they were logged
+   */
+  public static List<LogItem> getLogsForTag(String tag, int minLevel, long fromTimeMillis, long toTimeMillis) {
+    List<LogItem> logsForTag = getLogsForTag(tag);
+    if (logsForTag == null) {
+      return new ArrayList<>();
+    }
+    return filter(logsForTag, minLevel, fromTimeMillis, toTimeMillis);
+  }
+
+  private static List<LogItem> filter(List<LogItem> items, int minLevel, long fromTimeMillis, long toTimeMillis) {
+    List<LogItem> result = new ArrayList<>();
+    for (LogItem item : items) {
+      if (item.type >= minLevel && item.timeMillis >= fromTimeMillis && item.timeMillis <= toTimeMillis) {
+        result.add(item);
+      }
+    }
+    return result;
   }
 
   @Resetter
   public static synchronized void reset() {
-    logs.clear();
-    logsByTag.clear();
+    setAsyncStreamOutput(false);
+    logStore = new LogStore(MAX_CAPACITY);
+    tagToRecordedLevel.clear();
+    defaultRecordedLevel = Log.VERBOSE;
     tagToLevel.clear();
   }
 
@@ -209,12 +365,18 @@ public class ShadowLog {
     public final String tag;
     public final String msg;
     public final Throwable throwable;
+    public final long timeMillis;
 
     public LogItem(int type, String tag, String msg, Throwable throwable) {
+      this(type, tag, msg, throwable, System.currentTimeMillis());
+    }
+
+    public LogItem(int type, String tag, String msg, Throwable throwable, long timeMillis) {
       this.type = type;
       this.tag = tag;
       this.msg = msg;
       this.throwable = throwable;
+      this.timeMillis = timeMillis;
     }
 
     @Override
@@ -248,4 +410,210 @@ public class ShadowLog {
           '}';
     }
   }
+
+  /**
+   * All log items, and the log items for each tag.
+   */
+  private static class LogStore {
+    private final int capacity;
+    private final LogBuffer all;
+    private final ConcurrentMap<String, LogBuffer> byTag = new ConcurrentHashMap<>();
+    private final AtomicReference<LogBuffer> nullTag = new AtomicReference<>();
+
+    LogStore(int capacity) {
+      this.capacity = capacity;
+      this.all = new LogBuffer(capacity);
+    }
+
+    void add(LogItem item) {
+      all.append(item);
+      getLogsForTag(item.tag, true).append(item);
+    }
+
+    LogBuffer getLogsForTag(String tag, boolean create) {
+      if (tag == null) {
+        if (create && nullTag.get() == null) {
+          nullTag.compareAndSet(null, new LogBuffer(capacity));
+        }
+        return nullTag.get();
+      }
+
+      LogBuffer buffer = byTag.get(tag);
+      if (buffer == null && create) {
+        LogBuffer newBuffer = new LogBuffer(capacity);
+        buffer = byTag.putIfAbsent(tag, newBuffer);
+        if (buffer == null) {
+          buffer = newBuffer;
+        }
+      }
+      return buffer;
+    }
+  }
+
+  /**
+   * An append-only buffer which keeps the most recent {@code capacity} items.
+   *
+   * Appending is lock-free: each item claims an index from an atomic counter and is stored, along with its index, in
+   * the slot {@code index % slots}, where the number of slots is the capacity rounded up to a power of two. Slots live
+   * in segments which double in size and are allocated on first use, so nothing is copied as the buffer grows and
+   * small buffers stay small. Callers outside this class only see {@link #view()}s.
+   */
+  private static class LogBuffer {
+    private static final int FIRST_SEGMENT_BITS = 4;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<Slot>> segments = new AtomicReferenceArray<>(32);
+    private final AtomicLong nextIndex = new AtomicLong();
+    private final int capacity;
+    private final long slotMask;
+
+    LogBuffer(int capacity) {
+      this.capacity = capacity;
+      long slots = Long.highestOneBit(capacity);
+      if (slots < capacity) {
+        slots <<= 1;
+      }
+      this.slotMask = slots - 1;
+    }
+
+    void append(LogItem item) {
+      long index = nextIndex.getAndIncrement();
+      long position = positionOf(index);
+      int segmentIndex = segmentOf(position);
+      AtomicReferenceArray<Slot> segment = segments.get(segmentIndex);
+      if (segment == null) {
+        segments.compareAndSet(segmentIndex, null, new AtomicReferenceArray<Slot>(1 << (segmentIndex + FIRST_SEGMENT_BITS)));
+        segment = segments.get(segmentIndex);
+      }
+      segment.set(offsetOf(position), new Slot(index, item));
+    }
+
+    /** Returns a read-only view of the items appended so far; items appended later aren't part of it. */
+    List<LogItem> view() {
+      long end = nextIndex.get();
+      return new LogView(this, Math.max(0, end - capacity), end);
+    }
+
+    private long firstIndex() {
+      return Math.max(0, nextIndex.get() - capacity);
+    }
+
+    /**
+     * Returns the item with the given index, waiting for it if it is still being appended, or null if it has been
+     * replaced by a newer item.
+     */
+    private LogItem get(long index) {
+      long position = positionOf(index);
+      while (true) {
+        AtomicReferenceArray<Slot> segment = segments.get(segmentOf(position));
+        Slot slot = segment == null ? null : segment.get(offsetOf(position));
+        if (slot != null && slot.index == index) {
+          return slot.item;
+        }
+        if (slot != null && slot.index > index) {
+          return null;
+        }
+        Thread.yield();
+      }
+    }
+
+    private long positionOf(long index) {
+      return (index & slotMask) + (1 << FIRST_SEGMENT_BITS);
+    }
+
+    private static int segmentOf(long position) {
+      return 63 - Long.numberOfLeadingZeros(position) - FIRST_SEGMENT_BITS;
+    }
+
+    private static int offsetOf(long position) {
+      return (int) (position - Long.highestOneBit(position));
+    }
+  }
+
+  private static class Slot {
+    final long index;
+    final LogItem item;
+
+    Slot(long index, LogItem item) {
+      this.index = index;
+      this.item = item;
+    }
+  }
+
+  /**
+   * The items of a {@link LogBuffer} with indices in {@code [start, end)}, which is fixed when the view is created.
+   * Nothing is copied: items are read from the buffer as they are needed, and items which have since been replaced by
+   * newer ones drop out of the view.
+   */
+  private static class LogView extends AbstractList<LogItem> implements RandomAccess {
+    private final LogBuffer buffer;
+    private final long start;
+    private final long end;
+
+    LogView(LogBuffer buffer, long start, long end) {
+      this.buffer = buffer;
+      this.start = start;
+      this.end = end;
+    }
+
+    private long first() {
+      return Math.max(start, buffer.firstIndex());
+    }
+
+    @Override
+    public LogItem get(int index) {
+      long first = first();
+      if (index < 0 || first + index >= end) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + Math.max(0, end - first));
+      }
+      LogItem item = buffer.get(first + index);
+      if (item == null) {
+        throw new ConcurrentModificationException();
+      }
+      return item;
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.max(0, end - first());
+    }
+
+    @Override
+    public Iterator<LogItem> iterator() {
+      return new Iterator<LogItem>() {
+        private long nextIndex = start;
+        private LogItem next = advance();
+
+        private LogItem advance() {
+          for (nextIndex = Math.max(nextIndex, buffer.firstIndex()); nextIndex < end; nextIndex++) {
+            LogItem item = buffer.get(nextIndex);
+            if (item != null) {
+              nextIndex++;
+              return item;
+            }
+          }
+          return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+          return next != null;
+        }
+
+        @Override
+        public LogItem next() {
+          if (next == null) {
+            throw new NoSuchElementException();
+          }
+          LogItem item = next;
+          next = advance();
+          return item;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
 }
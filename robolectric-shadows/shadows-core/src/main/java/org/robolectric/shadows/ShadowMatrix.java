@@ -4,11 +4,9 @@ import android.graphics.Matrix;
 import android.graphics.PointF;
 import android.graphics.RectF;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,11 +32,12 @@ public class ShadowMatrix {
 
   private static final float EPSILON = 1e-3f;
 
-  private final Deque<String> preOps = new ArrayDeque<>();
-  private final Deque<String> postOps = new ArrayDeque<>();
-  private final Map<String, String> setOps = new LinkedHashMap<>();
+  private final OpLog preOps = new OpLog();
+  private final OpLog postOps = new OpLog();
+  private final Map<String, float[]> setOps = new LinkedHashMap<>();
 
-  private SimpleMatrix mMatrix = SimpleMatrix.IDENTITY;
+  private final SimpleMatrix mMatrix = new SimpleMatrix();
+  private final SimpleMatrix mOperand = new SimpleMatrix();
 
   public void __constructor__(Matrix src) {
     set(src);
@@ -50,7 +49,7 @@ public class ShadowMatrix {
    * @return A list of all 'pre' operations performed on this Matrix.
    */
   public List<String> getPreOperations() {
-    return Collections.unmodifiableList(new ArrayList<>(preOps));
+    return Collections.unmodifiableList(preOps.format(true));
   }
 
   /**
@@ -59,7 +58,7 @@ public class ShadowMatrix {
    * @return A list of all 'post' operations performed on this Matrix.
    */
   public List<String> getPostOperations() {
-    return Collections.unmodifiableList(new ArrayList<>(postOps));
+    return Collections.unmodifiableList(postOps.format(false));
   }
 
   /**
@@ -67,7 +66,18 @@ public class ShadowMatrix {
    * @return A map of all 'set' operations performed on this Matrix.
    */
   public Map<String, String> getSetOperations() {
-    return Collections.unmodifiableMap(new LinkedHashMap<>(setOps));
+    Map<String, String> setOperations = new LinkedHashMap<>();
+    for (Map.Entry<String, float[]> entry : setOps.entrySet()) {
+      StringBuilder args = new StringBuilder();
+      for (float arg : entry.getValue()) {
+        if (args.length() > 0) {
+          args.append(' ');
+        }
+        args.append(arg);
+      }
+      setOperations.put(entry.getKey(), args.toString());
+    }
+    return Collections.unmodifiableMap(setOperations);
   }
 
   @Implementation
@@ -92,7 +102,7 @@ public class ShadowMatrix {
 
   @Implementation
   public void setValues(float[] values) {
-    mMatrix = new SimpleMatrix(values);
+    mMatrix.setValues(values);
   }
 
   @Implementation
@@ -103,7 +113,7 @@ public class ShadowMatrix {
       preOps.addAll(shadowMatrix.preOps);
       postOps.addAll(shadowMatrix.postOps);
       setOps.putAll(shadowMatrix.setOps);
-      mMatrix = new SimpleMatrix(getSimpleMatrix(src));
+      mMatrix.set(getSimpleMatrix(src));
     }
   }
 
@@ -112,195 +122,205 @@ public class ShadowMatrix {
     preOps.clear();
     postOps.clear();
     setOps.clear();
-    mMatrix = SimpleMatrix.IDENTITY;
+    mMatrix.set(SimpleMatrix.IDENTITY);
   }
 
   @Implementation
   public void setTranslate(float dx, float dy) {
-    setOps.put(TRANSLATE, dx + " " + dy);
-    mMatrix = SimpleMatrix.translate(dx, dy);
+    setOps.put(TRANSLATE, new float[] {dx, dy});
+    mMatrix.setTranslate(dx, dy);
   }
 
   @Implementation
   public void setScale(float sx, float sy, float px, float py) {
-    setOps.put(SCALE, sx + " " + sy + " " + px + " " + py);
-    mMatrix = SimpleMatrix.scale(sx, sy, px, py);
+    setOps.put(SCALE, new float[] {sx, sy, px, py});
+    mMatrix.setScale(sx, sy, px, py);
   }
 
   @Implementation
   public void setScale(float sx, float sy) {
-    setOps.put(SCALE, sx + " " + sy);
-    mMatrix = SimpleMatrix.scale(sx, sy);
+    setOps.put(SCALE, new float[] {sx, sy});
+    mMatrix.setScale(sx, sy);
   }
 
   @Implementation
   public void setRotate(float degrees, float px, float py) {
-    setOps.put(ROTATE, degrees + " " + px + " " + py);
-    mMatrix = SimpleMatrix.rotate(degrees, px, py);
+    setOps.put(ROTATE, new float[] {degrees, px, py});
+    mMatrix.setRotate(degrees, px, py);
   }
 
   @Implementation
   public void setRotate(float degrees) {
-    setOps.put(ROTATE, Float.toString(degrees));
-    mMatrix = SimpleMatrix.rotate(degrees);
+    setOps.put(ROTATE, new float[] {degrees});
+    mMatrix.setRotate(degrees);
   }
 
   @Implementation
   public void setSinCos(float sinValue, float cosValue, float px, float py) {
-    setOps.put(SINCOS, sinValue + " " + cosValue + " " + px + " " + py);
-    mMatrix = SimpleMatrix.sinCos(sinValue, cosValue, px, py);
+    setOps.put(SINCOS, new float[] {sinValue, cosValue, px, py});
+    mMatrix.setSinCos(sinValue, cosValue, px, py);
   }
 
   @Implementation
   public void setSinCos(float sinValue, float cosValue) {
-    setOps.put(SINCOS, sinValue + " " + cosValue);
-    mMatrix = SimpleMatrix.sinCos(sinValue, cosValue);
+    setOps.put(SINCOS, new float[] {sinValue, cosValue});
+    mMatrix.setSinCos(sinValue, cosValue);
   }
 
   @Implementation
   public void setSkew(float kx, float ky, float px, float py) {
-    setOps.put(SKEW, kx + " " + ky + " " + px + " " + py);
-    mMatrix = SimpleMatrix.skew(kx, ky, px, py);
+    setOps.put(SKEW, new float[] {kx, ky, px, py});
+    mMatrix.setSkew(kx, ky, px, py);
   }
 
   @Implementation
   public void setSkew(float kx, float ky) {
-    setOps.put(SKEW, kx + " " + ky);
-    mMatrix = SimpleMatrix.skew(kx, ky);
+    setOps.put(SKEW, new float[] {kx, ky});
+    mMatrix.setSkew(kx, ky);
   }
 
   @Implementation
   public boolean setConcat(Matrix a, Matrix b) {
-    mMatrix = getSimpleMatrix(a).multiply(getSimpleMatrix(b));
+    mMatrix.setConcat(getSimpleMatrix(a), getSimpleMatrix(b));
     return true;
   }
 
   @Implementation
   public boolean preTranslate(float dx, float dy) {
-    preOps.addFirst(TRANSLATE + " " + dx + " " + dy);
-    return preConcat(SimpleMatrix.translate(dx, dy));
+    preOps.add(TRANSLATE).arg(dx).arg(dy);
+    mOperand.setTranslate(dx, dy);
+    return preConcat(mOperand);
   }
 
   @Implementation
   public boolean preScale(float sx, float sy, float px, float py) {
-    preOps.addFirst(SCALE + " " + sx + " " + sy + " " + px + " " + py);
-    return preConcat(SimpleMatrix.scale(sx, sy, px, py));
+    preOps.add(SCALE).arg(sx).arg(sy).arg(px).arg(py);
+    mOperand.setScale(sx, sy, px, py);
+    return preConcat(mOperand);
   }
 
   @Implementation
   public boolean preScale(float sx, float sy) {
-    preOps.addFirst(SCALE + " " + sx + " " + sy);
-    return preConcat(SimpleMatrix.scale(sx, sy));
+    preOps.add(SCALE).arg(sx).arg(sy);
+    mOperand.setScale(sx, sy);
+    return preConcat(mOperand);
   }
 
   @Implementation
   public boolean preRotate(float degrees, float px, float py) {
-    preOps.addFirst(ROTATE + " " + degrees + " " + px + " " + py);
-    return preConcat(SimpleMatrix.rotate(degrees, px, py));
+    preOps.add(ROTATE).arg(degrees).arg(px).arg(py);
+    mOperand.setRotate(degrees, px, py);
+    return preConcat(mOperand);
   }
 
   @Implementation
   public boolean preRotate(float degrees) {
-    preOps.addFirst(ROTATE + " " + Float.toString(degrees));
-    return preConcat(SimpleMatrix.rotate(degrees));
+    preOps.add(ROTATE).arg(degrees);
+    mOperand.setRotate(degrees);
+    return preConcat(mOperand);
   }
 
   @Implementation
   public boolean preSkew(float kx, float ky, float px, float py) {
-    preOps.addFirst(SKEW + " " + kx + " " + ky + " " + px + " " + py);
-    return preConcat(SimpleMatrix.skew(kx, ky, px, py));
+    preOps.add(SKEW).arg(kx).arg(ky).arg(px).arg(py);
+    mOperand.setSkew(kx, ky, px, py);
+    return preConcat(mOperand);
   }
 
   @Implementation
   public boolean preSkew(float kx, float ky) {
-    preOps.addFirst(SKEW + " " + kx + " " + ky);
-    return preConcat(SimpleMatrix.skew(kx, ky));
+    preOps.add(SKEW).arg(kx).arg(ky);
+    mOperand.setSkew(kx, ky);
+    return preConcat(mOperand);
   }
 
   @Implementation
   public boolean preConcat(Matrix other) {
-    preOps.addFirst(MATRIX + " " + other);
-    return preConcat(getSimpleMatrix(other));
+    SimpleMatrix matrix = getSimpleMatrix(other);
+    preOps.add(MATRIX).args(matrix);
+    return preConcat(matrix);
   }
 
   @Implementation
   public boolean postTranslate(float dx, float dy) {
-    postOps.addLast(TRANSLATE + " " + dx + " " + dy);
-    return postConcat(SimpleMatrix.translate(dx, dy));
+    postOps.add(TRANSLATE).arg(dx).arg(dy);
+    mOperand.setTranslate(dx, dy);
+    return postConcat(mOperand);
   }
 
   @Implementation
   public boolean postScale(float sx, float sy, float px, float py) {
-    postOps.addLast(SCALE + " " + sx + " " + sy + " " + px + " " + py);
-    return postConcat(SimpleMatrix.scale(sx, sy, px, py));
+    postOps.add(SCALE).arg(sx).arg(sy).arg(px).arg(py);
+    mOperand.setScale(sx, sy, px, py);
+    return postConcat(mOperand);
   }
 
   @Implementation
   public boolean postScale(float sx, float sy) {
-    postOps.addLast(SCALE + " " + sx + " " + sy);
-    return postConcat(SimpleMatrix.scale(sx, sy));
+    postOps.add(SCALE).arg(sx).arg(sy);
+    mOperand.setScale(sx, sy);
+    return postConcat(mOperand);
   }
 
   @Implementation
   public boolean postRotate(float degrees, float px, float py) {
-    postOps.addLast(ROTATE + " " + degrees + " " + px + " " + py);
-    return postConcat(SimpleMatrix.rotate(degrees, px, py));
+    postOps.add(ROTATE).arg(degrees).arg(px).arg(py);
+    mOperand.setRotate(degrees, px, py);
+    return postConcat(mOperand);
   }
 
   @Implementation
   public boolean postRotate(float degrees) {
-    postOps.addLast(ROTATE + " " + Float.toString(degrees));
-    return postConcat(SimpleMatrix.rotate(degrees));
+    postOps.add(ROTATE).arg(degrees);
+    mOperand.setRotate(degrees);
+    return postConcat(mOperand);
   }
 
   @Implementation
   public boolean postSkew(float kx, float ky, float px, float py) {
-    postOps.addLast(SKEW + " " + kx + " " + ky + " " + px + " " + py);
-    return postConcat(SimpleMatrix.skew(kx, ky, px, py));
+    postOps.add(SKEW).arg(kx).arg(ky).arg(px).arg(py);
+    mOperand.setSkew(kx, ky, px, py);
+    return postConcat(mOperand);
   }
 
   @Implementation
   public boolean postSkew(float kx, float ky) {
-    postOps.addLast(SKEW + " " + kx + " " + ky);
-    return postConcat(SimpleMatrix.skew(kx, ky));
+    postOps.add(SKEW).arg(kx).arg(ky);
+    mOperand.setSkew(kx, ky);
+    return postConcat(mOperand);
   }
 
   @Implementation
   public boolean postConcat(Matrix other) {
-    postOps.addLast(MATRIX + " " + other);
-    return postConcat(getSimpleMatrix(other));
+    SimpleMatrix matrix = getSimpleMatrix(other);
+    postOps.add(MATRIX).args(matrix);
+    return postConcat(matrix);
   }
 
   @Implementation
   public boolean invert(Matrix inverse) {
-    final SimpleMatrix inverseMatrix = mMatrix.invert();
-    if (inverseMatrix != null) {
-      if (inverse != null) {
-        final ShadowMatrix shadowInverse = (ShadowMatrix) ShadowExtractor.extract(inverse);
-        shadowInverse.mMatrix = inverseMatrix;
-      }
-      return true;
-    }
-    return false;
+    return mMatrix.invert(inverse == null ? null : getSimpleMatrix(inverse));
   }
 
   public PointF mapPoint(float x, float y) {
-    return mMatrix.transform(new PointF(x, y));
+    return new PointF(mMatrix.transformX(x, y), mMatrix.transformY(x, y));
   }
 
   public PointF mapPoint(PointF point) {
-    return mMatrix.transform(point);
+    return mapPoint(point.x, point.y);
   }
 
   @Implementation
   public boolean mapRect(RectF destination, RectF source) {
-    final PointF leftTop = mapPoint(source.left, source.top);
-    final PointF rightBottom = mapPoint(source.right, source.bottom);
+    final float left = mMatrix.transformX(source.left, source.top);
+    final float top = mMatrix.transformY(source.left, source.top);
+    final float right = mMatrix.transformX(source.right, source.bottom);
+    final float bottom = mMatrix.transformY(source.right, source.bottom);
     destination.set(
-        Math.min(leftTop.x, rightBottom.x),
-        Math.min(leftTop.y, rightBottom.y),
-        Math.max(leftTop.x, rightBottom.x),
-        Math.max(leftTop.y, rightBottom.y));
+        Math.min(left, right),
+        Math.min(top, bottom),
+        Math.max(left, right),
+        Math.max(top, bottom));
     return true;
   }
 
@@ -322,7 +342,7 @@ public class ShadowMatrix {
   }
 
   public String getDescription() {
-    return "Matrix[pre=" + preOps + ", set=" + setOps + ", post=" + postOps + "]";
+    return "Matrix[pre=" + preOps.format(true) + ", set=" + getSetOperations() + ", post=" + postOps.format(false) + "]";
   }
 
   private static SimpleMatrix getSimpleMatrix(Matrix matrix) {
@@ -331,36 +351,111 @@ public class ShadowMatrix {
   }
 
   private boolean postConcat(SimpleMatrix matrix) {
-    mMatrix = matrix.multiply(mMatrix);
+    mMatrix.setConcat(matrix, mMatrix);
     return true;
   }
 
   private boolean preConcat(SimpleMatrix matrix) {
-    mMatrix = mMatrix.multiply(matrix);
+    mMatrix.setConcat(mMatrix, matrix);
     return true;
   }
 
   /**
-   * A simple implementation of an immutable matrix.
+   * A log of matrix operations, kept as operation names and float arguments and only formatted into
+   * strings when the operations are asked for.
    */
-  private static class SimpleMatrix {
-    private static final SimpleMatrix IDENTITY = new SimpleMatrix(new float[] {
-        1.0f, 0.0f, 0.0f,
-        0.0f, 1.0f, 0.0f,
-        0.0f, 0.0f, 1.0f,
-    });
+  private static class OpLog {
+    private String[] names = new String[8];
+    private int[] argStarts = new int[8];
+    private float[] args = new float[32];
+    private int size;
+    private int argCount;
+
+    OpLog add(String name) {
+      if (size == names.length) {
+        names = Arrays.copyOf(names, size * 2);
+        argStarts = Arrays.copyOf(argStarts, size * 2);
+      }
+      names[size] = name;
+      argStarts[size] = argCount;
+      size++;
+      return this;
+    }
 
-    private final float[] mValues;
+    OpLog arg(float value) {
+      if (argCount == args.length) {
+        args = Arrays.copyOf(args, argCount * 2);
+      }
+      args[argCount++] = value;
+      return this;
+    }
 
-    SimpleMatrix(SimpleMatrix matrix) {
-      mValues = Arrays.copyOf(matrix.mValues, matrix.mValues.length);
+    OpLog args(SimpleMatrix matrix) {
+      for (float value : matrix.mValues) {
+        arg(value);
+      }
+      return this;
     }
 
-    private SimpleMatrix(float[] values) {
-      if (values.length != 9) {
-        throw new ArrayIndexOutOfBoundsException();
+    void addAll(OpLog other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.names[i]);
+        int end = i + 1 < other.size ? other.argStarts[i + 1] : other.argCount;
+        for (int j = other.argStarts[i]; j < end; j++) {
+          arg(other.args[j]);
+        }
+      }
+    }
+
+    void clear() {
+      Arrays.fill(names, 0, size, null);
+      size = 0;
+      argCount = 0;
+    }
+
+    List<String> format(boolean latestFirst) {
+      List<String> operations = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        operations.add(format(latestFirst ? size - 1 - i : i));
       }
-      mValues = Arrays.copyOf(values, 9);
+      return operations;
+    }
+
+    private String format(int index) {
+      int start = argStarts[index];
+      int end = index + 1 < size ? argStarts[index + 1] : argCount;
+      StringBuilder operation = new StringBuilder(names[index]);
+      if (MATRIX.equals(names[index])) {
+        // Formatted like Matrix.toString().
+        operation.append(" Matrix{[");
+        for (int i = start; i < end; i++) {
+          if (i > start) {
+            operation.append((i - start) % 3 == 0 ? "][" : ", ");
+          }
+          operation.append(args[i]);
+        }
+        operation.append("]}");
+      } else {
+        for (int i = start; i < end; i++) {
+          operation.append(' ').append(args[i]);
+        }
+      }
+      return operation.toString();
+    }
+  }
+
+  /**
+   * A simple implementation of a 3x3 matrix, updated in place.
+   */
+  private static class SimpleMatrix {
+    private static final SimpleMatrix IDENTITY = new SimpleMatrix();
+
+    private final float[] mValues = new float[9];
+
+    SimpleMatrix() {
+      setValues(1.0f, 0.0f, 0.0f,
+          0.0f, 1.0f, 0.0f,
+          0.0f, 0.0f, 1.0f);
     }
 
     public boolean isAffine() {
@@ -382,114 +477,135 @@ public class ShadowMatrix {
       System.arraycopy(mValues, 0, values, 0, 9);
     }
 
-    public static SimpleMatrix translate(float dx, float dy) {
-      return new SimpleMatrix(new float[] {
-          1.0f, 0.0f, dx,
+    public void setValues(float[] values) {
+      if (values.length != 9) {
+        throw new ArrayIndexOutOfBoundsException();
+      }
+      System.arraycopy(values, 0, mValues, 0, 9);
+    }
+
+    public void set(SimpleMatrix matrix) {
+      System.arraycopy(matrix.mValues, 0, mValues, 0, 9);
+    }
+
+    private void setValues(float m0, float m1, float m2, float m3, float m4, float m5, float m6, float m7, float m8) {
+      final float[] values = mValues;
+      values[0] = m0;
+      values[1] = m1;
+      values[2] = m2;
+      values[3] = m3;
+      values[4] = m4;
+      values[5] = m5;
+      values[6] = m6;
+      values[7] = m7;
+      values[8] = m8;
+    }
+
+    public void setTranslate(float dx, float dy) {
+      setValues(1.0f, 0.0f, dx,
           0.0f, 1.0f, dy,
-          0.0f, 0.0f, 1.0f,
-      });
+          0.0f, 0.0f, 1.0f);
     }
 
-    public static SimpleMatrix scale(float sx, float sy, float px, float py) {
-      return new SimpleMatrix(new float[] {
-          sx,   0.0f, px * (1 - sx),
+    public void setScale(float sx, float sy, float px, float py) {
+      setValues(sx,   0.0f, px * (1 - sx),
           0.0f, sy,   py * (1 - sy),
-          0.0f, 0.0f, 1.0f,
-      });
+          0.0f, 0.0f, 1.0f);
     }
 
-    public static SimpleMatrix scale(float sx, float sy) {
-      return new SimpleMatrix(new float[] {
-          sx,   0.0f, 0.0f,
+    public void setScale(float sx, float sy) {
+      setValues(sx,   0.0f, 0.0f,
           0.0f, sy,   0.0f,
-          0.0f, 0.0f, 1.0f,
-      });
+          0.0f, 0.0f, 1.0f);
     }
 
-    public static SimpleMatrix rotate(float degrees, float px, float py) {
+    public void setRotate(float degrees, float px, float py) {
       final double radians = Math.toRadians(degrees);
-      final float sin = (float) Math.sin(radians);
-      final float cos = (float) Math.cos(radians);
-      return sinCos(sin, cos, px, py);
+      setSinCos((float) Math.sin(radians), (float) Math.cos(radians), px, py);
     }
 
-    public static SimpleMatrix rotate(float degrees) {
+    public void setRotate(float degrees) {
       final double radians = Math.toRadians(degrees);
-      final float sin = (float) Math.sin(radians);
-      final float cos = (float) Math.cos(radians);
-      return sinCos(sin, cos);
+      setSinCos((float) Math.sin(radians), (float) Math.cos(radians));
     }
 
-    public static SimpleMatrix sinCos(float sin, float cos, float px, float py) {
-      return new SimpleMatrix(new float[] {
-          cos,  -sin, sin * py + (1 - cos) * px,
+    public void setSinCos(float sin, float cos, float px, float py) {
+      setValues(cos,  -sin, sin * py + (1 - cos) * px,
           sin,  cos,  -sin * px + (1 - cos) * py,
-          0.0f, 0.0f, 1.0f,
-      });
+          0.0f, 0.0f, 1.0f);
     }
 
-    public static SimpleMatrix sinCos(float sin, float cos) {
-      return new SimpleMatrix(new float[] {
-          cos,  -sin, 0.0f,
+    public void setSinCos(float sin, float cos) {
+      setValues(cos,  -sin, 0.0f,
           sin,  cos,  0.0f,
-          0.0f, 0.0f, 1.0f,
-      });
+          0.0f, 0.0f, 1.0f);
     }
 
-    public static SimpleMatrix skew(float kx, float ky, float px, float py) {
-      return new SimpleMatrix(new float[] {
-          1.0f, kx,   -kx * py,
+    public void setSkew(float kx, float ky, float px, float py) {
+      setValues(1.0f, kx,   -kx * py,
           ky,   1.0f, -ky * px,
-          0.0f, 0.0f, 1.0f,
-      });
+          0.0f, 0.0f, 1.0f);
     }
 
-    public static SimpleMatrix skew(float kx, float ky) {
-      return new SimpleMatrix(new float[] {
-          1.0f, kx,   0.0f,
+    public void setSkew(float kx, float ky) {
+      setValues(1.0f, kx,   0.0f,
           ky,   1.0f, 0.0f,
-          0.0f, 0.0f, 1.0f,
-      });
+          0.0f, 0.0f, 1.0f);
     }
 
-    public SimpleMatrix multiply(SimpleMatrix matrix) {
-      final float[] values = new float[9];
-      for (int i = 0; i < values.length; ++i) {
-        final int row = i / 3;
-        final int col = i % 3;
-        for (int j = 0; j < 3; ++j) {
-          values[i] += mValues[row * 3 + j] * matrix.mValues[j * 3 + col];
-        }
-      }
-      return new SimpleMatrix(values);
+    /**
+     * Sets this matrix to {@code a * b}. Either operand may be this matrix.
+     */
+    public void setConcat(SimpleMatrix a, SimpleMatrix b) {
+      final float[] l = a.mValues;
+      final float[] r = b.mValues;
+      setValues(
+          dot(l[0], r[0], l[1], r[3], l[2], r[6]),
+          dot(l[0], r[1], l[1], r[4], l[2], r[7]),
+          dot(l[0], r[2], l[1], r[5], l[2], r[8]),
+          dot(l[3], r[0], l[4], r[3], l[5], r[6]),
+          dot(l[3], r[1], l[4], r[4], l[5], r[7]),
+          dot(l[3], r[2], l[4], r[5], l[5], r[8]),
+          dot(l[6], r[0], l[7], r[3], l[8], r[6]),
+          dot(l[6], r[1], l[7], r[4], l[8], r[7]),
+          dot(l[6], r[2], l[7], r[5], l[8], r[8]));
     }
 
-    public SimpleMatrix invert() {
+    /**
+     * Writes the inverse of this matrix into {@code inverse}, which may be this matrix or null.
+     *
+     * @return False if this matrix can't be inverted, in which case {@code inverse} is left alone.
+     */
+    public boolean invert(SimpleMatrix inverse) {
       final float invDet = inverseDeterminant();
       if (invDet == 0) {
-        return null;
+        return false;
       }
 
-      final float[] src = mValues;
-      final float[] dst = new float[9];
-      dst[0] = cross_scale(src[4], src[8], src[5], src[7], invDet);
-      dst[1] = cross_scale(src[2], src[7], src[1], src[8], invDet);
-      dst[2] = cross_scale(src[1], src[5], src[2], src[4], invDet);
-
-      dst[3] = cross_scale(src[5], src[6], src[3], src[8], invDet);
-      dst[4] = cross_scale(src[0], src[8], src[2], src[6], invDet);
-      dst[5] = cross_scale(src[2], src[3], src[0], src[5], invDet);
+      if (inverse != null) {
+        final float[] src = mValues;
+        inverse.setValues(
+            cross_scale(src[4], src[8], src[5], src[7], invDet),
+            cross_scale(src[2], src[7], src[1], src[8], invDet),
+            cross_scale(src[1], src[5], src[2], src[4], invDet),
+
+            cross_scale(src[5], src[6], src[3], src[8], invDet),
+            cross_scale(src[0], src[8], src[2], src[6], invDet),
+            cross_scale(src[2], src[3], src[0], src[5], invDet),
+
+            cross_scale(src[3], src[7], src[4], src[6], invDet),
+            cross_scale(src[1], src[6], src[0], src[7], invDet),
+            cross_scale(src[0], src[4], src[1], src[3], invDet));
+      }
+      return true;
+    }
 
-      dst[6] = cross_scale(src[3], src[7], src[4], src[6], invDet);
-      dst[7] = cross_scale(src[1], src[6], src[0], src[7], invDet);
-      dst[8] = cross_scale(src[0], src[4], src[1], src[3], invDet);
-      return new SimpleMatrix(dst);
+    public float transformX(float x, float y) {
+      return x * mValues[0] + y * mValues[1] + mValues[2];
     }
 
-    public PointF transform(PointF point) {
-      return new PointF(
-          point.x * mValues[0] + point.y * mValues[1] + mValues[2],
-          point.x * mValues[3] + point.y * mValues[4] + mValues[5]);
+    public float transformY(float x, float y) {
+      return x * mValues[3] + y * mValues[4] + mValues[5];
     }
 
     @Override
@@ -518,6 +634,11 @@ public class ShadowMatrix {
       return Math.abs(value) < EPSILON;
     }
 
+    private static float dot(float a0, float b0, float a1, float b1, float a2, float b2) {
+      // Summing from zero turns a product of -0 into 0, so values never come out as -0.0.
+      return 0.0f + a0 * b0 + a1 * b1 + a2 * b2;
+    }
+
     private static float cross(float a, float b, float c, float d) {
       return a * b - c * d;
     }
@@ -301,6 +301,31 @@ public class ShadowPaint {
     return effect;
   }
 
+  /**
+   * Returns true if the paint has the same color, style, stroke, shadow layer, shader, alpha, filters, flags, path
+   * effect and text size as this one, i.e. if a copy of this paint would be indistinguishable from it.
+   */
+  boolean hasSameState(Paint other) {
+    ShadowPaint o = shadowOf(other);
+    return color == o.color
+        && style == o.style
+        && cap == o.cap
+        && join == o.join
+        && width == o.width
+        && shadowRadius == o.shadowRadius
+        && shadowDx == o.shadowDx
+        && shadowDy == o.shadowDy
+        && shadowColor == o.shadowColor
+        && shader == o.shader
+        && alpha == o.alpha
+        && filter == o.filter
+        && antiAlias == o.antiAlias
+        && dither == o.dither
+        && flags == o.flags
+        && pathEffect == o.pathEffect
+        && textSize == o.textSize;
+  }
+
   @Implementation
   public float measureText(String text) {
     return text.length();
@@ -5,9 +5,9 @@ import android.text.TextUtils;
 import android.util.Pair;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealFields;
 import org.robolectric.annotation.RealObject;
 import org.robolectric.annotation.HiddenApi;
-import org.robolectric.util.ReflectionHelpers;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -28,6 +28,7 @@ import static org.robolectric.RuntimeEnvironment.castNativePtr;
  * Shadow for {@link android.os.Parcel}.
  */
 @Implements(Parcel.class)
+@RealFields("mNativePtr")
 @SuppressWarnings("unchecked")
 public class ShadowParcel {
   @RealObject private Parcel realObject;
@@ -40,8 +41,7 @@ public class ShadowParcel {
       realObject.writeInt(-1);
       return;
     }
-    Number nativePtr = ReflectionHelpers.getField(realObject, "mNativePtr");
-    nativeWriteByteArray(nativePtr.longValue(), b, offset, len);
+    nativeWriteByteArray(ShadowParcelRealFields.getMNativePtr(realObject), b, offset, len);
   }
 
   @HiddenApi
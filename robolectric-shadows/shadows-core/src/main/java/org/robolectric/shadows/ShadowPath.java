@@ -1,62 +1,540 @@
 package org.robolectric.shadows;
 
+import android.graphics.Matrix;
 import android.graphics.Path;
+import android.graphics.RectF;
 import org.robolectric.Shadows;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealObject;
 
-import java.util.ArrayList;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
+import static android.os.Build.VERSION_CODES.KITKAT;
+import static android.os.Build.VERSION_CODES.LOLLIPOP;
 import static org.robolectric.shadows.ShadowPath.Point.Type.LINE_TO;
 import static org.robolectric.shadows.ShadowPath.Point.Type.MOVE_TO;
 
 /**
  * Shadow for {@code android.graphics.Path}.
  *
- * <p>The shadow only supports straight-line paths.</p>
+ * <p>The shadow keeps the path's segments in primitive arrays, the way Skia does: a verb per segment and the points
+ * each verb uses. Arcs, ovals and rounded corners are stored as cubic curves. Curves are flattened for
+ * {@link #approximate(float)}, {@link #contains(float, float)} and {@link #op(Path, Path, Path.Op)}.</p>
  */
 @SuppressWarnings({"UnusedDeclaration"})
 @Implements(Path.class)
 public class ShadowPath {
-  private List<Point> points = new ArrayList<>();
-  private Point wasMovedTo;
+  // The verbs share their values with PathIterator's segment types.
+  private static final byte MOVE = PathIterator.SEG_MOVETO;
+  private static final byte LINE = PathIterator.SEG_LINETO;
+  private static final byte QUAD = PathIterator.SEG_QUADTO;
+  private static final byte CUBIC = PathIterator.SEG_CUBICTO;
+  private static final byte CLOSE = PathIterator.SEG_CLOSE;
+  private static final int[] COORDS_PER_VERB = {2, 2, 4, 6, 0};
+
+  private byte[] verbs = new byte[8];
+  private int verbCount;
+  private float[] coords = new float[16];
+  private int coordCount;
+  private float left, top, right, bottom;
+  private float lastMoveX, lastMoveY;
+  private float lastX, lastY;
+  private Path.FillType fillType = Path.FillType.WINDING;
+  private Path2D.Float shape;
   private String quadDescription = "";
 
+  @RealObject
+  private Path realPath;
+
   public void __constructor__(Path path) {
-    points = new ArrayList<>(Shadows.shadowOf(path).getPoints());
-    wasMovedTo = Shadows.shadowOf(path).wasMovedTo;
-    quadDescription = Shadows.shadowOf(path).quadDescription;
+    if (path != null) {
+      set(path);
+    }
+  }
+
+  @Implementation
+  public void set(Path src) {
+    ShadowPath other = Shadows.shadowOf(src);
+    if (other == this) {
+      return;
+    }
+    verbs = Arrays.copyOf(other.verbs, Math.max(other.verbCount, 8));
+    verbCount = other.verbCount;
+    coords = Arrays.copyOf(other.coords, Math.max(other.coordCount, 16));
+    coordCount = other.coordCount;
+    left = other.left;
+    top = other.top;
+    right = other.right;
+    bottom = other.bottom;
+    lastMoveX = other.lastMoveX;
+    lastMoveY = other.lastMoveY;
+    lastX = other.lastX;
+    lastY = other.lastY;
+    fillType = other.fillType;
+    shape = other.shape;
+    quadDescription = other.quadDescription;
   }
 
   @Implementation
   public void moveTo(float x, float y) {
-    Point p = new Point(x, y, MOVE_TO);
-    points.add(p);
-    wasMovedTo = p;
+    append(MOVE);
+    appendPoint(x, y);
+    lastMoveX = x;
+    lastMoveY = y;
+  }
+
+  @Implementation
+  public void rMoveTo(float dx, float dy) {
+    moveTo(lastX + dx, lastY + dy);
   }
 
   @Implementation
   public void lineTo(float x, float y) {
-    Point point = new Point(x, y, LINE_TO);
-    points.add(point);
+    append(LINE);
+    appendPoint(x, y);
+  }
+
+  @Implementation
+  public void rLineTo(float dx, float dy) {
+    lineTo(lastX + dx, lastY + dy);
   }
 
   @Implementation
   public void quadTo(float x1, float y1, float x2, float y2) {
     quadDescription = "Add a quadratic bezier from last point, approaching (" + x1 + "," + y1 + "), ending at (" + x2 + "," + y2 + ")";
+    append(QUAD);
+    appendPoint(x1, y1);
+    appendPoint(x2, y2);
+  }
+
+  @Implementation
+  public void rQuadTo(float dx1, float dy1, float dx2, float dy2) {
+    quadTo(lastX + dx1, lastY + dy1, lastX + dx2, lastY + dy2);
+  }
+
+  @Implementation
+  public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    append(CUBIC);
+    appendPoint(x1, y1);
+    appendPoint(x2, y2);
+    appendPoint(x3, y3);
+  }
+
+  @Implementation
+  public void rCubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    cubicTo(lastX + x1, lastY + y1, lastX + x2, lastY + y2, lastX + x3, lastY + y3);
+  }
+
+  @Implementation
+  public void arcTo(RectF oval, float startAngle, float sweepAngle, boolean forceMoveTo) {
+    arcTo(oval.left, oval.top, oval.right, oval.bottom, startAngle, sweepAngle, forceMoveTo);
+  }
+
+  @Implementation
+  public void arcTo(RectF oval, float startAngle, float sweepAngle) {
+    arcTo(oval.left, oval.top, oval.right, oval.bottom, startAngle, sweepAngle, false);
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle, boolean forceMoveTo) {
+    float cx = (left + right) / 2;
+    float cy = (top + bottom) / 2;
+    float rx = (right - left) / 2;
+    float ry = (bottom - top) / 2;
+    double start = Math.toRadians(startAngle);
+    float startX = cx + rx * (float) Math.cos(start);
+    float startY = cy + ry * (float) Math.sin(start);
+    if (forceMoveTo || verbCount == 0) {
+      moveTo(startX, startY);
+    } else if (startX != lastX || startY != lastY) {
+      lineTo(startX, startY);
+    }
+    appendArc(cx, cy, rx, ry, startAngle, Math.max(-360, Math.min(360, sweepAngle)));
+  }
+
+  @Implementation
+  public void close() {
+    if (verbCount > 0 && verbs[verbCount - 1] != CLOSE) {
+      append(CLOSE);
+      lastX = lastMoveX;
+      lastY = lastMoveY;
+    }
+  }
+
+  @Implementation
+  public void addRect(RectF rect, Path.Direction dir) {
+    addRect(rect.left, rect.top, rect.right, rect.bottom, dir);
+  }
+
+  @Implementation
+  public void addRect(float left, float top, float right, float bottom, Path.Direction dir) {
+    moveTo(left, top);
+    if (dir == Path.Direction.CW) {
+      lineTo(right, top);
+      lineTo(right, bottom);
+      lineTo(left, bottom);
+    } else {
+      lineTo(left, bottom);
+      lineTo(right, bottom);
+      lineTo(right, top);
+    }
+    close();
+  }
+
+  @Implementation
+  public void addOval(RectF oval, Path.Direction dir) {
+    addOval(oval.left, oval.top, oval.right, oval.bottom, dir);
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  public void addOval(float left, float top, float right, float bottom, Path.Direction dir) {
+    float cx = (left + right) / 2;
+    float cy = (top + bottom) / 2;
+    moveTo(right, cy);
+    appendArc(cx, cy, (right - left) / 2, (bottom - top) / 2, 0, dir == Path.Direction.CW ? 360 : -360);
+    close();
+  }
+
+  @Implementation
+  public void addCircle(float x, float y, float radius, Path.Direction dir) {
+    addOval(x - radius, y - radius, x + radius, y + radius, dir);
+  }
+
+  @Implementation
+  public void addArc(RectF oval, float startAngle, float sweepAngle) {
+    addArc(oval.left, oval.top, oval.right, oval.bottom, startAngle, sweepAngle);
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  public void addArc(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+    arcTo(left, top, right, bottom, startAngle, sweepAngle, true);
+  }
+
+  @Implementation
+  public void addRoundRect(RectF rect, float rx, float ry, Path.Direction dir) {
+    addRoundRect(rect.left, rect.top, rect.right, rect.bottom, rx, ry, dir);
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  public void addRoundRect(float left, float top, float right, float bottom, float rx, float ry, Path.Direction dir) {
+    addRoundRect(left, top, right, bottom, new float[] {rx, ry, rx, ry, rx, ry, rx, ry}, dir);
+  }
+
+  @Implementation
+  public void addRoundRect(RectF rect, float[] radii, Path.Direction dir) {
+    addRoundRect(rect.left, rect.top, rect.right, rect.bottom, radii, dir);
+  }
+
+  @Implementation(minSdk = LOLLIPOP)
+  public void addRoundRect(float left, float top, float right, float bottom, float[] radii, Path.Direction dir) {
+    if (radii.length < 8) {
+      throw new ArrayIndexOutOfBoundsException("radii[] needs 8 values");
+    }
+    float width = right - left;
+    float height = bottom - top;
+    // Shrink the corners in proportion if adjacent ones would overlap, as Skia does.
+    float scale = Math.min(1, Math.min(
+        Math.min(fit(width, radii[0] + radii[2]), fit(width, radii[6] + radii[4])),
+        Math.min(fit(height, radii[1] + radii[7]), fit(height, radii[3] + radii[5]))));
+    float[] r = new float[8];
+    for (int i = 0; i < 8; i++) {
+      r[i] = Math.max(0, radii[i]) * scale;
+    }
+
+    // Corners go top left, top right, bottom right, bottom left; each is an arc about its own center.
+    float[] centers = {
+        left + r[0], top + r[1],
+        right - r[2], top + r[3],
+        right - r[4], bottom - r[5],
+        left + r[6], bottom - r[7]};
+    if (dir == Path.Direction.CW) {
+      moveTo(left, top + r[1]);
+      for (int corner = 0; corner < 4; corner++) {
+        appendCorner(centers, r, corner, 180 + 90 * corner, 90);
+      }
+    } else {
+      moveTo(left + r[0], top);
+      for (int corner = 4; corner > 0; corner--) {
+        appendCorner(centers, r, corner % 4, 270 + 90 * corner, -90);
+      }
+    }
+    close();
+  }
+
+  private static float fit(float length, float radii) {
+    return radii > 0 ? length / radii : 1;
+  }
+
+  private void appendCorner(float[] centers, float[] radii, int corner, float startAngle, float sweepAngle) {
+    float cx = centers[2 * corner];
+    float cy = centers[2 * corner + 1];
+    float rx = radii[2 * corner];
+    float ry = radii[2 * corner + 1];
+    double start = Math.toRadians(startAngle);
+    float startX = cx + rx * (float) Math.cos(start);
+    float startY = cy + ry * (float) Math.sin(start);
+    if (startX != lastX || startY != lastY) {
+      lineTo(startX, startY);
+    }
+    if (rx > 0 && ry > 0) {
+      appendArc(cx, cy, rx, ry, startAngle, sweepAngle);
+    }
+  }
+
+  @Implementation
+  public void addPath(Path src) {
+    addPath(src, null);
+  }
+
+  @Implementation
+  public void addPath(Path src, float dx, float dy) {
+    Matrix matrix = new Matrix();
+    matrix.setTranslate(dx, dy);
+    addPath(src, matrix);
+  }
+
+  @Implementation
+  public void addPath(Path src, Matrix matrix) {
+    ShadowPath other = Shadows.shadowOf(src);
+    int verbStart = verbCount;
+    int coordStart = coordCount;
+    int otherVerbCount = other.verbCount;
+    int otherCoordCount = other.coordCount;
+    ensureCapacity(otherVerbCount, otherCoordCount);
+    System.arraycopy(other.verbs, 0, verbs, verbStart, otherVerbCount);
+    System.arraycopy(other.coords, 0, coords, coordStart, otherCoordCount);
+    verbCount += otherVerbCount;
+    coordCount += otherCoordCount;
+    if (matrix != null) {
+      transformCoords(matrix, coordStart);
+    }
+    if (otherVerbCount > 0) {
+      updateLastPoints(verbStart, coordStart);
+    }
+    computeBounds();
+    changed();
+  }
+
+  @Implementation
+  public void offset(float dx, float dy) {
+    for (int i = 0; i < coordCount; i += 2) {
+      coords[i] += dx;
+      coords[i + 1] += dy;
+    }
+    if (coordCount > 0) {
+      left += dx;
+      right += dx;
+      top += dy;
+      bottom += dy;
+    }
+    lastMoveX += dx;
+    lastMoveY += dy;
+    lastX += dx;
+    lastY += dy;
+    changed();
+  }
+
+  @Implementation
+  public void offset(float dx, float dy, Path dst) {
+    if (dst != null) {
+      Shadows.shadowOf(dst).set(realPath);
+      Shadows.shadowOf(dst).offset(dx, dy);
+    } else {
+      offset(dx, dy);
+    }
+  }
+
+  @Implementation
+  public void transform(Matrix matrix) {
+    transformCoords(matrix, 0);
+    if (verbCount > 0) {
+      updateLastPoints(0, 0);
+    }
+    computeBounds();
+    changed();
+  }
+
+  @Implementation
+  public void transform(Matrix matrix, Path dst) {
+    if (dst != null) {
+      Shadows.shadowOf(dst).set(realPath);
+      Shadows.shadowOf(dst).transform(matrix);
+    } else {
+      transform(matrix);
+    }
+  }
+
+  @Implementation
+  public void setLastPoint(float dx, float dy) {
+    if (coordCount == 0) {
+      moveTo(dx, dy);
+      return;
+    }
+    coords[coordCount - 2] = dx;
+    coords[coordCount - 1] = dy;
+    if (verbs[verbCount - 1] == MOVE) {
+      lastMoveX = dx;
+      lastMoveY = dy;
+    }
+    lastX = dx;
+    lastY = dy;
+    computeBounds();
+    changed();
   }
 
   @Implementation
   public void reset() {
-    points.clear();
-    wasMovedTo = null;
+    verbCount = 0;
+    coordCount = 0;
+    left = top = right = bottom = 0;
+    lastMoveX = lastMoveY = lastX = lastY = 0;
     quadDescription = "";
+    changed();
+  }
+
+  @Implementation
+  public void rewind() {
+    reset();
+  }
+
+  @Implementation
+  public boolean isEmpty() {
+    return verbCount == 0;
+  }
+
+  @Implementation
+  public void computeBounds(RectF bounds, boolean exact) {
+    bounds.set(left, top, right, bottom);
+  }
+
+  @Implementation
+  public Path.FillType getFillType() {
+    return fillType;
+  }
+
+  @Implementation
+  public void setFillType(Path.FillType fillType) {
+    this.fillType = fillType;
+    changed();
+  }
+
+  @Implementation
+  public boolean isInverseFillType() {
+    return fillType == Path.FillType.INVERSE_WINDING || fillType == Path.FillType.INVERSE_EVEN_ODD;
+  }
+
+  @Implementation
+  public void toggleInverseFillType() {
+    switch (fillType) {
+      case WINDING: fillType = Path.FillType.INVERSE_WINDING; break;
+      case EVEN_ODD: fillType = Path.FillType.INVERSE_EVEN_ODD; break;
+      case INVERSE_WINDING: fillType = Path.FillType.WINDING; break;
+      case INVERSE_EVEN_ODD: fillType = Path.FillType.EVEN_ODD; break;
+    }
+    changed();
+  }
+
+  /**
+   * Sets this path to the result of combining {@code path1} and {@code path2}. Inverse fill types are treated as their
+   * non-inverse counterparts.
+   */
+  @Implementation(minSdk = KITKAT)
+  public boolean op(Path path1, Path path2, Path.Op op) {
+    Area area = new Area(Shadows.shadowOf(path1).getShape());
+    Area other = new Area(Shadows.shadowOf(path2).getShape());
+    switch (op) {
+      case DIFFERENCE:
+        area.subtract(other);
+        break;
+      case INTERSECT:
+        area.intersect(other);
+        break;
+      case UNION:
+        area.add(other);
+        break;
+      case XOR:
+        area.exclusiveOr(other);
+        break;
+      case REVERSE_DIFFERENCE:
+        other.subtract(area);
+        area = other;
+        break;
+    }
+
+    reset();
+    fillType = Path.FillType.WINDING;
+    float[] segment = new float[6];
+    for (PathIterator iterator = area.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+      switch (iterator.currentSegment(segment)) {
+        case PathIterator.SEG_MOVETO: moveTo(segment[0], segment[1]); break;
+        case PathIterator.SEG_LINETO: lineTo(segment[0], segment[1]); break;
+        case PathIterator.SEG_QUADTO: quadTo(segment[0], segment[1], segment[2], segment[3]); break;
+        case PathIterator.SEG_CUBICTO: cubicTo(segment[0], segment[1], segment[2], segment[3], segment[4], segment[5]); break;
+        case PathIterator.SEG_CLOSE: close(); break;
+      }
+    }
+    return true;
   }
 
-  @Implementation // TODO: This should only be used to enable interpolator resource parsing
+  /**
+   * Returns the path as line segments: for each point, the fraction of the path's length up to it, then its x and y.
+   */
+  @Implementation
   public float[] approximate(float acceptableError) {
-    return new float[]{0, 0, 0, 1, 1, 1};
+    if (verbCount == 0) {
+      // TODO: This should only be used to enable interpolator resource parsing
+      return new float[]{0, 0, 0, 1, 1, 1};
+    }
+
+    float[] points = new float[3 * 16];
+    int count = 0;
+    float length = 0;
+    float[] segment = new float[6];
+    float moveX = 0;
+    float moveY = 0;
+    for (PathIterator iterator = new FlatteningPathIterator(getShape().getPathIterator(null), acceptableError);
+         !iterator.isDone(); iterator.next()) {
+      int type = iterator.currentSegment(segment);
+      if (type == PathIterator.SEG_MOVETO) {
+        moveX = segment[0];
+        moveY = segment[1];
+      } else if (type == PathIterator.SEG_CLOSE) {
+        segment[0] = moveX;
+        segment[1] = moveY;
+      }
+      if (count > 0 && type != PathIterator.SEG_MOVETO) {
+        length += (float) Math.hypot(segment[0] - points[3 * count - 2], segment[1] - points[3 * count - 1]);
+      }
+      if (3 * count == points.length) {
+        points = Arrays.copyOf(points, 2 * points.length);
+      }
+      points[3 * count] = length;
+      points[3 * count + 1] = segment[0];
+      points[3 * count + 2] = segment[1];
+      count++;
+    }
+
+    for (int i = 0; i < count; i++) {
+      points[3 * i] = length > 0 ? points[3 * i] / length : 0;
+    }
+    return Arrays.copyOf(points, 3 * count);
+  }
+
+  /**
+   * Non-Android accessor.
+   *
+   * @return whether the point is inside the area the path would fill, given its fill type
+   */
+  public boolean contains(float x, float y) {
+    return getShape().contains(x, y) != isInverseFillType();
   }
 
   public String getQuadDescription() {
@@ -66,19 +544,192 @@ public class ShadowPath {
   /**
    * Non-Android accessor.
    *
-   * @return all the points that have been added to the {@code Path}
+   * @return the end points of the path's straight segments and the points it moved to, in order
    */
   public List<Point> getPoints() {
-    return points;
+    final int[] pointCoords = new int[verbCount];
+    final Point.Type[] pointTypes = new Point.Type[verbCount];
+    int count = 0;
+    for (int verb = 0, coord = 0; verb < verbCount; coord += COORDS_PER_VERB[verbs[verb++]]) {
+      if (verbs[verb] == MOVE || verbs[verb] == LINE) {
+        pointCoords[count] = coord;
+        pointTypes[count++] = verbs[verb] == MOVE ? MOVE_TO : LINE_TO;
+      }
+    }
+
+    final float[] coords = Arrays.copyOf(this.coords, coordCount);
+    final int size = count;
+    return new AbstractList<Point>() {
+      @Override
+      public Point get(int index) {
+        if (index >= size) {
+          throw new IndexOutOfBoundsException(index + " >= " + size);
+        }
+        return new Point(coords[pointCoords[index]], coords[pointCoords[index] + 1], pointTypes[index]);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
   }
 
   /**
    * Non-Android accessor.
    *
-   * @return whether the {@link #moveTo(float, float)} method was called
+   * @return the last point the path moved to, or null if it never has
    */
   public Point getWasMovedTo() {
-    return wasMovedTo;
+    for (int verb = verbCount - 1, coord = coordCount; verb >= 0; verb--) {
+      coord -= COORDS_PER_VERB[verbs[verb]];
+      if (verbs[verb] == MOVE) {
+        return new Point(coords[coord], coords[coord + 1], MOVE_TO);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the path as a shape, which callers must not modify. Like Skia, a contour that doesn't start with a move
+   * starts where the previous contour did.
+   */
+  Shape getShape() {
+    if (shape != null) {
+      return shape;
+    }
+    Path2D.Float shape = new Path2D.Float(
+        fillType == Path.FillType.EVEN_ODD || fillType == Path.FillType.INVERSE_EVEN_ODD
+            ? Path2D.WIND_EVEN_ODD : Path2D.WIND_NON_ZERO,
+        verbCount);
+    float moveX = 0;
+    float moveY = 0;
+    boolean inContour = false;
+    for (int verb = 0, c = 0; verb < verbCount; c += COORDS_PER_VERB[verbs[verb++]]) {
+      byte type = verbs[verb];
+      if (type == MOVE) {
+        moveX = coords[c];
+        moveY = coords[c + 1];
+        shape.moveTo(moveX, moveY);
+        inContour = true;
+        continue;
+      }
+      if (!inContour) {
+        shape.moveTo(moveX, moveY);
+        inContour = true;
+      }
+      switch (type) {
+        case LINE: shape.lineTo(coords[c], coords[c + 1]); break;
+        case QUAD: shape.quadTo(coords[c], coords[c + 1], coords[c + 2], coords[c + 3]); break;
+        case CUBIC: shape.curveTo(coords[c], coords[c + 1], coords[c + 2], coords[c + 3], coords[c + 4], coords[c + 5]); break;
+        case CLOSE: shape.closePath(); inContour = false; break;
+      }
+    }
+    this.shape = shape;
+    return shape;
+  }
+
+  /**
+   * Appends cubics approximating an elliptical arc, at most a quarter turn each. The path must already be at the
+   * arc's start.
+   */
+  private void appendArc(float cx, float cy, float rx, float ry, float startAngle, float sweepAngle) {
+    int segments = (int) Math.ceil(Math.abs(sweepAngle) / 90 - 1e-4);
+    double step = Math.toRadians(sweepAngle) / Math.max(segments, 1);
+    double k = 4.0 / 3.0 * Math.tan(step / 4);
+    double angle = Math.toRadians(startAngle);
+    for (int i = 0; i < segments; i++) {
+      double cos1 = Math.cos(angle);
+      double sin1 = Math.sin(angle);
+      angle += step;
+      double cos2 = Math.cos(angle);
+      double sin2 = Math.sin(angle);
+      cubicTo(
+          (float) (cx + rx * (cos1 - k * sin1)), (float) (cy + ry * (sin1 + k * cos1)),
+          (float) (cx + rx * (cos2 + k * sin2)), (float) (cy + ry * (sin2 - k * cos2)),
+          (float) (cx + rx * cos2), (float) (cy + ry * sin2));
+    }
+  }
+
+  private void append(byte verb) {
+    ensureCapacity(1, COORDS_PER_VERB[verb]);
+    verbs[verbCount++] = verb;
+    changed();
+  }
+
+  private void appendPoint(float x, float y) {
+    if (coordCount == 0) {
+      left = right = x;
+      top = bottom = y;
+    } else {
+      left = Math.min(left, x);
+      right = Math.max(right, x);
+      top = Math.min(top, y);
+      bottom = Math.max(bottom, y);
+    }
+    coords[coordCount++] = x;
+    coords[coordCount++] = y;
+    lastX = x;
+    lastY = y;
+  }
+
+  private void ensureCapacity(int moreVerbs, int moreCoords) {
+    if (verbCount + moreVerbs > verbs.length) {
+      verbs = Arrays.copyOf(verbs, Math.max(2 * verbs.length, verbCount + moreVerbs));
+    }
+    if (coordCount + moreCoords > coords.length) {
+      coords = Arrays.copyOf(coords, Math.max(2 * coords.length, coordCount + moreCoords));
+    }
+  }
+
+  private void transformCoords(Matrix matrix, int from) {
+    float[] values = new float[9];
+    matrix.getValues(values);
+    for (int i = from; i < coordCount; i += 2) {
+      float x = coords[i];
+      float y = coords[i + 1];
+      float w = values[Matrix.MPERSP_0] * x + values[Matrix.MPERSP_1] * y + values[Matrix.MPERSP_2];
+      coords[i] = (values[Matrix.MSCALE_X] * x + values[Matrix.MSKEW_X] * y + values[Matrix.MTRANS_X]) / w;
+      coords[i + 1] = (values[Matrix.MSKEW_Y] * x + values[Matrix.MSCALE_Y] * y + values[Matrix.MTRANS_Y]) / w;
+    }
+  }
+
+  /**
+   * Finds the last point and last move of the verbs from {@code verbStart} on, after their coordinates have changed.
+   */
+  private void updateLastPoints(int verbStart, int coordStart) {
+    for (int verb = verbStart, coord = coordStart; verb < verbCount; coord += COORDS_PER_VERB[verbs[verb++]]) {
+      if (verbs[verb] == MOVE) {
+        lastMoveX = coords[coord];
+        lastMoveY = coords[coord + 1];
+      }
+    }
+    if (verbs[verbCount - 1] == CLOSE) {
+      lastX = lastMoveX;
+      lastY = lastMoveY;
+    } else {
+      lastX = coords[coordCount - 2];
+      lastY = coords[coordCount - 1];
+    }
+  }
+
+  private void computeBounds() {
+    if (coordCount == 0) {
+      left = top = right = bottom = 0;
+      return;
+    }
+    left = right = coords[0];
+    top = bottom = coords[1];
+    for (int i = 2; i < coordCount; i += 2) {
+      left = Math.min(left, coords[i]);
+      right = Math.max(right, coords[i]);
+      top = Math.min(top, coords[i + 1]);
+      bottom = Math.max(bottom, coords[i + 1]);
+    }
+  }
+
+  private void changed() {
+    shape = null;
   }
 
   public static class Point {
@@ -5,6 +5,7 @@ import android.view.Choreographer.FrameCallback;
 import android.view.RenderNodeAnimator;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealFields;
 import org.robolectric.annotation.RealObject;
 import org.robolectric.annotation.Resetter;
 import org.robolectric.util.ReflectionHelpers;
@@ -18,6 +19,7 @@ import static org.robolectric.shadow.api.Shadow.directlyOn;
  * Shadow for {@link android.view.RenderNodeAnimator}.
  */
 @Implements(value = RenderNodeAnimator.class, isInAndroidSdk = false, minSdk = LOLLIPOP)
+@RealFields("mState")
 public class ShadowRenderNodeAnimator {
   private static final int STATE_FINISHED = 3;
 
@@ -61,7 +63,7 @@ public class ShadowRenderNodeAnimator {
     directlyOn(realObject, RenderNodeAnimator.class).cancel();
 
     if (getApiLevel() <= LOLLIPOP) {
-      int state = ReflectionHelpers.getField(realObject, "mState");
+      int state = ShadowRenderNodeAnimatorRealFields.getMState(realObject);
       if (state != STATE_FINISHED) {
         // In 21, RenderNodeAnimator only calls nEnd, it doesn't call the Java end method. Thus, it
         // expects the native code will end up calling onFinished, so we do that here.
@@ -79,7 +81,7 @@ public class ShadowRenderNodeAnimator {
     isEnding = false;
     unschedule();
 
-    int state = ReflectionHelpers.getField(realObject, "mState");
+    int state = ShadowRenderNodeAnimatorRealFields.getMState(realObject);
     if (state != STATE_FINISHED) {
       // This means that the RenderNodeAnimator called out to native code to finish the animation,
       // expecting that it would end up calling onFinished. Since that won't happen in Robolectric,
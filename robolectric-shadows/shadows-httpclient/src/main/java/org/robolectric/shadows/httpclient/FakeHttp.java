@@ -176,6 +176,15 @@ public class FakeHttp {
     getFakeHttpLayer().setDefaultHttpResponse(defaultHttpResponse);
   }
 
+  /**
+   * Serves recorded HTTP exchanges for requests that no pending response or response rule handles.
+   *
+   * @param httpFixtureStore fixture store, e.g. from {@link HttpFixtureStore#load(java.io.File)}.
+   */
+  public static void setHttpFixtureStore(HttpFixtureStore httpFixtureStore) {
+    getFakeHttpLayer().setHttpFixtureStore(httpFixtureStore);
+  }
+
   public static void clearHttpResponseRules() {
     getFakeHttpLayer().clearHttpResponseRules();
   }
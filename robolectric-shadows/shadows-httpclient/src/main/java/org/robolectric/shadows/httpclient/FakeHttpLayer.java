@@ -12,24 +12,32 @@ import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.protocol.HttpContext;
+import org.robolectric.util.BoundedList;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
 public class FakeHttpLayer {
-  private final List<HttpResponseGenerator> pendingHttpResponses = new ArrayList<>();
-  private final List<HttpRequestInfo> httpRequestInfos = new ArrayList<>();
-  private final List<HttpResponse> httpResponses = new ArrayList<>();
-  private final List<HttpEntityStub.ResponseRule> httpResponseRules = new ArrayList<>();
+  private final Deque<HttpResponseGenerator> pendingHttpResponses = new ArrayDeque<>();
+  private final BoundedList<HttpRequestInfo> httpRequestInfos = new BoundedList<>();
+  private final BoundedList<HttpResponse> httpResponses = new BoundedList<>();
+  // rules matching a single exact URI, and all other rules; each in the order they were added
+  private final Map<String, List<IndexedResponseRule>> httpResponseRulesByUri = new HashMap<>();
+  private final List<IndexedResponseRule> unindexedHttpResponseRules = new ArrayList<>();
+  private int httpResponseRuleCount;
+  private HttpFixtureStore httpFixtureStore;
+  private final Map<String, Integer> httpFixtureRequestCounts = new HashMap<>();
   private HttpResponse defaultHttpResponse;
   private boolean interceptHttpRequests = true;
   private boolean logHttpRequests = false;
-  private List<byte[]> httpResposeContent = new ArrayList<>();
+  private final BoundedList<byte[]> httpResposeContent = new BoundedList<>();
   private boolean interceptResponseContent;
 
   public HttpRequestInfo getLastSentHttpRequestInfo() {
@@ -83,8 +91,56 @@ public class FakeHttpLayer {
     addHttpResponseRule(new RequestMatcherResponseRule(requestMatcher, responses));
   }
 
+  /**
+   * Add a response rule. Rules added later take precedence over rules added earlier.
+   *
+   * @param responseRule Response rule
+   */
   public void addHttpResponseRule(HttpEntityStub.ResponseRule responseRule) {
-    httpResponseRules.add(0, responseRule);
+    IndexedResponseRule indexedRule = new IndexedResponseRule(httpResponseRuleCount++, responseRule);
+    String uri = exactUriOf(responseRule);
+    if (uri == null) {
+      unindexedHttpResponseRules.add(indexedRule);
+    } else {
+      List<IndexedResponseRule> rules = httpResponseRulesByUri.get(uri);
+      if (rules == null) {
+        rules = new ArrayList<>();
+        httpResponseRulesByUri.put(uri, rules);
+      }
+      rules.add(indexedRule);
+    }
+  }
+
+  /**
+   * Returns the only request URI a rule can match, or null if it may match any URI. Only rules using the built-in
+   * exact URI matchers qualify; subclasses could match differently.
+   */
+  private static String exactUriOf(HttpEntityStub.ResponseRule responseRule) {
+    if (responseRule.getClass() != RequestMatcherResponseRule.class) {
+      return null;
+    }
+
+    RequestMatcher requestMatcher = ((RequestMatcherResponseRule) responseRule).requestMatcher;
+    if (requestMatcher.getClass() == DefaultRequestMatcher.class) {
+      return ((DefaultRequestMatcher) requestMatcher).uri;
+    } else if (requestMatcher.getClass() == UriRequestMatcher.class) {
+      return ((UriRequestMatcher) requestMatcher).uri;
+    }
+    return null;
+  }
+
+  /**
+   * Serves recorded exchanges for requests that no pending response or response rule handles.
+   *
+   * @param httpFixtureStore The fixture store, or null to stop serving fixtures
+   */
+  public void setHttpFixtureStore(HttpFixtureStore httpFixtureStore) {
+    this.httpFixtureStore = httpFixtureStore;
+    httpFixtureRequestCounts.clear();
+  }
+
+  public HttpFixtureStore getHttpFixtureStore() {
+    return httpFixtureStore;
   }
 
   public void setDefaultHttpResponse(HttpResponse defaultHttpResponse) {
@@ -97,13 +153,19 @@ public class FakeHttpLayer {
 
   private HttpResponse findResponse(HttpRequest httpRequest) throws HttpException, IOException {
     if (!pendingHttpResponses.isEmpty()) {
-      return pendingHttpResponses.remove(0).getResponse(httpRequest);
+      return pendingHttpResponses.removeFirst().getResponse(httpRequest);
     }
 
-    for (HttpEntityStub.ResponseRule httpResponseRule : httpResponseRules) {
-      if (httpResponseRule.matches(httpRequest)) {
-        return httpResponseRule.getResponse();
-      }
+    HttpEntityStub.ResponseRule httpResponseRule = findResponseRule(httpRequest);
+    if (httpResponseRule != null) {
+      return httpResponseRule.getResponse();
+    }
+
+    if (httpFixtureStore != null && httpFixtureStore.hasResponse(httpRequest)) {
+      String key = HttpFixtureStore.keyOf(httpRequest);
+      Integer count = httpFixtureRequestCounts.get(key);
+      httpFixtureRequestCounts.put(key, count == null ? 1 : count + 1);
+      return httpFixtureStore.getResponse(httpRequest, count == null ? 0 : count);
     }
 
     System.err.println("Unexpected HTTP call " + httpRequest.getRequestLine());
@@ -111,6 +173,30 @@ public class FakeHttpLayer {
     return defaultHttpResponse;
   }
 
+  /**
+   * Finds the most recently added rule matching the request. Rules for the request's exact URI and the remaining rules
+   * are merged by the order they were added, so rules are tried in the same order as a single list would be.
+   */
+  private HttpEntityStub.ResponseRule findResponseRule(HttpRequest httpRequest) {
+    List<IndexedResponseRule> uriRules = httpResponseRulesByUri.get(httpRequest.getRequestLine().getUri());
+    int uriIndex = uriRules == null ? -1 : uriRules.size() - 1;
+    int otherIndex = unindexedHttpResponseRules.size() - 1;
+
+    while (uriIndex >= 0 || otherIndex >= 0) {
+      IndexedResponseRule candidate;
+      if (otherIndex < 0 || (uriIndex >= 0 && uriRules.get(uriIndex).order > unindexedHttpResponseRules.get(otherIndex).order)) {
+        candidate = uriRules.get(uriIndex--);
+      } else {
+        candidate = unindexedHttpResponseRules.get(otherIndex--);
+      }
+
+      if (candidate.rule.matches(httpRequest)) {
+        return candidate.rule;
+      }
+    }
+    return null;
+  }
+
   public HttpResponse emulateRequest(HttpHost httpHost, HttpRequest httpRequest, HttpContext httpContext, RequestDirector requestDirector) throws HttpException, IOException {
     if (logHttpRequests) {
       System.out.println("  <-- " + httpRequest.getRequestLine());
@@ -162,8 +248,20 @@ public class FakeHttpLayer {
     httpRequestInfos.add(requestInfo);
   }
 
+  /**
+   * Limits the sent requests, responses and response contents that are kept to the most recent ones. By default
+   * everything is kept, which may use a lot of memory in tests that make many requests.
+   *
+   * @param limit The maximum number of requests to keep
+   */
+  public void setRequestHistoryLimit(int limit) {
+    httpRequestInfos.setLimit(limit);
+    httpResponses.setLimit(limit);
+    httpResposeContent.setLimit(limit);
+  }
+
   public boolean hasResponseRules() {
-    return !httpResponseRules.isEmpty();
+    return httpResponseRuleCount > 0;
   }
 
   public boolean hasRequestMatchingRule(RequestMatcher rule) {
@@ -196,7 +294,9 @@ public class FakeHttpLayer {
   }
 
   public void clearHttpResponseRules() {
-    httpResponseRules.clear();
+    httpResponseRulesByUri.clear();
+    unindexedHttpResponseRules.clear();
+    httpResponseRuleCount = 0;
   }
 
   public void clearPendingHttpResponses() {
@@ -273,6 +373,16 @@ public class FakeHttpLayer {
     return interceptResponseContent;
   }
 
+  private static class IndexedResponseRule {
+    private final int order;
+    private final HttpEntityStub.ResponseRule rule;
+
+    IndexedResponseRule(int order, HttpEntityStub.ResponseRule rule) {
+      this.order = order;
+      this.rule = rule;
+    }
+  }
+
   public static class RequestMatcherResponseRule implements HttpEntityStub.ResponseRule {
     private RequestMatcher requestMatcher;
     private HttpResponse responseToGive;
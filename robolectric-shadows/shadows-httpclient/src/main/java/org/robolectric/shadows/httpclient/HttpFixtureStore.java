@@ -0,0 +1,258 @@
+package org.robolectric.shadows.httpclient;
+
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.message.BasicHeader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Serves recorded HTTP exchanges from a directory of fixture files, and can record new ones.
+ *
+ * Each file with the {@code .http} extension holds one exchange: the request line and headers, a blank line, then the
+ * response status line and headers, a blank line and the body, e.g:
+ *
+ * <pre>
+ * GET http://example.com/users/1
+ * Accept: application/json
+ *
+ * HTTP/1.1 200 OK
+ * Content-Type: application/json
+ *
+ * {"id": 1}
+ * </pre>
+ *
+ * Exchanges are matched by request method and URI; request headers are informational. When several files hold the
+ * same request, they are served in file name order and the last one is repeated.
+ *
+ * Files are memory-mapped and only their headers are parsed when the store is loaded; bodies are served straight from
+ * the mapped files. Stores loaded with {@link #load(File)} are kept for the lifetime of the JVM, so tests sharing a
+ * fixture directory only pay for loading it once. Attach a store to the fake HTTP layer with
+ * {@link FakeHttp#setHttpFixtureStore(HttpFixtureStore)}.
+ */
+public class HttpFixtureStore {
+  public static final String FIXTURE_EXTENSION = ".http";
+
+  private static final ConcurrentMap<File, HttpFixtureStore> loadedStores = new ConcurrentHashMap<>();
+
+  private final File directory;
+  private final ConcurrentMap<String, List<Fixture>> fixturesByRequest = new ConcurrentHashMap<>();
+  private volatile boolean recording;
+  private int recordedCount;
+
+  /**
+   * Loads the fixtures in a directory, reusing a store previously loaded for the same directory.
+   *
+   * @param directory The fixture directory
+   * @return The store
+   */
+  public static HttpFixtureStore load(File directory) throws IOException {
+    File key = directory.getCanonicalFile();
+    HttpFixtureStore store = loadedStores.get(key);
+    if (store == null) {
+      HttpFixtureStore newStore = new HttpFixtureStore(key);
+      store = loadedStores.putIfAbsent(key, newStore);
+      if (store == null) {
+        store = newStore;
+      }
+    }
+    return store;
+  }
+
+  public HttpFixtureStore(File directory) throws IOException {
+    this.directory = directory;
+
+    File[] files = directory.listFiles();
+    if (files == null) {
+      throw new IOException("Not a directory: " + directory);
+    }
+    Arrays.sort(files);
+
+    for (File file : files) {
+      if (file.isFile() && file.getName().endsWith(FIXTURE_EXTENSION)) {
+        addFixture(parse(file));
+      }
+    }
+  }
+
+  /**
+   * When recording, {@link ShadowDefaultRequestDirector} saves the exchanges it performs while the fake HTTP layer
+   * isn't intercepting requests to new files in the fixture directory.
+   *
+   * @param recording Whether to record real HTTP exchanges
+   */
+  public void setRecording(boolean recording) {
+    this.recording = recording;
+  }
+
+  public boolean isRecording() {
+    return recording;
+  }
+
+  public boolean hasResponse(HttpRequest request) {
+    return fixturesByRequest.containsKey(keyOf(request));
+  }
+
+  /**
+   * Returns a new response for the given occurrence of a request.
+   *
+   * @param request The request
+   * @param occurrence How many times the request was served before
+   * @return The response, or null if there is no fixture for the request
+   */
+  public HttpResponse getResponse(HttpRequest request, int occurrence) {
+    List<Fixture> fixtures = fixturesByRequest.get(keyOf(request));
+    if (fixtures == null) {
+      return null;
+    }
+    return fixtures.get(Math.min(occurrence, fixtures.size() - 1)).newResponse();
+  }
+
+  /**
+   * Writes an exchange to a new fixture file and makes it available for replay.
+   *
+   * @param request The request
+   * @param response The response; its entity is not read
+   * @param body The response body
+   */
+  public synchronized void record(HttpRequest request, HttpResponse response, byte[] body) throws IOException {
+    StringBuilder head = new StringBuilder();
+    head.append(request.getRequestLine().getMethod()).append(' ').append(request.getRequestLine().getUri()).append('\n');
+    appendHeaders(head, request.getAllHeaders());
+    head.append('\n');
+    head.append(response.getStatusLine().getProtocolVersion()).append(' ')
+        .append(response.getStatusLine().getStatusCode()).append(' ')
+        .append(response.getStatusLine().getReasonPhrase()).append('\n');
+    appendHeaders(head, response.getAllHeaders());
+    head.append('\n');
+
+    File file;
+    do {
+      file = new File(directory, String.format("%s-%05d%s", fileNameFor(request), recordedCount++, FIXTURE_EXTENSION));
+    } while (file.exists());
+
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+      out.write(body);
+    }
+    addFixture(parse(file));
+  }
+
+  private void addFixture(Fixture fixture) {
+    List<Fixture> fixtures = fixturesByRequest.get(fixture.requestKey);
+    List<Fixture> newFixtures = fixtures == null ? new ArrayList<Fixture>() : new ArrayList<>(fixtures);
+    newFixtures.add(fixture);
+    fixturesByRequest.put(fixture.requestKey, Collections.unmodifiableList(newFixtures));
+  }
+
+  static String keyOf(HttpRequest request) {
+    return request.getRequestLine().getMethod() + " " + request.getRequestLine().getUri();
+  }
+
+  private static void appendHeaders(StringBuilder builder, Header[] headers) {
+    for (Header header : headers) {
+      builder.append(header.getName()).append(": ").append(header.getValue()).append('\n');
+    }
+  }
+
+  private static String fileNameFor(HttpRequest request) {
+    String name = keyOf(request).replaceFirst("^(\\S+) \\w+://", "$1 ").replaceAll("[^A-Za-z0-9.-]+", "_");
+    return name.length() > 100 ? name.substring(0, 100) : name;
+  }
+
+  private static Fixture parse(File file) throws IOException {
+    ByteBuffer content;
+    try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+      content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    List<String> requestLines = readHeaderBlock(content);
+    List<String> responseLines = readHeaderBlock(content);
+    if (requestLines.isEmpty() || responseLines.isEmpty()) {
+      throw new IOException(file + ": expected a request and a response");
+    }
+
+    String[] requestLine = requestLines.get(0).split(" ", 2);
+    String[] statusLine = responseLines.get(0).split(" ", 3);
+    if (requestLine.length < 2 || statusLine.length < 2) {
+      throw new IOException(file + ": malformed request or status line");
+    }
+
+    int statusCode;
+    try {
+      statusCode = Integer.parseInt(statusLine[1]);
+    } catch (NumberFormatException e) {
+      throw new IOException(file + ": malformed status line '" + responseLines.get(0) + "'");
+    }
+
+    List<Header> headers = new ArrayList<>();
+    for (String line : responseLines.subList(1, responseLines.size())) {
+      int colon = line.indexOf(':');
+      if (colon < 0) {
+        throw new IOException(file + ": malformed header '" + line + "'");
+      }
+      headers.add(new BasicHeader(line.substring(0, colon).trim(), line.substring(colon + 1).trim()));
+    }
+
+    return new Fixture(requestLine[0] + " " + requestLine[1].trim(), statusCode,
+        headers.toArray(new Header[headers.size()]), content.slice());
+  }
+
+  /**
+   * Reads lines up to and including the next empty line, leaving the buffer positioned after it.
+   */
+  private static List<String> readHeaderBlock(ByteBuffer content) {
+    List<String> lines = new ArrayList<>();
+    while (content.hasRemaining()) {
+      int start = content.position();
+      int end = start;
+      while (end < content.limit() && content.get(end) != '\n') {
+        end++;
+      }
+      content.position(Math.min(end + 1, content.limit()));
+
+      int lineEnd = end > start && content.get(end - 1) == '\r' ? end - 1 : end;
+      byte[] line = new byte[lineEnd - start];
+      for (int i = 0; i < line.length; i++) {
+        line[i] = content.get(start + i);
+      }
+      if (line.length == 0) {
+        break;
+      }
+      lines.add(new String(line, StandardCharsets.UTF_8));
+    }
+    return lines;
+  }
+
+  private static class Fixture {
+    private final String requestKey;
+    private final int statusCode;
+    private final Header[] headers;
+    private final ByteBuffer body;
+
+    Fixture(String requestKey, int statusCode, Header[] headers, ByteBuffer body) {
+      this.requestKey = requestKey;
+      this.statusCode = statusCode;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    HttpResponse newResponse() {
+      return new TestHttpResponse(statusCode, body, headers.clone());
+    }
+  }
+}
@@ -16,12 +16,14 @@ import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.routing.HttpRoutePlanner;
 import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.impl.client.DefaultRequestDirector;
 import org.apache.http.params.HttpParams;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpProcessor;
 import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.util.EntityUtils;
 import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
@@ -173,6 +175,11 @@ public class ShadowDefaultRequestDirector {
         interceptResponseContent(response);
       }
 
+      HttpFixtureStore httpFixtureStore = FakeHttp.getFakeHttpLayer().getHttpFixtureStore();
+      if (httpFixtureStore != null && httpFixtureStore.isRecording()) {
+        recordResponse(httpFixtureStore, httpRequest, response);
+      }
+
       FakeHttp.getFakeHttpLayer().addHttpResponse(response);
       return response;
     }
@@ -235,6 +242,19 @@ public class ShadowDefaultRequestDirector {
     FakeHttp.reset();
   }
 
+  private void recordResponse(HttpFixtureStore httpFixtureStore, HttpRequest httpRequest, HttpResponse response) throws IOException {
+    HttpEntity entity = response.getEntity();
+    byte[] body = new byte[0];
+    if (entity != null) {
+      body = EntityUtils.toByteArray(entity);
+      ByteArrayEntity bufferedEntity = new ByteArrayEntity(body);
+      bufferedEntity.setContentType(entity.getContentType());
+      bufferedEntity.setContentEncoding(entity.getContentEncoding());
+      response.setEntity(bufferedEntity);
+    }
+    httpFixtureStore.record(httpRequest, response, body);
+  }
+
   private void interceptResponseContent(HttpResponse response) {
     HttpEntity entity = response.getEntity();
     if (entity instanceof HttpEntityWrapper) {
@@ -9,10 +9,16 @@ import org.apache.http.StatusLine;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpParams;
 
-import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.InvalidMarkException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -21,7 +27,7 @@ import java.util.NoSuchElementException;
 public class TestHttpResponse extends HttpResponseStub {
 
   private int statusCode;
-  private byte[] responseBody;
+  private ByteBuffer responseBody;
   private TestStatusLine statusLine = new TestStatusLine();
   private TestHttpEntity httpEntity = new TestHttpEntity();
   private int openEntityContentStreamCount = 0;
@@ -30,12 +36,12 @@ public class TestHttpResponse extends HttpResponseStub {
 
   public TestHttpResponse() {
     this.statusCode = 200;
-    this.responseBody = new byte[0];
+    this.responseBody = ByteBuffer.allocate(0);
   }
 
   public TestHttpResponse(int statusCode, String responseBody) {
     this.statusCode = statusCode;
-    this.responseBody = responseBody.getBytes();
+    this.responseBody = ByteBuffer.wrap(responseBody.getBytes());
   }
 
   public TestHttpResponse(int statusCode, String responseBody, Header... headers) {
@@ -44,12 +50,36 @@ public class TestHttpResponse extends HttpResponseStub {
 
   public TestHttpResponse(int statusCode, byte[] responseBody, Header... headers) {
     this.statusCode = statusCode;
-    this.responseBody = responseBody.clone();
+    this.responseBody = ByteBuffer.wrap(responseBody.clone());
     this.headers = headers;
   }
 
+  /**
+   * Creates a response whose body is the remaining content of the given buffer. The buffer is not copied, so large
+   * bodies can be shared between responses; it must not be modified while the response is in use.
+   */
+  public TestHttpResponse(int statusCode, ByteBuffer responseBody, Header... headers) {
+    this.statusCode = statusCode;
+    this.responseBody = responseBody.slice().asReadOnlyBuffer();
+    this.headers = headers;
+  }
+
+  /**
+   * Creates a response whose body is the content of the given file. The file is memory-mapped rather than read, so
+   * large bodies are only paged in as they are consumed.
+   */
+  public TestHttpResponse(int statusCode, File responseBody, Header... headers) throws IOException {
+    this(statusCode, map(responseBody), headers);
+  }
+
+  private static ByteBuffer map(File file) throws IOException {
+    try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
   protected void setResponseBody(String responseBody) {
-    this.responseBody = responseBody.getBytes();
+    this.responseBody = ByteBuffer.wrap(responseBody.getBytes());
   }
 
   @Override public StatusLine getStatusLine() {
@@ -185,10 +215,10 @@ public class TestHttpResponse extends HttpResponseStub {
 
   public class TestHttpEntity extends HttpEntityStub {
 
-    private ByteArrayInputStream inputStream;
+    private InputStream inputStream;
 
     @Override public long getContentLength() {
-      return responseBody.length;
+      return responseBody.remaining();
     }
 
     @Override public Header getContentType() {
@@ -209,7 +239,7 @@ public class TestHttpResponse extends HttpResponseStub {
 
     @Override public InputStream getContent() throws IOException, IllegalStateException {
       openEntityContentStreamCount++;
-      inputStream = new ByteArrayInputStream(responseBody) {
+      inputStream = new ByteBufferInputStream(responseBody.duplicate()) {
         @Override
         public void close() throws IOException {
           openEntityContentStreamCount--;
@@ -220,13 +250,71 @@ public class TestHttpResponse extends HttpResponseStub {
     }
 
     @Override public void writeTo(OutputStream outputStream) throws IOException {
-      outputStream.write(responseBody);
+      ByteBuffer content = responseBody.duplicate();
+      if (content.hasArray()) {
+        outputStream.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+      } else {
+        WritableByteChannel channel = Channels.newChannel(outputStream);
+        while (content.hasRemaining()) {
+          channel.write(content);
+        }
+      }
     }
 
     @Override public void consumeContent() throws IOException {
     }
   }
 
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override public long skip(long n) {
+      int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + count);
+      return count;
+    }
+
+    @Override public int available() {
+      return buffer.remaining();
+    }
+
+    @Override public boolean markSupported() {
+      return true;
+    }
+
+    @Override public synchronized void mark(int readLimit) {
+      buffer.mark();
+    }
+
+    @Override public synchronized void reset() throws IOException {
+      try {
+        buffer.reset();
+      } catch (InvalidMarkException e) {
+        throw new IOException("Resetting to invalid mark", e);
+      }
+    }
+  }
+
   public class TestStatusLine extends StatusLineStub {
     @Override public ProtocolVersion getProtocolVersion() {
       return new HttpVersion(1, 0);
@@ -1,6 +1,7 @@
 package org.robolectric.shadows.httpclient;
 
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
@@ -87,4 +88,45 @@ public class FakeHttpLayerTest {
     assertThat(requestMatcherBuilder.matches(noMatch)).isFalse();
     assertThat(requestMatcherBuilder.matches(match)).isTrue();
   }
+
+  @Test
+  public void emulateRequest_shouldUseMostRecentlyAddedMatchingRule() throws Exception {
+    FakeHttpLayer fakeHttpLayer = new FakeHttpLayer();
+    TestHttpResponse exactUriResponse = new TestHttpResponse(200, "exact uri");
+    TestHttpResponse anyUriResponse = new TestHttpResponse(200, "any uri");
+    TestHttpResponse exactMethodAndUriResponse = new TestHttpResponse(200, "exact method and uri");
+
+    fakeHttpLayer.addHttpResponseRule("http://example.com/a", exactUriResponse);
+    fakeHttpLayer.addHttpResponseRule(new RequestMatcher() {
+      @Override
+      public boolean matches(HttpRequest request) {
+        return true;
+      }
+    }, anyUriResponse);
+    fakeHttpLayer.addHttpResponseRule("POST", "http://example.com/a", exactMethodAndUriResponse);
+
+    assertThat(fakeHttpLayer.emulateRequest(null, new HttpPost("http://example.com/a"), null, null)).isSameAs(exactMethodAndUriResponse);
+    assertThat(fakeHttpLayer.emulateRequest(null, new HttpGet("http://example.com/a"), null, null)).isSameAs(anyUriResponse);
+    assertThat(fakeHttpLayer.emulateRequest(null, new HttpGet("http://example.com/b"), null, null)).isSameAs(anyUriResponse);
+
+    fakeHttpLayer.clearHttpResponseRules();
+    assertThat(fakeHttpLayer.hasResponseRules()).isFalse();
+    fakeHttpLayer.addHttpResponseRule("http://example.com/a", exactUriResponse);
+    assertThat(fakeHttpLayer.emulateRequest(null, new HttpGet("http://example.com/a"), null, null)).isSameAs(exactUriResponse);
+  }
+
+  @Test
+  public void setRequestHistoryLimit_shouldKeepMostRecentRequests() throws Exception {
+    FakeHttpLayer fakeHttpLayer = new FakeHttpLayer();
+    fakeHttpLayer.setDefaultHttpResponse(200, "OK");
+    fakeHttpLayer.setRequestHistoryLimit(2);
+
+    fakeHttpLayer.emulateRequest(null, new HttpGet("http://example.com/1"), null, null);
+    fakeHttpLayer.emulateRequest(null, new HttpGet("http://example.com/2"), null, null);
+    fakeHttpLayer.emulateRequest(null, new HttpGet("http://example.com/3"), null, null);
+
+    assertThat(fakeHttpLayer.getSentHttpRequestInfos()).hasSize(2);
+    assertThat(fakeHttpLayer.getSentHttpRequestInfo(0).getHttpRequest().getRequestLine().getUri()).isEqualTo("http://example.com/2");
+    assertThat(fakeHttpLayer.getHttpResponses()).hasSize(2);
+  }
 }
@@ -0,0 +1,109 @@
+package org.robolectric.shadows.httpclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.message.BasicHeader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.robolectric.util.Strings;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpFixtureStoreTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File directory;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = temporaryFolder.newFolder("fixtures");
+  }
+
+  @Test
+  public void getResponse_shouldServeFixtureForMethodAndUri() throws Exception {
+    writeFixture("users-1.http", "GET http://example.com/users/1\nAccept: application/json\n\n"
+        + "HTTP/1.1 200 OK\nContent-Type: application/json\n\n{\"id\": 1}");
+
+    HttpFixtureStore store = new HttpFixtureStore(directory);
+    HttpGet request = new HttpGet("http://example.com/users/1");
+
+    assertThat(store.hasResponse(request)).isTrue();
+    assertThat(store.hasResponse(new HttpPost("http://example.com/users/1"))).isFalse();
+    assertThat(store.hasResponse(new HttpGet("http://example.com/users/2"))).isFalse();
+
+    HttpResponse response = store.getResponse(request, 0);
+    assertThat(response.getStatusLine().getStatusCode()).isEqualTo(200);
+    assertThat(response.getFirstHeader("Content-Type").getValue()).isEqualTo("application/json");
+    assertThat(Strings.fromStream(response.getEntity().getContent())).isEqualTo("{\"id\": 1}");
+  }
+
+  @Test
+  public void getResponse_shouldServeFixturesInFileNameOrderAndRepeatTheLast() throws Exception {
+    writeFixture("poll-2.http", "GET http://example.com/poll\n\nHTTP/1.1 200 OK\n\ndone");
+    writeFixture("poll-1.http", "GET http://example.com/poll\r\n\r\nHTTP/1.1 202 Accepted\r\n\r\npending");
+
+    HttpFixtureStore store = new HttpFixtureStore(directory);
+    HttpGet request = new HttpGet("http://example.com/poll");
+
+    assertThat(store.getResponse(request, 0).getStatusLine().getStatusCode()).isEqualTo(202);
+    assertThat(Strings.fromStream(store.getResponse(request, 0).getEntity().getContent())).isEqualTo("pending");
+    assertThat(store.getResponse(request, 1).getStatusLine().getStatusCode()).isEqualTo(200);
+    assertThat(store.getResponse(request, 5).getStatusLine().getStatusCode()).isEqualTo(200);
+  }
+
+  @Test
+  public void shouldIgnoreFilesWithOtherExtensions() throws Exception {
+    writeFixture("README.txt", "not a fixture");
+
+    HttpFixtureStore store = new HttpFixtureStore(directory);
+    assertThat(store.getResponse(new HttpGet("http://example.com/"), 0)).isNull();
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectMalformedFixtures() throws Exception {
+    writeFixture("broken.http", "GET http://example.com/\n\nHTTP/1.1 OK\n\n");
+    new HttpFixtureStore(directory);
+  }
+
+  @Test
+  public void record_shouldWriteFixtureThatCanBeReplayed() throws Exception {
+    HttpFixtureStore store = new HttpFixtureStore(directory);
+    HttpPost request = new HttpPost("http://example.com/users?name=a%20b");
+    request.addHeader("Accept", "text/plain");
+
+    store.record(request, new TestHttpResponse(201, "", new BasicHeader("Location", "/users/2")),
+        "created".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(directory.list()).hasSize(1);
+    assertThat(directory.list()[0]).endsWith(HttpFixtureStore.FIXTURE_EXTENSION);
+
+    for (HttpFixtureStore replayingStore : new HttpFixtureStore[] {store, new HttpFixtureStore(directory)}) {
+      HttpResponse response = replayingStore.getResponse(request, 0);
+      assertThat(response.getStatusLine().getStatusCode()).isEqualTo(201);
+      assertThat(response.getFirstHeader("Location").getValue()).isEqualTo("/users/2");
+      assertThat(Strings.fromStream(response.getEntity().getContent())).isEqualTo("created");
+    }
+  }
+
+  @Test
+  public void load_shouldReuseStoreForSameDirectory() throws Exception {
+    HttpFixtureStore store = HttpFixtureStore.load(directory);
+    assertThat(HttpFixtureStore.load(new File(directory, "../fixtures"))).isSameAs(store);
+  }
+
+  private void writeFixture(String name, String content) throws IOException {
+    try (OutputStream out = new FileOutputStream(new File(directory, name))) {
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
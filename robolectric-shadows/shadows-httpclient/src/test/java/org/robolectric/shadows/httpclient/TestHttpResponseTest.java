@@ -5,9 +5,18 @@ import org.apache.http.HeaderIterator;
 import org.apache.http.HttpResponse;
 import org.apache.http.message.BasicHeader;
 import org.junit.Test;
+import org.robolectric.util.Strings;
 import org.robolectric.shadows.httpclient.TestHttpResponse;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 public class TestHttpResponseTest {
 
@@ -123,4 +132,53 @@ public class TestHttpResponseTest {
     assertThat(response.getHeaders("foo")[1].getValue()).isEqualTo("baz");
   }
 
+
+  @Test
+  public void shouldServeBodyFromByteBuffer() throws Exception {
+    ByteBuffer body = ByteBuffer.wrap("xxHello".getBytes());
+    body.position(2);
+
+    HttpResponse resp = new TestHttpResponse(200, body);
+
+    assertThat(resp.getEntity().getContentLength()).isEqualTo(5);
+    assertThat(Strings.fromStream(resp.getEntity().getContent())).isEqualTo("Hello");
+    assertThat(Strings.fromStream(resp.getEntity().getContent())).isEqualTo("Hello");
+  }
+
+  @Test
+  public void byteBufferContent_shouldSupportMarkAndReset() throws Exception {
+    InputStream content = new TestHttpResponse(200, ByteBuffer.wrap("Hello".getBytes())).getEntity().getContent();
+
+    try {
+      content.reset();
+      fail("expected IOException");
+    } catch (IOException expected) {
+    }
+
+    content.read();
+    content.mark(10);
+    content.read();
+    content.reset();
+    assertThat(Strings.fromStream(content)).isEqualTo("ello");
+  }
+
+  @Test
+  public void shouldServeBodyFromFile() throws Exception {
+    File file = File.createTempFile("response", ".json");
+    file.deleteOnExit();
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write("{\"hello\": true}".getBytes());
+    }
+
+    TestHttpResponse resp = new TestHttpResponse(200, file);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    resp.getEntity().writeTo(out);
+    assertThat(out.toString()).isEqualTo("{\"hello\": true}");
+
+    InputStream content = resp.getEntity().getContent();
+    assertThat(content.read()).isEqualTo('{');
+    content.close();
+    assertThat(resp.entityContentStreamsHaveBeenClosed()).isTrue();
+  }
 }
@@ -0,0 +1,135 @@
+package org.robolectric.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A list which keeps only the most recently added elements, for histories which tests may make very long.
+ *
+ * Elements are kept in a circular array, so that once the limit is reached each new element replaces the oldest in
+ * constant time, and removing the oldest element is constant time too.
+ *
+ * @param <E> The type of the elements.
+ */
+public class BoundedList<E> extends AbstractList<E> implements RandomAccess {
+  private Object[] elements = new Object[16];
+  private int head;
+  private int size;
+  private int limit = Integer.MAX_VALUE;
+
+  /**
+   * Sets the maximum number of elements to keep, dropping the oldest elements if there are more than that.
+   *
+   * @param limit The maximum number of elements to keep
+   */
+  public void setLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must not be negative: " + limit);
+    }
+    this.limit = limit;
+    while (size > limit) {
+      removeFirst();
+    }
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    checkIndex(index, size);
+    return (E) elements[slot(index)];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E set(int index, E element) {
+    checkIndex(index, size);
+    int slot = slot(index);
+    E previous = (E) elements[slot];
+    elements[slot] = element;
+    return previous;
+  }
+
+  /**
+   * Inserts an element. If the list is full, the oldest element is dropped to make room for it.
+   */
+  @Override
+  public void add(int index, E element) {
+    checkIndex(index, size + 1);
+    modCount++;
+    if (size == limit) {
+      if (index == 0) {
+        return;
+      }
+      removeFirst();
+      index--;
+    }
+    if (size == elements.length) {
+      Object[] newElements = new Object[size * 2];
+      for (int i = 0; i < size; i++) {
+        newElements[i] = elements[slot(i)];
+      }
+      elements = newElements;
+      head = 0;
+    }
+    for (int i = size; i > index; i--) {
+      elements[slot(i)] = elements[slot(i - 1)];
+    }
+    elements[slot(index)] = element;
+    size++;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E remove(int index) {
+    checkIndex(index, size);
+    if (index == 0) {
+      return removeFirst();
+    }
+    modCount++;
+    E removed = (E) elements[slot(index)];
+    for (int i = index; i < size - 1; i++) {
+      elements[slot(i)] = elements[slot(i + 1)];
+    }
+    elements[slot(size - 1)] = null;
+    size--;
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    modCount++;
+    Arrays.fill(elements, null);
+    head = 0;
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private E removeFirst() {
+    modCount++;
+    E removed = (E) elements[head];
+    elements[head] = null;
+    head = (head + 1) % elements.length;
+    size--;
+    return removed;
+  }
+
+  private int slot(int index) {
+    return (head + index) % elements.length;
+  }
+
+  private static void checkIndex(int index, int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
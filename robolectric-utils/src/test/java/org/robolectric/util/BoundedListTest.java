@@ -0,0 +1,84 @@
+package org.robolectric.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedListTest {
+  @Test
+  public void shouldKeepEverythingByDefault() throws Exception {
+    BoundedList<Integer> list = new BoundedList<>();
+    for (int i = 0; i < 100; i++) {
+      list.add(i);
+    }
+
+    assertThat(list).hasSize(100);
+    assertThat(list.get(0)).isEqualTo(0);
+    assertThat(list.get(99)).isEqualTo(99);
+  }
+
+  @Test
+  public void shouldDropOldestElementsWhenFull() throws Exception {
+    BoundedList<String> list = new BoundedList<>();
+    list.setLimit(2);
+    list.add("first");
+    list.add("second");
+    list.add("third");
+
+    assertThat(list).containsExactly("second", "third");
+  }
+
+  @Test
+  public void setLimit_shouldDropOldestElements() throws Exception {
+    BoundedList<String> list = new BoundedList<>();
+    list.addAll(asList("a", "b", "c", "d"));
+    list.setLimit(1);
+
+    assertThat(list).containsExactly("d");
+
+    list.setLimit(0);
+    list.add("e");
+    assertThat(list).isEmpty();
+  }
+
+  @Test
+  public void shouldBehaveLikeAListWhileWrappingAround() throws Exception {
+    BoundedList<Integer> list = new BoundedList<>();
+    List<Integer> expected = new ArrayList<>();
+    int limit = Integer.MAX_VALUE;
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      switch (random.nextInt(8)) {
+        case 0:
+          if (!expected.isEmpty()) {
+            int index = random.nextInt(expected.size());
+            assertThat(list.remove(index)).isEqualTo(expected.remove(index));
+          }
+          break;
+        case 1:
+          int index = random.nextInt(expected.size() + 1);
+          list.add(index, i);
+          expected.add(index, i);
+          break;
+        case 2:
+          if (random.nextInt(50) == 0) {
+            limit = random.nextInt(40);
+            list.setLimit(limit);
+          }
+          break;
+        default:
+          list.add(i);
+          expected.add(i);
+      }
+      while (expected.size() > limit) {
+        expected.remove(0);
+      }
+      assertThat(list).isEqualTo(expected);
+    }
+  }
+}
@@ -31,6 +31,7 @@ import org.robolectric.res.FsFile;
 import org.robolectric.res.PackageResourceTable;
 import org.robolectric.res.ResourceMerger;
 import org.robolectric.res.ResourcePath;
+import org.robolectric.res.ResourceStats;
 import org.robolectric.res.ResourceTable;
 import org.robolectric.res.ResourceTableFactory;
 import org.robolectric.res.RoutingResourceTable;
@@ -436,6 +437,20 @@ public class RobolectricTestRunner extends SandboxTestRunner {
 
   @Override
   protected void afterClass() {
+    if (ResourceStats.isEnabled()) {
+      try {
+        ResourceStats.dump(getTestClass().getName());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    if (ShadowResets.isRecording()) {
+      try {
+        ShadowResets.dump(getTestClass().getName());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
   }
 
   @Override
@@ -25,7 +25,7 @@ public class BuckManifestFactory implements ManifestFactory {
   public ManifestIdentifier identify(Config config) {
     String buckManifest = System.getProperty(BUCK_ROBOLECTRIC_MANIFEST);
     FsFile manifestFile = Fs.fileFromPath(buckManifest);
-    return new ManifestIdentifier(manifestFile, null, null, config.packageName(), null);
+    return new ManifestIdentifier(manifestFile, null, null, config.packageName(), null, RTxtFiles.find(null));
   }
 
   @Override
@@ -50,7 +50,7 @@ public class BuckManifestFactory implements ManifestFactory {
     Logger.debug("   Robolectric manifest path: " + manifestFile.getPath());
     Logger.debug("    Robolectric package name: " + packageName);
 
-    return new AndroidManifest(manifestFile, resDir, assetsDir, packageName) {
+    AndroidManifest appManifest = new AndroidManifest(manifestFile, resDir, assetsDir, packageName) {
         @Override
         public List<ResourcePath> getIncludedResourcePaths() {
             Collection<ResourcePath> resourcePaths = new LinkedHashSet<>(); // Needs stable ordering and no duplicates
@@ -69,6 +69,8 @@ public class BuckManifestFactory implements ManifestFactory {
             return new ArrayList<>(resourcePaths);
         }
     };
+    appManifest.setRTxtFile(manifestIdentifier.getRTxtFile());
+    return appManifest;
   }
 
   public static boolean isBuck() {
@@ -46,7 +46,10 @@ public class DefaultManifestFactory implements ManifestFactory {
       packageName = config.packageName();
     }
 
-    return new ManifestIdentifier(manifestFile, resourcesDir, assetsDir, packageName, libraryDirs);
+    String mergedRTxt = properties.getProperty("android_merged_r_txt");
+    FsFile rTxtFile = RTxtFiles.find(mergedRTxt == null ? null : Fs.fileFromPath(mergedRTxt));
+
+    return new ManifestIdentifier(manifestFile, resourcesDir, assetsDir, packageName, libraryDirs, rTxtFile);
   }
 
   private FsFile resolveFile(String manifestConfig) {
@@ -60,6 +63,8 @@ public class DefaultManifestFactory implements ManifestFactory {
 
   @Override
   public AndroidManifest create(ManifestIdentifier manifestIdentifier) {
-    return new AndroidManifest(manifestIdentifier.getManifestFile(), manifestIdentifier.getResDir(), manifestIdentifier.getAssetDir());
+    AndroidManifest appManifest = new AndroidManifest(manifestIdentifier.getManifestFile(), manifestIdentifier.getResDir(), manifestIdentifier.getAssetDir());
+    appManifest.setRTxtFile(manifestIdentifier.getRTxtFile());
+    return appManifest;
   }
 }
@@ -66,7 +66,9 @@ public class GradleManifestFactory implements ManifestFactory {
       manifest = FileFsFile.from(buildOutputDir, "bundles", flavor, abiSplit, type, manifestName);
     }
 
-    return new ManifestIdentifier(manifest, res, assets, packageName, null);
+    FsFile rTxt = RTxtFiles.find(FileFsFile.from(buildOutputDir, "symbols", flavor, type, "R.txt"));
+
+    return new ManifestIdentifier(manifest, res, assets, packageName, null, rTxt);
   }
 
   @Override
@@ -80,7 +82,9 @@ public class GradleManifestFactory implements ManifestFactory {
     Logger.debug("   Robolectric res directory: " + resDir.getPath());
     Logger.debug("   Robolectric manifest path: " + manifestFile.getPath());
     Logger.debug("    Robolectric package name: " + packageName);
-    return new AndroidManifest(manifestFile, resDir, assetDir, packageName);
+    AndroidManifest appManifest = new AndroidManifest(manifestFile, resDir, assetDir, packageName);
+    appManifest.setRTxtFile(manifestIdentifier.getRTxtFile());
+    return appManifest;
   }
 
   private static String getBuildOutputDir(Config config) {
@@ -10,14 +10,25 @@ public class ManifestIdentifier {
   private final FsFile assetDir;
   private final String packageName;
   private final List<FsFile> libraryDirs;
+  private final FsFile rTxtFile;
 
   public ManifestIdentifier(FsFile manifestFile, FsFile resDir, FsFile assetDir, String packageName,
                             List<FsFile> libraryDirs) {
+    this(manifestFile, resDir, assetDir, packageName, libraryDirs, null);
+  }
+
+  /**
+   * @param rTxtFile An aapt generated R.txt file holding the application's final resource ids, or null to read ids
+   *                 from the R class.
+   */
+  public ManifestIdentifier(FsFile manifestFile, FsFile resDir, FsFile assetDir, String packageName,
+                            List<FsFile> libraryDirs, FsFile rTxtFile) {
     this.manifestFile = manifestFile;
     this.resDir = resDir;
     this.assetDir = assetDir;
     this.packageName = packageName;
     this.libraryDirs = libraryDirs;
+    this.rTxtFile = rTxtFile;
   }
 
   public FsFile getManifestFile() {
@@ -40,6 +51,10 @@ public class ManifestIdentifier {
     return libraryDirs;
   }
 
+  public FsFile getRTxtFile() {
+    return rTxtFile;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -51,7 +66,8 @@ public class ManifestIdentifier {
     if (resDir != null ? !resDir.equals(that.resDir) : that.resDir != null) return false;
     if (assetDir != null ? !assetDir.equals(that.assetDir) : that.assetDir != null) return false;
     if (packageName != null ? !packageName.equals(that.packageName) : that.packageName != null) return false;
-    return libraryDirs != null ? libraryDirs.equals(that.libraryDirs) : that.libraryDirs == null;
+    if (libraryDirs != null ? !libraryDirs.equals(that.libraryDirs) : that.libraryDirs != null) return false;
+    return rTxtFile != null ? rTxtFile.equals(that.rTxtFile) : that.rTxtFile == null;
 
   }
 
@@ -62,6 +78,7 @@ public class ManifestIdentifier {
     result = 31 * result + (assetDir != null ? assetDir.hashCode() : 0);
     result = 31 * result + (packageName != null ? packageName.hashCode() : 0);
     result = 31 * result + (libraryDirs != null ? libraryDirs.hashCode() : 0);
+    result = 31 * result + (rTxtFile != null ? rTxtFile.hashCode() : 0);
     return result;
   }
 }
@@ -31,7 +31,7 @@ public class MavenManifestFactory implements ManifestFactory {
       }
     }
 
-    return new ManifestIdentifier(manifestFile, resDir, assetDir, config.packageName(), libraryDirs);
+    return new ManifestIdentifier(manifestFile, resDir, assetDir, config.packageName(), libraryDirs, RTxtFiles.find(null));
   }
 
   @Override
@@ -56,6 +56,7 @@ public class MavenManifestFactory implements ManifestFactory {
       Logger.debug("    Robolectric package name: " + packageName);
 
       appManifest = new AndroidManifest(manifestFile, resDir, assetDir, packageName);
+      appManifest.setRTxtFile(manifestIdentifier.getRTxtFile());
     }
 
     List<FsFile> libraryDirs = manifestIdentifier.getLibraryDirs();
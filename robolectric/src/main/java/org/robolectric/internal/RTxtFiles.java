@@ -0,0 +1,29 @@
+package org.robolectric.internal;
+
+import org.robolectric.res.Fs;
+import org.robolectric.res.FsFile;
+
+/**
+ * Locates the aapt generated R.txt file that holds an application's final resource ids.
+ */
+final class RTxtFiles {
+  /**
+   * System property naming the application's R.txt file. Overrides any file the manifest factory finds itself.
+   */
+  static final String R_TXT_PROPERTY = "robolectric.rTxt";
+
+  private RTxtFiles() {
+  }
+
+  /**
+   * @param candidate Where the build usually writes R.txt, or null if the build system has no such place
+   * @return The R.txt file named by {@value #R_TXT_PROPERTY}, else {@code candidate} if it exists, else null
+   */
+  static FsFile find(FsFile candidate) {
+    String rTxt = System.getProperty(R_TXT_PROPERTY);
+    if (rTxt != null && !rTxt.isEmpty()) {
+      return Fs.fileFromPath(rTxt);
+    }
+    return candidate != null && candidate.exists() ? candidate : null;
+  }
+}
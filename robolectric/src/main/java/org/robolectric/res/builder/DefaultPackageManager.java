@@ -60,11 +60,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.android.StubPackageManager;
 import org.robolectric.manifest.ActivityData;
@@ -90,7 +90,7 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
   private final Map<String, AndroidManifest> androidManifests = new LinkedHashMap<>();
   private final Map<String, PackageInfo> packageInfos = new LinkedHashMap<>();
   private final Map<String, PackageStats> packageStatsMap = new HashMap<>();
-  private final Map<Intent, List<ResolveInfo>> resolveInfoForIntent = new TreeMap<>(new IntentComparator());
+  private final Map<IntentKey, List<ResolveInfo>> resolveInfoForIntent = new HashMap<>();
   private final Map<ComponentName, ComponentState> componentList = new LinkedHashMap<>();
   private final Map<ComponentName, Drawable> drawableList = new LinkedHashMap<>();
   private final Map<String, Drawable> applicationIcons = new HashMap<>();
@@ -107,6 +107,11 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
   private ResourceTable appResourceTable;
   private Map<String, PermissionInfo> extraPermissions = new HashMap<>();
 
+  // Lazily built indexes, dropped whenever the packages or manifests they were built from change.
+  private Map<String, List<ImplicitActivity>> implicitActivitiesByAction;
+  private Map<String, ProviderInfo> providersByAuthority;
+  private Map<String, ProviderInfo[]> indexedProviders;
+
   @Override
   public PackageInstaller getPackageInstaller() {
     if (packageInstaller == null) {
@@ -365,22 +370,51 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
 
   @Override
   public ProviderInfo resolveContentProvider(String name, int flags) {
+    if (providersByAuthority == null || !isProviderIndexCurrent()) {
+      indexProviders();
+    }
+    return providersByAuthority.get(name);
+  }
+
+  /**
+   * {@link PackageInfo}s are mutable, so check that none of the packages had their providers replaced since the
+   * authority index was built.
+   */
+  private boolean isProviderIndexCurrent() {
+    if (indexedProviders.size() != packageInfos.size()) {
+      return false;
+    }
     for (PackageInfo packageInfo : packageInfos.values()) {
+      if (!indexedProviders.containsKey(packageInfo.packageName)
+          || indexedProviders.get(packageInfo.packageName) != packageInfo.providers) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void indexProviders() {
+    providersByAuthority = new HashMap<>();
+    indexedProviders = new HashMap<>();
+    for (PackageInfo packageInfo : packageInfos.values()) {
+      indexedProviders.put(packageInfo.packageName, packageInfo.providers);
       if (packageInfo.providers == null) continue;
 
       for (ProviderInfo providerInfo : packageInfo.providers) {
-        if (name.equals(providerInfo.authority)) { // todo: support multiple authorities
-          return providerInfo;
+        if (providerInfo.authority == null) continue;
+
+        for (String authority : providerInfo.authority.split(";")) {
+          if (!providersByAuthority.containsKey(authority)) {
+            providersByAuthority.put(authority, providerInfo);
+          }
         }
       }
     }
-
-    return null;
   }
 
   @Override
   public void addResolveInfoForIntent(Intent intent, List<ResolveInfo> info) {
-    resolveInfoForIntent.put(intent, info);
+    resolveInfoForIntent.put(new IntentKey(intent), info);
   }
 
   @Override
@@ -624,6 +658,7 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
     Preconditions.checkArgument(packageInfo.packageName.equals(packageStats.packageName));
 
     packageInfos.put(packageInfo.packageName, packageInfo);
+    providersByAuthority = null;
     packageStatsMap.put(packageInfo.packageName, packageStats);
     applicationEnabledSettingMap.put(packageInfo.packageName, PackageManager.COMPONENT_ENABLED_STATE_DEFAULT);
 
@@ -656,6 +691,7 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
   @Override
   public void addManifest(AndroidManifest androidManifest, int labelRes) {
     androidManifests.put(androidManifest.getPackageName(), androidManifest);
+    implicitActivitiesByAction = null;
 
     PackageInfo packageInfo = new PackageInfo();
     packageInfo.packageName = androidManifest.getPackageName();
@@ -774,6 +810,7 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
   @Override
   public void removePackage(String packageName) {
     packageInfos.remove(packageName);
+    providersByAuthority = null;
   }
 
   @Override
@@ -803,16 +840,17 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
   }
 
   private List<ResolveInfo> findOrCreateInfoList(Intent intent) {
-    List<ResolveInfo> infoList = resolveInfoForIntent.get(intent);
+    IntentKey intentKey = new IntentKey(intent);
+    List<ResolveInfo> infoList = resolveInfoForIntent.get(intentKey);
     if (infoList == null) {
       infoList = new ArrayList<>();
-      resolveInfoForIntent.put(intent, infoList);
+      resolveInfoForIntent.put(intentKey, infoList);
     }
     return infoList;
   }
 
   private List<ResolveInfo> queryIntent(Intent intent, int flags) {
-    List<ResolveInfo> result = resolveInfoForIntent.get(intent);
+    List<ResolveInfo> result = resolveInfoForIntent.get(new IntentKey(intent));
     if (result == null) {
       return Collections.emptyList();
     } else {
@@ -822,6 +860,40 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
 
   private List<ResolveInfo> queryImplicitIntent(Intent intent, int flags) {
     List<ResolveInfo> resolveInfoList = new ArrayList<>();
+    if (intent.getAction() == null) {
+      // an intent filter never matches an intent without an action
+      return resolveInfoList;
+    }
+
+    if (implicitActivitiesByAction == null) {
+      implicitActivitiesByAction = indexImplicitActivities();
+    }
+
+    List<ImplicitActivity> candidates = implicitActivitiesByAction.get(intent.getAction());
+    if (candidates == null) {
+      return resolveInfoList;
+    }
+
+    for (ImplicitActivity candidate : candidates) {
+      if (candidate.matches(intent)) {
+        ResolveInfo resolveInfo = new ResolveInfo();
+        resolveInfo.resolvePackageName = candidate.packageName;
+        resolveInfo.activityInfo = new ActivityInfo();
+        resolveInfo.activityInfo.targetActivity = candidate.activityName;
+
+        resolveInfoList.add(resolveInfo);
+      }
+    }
+
+    return resolveInfoList;
+  }
+
+  /**
+   * Indexes the activities of all manifests by the actions of their intent filters, keeping manifest and activity
+   * order within each action.
+   */
+  private Map<String, List<ImplicitActivity>> indexImplicitActivities() {
+    Map<String, List<ImplicitActivity>> index = new HashMap<>();
 
     for (Map.Entry<String, AndroidManifest> androidManifest : androidManifests.entrySet()) {
       String packageName = androidManifest.getKey();
@@ -834,77 +906,68 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
           activityName = activityData.getTargetActivityName();
         }
 
-        if (matchIntentFilter(activityData, intent)) {
-          ResolveInfo resolveInfo = new ResolveInfo();
-          resolveInfo.resolvePackageName = packageName;
-          resolveInfo.activityInfo = new ActivityInfo();
-          resolveInfo.activityInfo.targetActivity = activityName;
+        List<IntentFilter> intentFilters = new ArrayList<>();
+        Set<String> actions = new LinkedHashSet<>();
+        for (IntentFilterData intentFilterData : activityData.getIntentFilters()) {
+          intentFilters.add(toIntentFilter(intentFilterData));
+          actions.addAll(intentFilterData.getActions());
+        }
 
-          resolveInfoList.add(resolveInfo);
+        ImplicitActivity implicitActivity = new ImplicitActivity(packageName, activityName, intentFilters);
+        for (String action : actions) {
+          List<ImplicitActivity> activities = index.get(action);
+          if (activities == null) {
+            activities = new ArrayList<>();
+            index.put(action, activities);
+          }
+          activities.add(implicitActivity);
         }
       }
     }
 
-    return resolveInfoList;
+    return index;
   }
 
-  private boolean matchIntentFilter(ActivityData activityData, Intent intent) {
-    for (IntentFilterData intentFilterData : activityData.getIntentFilters()) {
-      List<String> actionList = intentFilterData.getActions();
-      List<String> categoryList = intentFilterData.getCategories();
-      IntentFilter intentFilter = new IntentFilter();
+  private static IntentFilter toIntentFilter(IntentFilterData intentFilterData) {
+    IntentFilter intentFilter = new IntentFilter();
 
-      for (String action : actionList) {
-        intentFilter.addAction(action);
-      }
-
-      for (String category : categoryList) {
-        intentFilter.addCategory(category);
-      }
+    for (String action : intentFilterData.getActions()) {
+      intentFilter.addAction(action);
+    }
 
-      for (String scheme : intentFilterData.getSchemes()) {
-        intentFilter.addDataScheme(scheme);
-      }
+    for (String category : intentFilterData.getCategories()) {
+      intentFilter.addCategory(category);
+    }
 
-      for (String mimeType : intentFilterData.getMimeTypes()) {
-        try {
-          intentFilter.addDataType(mimeType);
-        } catch (IntentFilter.MalformedMimeTypeException ex) {
-          throw new RuntimeException(ex);
-        }
-      }
+    for (String scheme : intentFilterData.getSchemes()) {
+      intentFilter.addDataScheme(scheme);
+    }
 
-      for (String path : intentFilterData.getPaths()) {
-        intentFilter.addDataPath(path, PatternMatcher.PATTERN_LITERAL);
+    for (String mimeType : intentFilterData.getMimeTypes()) {
+      try {
+        intentFilter.addDataType(mimeType);
+      } catch (IntentFilter.MalformedMimeTypeException ex) {
+        throw new RuntimeException(ex);
       }
+    }
 
-      for (String pathPattern : intentFilterData.getPathPatterns()) {
-        intentFilter.addDataPath(pathPattern, PatternMatcher.PATTERN_SIMPLE_GLOB);
-      }
+    for (String path : intentFilterData.getPaths()) {
+      intentFilter.addDataPath(path, PatternMatcher.PATTERN_LITERAL);
+    }
 
-      for (String pathPrefix : intentFilterData.getPathPrefixes()) {
-        intentFilter.addDataPath(pathPrefix, PatternMatcher.PATTERN_PREFIX);
-      }
+    for (String pathPattern : intentFilterData.getPathPatterns()) {
+      intentFilter.addDataPath(pathPattern, PatternMatcher.PATTERN_SIMPLE_GLOB);
+    }
 
-      for (IntentFilterData.DataAuthority authority : intentFilterData.getAuthorities()) {
-        intentFilter.addDataAuthority(authority.getHost(), authority.getPort());
-      }
+    for (String pathPrefix : intentFilterData.getPathPrefixes()) {
+      intentFilter.addDataPath(pathPrefix, PatternMatcher.PATTERN_PREFIX);
+    }
 
-      // match action
-      boolean matchActionResult = intentFilter.matchAction(intent.getAction());
-      // match category
-      String matchCategoriesResult = intentFilter.matchCategories(intent.getCategories());
-      // match data
-
-      int matchResult = intentFilter.matchData(intent.getType(),
-          (intent.getData() != null ? intent.getData().getScheme() : null),
-          intent.getData());
-      if (matchActionResult && (matchCategoriesResult == null) &&
-          (matchResult != IntentFilter.NO_MATCH_DATA && matchResult != IntentFilter.NO_MATCH_TYPE)){
-        return true;
-      }
+    for (IntentFilterData.DataAuthority authority : intentFilterData.getAuthorities()) {
+      intentFilter.addDataAuthority(authority.getHost(), authority.getPort());
     }
-    return false;
+
+    return intentFilter;
   }
 
   @Override
@@ -1099,6 +1162,84 @@ public class DefaultPackageManager extends StubPackageManager implements Robolec
     this.appResourceTable = appResourceTable;
   }
 
+  /**
+   * An activity declared in a manifest, with its intent filters converted once for implicit intent resolution.
+   */
+  private static class ImplicitActivity {
+    private final String packageName;
+    private final String activityName;
+    private final List<IntentFilter> intentFilters;
+
+    ImplicitActivity(String packageName, String activityName, List<IntentFilter> intentFilters) {
+      this.packageName = packageName;
+      this.activityName = activityName;
+      this.intentFilters = intentFilters;
+    }
+
+    boolean matches(Intent intent) {
+      for (IntentFilter intentFilter : intentFilters) {
+        // match action
+        boolean matchActionResult = intentFilter.matchAction(intent.getAction());
+        // match category
+        String matchCategoriesResult = intentFilter.matchCategories(intent.getCategories());
+        // match data
+
+        int matchResult = intentFilter.matchData(intent.getType(),
+            (intent.getData() != null ? intent.getData().getScheme() : null),
+            intent.getData());
+        if (matchActionResult && (matchCategoriesResult == null) &&
+            (matchResult != IntentFilter.NO_MATCH_DATA && matchResult != IntentFilter.NO_MATCH_TYPE)){
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Identifies intents registered with {@link #addResolveInfoForIntent(Intent, ResolveInfo)}: two intents are the same
+   * key when {@link IntentComparator} considers them equal. Intents are mutable, so the fields are copied.
+   */
+  private static class IntentKey {
+    private final String action;
+    private final Uri data;
+    private final ComponentName component;
+    private final String packageName;
+    private final Set<String> categories;
+    private final int hashCode;
+
+    IntentKey(Intent intent) {
+      action = intent.getAction();
+      data = intent.getData();
+      component = intent.getComponent();
+      packageName = intent.getPackage();
+      categories = intent.getCategories() == null ? null : new HashSet<>(intent.getCategories());
+      hashCode = Arrays.hashCode(new Object[] {action, data, component, packageName, categories});
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof IntentKey)) return false;
+      IntentKey that = (IntentKey) o;
+      return hashCode == that.hashCode
+          && equal(action, that.action)
+          && equal(data, that.data)
+          && equal(component, that.component)
+          && equal(packageName, that.packageName)
+          && equal(categories, that.categories);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    private static boolean equal(Object a, Object b) {
+      return a == null ? b == null : a.equals(b);
+    }
+  }
+
   public static class IntentComparator implements Comparator<Intent> {
 
     @Override
@@ -15,6 +15,9 @@ import org.robolectric.internal.ManifestFactory;
 import org.robolectric.internal.ManifestIdentifier;
 import org.robolectric.manifest.AndroidManifest;
 import org.robolectric.res.Fs;
+import org.robolectric.res.PackageResourceTable;
+import org.robolectric.res.ResName;
+import org.robolectric.res.ResourceMerger;
 import org.robolectric.res.ResourcePath;
 
 import java.util.ArrayList;
@@ -116,6 +119,43 @@ public class ManifestFactoryTest {
     assertThat(manifestIdentifier.getPackageName()).isEqualTo("another.package");
   }
 
+  @Test
+  public void whenBuildSystemApiPropertiesNameRTxt_shouldReadIdsFromIt() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("android_sdk_home", "");
+    properties.setProperty("android_merged_manifest", resourceFile("rtxt", "AndroidManifest.xml").getPath());
+    properties.setProperty("android_merged_resources", "/path/to/merged-resources");
+    properties.setProperty("android_merged_assets", "/path/to/merged-assets");
+    properties.setProperty("android_merged_r_txt", resourceFile("rtxt", "R.txt").getPath());
+
+    RobolectricTestRunner testRunner = new RobolectricTestRunner(ManifestFactoryTest.class) {
+      Properties getBuildSystemApiProperties() {
+        return properties;
+      }
+    };
+
+    AndroidManifest appManifest = testRunner.getAppManifest(Config.Builder.defaults().build());
+    assertThat(appManifest.getRTxtFile()).isEqualTo(resourceFile("rtxt", "R.txt"));
+    assertThat(appManifest.getResourcePath().getRTxtFile()).isEqualTo(resourceFile("rtxt", "R.txt"));
+  }
+
+  @Test
+  public void whenRTxtPropertyIsSet_shouldLoadAppResourceIdsFromIt() throws Exception {
+    System.setProperty("robolectric.rTxt", resourceFile("rtxt", "R.txt").getPath());
+    try {
+      Properties properties = new Properties();
+      properties.setProperty("manifest", resourceFile("rtxt", "AndroidManifest.xml").toString());
+      Config config = Config.Implementation.fromProperties(properties);
+      AndroidManifest appManifest = new RobolectricTestRunner(ManifestFactoryTest.class).getAppManifest(config);
+
+      PackageResourceTable resourceTable = ResourceMerger.buildResourceTable(appManifest);
+      assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:color/grey42"))).isEqualTo(0x7f020000);
+      assertThat(resourceTable.getResName(0x7f040000).getFullyQualifiedName()).isEqualTo("org.robolectric.rtxt:string/hello");
+    } finally {
+      System.clearProperty("robolectric.rTxt");
+    }
+  }
+
   private List<String> stringify(Collection<ResourcePath> resourcePaths) {
     List<String> resourcePathBases = new ArrayList<>();
     for (ResourcePath resourcePath : resourcePaths) {
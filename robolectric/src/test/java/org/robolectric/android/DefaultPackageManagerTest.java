@@ -280,6 +280,34 @@ public class DefaultPackageManagerTest {
     assertThat(rpm.resolveActivity(i, 0)).isNull();
   }
 
+  @Test
+  public void resolveActivity_shouldMatchEquivalentIntent() throws Exception {
+    Intent i = new Intent(Intent.ACTION_MAIN, null).addCategory(Intent.CATEGORY_LAUNCHER).addCategory(Intent.CATEGORY_DEFAULT);
+    ResolveInfo info = new ResolveInfo();
+    rpm.addResolveInfoForIntent(i, info);
+
+    Intent equivalent = new Intent(Intent.ACTION_MAIN, null).addCategory(Intent.CATEGORY_DEFAULT).addCategory(Intent.CATEGORY_LAUNCHER);
+    assertThat(rpm.resolveActivity(equivalent, 0)).isSameAs(info);
+    assertThat(rpm.resolveActivity(new Intent(Intent.ACTION_MAIN, null), 0)).isNull();
+  }
+
+  @Test
+  public void resolveContentProvider_shouldResolveEachOfMultipleAuthorities() throws Exception {
+    ProviderInfo providerInfo = new ProviderInfo();
+    providerInfo.authority = "org.robolectric.authority1;org.robolectric.authority2";
+    PackageInfo packageInfo = new PackageInfo();
+    packageInfo.packageName = TEST_PACKAGE_NAME;
+    packageInfo.providers = new ProviderInfo[] {providerInfo};
+    rpm.addPackage(packageInfo);
+
+    assertThat(packageManager.resolveContentProvider("org.robolectric.authority1", 0)).isSameAs(providerInfo);
+    assertThat(packageManager.resolveContentProvider("org.robolectric.authority2", 0)).isSameAs(providerInfo);
+    assertThat(packageManager.resolveContentProvider("org.robolectric.authority3", 0)).isNull();
+
+    rpm.removePackage(TEST_PACKAGE_NAME);
+    assertThat(packageManager.resolveContentProvider("org.robolectric.authority1", 0)).isNull();
+  }
+
   @Test
   public void queryIntentServices_EmptyResult() throws Exception {
     Intent i = new Intent(Intent.ACTION_MAIN, null);
@@ -0,0 +1,89 @@
+package org.robolectric.fakes;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistentHashMapTest {
+  @Test
+  public void plusAndMinus_shouldLeaveOriginalUnchanged() {
+    PersistentHashMap<String, Integer> original = PersistentHashMap.<String, Integer>empty().plus("a", 1).plus("b", 2);
+
+    PersistentHashMap<String, Integer> changed = original.plus("a", 10).minus("b").plus("c", 3);
+
+    assertThat(original).isEqualTo(mapOf("a", 1, "b", 2));
+    assertThat(changed).isEqualTo(mapOf("a", 10, "c", 3));
+  }
+
+  @Test
+  public void plusAndMinus_shouldReturnSameMapWhenNothingChanges() {
+    Integer one = 1;
+    PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty().plus("a", one);
+
+    assertThat(map.plus("a", one)).isSameAs(map);
+    assertThat(map.minus("b")).isSameAs(map);
+  }
+
+  @Test
+  public void shouldBehaveLikeHashMap() {
+    Map<Object, Integer> expected = new HashMap<>();
+    PersistentHashMap<Object, Integer> map = PersistentHashMap.empty();
+    for (int i = 0; i < 5000; i++) {
+      Object key = i % 7 == 0 ? new CollidingKey(i) : "key" + i;
+      expected.put(key, i);
+      map = map.plus(key, i);
+      if (i % 3 == 0) {
+        Object removed = i % 2 == 0 ? new CollidingKey(i / 2) : "key" + (i / 2);
+        expected.remove(removed);
+        map = map.minus(removed);
+      }
+    }
+    expected.put(null, -1);
+    map = map.plus(null, -1);
+
+    assertThat(map).isEqualTo(expected);
+    assertThat(map.size()).isEqualTo(expected.size());
+    assertThat(map.entrySet()).hasSize(expected.size());
+    for (Object key : expected.keySet()) {
+      assertThat(map.containsKey(key)).isTrue();
+    }
+    assertThat(map.containsKey("missing")).isFalse();
+  }
+
+  @Test
+  public void copyOf_shouldReuseExistingPersistentMaps() {
+    PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty().plus("a", 1);
+    Map<String, Integer> hashMap = new HashMap<>(map);
+
+    assertThat(PersistentHashMap.copyOf(map)).isSameAs(map);
+    assertThat(PersistentHashMap.copyOf(hashMap)).isEqualTo(hashMap);
+  }
+
+  private static Map<String, Integer> mapOf(String key1, int value1, String key2, int value2) {
+    Map<String, Integer> map = new HashMap<>();
+    map.put(key1, value1);
+    map.put(key2, value2);
+    return map;
+  }
+
+  private static class CollidingKey {
+    private final int id;
+
+    CollidingKey(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id % 3;
+    }
+  }
+}
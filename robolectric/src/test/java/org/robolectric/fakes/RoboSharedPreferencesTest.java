@@ -2,10 +2,15 @@ package org.robolectric.fakes;
 
 import android.content.SharedPreferences;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.robolectric.TestRunners;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -19,6 +24,9 @@ import static org.junit.Assert.assertTrue;
 
 @RunWith(TestRunners.SelfTest.class)
 public class RoboSharedPreferencesTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   protected final static String FILENAME = "filename";
   private HashMap<String, Map<String, Object>> content;
   private SharedPreferences.Editor editor;
@@ -148,6 +156,24 @@ public class RoboSharedPreferencesTest {
     assertThat(sharedPreferences.getStringSet("deleteMe", null)).isNull();
   }
 
+  @Test
+  public void content_shouldBeModifiableAfterCommit() throws Exception {
+    editor.commit();
+    Map<String, ?> all = sharedPreferences.getAll();
+
+    content.get(FILENAME).put("seeded", "value");
+    content.get(FILENAME).remove("int");
+
+    assertThat(sharedPreferences.getString("seeded", null)).isEqualTo("value");
+    assertFalse(sharedPreferences.contains("int"));
+    assertThat(all.containsKey("seeded")).isFalse();
+    assertThat(all.containsKey("int")).isTrue();
+
+    sharedPreferences.edit().putLong("long", 4L).commit();
+    assertThat(sharedPreferences.getString("seeded", null)).isEqualTo("value");
+    assertThat(content.get(FILENAME).get("long")).isEqualTo(4L);
+  }
+
   @Test
   public void apply_shouldStoreValues() throws Exception {
     editor.apply();
@@ -156,6 +182,63 @@ public class RoboSharedPreferencesTest {
     assertThat(anotherSharedPreferences.getString("string", "wacka wa")).isEqualTo("foobar");
   }
 
+  @Test
+  public void getAll_shouldNotSeeLaterCommits() throws Exception {
+    editor.commit();
+    Map<String, ?> all = sharedPreferences.getAll();
+
+    sharedPreferences.edit().putString("string", "changed").remove("int").commit();
+
+    assertThat(all.get("string")).isEqualTo("foobar");
+    assertThat(all.get("int")).isEqualTo(2);
+    assertThat(sharedPreferences.getString("string", null)).isEqualTo("changed");
+    assertFalse(sharedPreferences.contains("int"));
+  }
+
+  @Test
+  public void getAll_shouldReturnMapThatCanBeModifiedWithoutChangingPreferences() throws Exception {
+    editor.commit();
+    Map<String, Object> all = (Map<String, Object>) sharedPreferences.getAll();
+
+    all.put("string", "changed");
+    all.remove("int");
+
+    assertThat(all.get("string")).isEqualTo("changed");
+    assertThat(all.containsKey("int")).isFalse();
+    assertThat(sharedPreferences.getString("string", null)).isEqualTo("foobar");
+    assertThat(sharedPreferences.getInt("int", 666)).isEqualTo(2);
+  }
+
+  @Test
+  public void commit_withFile_shouldPersistValuesForOtherContent() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), "shared_prefs/" + FILENAME + ".prefs");
+    RoboSharedPreferences persisted = new RoboSharedPreferences(content, FILENAME, 3, file);
+    persisted.edit().putString("string", "persisted").putStringSet("stringSet", stringSet).putLong("long", 4l).commit();
+    persisted.edit().remove("long").commit();
+
+    RoboSharedPreferences reloaded =
+        new RoboSharedPreferences(new HashMap<String, Map<String, Object>>(), FILENAME, 3, file);
+    assertThat(reloaded.getString("string", null)).isEqualTo("persisted");
+    assertThat(reloaded.getStringSet("stringSet", null)).isEqualTo(stringSet);
+    assertFalse(reloaded.contains("long"));
+  }
+
+  @Test
+  public void withFile_shouldShareFilesWithTheSameContent() throws Exception {
+    File file = temporaryFolder.newFile("prefs");
+    new RoboSharedPreferences(content, FILENAME, 3, file).edit().putInt("int", 5).commit();
+    File copy = temporaryFolder.newFile("copy");
+    Files.copy(file.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+    RoboSharedPreferences first =
+        new RoboSharedPreferences(new HashMap<String, Map<String, Object>>(), FILENAME, 3, file);
+    RoboSharedPreferences second =
+        new RoboSharedPreferences(new HashMap<String, Map<String, Object>>(), FILENAME, 3, copy);
+    assertThat(((RoboSharedPreferences.PreferencesMap) second.content.get(FILENAME)).snapshot)
+        .isSameAs(((RoboSharedPreferences.PreferencesMap) first.content.get(FILENAME)).snapshot);
+    assertThat(second.getInt("int", 666)).isEqualTo(5);
+  }
+
   @Test
   public void shouldReturnDefaultValues() throws Exception {
     RoboSharedPreferences anotherSharedPreferences = new RoboSharedPreferences(content, "bazBang", 3);
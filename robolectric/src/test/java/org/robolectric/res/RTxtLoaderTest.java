@@ -0,0 +1,41 @@
+package org.robolectric.res;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.robolectric.util.TestUtil.resourceFile;
+
+@RunWith(JUnit4.class)
+public class RTxtLoaderTest {
+
+  @Test
+  public void shouldLoadResourceIdsFromRTxt() throws Exception {
+    PackageResourceTable resourceTable = ResourceTableFactory.newResourceTable("org.robolectric.rtxt",
+        new ResourcePath(null, null, null, null, resourceFile("rtxt", "R.txt")));
+
+    assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:attr/itemType"))).isEqualTo(0x7f010000);
+    assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:color/grey42"))).isEqualTo(0x7f020000);
+    assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:id/burritos"))).isEqualTo(0x7f030000);
+    assertThat(resourceTable.getResName(0x7f040000).getFullyQualifiedName()).isEqualTo("org.robolectric.rtxt:string/hello");
+  }
+
+  @Test
+  public void shouldNotAddStyleablesAsResources() throws Exception {
+    PackageResourceTable resourceTable = new PackageResourceTable("org.robolectric.rtxt");
+    new RTxtLoader(resourceFile("rtxt", "R.txt")).loadTo(resourceTable);
+
+    assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:styleable/CustomView"))).isEqualTo(0);
+    assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:styleable/CustomView_itemType"))).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldAddAttributesOnlyReferencedFromStyleablesWhenRequested() throws Exception {
+    PackageResourceTable resourceTable = new PackageResourceTable("org.robolectric.rtxt");
+    new RTxtLoader(resourceFile("rtxt", "R.txt")).loadTo(resourceTable, true);
+
+    assertThat(resourceTable.getResName(0x7f010000).getFullyQualifiedName()).isEqualTo("org.robolectric.rtxt:attr/itemType");
+    assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:attr/missing_attr"))).isEqualTo(0x7f010002);
+  }
+}
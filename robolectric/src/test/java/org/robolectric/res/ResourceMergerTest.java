@@ -0,0 +1,69 @@
+package org.robolectric.res;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.robolectric.manifest.AndroidManifest;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.robolectric.util.TestUtil.resourceFile;
+
+@RunWith(JUnit4.class)
+public class ResourceMergerTest {
+
+  @Test
+  public void whenAppHasRTxt_shouldBuildResourceTableWithoutReadingRClass() throws Exception {
+    AndroidManifest appManifest = manifestWithRClass(resourceFile("rtxt", "AndroidManifest.xml"), UnreadableRClass.class);
+    appManifest.setRTxtFile(resourceFile("rtxt", "R.txt"));
+
+    PackageResourceTable resourceTable = ResourceMerger.buildResourceTable(appManifest);
+
+    assertThat(resourceTable.getResourceId(new ResName("org.robolectric.rtxt:color/grey42"))).isEqualTo(0x7f020000);
+    assertThat(resourceTable.getResName(0x7f040000).getFullyQualifiedName()).isEqualTo("org.robolectric.rtxt:string/hello");
+  }
+
+  @Test
+  public void whenAppHasRTxt_shouldRemapLibraryRClassesToItsIds() throws Exception {
+    AndroidManifest appManifest = manifestWithRClass(resourceFile("rtxt", "AndroidManifest.xml"), UnreadableRClass.class);
+    appManifest.setRTxtFile(resourceFile("rtxt", "R.txt"));
+    appManifest.setLibraryManifests(Collections.singletonList(manifestWithRClass(null, LibraryRClass.class)));
+
+    ResourceMerger.buildResourceTable(appManifest);
+
+    assertThat(LibraryRClass.color.grey42).isEqualTo(0x7f020000);
+    assertThat(LibraryRClass.string.hello).isEqualTo(0x7f040000);
+  }
+
+  private static AndroidManifest manifestWithRClass(FsFile androidManifestFile, final Class<?> rClass) {
+    return new AndroidManifest(androidManifestFile, null, null, "org.robolectric.rtxt") {
+      @Override
+      public Class getRClass() {
+        return rClass;
+      }
+    };
+  }
+
+  public static final class UnreadableRClass {
+    public static final class color {
+      static {
+        if (true) {
+          throw new AssertionError("the R class shouldn't be read when an R.txt file is available");
+        }
+      }
+
+      public static int grey42 = 0x7f010001;
+    }
+  }
+
+  public static final class LibraryRClass {
+    public static final class color {
+      public static int grey42 = 0x7f010001;
+    }
+
+    public static final class string {
+      public static int hello = 0x7f010002;
+    }
+  }
+}
@@ -5,6 +5,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.File;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @RunWith(JUnit4.class)
@@ -48,4 +50,43 @@ public class ResourceTableTest {
     resourceTable.addResource(0x02999999, "type", "name");
     resourceTable.addResource(0x02999999, "type", "anotherName");
   }
+
+  @Test
+  public void getValue_shouldPickValueForRequestedQualifiers() {
+    resourceTable.addResource(0x02999999, "string", "greeting");
+    resourceTable.addResource("string", "greeting", stringValue("hello", "values"));
+    resourceTable.addResource("string", "greeting", stringValue("bonjour", "values-fr"));
+
+    assertThat(resourceTable.getValue(0x02999999, "").getData()).isEqualTo("hello");
+    assertThat(resourceTable.getValue(0x02999999, "fr").getData()).isEqualTo("bonjour");
+    assertThat(resourceTable.getValue(0x02999999, "").getData()).isEqualTo("hello");
+  }
+
+  @Test
+  public void getValue_shouldSeeResourcesAddedAfterLookup() {
+    ResName resName = new ResName("myPackage", "string", "greeting");
+    assertThat(resourceTable.getValue(resName, "")).isNull();
+
+    resourceTable.addResource("string", "greeting", stringValue("hello", "values"));
+
+    assertThat(resourceTable.getValue(resName, "").getData()).isEqualTo("hello");
+  }
+
+  @Test
+  public void routingResourceTable_shouldDispatchByPackageIdentifier() {
+    resourceTable.addResource(0x02999999, "string", "greeting");
+    PackageResourceTable otherResourceTable = ResourceTableFactory.newResourceTable("otherPackage");
+    otherResourceTable.addResource(0x03999999, "string", "greeting");
+
+    RoutingResourceTable routingResourceTable = new RoutingResourceTable(resourceTable, otherResourceTable);
+
+    assertThat(routingResourceTable.getResName(0x02999999)).isEqualTo(new ResName("myPackage", "string", "greeting"));
+    assertThat(routingResourceTable.getResName(0x03999999)).isEqualTo(new ResName("otherPackage", "string", "greeting"));
+    assertThat(routingResourceTable.getResName(0x04999999)).isNull();
+  }
+
+  private static TypedResource<String> stringValue(String value, String valuesDir) {
+    XmlContext xmlContext = new XmlContext("myPackage", Fs.newFile(new File("res/" + valuesDir + "/strings.xml")));
+    return new TypedResource<>(value, ResType.CHAR_SEQUENCE, xmlContext);
+  }
 }
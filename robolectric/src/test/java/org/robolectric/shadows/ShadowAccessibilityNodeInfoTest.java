@@ -11,6 +11,9 @@ import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.accessibility.AccessibilityWindowInfo;
 import android.view.accessibility.AccessibilityNodeInfo.AccessibilityAction;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,6 +41,41 @@ public class ShadowAccessibilityNodeInfoTest {
     assertThat(ShadowAccessibilityNodeInfo.areThereUnrecycledNodes(false)).isEqualTo(true);
   }
 
+  @Test
+  public void shouldTrackEqualNodesSeparately() {
+    AccessibilityNodeInfo copy = AccessibilityNodeInfo.obtain(node);
+    assertThat(copy).isEqualTo(node);
+
+    copy.recycle();
+    assertThat(ShadowAccessibilityNodeInfo.areThereUnrecycledNodes(false)).isEqualTo(true);
+
+    node.recycle();
+    assertThat(ShadowAccessibilityNodeInfo.areThereUnrecycledNodes(false)).isEqualTo(false);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldNotRecycleNodeTwice() {
+    node.recycle();
+    node.recycle();
+  }
+
+  @Test
+  public void shouldReportLeaksWithStackTracesEnabled() {
+    node.recycle();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    PrintStream originalErr = System.err;
+    ShadowAccessibilityNodeInfo.setObtainStackTracesEnabled(true);
+    try {
+      AccessibilityNodeInfo.obtain();
+      System.setErr(new PrintStream(err, true));
+      assertThat(ShadowAccessibilityNodeInfo.areThereUnrecycledNodes(true)).isEqualTo(true);
+    } finally {
+      System.setErr(originalErr);
+      ShadowAccessibilityNodeInfo.reset();
+    }
+    assertThat(err.toString()).contains("Stack trace:").contains("shouldReportLeaksWithStackTracesEnabled");
+  }
+
   @Test
   public void shouldHaveZeroBounds() {
     Rect outBounds = new Rect();
@@ -439,6 +439,48 @@ public class ShadowApplicationTest {
     assertEquals(broadcastIntent, broadcastIntents.get(0));
   }
 
+  @Test
+  public void broadcasts_shouldKeepOnlyTheMostRecentWhenHistoryIsLimited() {
+    ShadowApplication shadowApplication = shadowOf(RuntimeEnvironment.application);
+    shadowApplication.setBroadcastIntentHistoryLimit(2);
+
+    Intent second = new Intent("second");
+    Intent third = new Intent("third");
+    RuntimeEnvironment.application.sendBroadcast(new Intent("first"));
+    RuntimeEnvironment.application.sendBroadcast(second);
+    RuntimeEnvironment.application.sendBroadcast(third);
+
+    assertThat(shadowApplication.getBroadcastIntents()).containsExactly(second, third);
+  }
+
+  @Test
+  public void unregisterReceiver_shouldStopMatchingItsActions() throws Exception {
+    BroadcastReceiver receiver = new TestBroadcastReceiver();
+    BroadcastReceiver otherReceiver = new TestBroadcastReceiver();
+    ShadowApplication shadowApplication = shadowOf(RuntimeEnvironment.application);
+    IntentFilter filter = new IntentFilter("Foo");
+    filter.addAction("Bar");
+    RuntimeEnvironment.application.registerReceiver(receiver, filter);
+    RuntimeEnvironment.application.registerReceiver(otherReceiver, new IntentFilter("Foo"));
+
+    RuntimeEnvironment.application.unregisterReceiver(receiver);
+
+    assertThat(shadowApplication.getReceiversForIntent(new Intent("Foo"))).containsExactly(otherReceiver);
+    assertFalse(shadowApplication.hasReceiverForIntent(new Intent("Bar")));
+  }
+
+  @Test
+  public void getRegisteredReceivers_removingAReceiverShouldUnregisterIt() throws Exception {
+    BroadcastReceiver receiver = new TestBroadcastReceiver();
+    ShadowApplication shadowApplication = shadowOf(RuntimeEnvironment.application);
+    RuntimeEnvironment.application.registerReceiver(receiver, new IntentFilter("Foo"));
+
+    shadowApplication.getRegisteredReceivers().clear();
+
+    assertThat(shadowApplication.getRegisteredReceivers()).isEmpty();
+    assertFalse(shadowApplication.hasReceiverForIntent(new Intent("Foo")));
+  }
+
   @Test
   public void shouldRememberResourcesAfterLazilyLoading() throws Exception {
     assertSame(RuntimeEnvironment.application.getResources(), RuntimeEnvironment.application.getResources());
@@ -216,6 +216,25 @@ public class ShadowBitmapFactoryTest {
     assertEquals(107, bitmap.getHeight());
   }
 
+  @Test
+  public void decodeStream_shouldGetWidthAndHeightFromActualPngAndGif() throws Exception {
+    Bitmap png = BitmapFactory.decodeStream(getClass().getClassLoader().getResourceAsStream("res/drawable/an_image.png"));
+    assertEquals(64, png.getWidth());
+    assertEquals(53, png.getHeight());
+
+    Bitmap gif = BitmapFactory.decodeStream(getClass().getClassLoader().getResourceAsStream("res/drawable/an_other_image.gif"));
+    assertEquals(32, gif.getWidth());
+    assertEquals(18, gif.getHeight());
+  }
+
+  @Test
+  public void decodeStream_shouldUseDefaultSizeForUnknownImageFormat() throws Exception {
+    InputStream inputStream = getClass().getClassLoader().getResourceAsStream("res/drawable/text_file_posing_as_image.png");
+    Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
+    assertEquals(100, bitmap.getWidth());
+    assertEquals(100, bitmap.getHeight());
+  }
+
   @Test
   public void decodeByteArray_shouldSetDataChecksum() throws Exception {
     byte[] data = {23, -125, 0, 52, 23, 18, 76, 43};
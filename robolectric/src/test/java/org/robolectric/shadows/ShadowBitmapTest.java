@@ -16,6 +16,10 @@ import org.robolectric.TestRunners;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadow.api.Shadow;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
@@ -183,6 +187,44 @@ public class ShadowBitmapTest {
     assertThat(shadowOf(bitmapCopy).isMutable()).isTrue();
   }
 
+  @Test
+  public void copy_shouldHaveSamePixelsUntilEitherBitmapIsWritten() {
+    Bitmap bitmap = Bitmap.createBitmap(3, 2, Bitmap.Config.ARGB_8888);
+    bitmap.setPixel(1, 1, Color.RED);
+
+    Bitmap bitmapCopy = bitmap.copy(Bitmap.Config.ARGB_8888, true);
+    assertThat(bitmapCopy.getWidth()).isEqualTo(3);
+    assertThat(bitmapCopy.getHeight()).isEqualTo(2);
+    assertThat(bitmapCopy.getPixel(1, 1)).isEqualTo(Color.RED);
+
+    bitmapCopy.setPixel(1, 1, Color.BLUE);
+    bitmap.setPixel(0, 0, Color.GREEN);
+    assertThat(bitmap.getPixel(1, 1)).isEqualTo(Color.RED);
+    assertThat(bitmap.getPixel(0, 0)).isEqualTo(Color.GREEN);
+    assertThat(bitmapCopy.getPixel(1, 1)).isEqualTo(Color.BLUE);
+    assertThat(bitmapCopy.getPixel(0, 0)).isEqualTo(0);
+  }
+
+  @Test
+  public void getPixels_shouldCopyRegionWithStride() {
+    Bitmap bitmap = Bitmap.createBitmap(new int[] {
+        1, 2, 3,
+        4, 5, 6,
+        7, 8, 9}, 3, 3, Bitmap.Config.ARGB_8888);
+
+    int[] pixels = new int[7];
+    bitmap.getPixels(pixels, 1, 3, 1, 1, 2, 2);
+    assertThat(pixels).containsExactly(0, 5, 6, 0, 8, 9, 0);
+  }
+
+  @Test
+  public void getPixels_shouldReturnZerosForUnwrittenBitmap() {
+    Bitmap bitmap = Bitmap.createBitmap(2, 2, Bitmap.Config.ARGB_8888);
+    int[] pixels = {1, 1, 1, 1, 1};
+    bitmap.getPixels(pixels, 1, 2, 0, 0, 2, 2);
+    assertThat(pixels).containsExactly(1, 0, 0, 0, 0);
+  }
+
   @Test(expected = NullPointerException.class)
   public void rowBytesIsAccurate() {
     Bitmap b1 = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
@@ -387,6 +429,24 @@ public class ShadowBitmapTest {
     assertThat(Arrays.equals(pixelsOriginal, pixelsReconstructed)).isTrue();
   }
 
+  @Test
+  public void shouldWritePixelsToParcelAndReconstruct() {
+    Bitmap bitmapOriginal = Bitmap.createBitmap(2, 2, Bitmap.Config.ARGB_8888);
+    bitmapOriginal.setPixel(0, 0, 0xff00ff00);
+    bitmapOriginal.setPixel(1, 0, 0x8000ffff);
+    bitmapOriginal.setPixel(1, 1, 0xffffffff);
+
+    Parcel parcel = Parcel.obtain();
+    bitmapOriginal.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+    Bitmap bitmapReconstructed = Bitmap.CREATOR.createFromParcel(parcel);
+
+    assertThat(bitmapReconstructed.getPixel(0, 0)).isEqualTo(0xff00ff00);
+    assertThat(bitmapReconstructed.getPixel(1, 0)).isEqualTo(0x8000ffff);
+    assertThat(bitmapReconstructed.getPixel(0, 1)).isEqualTo(0);
+    assertThat(bitmapReconstructed.getPixel(1, 1)).isEqualTo(0xffffffff);
+  }
+
   @Test
   public void shouldCopyPixelsToBufferAndReconstruct() {
     int width = 10;
@@ -498,6 +558,51 @@ public class ShadowBitmapTest {
     bitmapOriginal.copyPixelsFromBuffer(buffer);
   }
 
+  @Test
+  public void rendering_shouldScaleAndCopyPixels() throws Exception {
+    ShadowBitmap.setRenderingEnabled(true);
+    try {
+      Bitmap original = Bitmap.createBitmap(2, 2, Bitmap.Config.ARGB_8888);
+      original.setPixel(0, 0, Color.RED);
+      original.setPixel(1, 1, Color.BLUE);
+
+      Bitmap scaled = Bitmap.createScaledBitmap(original, 4, 4, false);
+      assertThat(scaled.getPixel(1, 1)).isEqualTo(Color.RED);
+      assertThat(scaled.getPixel(3, 3)).isEqualTo(Color.BLUE);
+      assertThat(scaled.getPixel(3, 0)).isEqualTo(0);
+
+      Bitmap copy = original.copy(Bitmap.Config.ARGB_8888, true);
+      copy.setPixel(0, 0, Color.GREEN);
+      assertThat(copy.getPixel(1, 1)).isEqualTo(Color.BLUE);
+      assertThat(original.getPixel(0, 0)).isEqualTo(Color.RED);
+
+      Bitmap region = Bitmap.createBitmap(original, 1, 1, 1, 1);
+      assertThat(region.getPixel(0, 0)).isEqualTo(Color.BLUE);
+    } finally {
+      ShadowBitmap.setRenderingEnabled(false);
+    }
+  }
+
+  @Test
+  public void rendering_shouldCompressPixelsAsPng() throws Exception {
+    ShadowBitmap.setRenderingEnabled(true);
+    try {
+      Bitmap bitmap = Bitmap.createBitmap(3, 2, Bitmap.Config.ARGB_8888);
+      bitmap.eraseColor(Color.YELLOW);
+      bitmap.setPixel(2, 1, Color.BLUE);
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertThat(bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)).isTrue();
+
+      BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+      assertThat(image.getWidth()).isEqualTo(3);
+      assertThat(image.getRGB(0, 0)).isEqualTo(Color.YELLOW);
+      assertThat(image.getRGB(2, 1)).isEqualTo(Color.BLUE);
+    } finally {
+      ShadowBitmap.setRenderingEnabled(false);
+    }
+  }
+
   private static Bitmap create(String name, int width, int height) {
     Bitmap bitmap = Shadow.newInstanceOf(Bitmap.class);
     shadowOf(bitmap).appendDescription(name);
@@ -6,6 +6,8 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
 import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
@@ -365,4 +367,147 @@ public class ShadowCanvasTest {
     assertThat(shadowCanvas.getDrawnRect(1).rect).isEqualTo(rect1);
     assertThat(shadowCanvas.getDrawnRect(1).paint.getColor()).isEqualTo(Color.BLACK);
   }
+
+  @Test
+  public void drawLine_shouldReuseRecordedPaintUntilItChanges() throws Exception {
+    Canvas canvas = new Canvas();
+    Paint paint = new Paint();
+    paint.setColor(Color.RED);
+
+    canvas.drawLine(0f, 0f, 1f, 1f, paint);
+    canvas.drawLine(1f, 1f, 2f, 2f, paint);
+    paint.setColor(Color.BLUE);
+    canvas.drawLine(2f, 2f, 3f, 3f, paint);
+    ShadowCanvas shadowCanvas = shadowOf(canvas);
+
+    assertThat(shadowCanvas.getDrawnLine(0).paint).isNotSameAs(paint);
+    assertThat(shadowCanvas.getDrawnLine(1).paint).isSameAs(shadowCanvas.getDrawnLine(0).paint);
+    assertThat(shadowCanvas.getDrawnLine(1).paint.getColor()).isEqualTo(Color.RED);
+    assertThat(shadowCanvas.getDrawnLine(2).paint.getColor()).isEqualTo(Color.BLUE);
+  }
+
+  @Test
+  public void description_shouldKeepDrawingOperationsInOrderWithAppendedDescriptions() throws Exception {
+    Canvas canvas = new Canvas(targetBitmap);
+    shadowOf(canvas).appendDescription("background:");
+    canvas.drawColor(Color.TRANSPARENT);
+    canvas.drawCircle(1, 2, 3, new Paint());
+    shadowOf(canvas).appendDescription(";");
+    canvas.drawBitmap(imageBitmap, 1, 2, new Paint());
+
+    assertEquals("background:draw color 0;\nBitmap for file:/an/image.jpg at (1,2)", ShadowBitmap.visualize(targetBitmap));
+  }
+
+  @Test
+  public void setMaxRecordedOps_shouldDiscardOldestOperationsButKeepTheirDescription() throws Exception {
+    ShadowCanvas.setMaxRecordedOps(4);
+    try {
+      Canvas canvas = new Canvas(targetBitmap);
+      canvas.drawColor(Color.TRANSPARENT);
+      for (int i = 0; i < 10; i++) {
+        canvas.drawRect(i, i, i + 1, i + 1, new Paint());
+      }
+      ShadowCanvas shadowCanvas = shadowOf(canvas);
+
+      assertThat(shadowCanvas.getRectPaintHistoryCount()).isLessThanOrEqualTo(4);
+      assertThat(shadowCanvas.getLastDrawnRect().left).isEqualTo(9f);
+      assertEquals("draw color 0", shadowCanvas.getDescription());
+    } finally {
+      ShadowCanvas.reset();
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getDrawnCircle_shouldThrowForMissingEvent() throws Exception {
+    Canvas canvas = new Canvas();
+    canvas.drawCircle(1, 2, 3, new Paint());
+    shadowOf(canvas).getDrawnCircle(1);
+  }
+
+  @Test
+  public void rendering_shouldDrawIntoBitmapPixels() throws Exception {
+    ShadowBitmap.setRenderingEnabled(true);
+    try {
+      Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+      Canvas canvas = new Canvas(bitmap);
+      Paint paint = new Paint();
+      paint.setColor(Color.RED);
+
+      canvas.drawRect(2, 2, 5, 5, paint);
+
+      assertThat(bitmap.getPixel(2, 2)).isEqualTo(Color.RED);
+      assertThat(bitmap.getPixel(4, 4)).isEqualTo(Color.RED);
+      assertThat(bitmap.getPixel(5, 5)).isEqualTo(0);
+      assertThat(shadowOf(canvas).getRectPaintHistoryCount()).isEqualTo(1);
+    } finally {
+      ShadowBitmap.setRenderingEnabled(false);
+    }
+  }
+
+  @Test
+  public void rendering_shouldHonorTransformationsAndSaveStack() throws Exception {
+    ShadowBitmap.setRenderingEnabled(true);
+    try {
+      Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+      Canvas canvas = new Canvas(bitmap);
+      Paint red = new Paint();
+      red.setColor(Color.RED);
+      Paint blue = new Paint();
+      blue.setColor(Color.BLUE);
+
+      int saveCount = canvas.save();
+      canvas.translate(5, 0);
+      canvas.clipRect(0, 0, 2, 2);
+      canvas.drawRect(0, 0, 4, 1, red);
+      canvas.restoreToCount(saveCount);
+      canvas.drawRect(0, 0, 1, 1, blue);
+
+      assertThat(bitmap.getPixel(0, 0)).isEqualTo(Color.BLUE);
+      assertThat(bitmap.getPixel(6, 0)).isEqualTo(Color.RED);
+      assertThat(bitmap.getPixel(7, 0)).isEqualTo(0);
+      assertThat(canvas.getSaveCount()).isEqualTo(1);
+    } finally {
+      ShadowBitmap.setRenderingEnabled(false);
+    }
+  }
+
+  @Test
+  public void rendering_shouldApplyColorFilterWhenDrawingBitmaps() throws Exception {
+    ShadowBitmap.setRenderingEnabled(true);
+    try {
+      Bitmap source = Bitmap.createBitmap(2, 2, Bitmap.Config.ARGB_8888);
+      source.setPixel(0, 0, Color.WHITE);
+      Bitmap bitmap = Bitmap.createBitmap(4, 4, Bitmap.Config.ARGB_8888);
+      Paint paint = new Paint();
+      paint.setColorFilter(new PorterDuffColorFilter(Color.GREEN, PorterDuff.Mode.SRC_IN));
+
+      new Canvas(bitmap).drawBitmap(source, 2, 2, paint);
+
+      assertThat(bitmap.getPixel(2, 2)).isEqualTo(Color.GREEN);
+      assertThat(bitmap.getPixel(3, 3)).isEqualTo(0);
+      assertThat(bitmap.getPixel(0, 0)).isEqualTo(0);
+    } finally {
+      ShadowBitmap.setRenderingEnabled(false);
+    }
+  }
+
+  @Test
+  public void rendering_shouldApplyPaintAlphaWhenDrawingBitmaps() throws Exception {
+    ShadowBitmap.setRenderingEnabled(true);
+    try {
+      Bitmap source = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+      source.setPixel(0, 0, Color.WHITE);
+      Bitmap bitmap = Bitmap.createBitmap(2, 2, Bitmap.Config.ARGB_8888);
+      Paint paint = new Paint();
+      paint.setAlpha(0x80);
+
+      new Canvas(bitmap).drawBitmap(source, 0, 0, paint);
+
+      assertThat(Color.alpha(bitmap.getPixel(0, 0))).isEqualTo(0x80);
+      assertThat(bitmap.getPixel(0, 0) & 0xffffff).isEqualTo(0xffffff);
+      assertThat(bitmap.getPixel(1, 1)).isEqualTo(0);
+    } finally {
+      ShadowBitmap.setRenderingEnabled(false);
+    }
+  }
 }
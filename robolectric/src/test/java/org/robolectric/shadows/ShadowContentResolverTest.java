@@ -709,6 +709,40 @@ public class ShadowContentResolverTest {
     assertThat(co2.changed).isFalse();
   }
 
+  @Test
+  public void notifyChange_shouldNotifyDescendantsAndAncestorsInterestedInDescendants() throws Exception {
+    TestContentObserver ancestor = new TestContentObserver(null);
+    TestContentObserver ancestorNotInterested = new TestContentObserver(null);
+    TestContentObserver descendant = new TestContentObserver(null);
+    TestContentObserver sibling = new TestContentObserver(null);
+
+    contentResolver.registerContentObserver(EXTERNAL_CONTENT_URI, true, ancestor);
+    contentResolver.registerContentObserver(EXTERNAL_CONTENT_URI, false, ancestorNotInterested);
+    contentResolver.registerContentObserver(Uri.withAppendedPath(uri21, "thumbnail"), false, descendant);
+    contentResolver.registerContentObserver(uri22, true, sibling);
+
+    contentResolver.notifyChange(uri21, null);
+    assertThat(ancestor.changed).isTrue();
+    assertThat(ancestorNotInterested.changed).isFalse();
+    assertThat(descendant.changed).isTrue();
+    assertThat(sibling.changed).isFalse();
+  }
+
+  @Test
+  public void setHistoryCapacity_shouldKeepOnlyMostRecentStatements() throws Exception {
+    ShadowContentResolver.setHistoryCapacity(2);
+    for (int i = 0; i < 5; i++) {
+      contentResolver.insert(Uri.withAppendedPath(uri21, String.valueOf(i)), new ContentValues());
+      contentResolver.delete(Uri.withAppendedPath(uri22, String.valueOf(i)), null, null);
+    }
+
+    assertThat(shadowContentResolver.getInsertStatements()).hasSize(2);
+    assertThat(shadowContentResolver.getInsertStatements().get(0).getUri()).isEqualTo(Uri.withAppendedPath(uri21, "3"));
+    assertThat(shadowContentResolver.getInsertStatements().get(1).getUri()).isEqualTo(Uri.withAppendedPath(uri21, "4"));
+    assertThat(shadowContentResolver.getDeletedUris()).containsExactly(
+        Uri.withAppendedPath(uri22, "3"), Uri.withAppendedPath(uri22, "4"));
+  }
+
   @Test
   public void getProvider_shouldCreateProviderFromManifest() {
     AndroidManifest manifest = ShadowApplication.getInstance().getAppManifest();
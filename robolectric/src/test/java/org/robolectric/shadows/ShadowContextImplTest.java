@@ -6,6 +6,7 @@ import android.bluetooth.BluetoothManager;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentSender;
+import android.content.SharedPreferences;
 import android.view.LayoutInflater;
 import android.widget.FrameLayout;
 import android.widget.RemoteViews;
@@ -114,5 +115,22 @@ public class ShadowContextImplTest {
     RemoteViews remoteViews = new RemoteViews(RuntimeEnvironment.application.getPackageName(), R.layout.remote_views);
     remoteViews.apply(RuntimeEnvironment.application, new FrameLayout(RuntimeEnvironment.application));
   }
-}
 
+  @Test
+  public void getSharedPreferences_whenPersistenceIsEnabled_shouldLoadCommittedPreferencesInAnotherContext() throws Exception {
+    ShadowContextImpl.setSharedPreferencesPersistenceEnabled(true);
+    try {
+      Context otherContext = context.createPackageContext(context.getPackageName(), 0);
+      assertThat(context.getSharedPreferences("persisted", Context.MODE_PRIVATE).edit()
+          .putString("string", "value")
+          .putInt("int", 42)
+          .commit()).isTrue();
+
+      SharedPreferences otherPreferences = otherContext.getSharedPreferences("persisted", Context.MODE_PRIVATE);
+      assertThat(otherPreferences.getString("string", null)).isEqualTo("value");
+      assertThat(otherPreferences.getInt("int", 0)).isEqualTo(42);
+    } finally {
+      ShadowContextImpl.setSharedPreferencesPersistenceEnabled(false);
+    }
+  }
+}
@@ -198,6 +198,91 @@ public class ShadowLogTest {
     }
   }
 
+  @Test
+  public void shouldKeepOnlyMostRecentLogsWhenCapacityIsSet() throws Exception {
+    ShadowLog.setLogCapacity(2);
+
+    Log.d("tag1", "1");
+    Log.d("tag2", "2");
+    Log.d("tag1", "3");
+    Log.d("tag1", "4");
+
+    assertThat(ShadowLog.getLogs()).extracting("msg").containsExactly("3", "4");
+    assertThat(ShadowLog.getLogsForTag("tag1")).extracting("msg").containsExactly("3", "4");
+    assertThat(ShadowLog.getLogsForTag("tag2")).extracting("msg").containsExactly("2");
+  }
+
+  @Test
+  public void getLogs_shouldNotIncludeLaterLogs() throws Exception {
+    Log.d("tag", "1");
+    List<LogItem> logs = ShadowLog.getLogs();
+    List<LogItem> logsForTag = ShadowLog.getLogsForTag("tag");
+    Log.d("tag", "2");
+
+    assertThat(logs).extracting("msg").containsExactly("1");
+    assertThat(logsForTag).extracting("msg").containsExactly("1");
+  }
+
+  @Test
+  public void getLogs_shouldLeaveOutLogsReplacedByNewerOnes() throws Exception {
+    ShadowLog.setLogCapacity(2);
+    Log.d("tag", "1");
+    Log.d("tag", "2");
+    List<LogItem> logs = ShadowLog.getLogs();
+    Log.d("tag", "3");
+
+    assertThat(logs).hasSize(1);
+    assertThat(logs.get(0).msg).isEqualTo("2");
+    assertThat(logs).extracting("msg").containsExactly("2");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void getLogs_shouldBeReadOnly() throws Exception {
+    ShadowLog.getLogs().add(new LogItem(Log.DEBUG, "tag", "msg", null));
+  }
+
+  @Test
+  public void reset_shouldTurnOffAsyncStreamOutput() throws Exception {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    PrintStream old = ShadowLog.stream;
+    try {
+      ShadowLog.setAsyncStreamOutput(true);
+      ShadowLog.reset();
+
+      ShadowLog.stream = new PrintStream(bos);
+      Log.d("tag", "msg");
+      assertThat(new String(bos.toByteArray())).isEqualTo("D/tag: msg" + System.getProperty("line.separator"));
+    } finally {
+      ShadowLog.stream = old;
+    }
+  }
+
+  @Test
+  public void shouldNotRecordLogsBelowRecordedLevel() throws Exception {
+    ShadowLog.setRecordedLevel("chatty", Log.WARN);
+
+    Log.d("chatty", "1");
+    Log.w("chatty", "2");
+    Log.d("other", "3");
+
+    assertThat(ShadowLog.getLogs()).extracting("msg").containsExactly("2", "3");
+    assertTrue(Log.isLoggable("chatty", Log.INFO));
+  }
+
+  @Test
+  public void shouldQueryLogsByTagLevelAndTime() throws Exception {
+    long start = System.currentTimeMillis();
+    Log.d("tag1", "1");
+    Log.e("tag1", "2");
+    Log.e("tag2", "3");
+    long end = System.currentTimeMillis();
+
+    assertThat(ShadowLog.getLogs(Log.ERROR, start, end)).extracting("msg").containsExactly("2", "3");
+    assertThat(ShadowLog.getLogsForTag("tag1", Log.ERROR, start, end)).extracting("msg").containsExactly("2");
+    assertThat(ShadowLog.getLogsForTag("tag1", Log.VERBOSE, end + 1, Long.MAX_VALUE)).isEmpty();
+    assertThat(ShadowLog.getLogsForTag("tag3", Log.VERBOSE, start, end)).isEmpty();
+  }
+
   @Test
   public void infoIsDefaultLoggableLevel() throws Exception {
     PrintStream old = ShadowLog.stream;
@@ -108,6 +108,22 @@ public class ShadowMatrixTest {
     assertThat(shadow.getSetOperations()).isEmpty();
   }
 
+  @Test
+  public void concatOperationsRecordTheOtherMatrixAsItWas() {
+    final Matrix other = new Matrix();
+    other.setTranslate(16, 23);
+    final String description = other.toString();
+
+    final Matrix matrix = new Matrix();
+    matrix.preConcat(other);
+    matrix.postConcat(other);
+    other.setScale(4, 8);
+
+    final ShadowMatrix shadow = shadowOf(matrix);
+    assertThat(shadow.getPreOperations()).containsExactly("matrix " + description);
+    assertThat(shadow.getPostOperations()).containsExactly("matrix " + description);
+  }
+
   @Test
   public void testIsIdentity() {
     final Matrix matrix = new Matrix();
@@ -1,13 +1,19 @@
 package org.robolectric.shadows;
 
+import android.graphics.Matrix;
 import android.graphics.Path;
+import android.graphics.RectF;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.TestRunners;
+import org.robolectric.annotation.Config;
 import org.robolectric.shadow.api.Shadow;
 
 import java.util.List;
 
+import static android.os.Build.VERSION_CODES.KITKAT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.robolectric.Shadows.shadowOf;
@@ -77,4 +83,93 @@ public class ShadowPathTest {
     assertEquals(shadowOf(path).getWasMovedTo(), shadowOf(copiedPath).getWasMovedTo());
     assertEquals(shadowOf(path).getQuadDescription(), shadowOf(copiedPath).getQuadDescription());
   }
+
+  @Test
+  public void computeBounds_shouldIncludeCurvesAndArcs() throws Exception {
+    Path path = new Path();
+    path.moveTo(10, 10);
+    path.quadTo(20, 0, 30, 10);
+    path.addCircle(50, 50, 10, Path.Direction.CW);
+
+    RectF bounds = new RectF();
+    path.computeBounds(bounds, true);
+    assertBounds(bounds, 10, 0, 60, 60);
+  }
+
+  @Test
+  public void contains_shouldTestThePointAgainstTheFilledArea() throws Exception {
+    Path path = new Path();
+    path.addRoundRect(new RectF(0, 0, 100, 50), 10, 10, Path.Direction.CW);
+
+    ShadowPath shadowPath = shadowOf(path);
+    assertThat(shadowPath.contains(50, 25)).isTrue();
+    assertThat(shadowPath.contains(4, 4)).isTrue();
+    assertThat(shadowPath.contains(1, 1)).isFalse();
+    assertThat(shadowPath.contains(101, 25)).isFalse();
+  }
+
+  @Test
+  public void contains_shouldRespectTheFillType() throws Exception {
+    Path path = new Path();
+    path.addRect(0, 0, 10, 10, Path.Direction.CW);
+    path.addRect(2, 2, 8, 8, Path.Direction.CW);
+    assertThat(shadowOf(path).contains(5, 5)).isTrue();
+
+    path.setFillType(Path.FillType.EVEN_ODD);
+    assertThat(shadowOf(path).contains(5, 5)).isFalse();
+    assertThat(shadowOf(path).contains(1, 1)).isTrue();
+
+    path.toggleInverseFillType();
+    assertThat(path.isInverseFillType()).isTrue();
+    assertThat(shadowOf(path).contains(20, 20)).isTrue();
+  }
+
+  @Test
+  public void approximate_shouldReturnFractionsAlongThePath() throws Exception {
+    Path path = new Path();
+    path.moveTo(0, 0);
+    path.lineTo(3, 4);
+    path.lineTo(3, 14);
+
+    assertArrayEquals(new float[] {0, 0, 0, 1f / 3, 3, 4, 1, 3, 14}, path.approximate(0.5f), 0.0001f);
+  }
+
+  @Test
+  public void offsetAndTransform_shouldMoveEveryPoint() throws Exception {
+    Path path = new Path();
+    path.moveTo(1, 2);
+    path.lineTo(3, 4);
+    path.offset(10, 20);
+
+    Matrix matrix = new Matrix();
+    matrix.setScale(2, 2);
+    Path scaled = new Path();
+    path.transform(matrix, scaled);
+
+    assertEquals(new ShadowPath.Point(13, 24, LINE_TO), shadowOf(path).getPoints().get(1));
+    assertEquals(new ShadowPath.Point(22, 44, MOVE_TO), shadowOf(scaled).getPoints().get(0));
+    assertEquals(new ShadowPath.Point(26, 48, LINE_TO), shadowOf(scaled).getPoints().get(1));
+  }
+
+  @Test
+  @Config(minSdk = KITKAT)
+  public void op_shouldCombineTheFilledAreas() throws Exception {
+    Path path = new Path();
+    path.addRect(0, 0, 10, 10, Path.Direction.CW);
+    Path other = new Path();
+    other.addRect(5, 0, 15, 10, Path.Direction.CW);
+
+    assertThat(path.op(other, Path.Op.DIFFERENCE)).isTrue();
+
+    RectF bounds = new RectF();
+    path.computeBounds(bounds, true);
+    assertBounds(bounds, 0, 0, 5, 10);
+    assertThat(shadowOf(path).contains(2, 5)).isTrue();
+    assertThat(shadowOf(path).contains(7, 5)).isFalse();
+  }
+
+  private static void assertBounds(RectF bounds, float left, float top, float right, float bottom) {
+    assertArrayEquals(new float[] {left, top, right, bottom},
+        new float[] {bounds.left, bounds.top, bounds.right, bounds.bottom}, 0.0001f);
+  }
 }
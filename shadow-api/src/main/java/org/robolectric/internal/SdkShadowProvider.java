@@ -0,0 +1,29 @@
+package org.robolectric.internal;
+
+import java.util.Map;
+
+/**
+ * A {@link ShadowProvider} that knows at compile time which API levels each of its shadows applies to. Providers
+ * generated by the Robolectric annotation processor implement this.
+ */
+public interface SdkShadowProvider extends ShadowProvider {
+
+  /**
+   * Return the mapping of class name to shadow name, leaving out shadows that don't apply to the given API level.
+   *
+   * @param apiLevel The API level of the sandbox.
+   * @return  Shadow mapping.
+   */
+  Map<String, String> getShadowMap(int apiLevel);
+
+  /**
+   * Return the public methods of each shadow class, keyed by the shadow's binary name, so that shadow methods can be
+   * found without reflecting over the shadow classes. Each value lists the methods the way
+   * {@link Class#getMethod(String, Class[])} would find them, separated by commas, as
+   * {@code name(parameterDescriptors) minSdk maxSdk [declaringClass]}; the declaring class is left out when it's the
+   * shadow class itself. Methods declared on {@link Object} are never listed.
+   *
+   * @return  Shadow methods.
+   */
+  Map<String, String> getShadowMethods();
+}
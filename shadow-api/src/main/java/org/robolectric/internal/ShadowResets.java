@@ -0,0 +1,154 @@
+package org.robolectric.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which shadows need their static state reset between tests, and keeps track of what resetting them costs.
+ *
+ * A shadow's static state can only have changed once the shadow class, or the class it shadows, has been loaded by
+ * the sandbox running the test, so resetters of shadows that haven't been loaded yet are skipped. Class loaders tell
+ * which classes they have loaded by implementing {@link LoadedClasses}; with any other class loader every resetter
+ * runs.
+ *
+ * Setting the <code>robolectric.logResets.dir</code> system property to a directory records how often each resetter
+ * ran or was skipped and how long it took; <code>RobolectricTestRunner</code> then writes a report for each test class
+ * into that directory. See {@link #getReport()}.
+ */
+public class ShadowResets {
+  public static final String OUTPUT_DIR_PROPERTY = "robolectric.logResets.dir";
+
+  private static final File outputDir;
+  private static final boolean recording;
+  private static final Map<String, Counter> counters = new HashMap<>();
+
+  static {
+    String dir = System.getProperty(OUTPUT_DIR_PROPERTY);
+    outputDir = dir == null || dir.isEmpty() ? null : new File(dir);
+    recording = outputDir != null;
+  }
+
+  /**
+   * Implemented by class loaders that can tell whether they have loaded a class, without loading it.
+   */
+  public interface LoadedClasses {
+    boolean isLoaded(String className);
+  }
+
+  private final LoadedClasses loadedClasses;
+  private String currentShadow;
+  private long startNanos;
+
+  private ShadowResets(LoadedClasses loadedClasses) {
+    this.loadedClasses = loadedClasses;
+  }
+
+  public static ShadowResets forClassLoader(ClassLoader classLoader) {
+    return new ShadowResets(classLoader instanceof LoadedClasses ? (LoadedClasses) classLoader : null);
+  }
+
+  /**
+   * Called by generated {@link ShadowProvider#reset()} methods before calling a shadow's resetter.
+   *
+   * @param shadowClassName The binary name of the shadow class.
+   * @param shadowedClassName The binary name of the class it shadows, or null if it isn't known.
+   * @return true if the resetter should be called, in which case {@link #end()} must be called after it.
+   */
+  public boolean begin(String shadowClassName, String shadowedClassName) {
+    boolean dirty = loadedClasses == null
+        || loadedClasses.isLoaded(shadowClassName)
+        || shadowedClassName != null && loadedClasses.isLoaded(shadowedClassName);
+    if (recording) {
+      if (dirty) {
+        currentShadow = shadowClassName;
+        startNanos = System.nanoTime();
+      } else {
+        record(shadowClassName, -1);
+      }
+    }
+    return dirty;
+  }
+
+  /**
+   * Called after the resetter of the shadow passed to the last {@link #begin(String, String)} returns.
+   */
+  public void end() {
+    if (recording && currentShadow != null) {
+      record(currentShadow, System.nanoTime() - startNanos);
+      currentShadow = null;
+    }
+  }
+
+  public static boolean isRecording() {
+    return recording;
+  }
+
+  /**
+   * Returns a report of the resets recorded so far, one line per shadow, most expensive first, and clears them.
+   */
+  public static synchronized String getReport() {
+    List<Map.Entry<String, Counter>> entries = new ArrayList<>(counters.entrySet());
+    Collections.sort(entries, new Comparator<Map.Entry<String, Counter>>() {
+      @Override
+      public int compare(Map.Entry<String, Counter> o1, Map.Entry<String, Counter> o2) {
+        return Long.compare(o2.getValue().totalNanos, o1.getValue().totalNanos);
+      }
+    });
+
+    StringBuilder report = new StringBuilder();
+    for (Map.Entry<String, Counter> entry : entries) {
+      Counter counter = entry.getValue();
+      report.append(String.format("%10.3fms %6d reset %6d skipped  %s%n",
+          counter.totalNanos / 1e6, counter.resets, counter.skips, entry.getKey()));
+    }
+    counters.clear();
+    return report.toString();
+  }
+
+  /**
+   * Writes the report of the resets recorded so far to <code>&lt;outputDir&gt;/&lt;name&gt;.resets.txt</code> and
+   * clears them.
+   */
+  public static synchronized void dump(String name) throws IOException {
+    if (outputDir == null) {
+      return;
+    }
+
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      throw new IOException("Couldn't create " + outputDir);
+    }
+
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(outputDir, name + ".resets.txt")), StandardCharsets.UTF_8)) {
+      writer.write(getReport());
+    }
+  }
+
+  private static synchronized void record(String shadowClassName, long nanos) {
+    Counter counter = counters.get(shadowClassName);
+    if (counter == null) {
+      counters.put(shadowClassName, counter = new Counter());
+    }
+    if (nanos < 0) {
+      counter.skips++;
+    } else {
+      counter.resets++;
+      counter.totalNanos += nanos;
+    }
+  }
+
+  private static class Counter {
+    long resets;
+    long skips;
+    long totalNanos;
+  }
+}
@@ -1,6 +1,9 @@
 package org.robolectric.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
@@ -8,14 +11,27 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Collection of helper methods for calling methods and accessing fields reflectively.
+ *
+ * Fields, methods and constructors are looked up and made accessible once for each class, so repeated calls only pay
+ * for the reflective access itself.
  */
 public class ReflectionHelpers {
+  private static final ClassValue<Members> MEMBERS = new ClassValue<Members>() {
+    @Override
+    protected Members computeValue(Class<?> type) {
+      return new Members(type);
+    }
+  };
+
   public static final Map<String, Object> PRIMITIVE_RETURN_VALUES =
       Collections.unmodifiableMap(new HashMap<String, Object>() {{
         put("boolean", Boolean.FALSE);
@@ -58,14 +74,7 @@ public class ReflectionHelpers {
   @SuppressWarnings("unchecked")
   public static <R> R getField(final Object object, final String fieldName) {
     try {
-      return traverseClassHierarchy(object.getClass(), NoSuchFieldException.class, new InsideTraversal<R>() {
-        @Override
-        public R run(Class<?> traversalClass) throws Exception {
-          Field field = traversalClass.getDeclaredField(fieldName);
-          field.setAccessible(true);
-          return (R) field.get(object);
-        }
-      });
+      return (R) MEMBERS.get(object.getClass()).field(fieldName).get(object);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -80,15 +89,7 @@ public class ReflectionHelpers {
    */
   public static void setField(final Object object, final String fieldName, final Object fieldNewValue) {
     try {
-      traverseClassHierarchy(object.getClass(), NoSuchFieldException.class, new InsideTraversal<Void>() {
-        @Override
-        public Void run(Class<?> traversalClass) throws Exception {
-          Field field = traversalClass.getDeclaredField(fieldName);
-          field.setAccessible(true);
-          field.set(object, fieldNewValue);
-          return null;
-        }
-      });
+      MEMBERS.get(object.getClass()).field(fieldName).set(object, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -104,9 +105,7 @@ public class ReflectionHelpers {
    */
   public static void setField(Class<?> type, final Object object, final String fieldName, final Object fieldNewValue) {
     try {
-      Field field = type.getDeclaredField(fieldName);
-      field.setAccessible(true);
-      field.set(object, fieldNewValue);
+      MEMBERS.get(type).declaredField(fieldName).set(object, fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -139,7 +138,7 @@ public class ReflectionHelpers {
    */
   public static <R> R getStaticField(Class<?> clazz, String fieldName) {
     try {
-      return getStaticField(clazz.getDeclaredField(fieldName));
+      return getStaticField(MEMBERS.get(clazz).declaredField(fieldName));
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -169,7 +168,7 @@ public class ReflectionHelpers {
    */
   public static void setStaticField(Class<?> clazz, String fieldName, Object fieldNewValue) {
     try {
-      setStaticField(clazz.getDeclaredField(fieldName), fieldNewValue);
+      setStaticField(MEMBERS.get(clazz).declaredField(fieldName), fieldNewValue);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -189,15 +188,7 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      return traverseClassHierarchy(instance.getClass(), NoSuchMethodException.class, new InsideTraversal<R>() {
-        @Override
-        @SuppressWarnings("unchecked")
-        public R run(Class<?> traversalClass) throws Exception {
-          Method declaredMethod = traversalClass.getDeclaredMethod(methodName, classes);
-          declaredMethod.setAccessible(true);
-          return (R) declaredMethod.invoke(instance, values);
-        }
-      });
+      return (R) MEMBERS.get(instance.getClass()).method(methodName, classes).invoke(instance, values);
     } catch (InvocationTargetException e) {
       if (e.getTargetException() instanceof RuntimeException) {
         throw (RuntimeException) e.getTargetException();
@@ -226,9 +217,7 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      Method declaredMethod = cl.getDeclaredMethod(methodName, classes);
-      declaredMethod.setAccessible(true);
-      return (R) declaredMethod.invoke(instance, values);
+      return (R) MEMBERS.get(cl).declaredMethod(methodName, classes).invoke(instance, values);
     } catch (InvocationTargetException e) {
       if (e.getTargetException() instanceof RuntimeException) {
         throw (RuntimeException) e.getTargetException();
@@ -257,9 +246,7 @@ public class ReflectionHelpers {
       Class<?>[] classes = ClassParameter.getClasses(classParameters);
       Object[] values = ClassParameter.getValues(classParameters);
 
-      Method method = clazz.getDeclaredMethod(methodName, classes);
-      method.setAccessible(true);
-      return (R) method.invoke(null, values);
+      return (R) MEMBERS.get(clazz).declaredMethod(methodName, classes).invoke(null, values);
     } catch (InvocationTargetException e) {
       if (e.getTargetException() instanceof RuntimeException) {
         throw (RuntimeException) e.getTargetException();
@@ -273,6 +260,48 @@ public class ReflectionHelpers {
     }
   }
 
+  /**
+   * Returns a method handle that reads a field, adapted to the given type. Used by the accessors that the annotation
+   * processor generates for {@code @RealFields}.
+   *
+   * If the field doesn't exist, e.g. because it was added in a later SDK, the handle throws a RuntimeException when
+   * it is invoked rather than failing here.
+   *
+   * @param type The class declaring the field, or a subclass of it.
+   * @param fieldName The field name.
+   * @param handleType {@code (owner)value} for instance fields, or {@code ()value} for static fields.
+   * @return The method handle.
+   */
+  public static MethodHandle fieldGetter(Class<?> type, String fieldName, MethodType handleType) {
+    try {
+      return MethodHandles.lookup().unreflectGetter(MEMBERS.get(type).field(fieldName)).asType(handleType);
+    } catch (Exception e) {
+      return throwingHandle(handleType, new RuntimeException("can't read " + type.getName() + "." + fieldName, e));
+    }
+  }
+
+  /**
+   * Returns a method handle that writes a non-final field, adapted to the given type. See
+   * {@link #fieldGetter(Class, String, MethodType)}.
+   *
+   * @param type The class declaring the field, or a subclass of it.
+   * @param fieldName The field name.
+   * @param handleType {@code (owner, value)void} for instance fields, or {@code (value)void} for static fields.
+   * @return The method handle.
+   */
+  public static MethodHandle fieldSetter(Class<?> type, String fieldName, MethodType handleType) {
+    try {
+      return MethodHandles.lookup().unreflectSetter(MEMBERS.get(type).field(fieldName)).asType(handleType);
+    } catch (Exception e) {
+      return throwingHandle(handleType, new RuntimeException("can't write " + type.getName() + "." + fieldName, e));
+    }
+  }
+
+  private static MethodHandle throwingHandle(MethodType handleType, RuntimeException exception) {
+    MethodHandle thrower = MethodHandles.throwException(handleType.returnType(), RuntimeException.class).bindTo(exception);
+    return MethodHandles.dropArguments(thrower, 0, handleType.parameterList());
+  }
+
   /**
    * Load a class.
    *
@@ -316,8 +345,7 @@ public class ReflectionHelpers {
       final Class<?>[] classes = ClassParameter.getClasses(classParameters);
       final Object[] values = ClassParameter.getValues(classParameters);
 
-      Constructor<? extends R> constructor = clazz.getDeclaredConstructor(classes);
-      constructor.setAccessible(true);
+      Constructor<? extends R> constructor = (Constructor<? extends R>) MEMBERS.get(clazz).constructor(classes);
       return constructor.newInstance(values);
     } catch (InstantiationException e) {
       throw new RuntimeException("error instantiating " + clazz.getName(), e);
@@ -353,6 +381,9 @@ public class ReflectionHelpers {
 
   private static void makeFieldVeryAccessible(Field field) throws NoSuchFieldException, IllegalAccessException {
     field.setAccessible(true);
+    if (!Modifier.isFinal(field.getModifiers())) {
+      return;
+    }
 
     Field modifiersField = Field.class.getDeclaredField("modifiers");
     modifiersField.setAccessible(true);
@@ -367,6 +398,114 @@ public class ReflectionHelpers {
     R run(Class<?> traversalClass) throws Exception;
   }
 
+  /**
+   * The accessible fields, methods and constructors of a class that have been looked up so far.
+   */
+  private static class Members {
+    private final Class<?> type;
+    private final ConcurrentMap<String, Field> fields = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Field> declaredFields = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MethodKey, Method> methods = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MethodKey, Method> declaredMethods = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MethodKey, Constructor<?>> constructors = new ConcurrentHashMap<>();
+
+    Members(Class<?> type) {
+      this.type = type;
+    }
+
+    /**
+     * Finds a field declared by this class or the nearest superclass declaring it.
+     */
+    Field field(final String name) throws Exception {
+      Field field = fields.get(name);
+      if (field == null) {
+        field = traverseClassHierarchy(type, NoSuchFieldException.class, new InsideTraversal<Field>() {
+          @Override
+          public Field run(Class<?> traversalClass) throws Exception {
+            return MEMBERS.get(traversalClass).declaredField(name);
+          }
+        });
+        fields.put(name, field);
+      }
+      return field;
+    }
+
+    Field declaredField(String name) throws NoSuchFieldException {
+      Field field = declaredFields.get(name);
+      if (field == null) {
+        field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        declaredFields.put(name, field);
+      }
+      return field;
+    }
+
+    /**
+     * Finds a method declared by this class or the nearest superclass declaring it.
+     */
+    Method method(final String name, final Class<?>[] parameterTypes) throws Exception {
+      MethodKey key = new MethodKey(name, parameterTypes);
+      Method method = methods.get(key);
+      if (method == null) {
+        method = traverseClassHierarchy(type, NoSuchMethodException.class, new InsideTraversal<Method>() {
+          @Override
+          public Method run(Class<?> traversalClass) throws Exception {
+            return MEMBERS.get(traversalClass).declaredMethod(name, parameterTypes);
+          }
+        });
+        methods.put(key, method);
+      }
+      return method;
+    }
+
+    Method declaredMethod(String name, Class<?>[] parameterTypes) throws NoSuchMethodException {
+      MethodKey key = new MethodKey(name, parameterTypes);
+      Method method = declaredMethods.get(key);
+      if (method == null) {
+        method = type.getDeclaredMethod(name, parameterTypes);
+        method.setAccessible(true);
+        declaredMethods.put(key, method);
+      }
+      return method;
+    }
+
+    Constructor<?> constructor(Class<?>[] parameterTypes) throws NoSuchMethodException {
+      MethodKey key = new MethodKey("<init>", parameterTypes);
+      Constructor<?> constructor = constructors.get(key);
+      if (constructor == null) {
+        constructor = type.getDeclaredConstructor(parameterTypes);
+        constructor.setAccessible(true);
+        constructors.put(key, constructor);
+      }
+      return constructor;
+    }
+  }
+
+  private static class MethodKey {
+    private final String name;
+    private final Class<?>[] parameterTypes;
+    private final int hashCode;
+
+    MethodKey(String name, Class<?>[] parameterTypes) {
+      this.name = name;
+      this.parameterTypes = parameterTypes;
+      this.hashCode = 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof MethodKey)) return false;
+      MethodKey that = (MethodKey) o;
+      return name.equals(that.name) && Arrays.equals(parameterTypes, that.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
   /**
    * Typed parameter used with reflective method calls.
    *
@@ -3,8 +3,10 @@ package org.robolectric.util;
 import org.junit.Test;
 import org.robolectric.util.ReflectionHelpers.ClassParameter;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 
+import static java.lang.invoke.MethodType.methodType;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
@@ -25,6 +27,20 @@ public class ReflectionHelpersTest {
     assertThat(ReflectionHelpers.getField(example, "notOverridden")).isEqualTo(6);
   }
 
+  @Test
+  public void getFieldReflectively_resolvesFieldsForEachClassSeparately() {
+    ExampleDescendant descendant = new ExampleDescendant();
+    descendant.overridden = 1;
+    ((ExampleBase) descendant).overridden = 2;
+    ExampleBase base = new ExampleBase();
+    base.overridden = 3;
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(ReflectionHelpers.getField(descendant, "overridden")).isEqualTo(1);
+      assertThat(ReflectionHelpers.getField(base, "overridden")).isEqualTo(3);
+    }
+  }
+
   @Test
   public void getFieldReflectively_givesHelpfulExceptions() {
     ExampleDescendant example = new ExampleDescendant();
@@ -38,6 +54,27 @@ public class ReflectionHelpersTest {
     }
   }
 
+  @Test
+  public void fieldGetterAndSetter_accessInheritedFieldsWithTheGivenType() throws Throwable {
+    ExampleDescendant example = new ExampleDescendant();
+    MethodHandle getter = ReflectionHelpers.fieldGetter(ExampleDescendant.class, "notOverridden", methodType(long.class, ExampleDescendant.class));
+    MethodHandle setter = ReflectionHelpers.fieldSetter(ExampleDescendant.class, "notOverridden", methodType(void.class, ExampleDescendant.class, int.class));
+
+    setter.invokeExact(example, 12);
+    assertThat((long) getter.invokeExact(example)).isEqualTo(12L);
+  }
+
+  @Test
+  public void fieldGetter_throwsWhenInvokedForMissingFields() throws Throwable {
+    MethodHandle getter = ReflectionHelpers.fieldGetter(ExampleDescendant.class, "nonExistant", methodType(int.class, ExampleDescendant.class));
+    try {
+      int value = (int) getter.invokeExact(new ExampleDescendant());
+      failBecauseExceptionWasNotThrown(RuntimeException.class);
+    } catch (RuntimeException e) {
+      assertThat(e.getMessage()).contains("nonExistant");
+    }
+  }
+
   @Test
   public void setFieldReflectively_setsPrivateFields() {
     ExampleDescendant example = new ExampleDescendant();